@@ -0,0 +1,83 @@
+package org.mockserver.client;
+
+import com.google.common.base.Strings;
+import org.mockserver.model.HttpRequest;
+import org.mockserver.model.HttpResponse;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import static org.mockserver.mock.HttpStateHandler.NEXT_CURSOR_HEADER;
+
+/**
+ * Iterates over records retrieved one page at a time, the next page is only retrieved once every record in the
+ * current page has been returned, and retrieval stops after the first page that is not full.
+ *
+ * Each page is retrieved using the cursor returned with the previous page, so records added, evicted or cleared
+ * between pages are never repeated or skipped.
+ *
+ * @author jamesdbloom
+ */
+public abstract class PagingIterator<T> implements Iterator<T> {
+
+    private final int pageSize;
+    private T[] page;
+    private int index;
+    private String cursor;
+    private boolean lastPage;
+
+    protected PagingIterator(int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be greater than zero");
+        }
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param limit  the maximum number of records to return
+     * @return the response containing the page of records
+     */
+    protected abstract HttpResponse retrievePage(String cursor, int limit);
+
+    /**
+     * @return the records in the response body, or an empty array if the body is empty
+     */
+    protected abstract T[] deserializePage(String body);
+
+    /**
+     * Adds the cursor, unless this is the first page, and the limit to a retrieve request
+     */
+    protected HttpRequest withPage(HttpRequest retrieveRequest, String cursor, int limit) {
+        if (cursor != null) {
+            retrieveRequest.withQueryStringParameter("cursor", cursor);
+        }
+        return retrieveRequest.withQueryStringParameter("limit", "" + limit);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if ((page == null || index >= page.length) && !lastPage) {
+            HttpResponse httpResponse = retrievePage(cursor, pageSize);
+            page = deserializePage(httpResponse.getBodyAsString());
+            index = 0;
+            cursor = httpResponse.getFirstHeader(NEXT_CURSOR_HEADER);
+            // without a cursor the next page can't be retrieved
+            lastPage = page.length < pageSize || Strings.isNullOrEmpty(cursor);
+        }
+        return index < page.length;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return page[index++];
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+}
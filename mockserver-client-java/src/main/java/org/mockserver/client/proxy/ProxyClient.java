@@ -1,6 +1,8 @@
 package org.mockserver.client.proxy;
 
+import com.google.common.base.Strings;
 import org.mockserver.client.AbstractClient;
+import org.mockserver.client.PagingIterator;
 import org.mockserver.client.netty.SocketConnectionException;
 import org.mockserver.mock.Expectation;
 import org.mockserver.model.HttpRequest;
@@ -12,6 +14,7 @@ import org.mockserver.verify.VerificationTimes;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.Iterator;
 import java.util.concurrent.TimeUnit;
 
 import static org.mockserver.model.HttpRequest.request;
@@ -161,6 +164,21 @@ public class ProxyClient extends AbstractClient  implements Closeable {
         return this;
     }
 
+    /**
+     * Register a request that will be verified so requests that match it are counted as they are received, which
+     * means verifying it doesn't match every recorded request, the count starts from the requests already recorded
+     * and registrations are removed by reset
+     *
+     * @param httpRequest the http request that will be passed to verify(HttpRequest, VerificationTimes)
+     */
+    public ProxyClient registerVerification(HttpRequest httpRequest) {
+        if (httpRequest == null) {
+            throw new IllegalArgumentException("registerVerification(HttpRequest) requires a non null HttpRequest object");
+        }
+        sendRequest(request().withMethod("PUT").withPath(calculatePath("registerVerification")).withBody(httpRequestSerializer.serialize(httpRequest)));
+        return this;
+    }
+
     /**
      * Verify a list of requests have been sent in the order specified for example:
      *
@@ -240,6 +258,32 @@ public class ProxyClient extends AbstractClient  implements Closeable {
         return expectationSerializer.deserializeArray(httpResponse.getBodyAsString());
     }
 
+    /**
+     * Retrieve the recorded requests that match the httpRequest parameter as expectations one page at a time, so a
+     * large request log is never transferred in a single response, use null for the parameter to retrieve all requests
+     *
+     * @param httpRequest the http request that is matched against when deciding whether to return each expectation, use null for the parameter to retrieve for all requests
+     * @param pageSize the maximum number of expectations retrieved in each response
+     * @return an iterator over all expectations that have been recorded by the proxy, each page is retrieved as the iterator reaches it
+     */
+    public Iterator<Expectation> retrieveAsExpectations(final HttpRequest httpRequest, int pageSize) {
+        return new PagingIterator<Expectation>(pageSize) {
+            @Override
+            protected HttpResponse retrievePage(String cursor, int limit) {
+                return sendRequest(withPage(request().withMethod("PUT").withPath(calculatePath("retrieve")), cursor, limit).withBody(httpRequest != null ? httpRequestSerializer.serialize(httpRequest) : ""));
+            }
+
+            @Override
+            protected Expectation[] deserializePage(String body) {
+                if (!Strings.isNullOrEmpty(body)) {
+                    return expectationSerializer.deserializeArray(body);
+                } else {
+                    return new Expectation[0];
+                }
+            }
+        };
+    }
+
     /**
      * Retrieve the recorded requests that match the httpRequest parameter as a JSON array, use null for the parameter to retrieve all requests
      *
@@ -3,6 +3,7 @@ package org.mockserver.client.server;
 import com.google.common.base.Charsets;
 import joptsimple.internal.Strings;
 import org.mockserver.client.AbstractClient;
+import org.mockserver.client.PagingIterator;
 import org.mockserver.client.netty.SocketConnectionException;
 import org.mockserver.matchers.TimeToLive;
 import org.mockserver.matchers.Times;
@@ -16,6 +17,7 @@ import org.mockserver.verify.VerificationTimes;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.Iterator;
 import java.util.concurrent.TimeUnit;
 
 import static org.mockserver.character.Character.NEW_LINE;
@@ -254,6 +256,21 @@ public class MockServerClient extends AbstractClient implements Closeable {
         BOTH;
     }
 
+    /**
+     * Register a request that will be verified so requests that match it are counted as they are received, which
+     * means verifying it doesn't match every recorded request, the count starts from the requests already recorded
+     * and registrations are removed by reset
+     *
+     * @param httpRequest the http request that will be passed to verify(HttpRequest, VerificationTimes)
+     */
+    public MockServerClient registerVerification(HttpRequest httpRequest) {
+        if (httpRequest == null) {
+            throw new IllegalArgumentException("registerVerification(HttpRequest) requires a non null HttpRequest object");
+        }
+        sendRequest(request().withMethod("PUT").withPath(calculatePath("registerVerification")).withBody(httpRequestSerializer.serialize(httpRequest), Charsets.UTF_8));
+        return this;
+    }
+
     /**
      * Verify a list of requests have been sent in the order specified for example:
      *
@@ -322,6 +339,81 @@ public class MockServerClient extends AbstractClient implements Closeable {
         return this;
     }
 
+    /**
+     * Verify a list of requests are sent in the order specified, waiting until they have been received or the timeout
+     * expires, for example:
+     *
+     *   mockServerClient
+     *           .verify(
+     *                   10, TimeUnit.SECONDS,
+     *                   request()
+     *                           .withPath("/first_request"),
+     *                   request()
+     *                           .withPath("/second_request")
+     *           );
+     *
+     * The MockServer answers as soon as the verification passes, so this does not need to poll or sleep
+     *
+     * @param timeout the maximum time to wait for the verification to pass, the MockServer limits this to
+     *                ConfigurationProperties.maxVerificationTimeout(), by default 115 seconds, which is kept below the
+     *                maxSocketTimeout (the read timeout of this client) so the result arrives before the client gives up
+     * @param timeUnit the unit of the timeout
+     * @param httpRequests the http requests that must be matched for this verification to pass
+     * @throws AssertionError if the requests have not been found before the timeout expires
+     */
+    public MockServerClient verify(long timeout, TimeUnit timeUnit, HttpRequest... httpRequests) throws AssertionError {
+        if (httpRequests == null || httpRequests.length == 0 || httpRequests[0] == null) {
+            throw new IllegalArgumentException("verify(long, TimeUnit, HttpRequest...) requires a non null non empty array of HttpRequest objects");
+        }
+
+        VerificationSequence verificationSequence = new VerificationSequence().withRequests(httpRequests);
+        String result = sendRequest(request().withMethod("PUT").withPath(calculatePath("verifySequence")).withQueryStringParameter("timeout", "" + timeUnit.toMillis(timeout)).withBody(verificationSequenceSerializer.serialize(verificationSequence), Charsets.UTF_8)).getBodyAsString();
+
+        if (result != null && !result.isEmpty()) {
+            throw new AssertionError(result);
+        }
+        return this;
+    }
+
+    /**
+     * Verify a request is sent a number of times, waiting until it has been received that number of times or the
+     * timeout expires, for example:
+     *
+     *   mockServerClient
+     *           .verify(
+     *                   request()
+     *                           .withPath("/some_path"),
+     *                   VerificationTimes.atLeast(2),
+     *                   10, TimeUnit.SECONDS
+     *           );
+     *
+     * The MockServer answers as soon as the verification passes, so this does not need to poll or sleep
+     *
+     * @param httpRequest the http request that must be matched for this verification to pass
+     * @param times the number of times this request must be matched
+     * @param timeout the maximum time to wait for the verification to pass, the MockServer limits this to
+     *                ConfigurationProperties.maxVerificationTimeout(), by default 115 seconds, which is kept below the
+     *                maxSocketTimeout (the read timeout of this client) so the result arrives before the client gives up
+     * @param timeUnit the unit of the timeout
+     * @throws AssertionError if the request has not been found before the timeout expires
+     */
+    public MockServerClient verify(HttpRequest httpRequest, VerificationTimes times, long timeout, TimeUnit timeUnit) throws AssertionError {
+        if (httpRequest == null) {
+            throw new IllegalArgumentException("verify(HttpRequest, VerificationTimes, long, TimeUnit) requires a non null HttpRequest object");
+        }
+        if (times == null) {
+            throw new IllegalArgumentException("verify(HttpRequest, VerificationTimes, long, TimeUnit) requires a non null VerificationTimes object");
+        }
+
+        Verification verification = verification().withRequest(httpRequest).withTimes(times);
+        String result = sendRequest(request().withMethod("PUT").withPath(calculatePath("verify")).withQueryStringParameter("timeout", "" + timeUnit.toMillis(timeout)).withBody(verificationSerializer.serialize(verification), Charsets.UTF_8)).getBodyAsString();
+
+        if (result != null && !result.isEmpty()) {
+            throw new AssertionError(result);
+        }
+        return this;
+    }
+
     /**
      * Verify no requests have been have been sent.
      *
@@ -352,6 +444,32 @@ public class MockServerClient extends AbstractClient implements Closeable {
         }
     }
 
+    /**
+     * Retrieve the recorded requests that match the httpRequest parameter one page at a time, so a large request log
+     * is never transferred in a single response, use null for the parameter to retrieve all requests
+     *
+     * @param httpRequest the http request that is matched against when deciding whether to return each request, use null for the parameter to retrieve for all requests
+     * @param pageSize the maximum number of requests retrieved in each response
+     * @return an iterator over all requests that have been recorded by the MockServer in the order they have been received, each page is retrieved as the iterator reaches it
+     */
+    public Iterator<HttpRequest> retrieveRecordedRequests(final HttpRequest httpRequest, int pageSize) {
+        return new PagingIterator<HttpRequest>(pageSize) {
+            @Override
+            protected HttpResponse retrievePage(String cursor, int limit) {
+                return sendRequest(withPage(request().withMethod("PUT").withPath(calculatePath("retrieve")), cursor, limit).withBody(httpRequest != null ? httpRequestSerializer.serialize(httpRequest) : "", Charsets.UTF_8));
+            }
+
+            @Override
+            protected HttpRequest[] deserializePage(String body) {
+                if (!Strings.isNullOrEmpty(body)) {
+                    return httpRequestSerializer.deserializeArray(body);
+                } else {
+                    return new HttpRequest[0];
+                }
+            }
+        };
+    }
+
     /**
      * Retrieve the already setup expectations match the httpRequest parameter, use null for the parameter to retrieve all expectations
      *
@@ -366,4 +484,29 @@ public class MockServerClient extends AbstractClient implements Closeable {
             return new Expectation[0];
         }
     }
+
+    /**
+     * Retrieve the already setup expectations that match the httpRequest parameter one page at a time, use null for the parameter to retrieve all expectations
+     *
+     * @param httpRequest the http request that is matched against when deciding whether to return each expectation, use null for the parameter to retrieve for all requests
+     * @param pageSize the maximum number of expectations retrieved in each response
+     * @return an iterator over all expectations that have been setup, each page is retrieved as the iterator reaches it
+     */
+    public Iterator<Expectation> retrieveExistingExpectations(final HttpRequest httpRequest, int pageSize) {
+        return new PagingIterator<Expectation>(pageSize) {
+            @Override
+            protected HttpResponse retrievePage(String cursor, int limit) {
+                return sendRequest(withPage(request().withMethod("PUT").withPath(calculatePath("retrieve")).withQueryStringParameter("type", "expectation"), cursor, limit).withBody(httpRequest != null ? httpRequestSerializer.serialize(httpRequest) : "", Charsets.UTF_8));
+            }
+
+            @Override
+            protected Expectation[] deserializePage(String body) {
+                if (!Strings.isNullOrEmpty(body)) {
+                    return expectationSerializer.deserializeArray(body);
+                } else {
+                    return new Expectation[0];
+                }
+            }
+        };
+    }
 }
@@ -1,6 +1,7 @@
 package org.mockserver.client.server;
 
 import com.google.common.base.Charsets;
+import com.google.common.collect.Lists;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -24,6 +25,8 @@ import org.mockserver.verify.VerificationSequence;
 import org.mockserver.verify.VerificationTimes;
 
 import java.io.UnsupportedEncodingException;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.concurrent.TimeUnit;
 
 import static com.google.common.base.Charsets.UTF_8;
@@ -35,6 +38,7 @@ import static org.junit.Assert.*;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.*;
 import static org.mockito.MockitoAnnotations.initMocks;
+import static org.mockserver.mock.HttpStateHandler.NEXT_CURSOR_HEADER;
 import static org.mockserver.model.HttpRequest.request;
 import static org.mockserver.model.HttpResponse.response;
 import static org.mockserver.verify.Verification.verification;
@@ -586,6 +590,38 @@ public class MockServerClientTest {
         verify(mockHttpRequestSerializer).deserializeArray("body");
     }
 
+    @Test
+    public void shouldRetrieveRequestsOnePageAtATime() throws UnsupportedEncodingException {
+        // given
+        when(mockHttpClient.sendRequest(any(HttpRequest.class))).thenReturn(response().withBody("first_page").withHeader(NEXT_CURSOR_HEADER, "7"), response().withBody("second_page").withHeader(NEXT_CURSOR_HEADER, "9"));
+        when(mockHttpRequestSerializer.deserializeArray("first_page")).thenReturn(new HttpRequest[]{request("/one"), request("/two")});
+        when(mockHttpRequestSerializer.deserializeArray("second_page")).thenReturn(new HttpRequest[]{request("/three")});
+
+        // when
+        Iterator<HttpRequest> httpRequests = mockServerClient.retrieveRecordedRequests(null, 2);
+
+        // then
+        assertEquals(Arrays.asList(request("/one"), request("/two"), request("/three")), Lists.newArrayList(httpRequests));
+        verify(mockHttpClient).sendRequest(request().withHeader(HOST.toString(), "localhost:" + 1080).withMethod("PUT").withPath("/retrieve").withQueryStringParameter("limit", "2").withBody("", Charsets.UTF_8));
+        verify(mockHttpClient).sendRequest(request().withHeader(HOST.toString(), "localhost:" + 1080).withMethod("PUT").withPath("/retrieve").withQueryStringParameter("cursor", "7").withQueryStringParameter("limit", "2").withBody("", Charsets.UTF_8));
+        verifyNoMoreInteractions(mockHttpClient);
+    }
+
+    @Test
+    public void shouldStopRetrievingPagesWithoutCursor() throws UnsupportedEncodingException {
+        // given
+        when(mockHttpClient.sendRequest(any(HttpRequest.class))).thenReturn(response().withBody("first_page"));
+        when(mockHttpRequestSerializer.deserializeArray("first_page")).thenReturn(new HttpRequest[]{request("/one"), request("/two")});
+
+        // when
+        Iterator<HttpRequest> httpRequests = mockServerClient.retrieveRecordedRequests(null, 2);
+
+        // then
+        assertEquals(Arrays.asList(request("/one"), request("/two")), Lists.newArrayList(httpRequests));
+        verify(mockHttpClient).sendRequest(request().withHeader(HOST.toString(), "localhost:" + 1080).withMethod("PUT").withPath("/retrieve").withQueryStringParameter("limit", "2").withBody("", Charsets.UTF_8));
+        verifyNoMoreInteractions(mockHttpClient);
+    }
+
     @Test
     public void shouldRetrieveSetupExpectations() throws UnsupportedEncodingException {
         // given - a request
@@ -717,6 +753,22 @@ public class MockServerClientTest {
         verify(mockHttpClient).sendRequest(request().withHeader(HOST.toString(), "localhost:" + 1080).withMethod("PUT").withPath("/verify").withBody("verification_json", Charsets.UTF_8));
     }
 
+    @Test
+    public void shouldVerifyWithTimeout() throws UnsupportedEncodingException {
+        // given
+        when(mockHttpClient.sendRequest(any(HttpRequest.class))).thenReturn(response().withBody(""));
+        when(mockVerificationSerializer.serialize(any(Verification.class))).thenReturn("verification_json");
+        HttpRequest httpRequest = new HttpRequest()
+                .withPath("/some_path");
+
+        // when
+        mockServerClient.verify(httpRequest, atLeast(2), 10, TimeUnit.SECONDS);
+
+        // then
+        verify(mockVerificationSerializer).serialize(verification().withRequest(httpRequest).withTimes(atLeast(2)));
+        verify(mockHttpClient).sendRequest(request().withHeader(HOST.toString(), "localhost:" + 1080).withMethod("PUT").withPath("/verify").withQueryStringParameter("timeout", "10000").withBody("verification_json", Charsets.UTF_8));
+    }
+
     @Test
     public void shouldVerifyDoesNotMatchSingleRequest() throws UnsupportedEncodingException {
         // given
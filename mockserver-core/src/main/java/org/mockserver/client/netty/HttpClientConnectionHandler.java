@@ -4,63 +4,85 @@ import com.google.common.util.concurrent.SettableFuture;
 import io.netty.channel.ChannelDuplexHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPromise;
+import io.netty.handler.timeout.IdleStateEvent;
+import io.netty.util.AttributeKey;
 import org.mockserver.model.HttpResponse;
 
+import static org.mockserver.client.netty.HttpClientHandler.takeResponseFuture;
+
 public class HttpClientConnectionHandler extends ChannelDuplexHandler {
 
-    private final SettableFuture<HttpResponse> responseFuture;
+    /**
+     * Set once any bytes of a response have been received for the request currently in flight, a request that
+     * fails after this can't be retried because the remote end has started to process it
+     */
+    static final AttributeKey<Boolean> RESPONSE_RECEIVED = AttributeKey.valueOf("RESPONSE_RECEIVED");
 
-    public HttpClientConnectionHandler(SettableFuture<HttpResponse> responseFuture) {
-        this.responseFuture = responseFuture;
+    private void updatePromise(ChannelHandlerContext ctx, String action) {
+        SettableFuture<HttpResponse> responseFuture = takeResponseFuture(ctx.channel());
+        if (responseFuture != null && !responseFuture.isDone()) {
+            responseFuture.setException(new RuntimeException("Channel " + action + " before valid response has been received"));
+        }
     }
 
-    private void updatePromise(String action) {
-        if (!responseFuture.isDone()) {
-            responseFuture.setException(new RuntimeException("Channel " + action + " before valid response has been received"));
+    @Override
+    public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception {
+        if (evt instanceof IdleStateEvent && ctx.channel().attr(HttpClientHandler.RESPONSE_FUTURE).get() == null) {
+            // evict pooled connections that have not been used for the idle connection timeout
+            ctx.close();
+        } else {
+            super.userEventTriggered(ctx, evt);
         }
     }
 
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        ctx.channel().attr(RESPONSE_RECEIVED).set(Boolean.TRUE);
+        super.channelRead(ctx, msg);
+    }
+
     @Override
     public void channelInactive(ChannelHandlerContext ctx) throws Exception {
-        updatePromise("set as inactive");
+        updatePromise(ctx, "set as inactive");
         super.channelInactive(ctx);
     }
 
     @Override
     public void disconnect(ChannelHandlerContext ctx, ChannelPromise promise) throws Exception {
-        updatePromise("disconnected");
+        updatePromise(ctx, "disconnected");
         super.disconnect(ctx, promise);
     }
 
     @Override
     public void close(ChannelHandlerContext ctx, ChannelPromise promise) throws Exception {
-        updatePromise("closed");
+        updatePromise(ctx, "closed");
         super.close(ctx, promise);
     }
 
     @Override
     public void deregister(ChannelHandlerContext ctx, ChannelPromise promise) throws Exception {
-        updatePromise("deregistered");
+        updatePromise(ctx, "deregistered");
         super.deregister(ctx, promise);
     }
 
     @Override
     public void channelUnregistered(ChannelHandlerContext ctx) throws Exception {
-        updatePromise("unregistered");
+        updatePromise(ctx, "unregistered");
         super.channelUnregistered(ctx);
     }
 
     @Override
     public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
-        updatePromise("handler removed");
+        updatePromise(ctx, "handler removed");
         super.handlerRemoved(ctx);
     }
 
     @Override
     public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
-        if (!responseFuture.isDone()) {
+        SettableFuture<HttpResponse> responseFuture = takeResponseFuture(ctx.channel());
+        if (responseFuture != null && !responseFuture.isDone()) {
             responseFuture.setException(new RuntimeException("Exception caught before valid response has been received", cause));
         }
         super.exceptionCaught(ctx, cause);
     }
-}
\ No newline at end of file
+}
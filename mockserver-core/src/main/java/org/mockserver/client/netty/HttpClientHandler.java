@@ -1,30 +1,48 @@
 package org.mockserver.client.netty;
 
 import com.google.common.util.concurrent.SettableFuture;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.handler.codec.DecoderException;
 import io.netty.handler.ssl.NotSslRecordException;
+import io.netty.util.AttributeKey;
 import org.mockserver.model.HttpResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.net.ssl.SSLException;
 
 public class HttpClientHandler extends SimpleChannelInboundHandler<HttpResponse> {
 
-    private final SettableFuture<HttpResponse> responseFuture = SettableFuture.<HttpResponse>create();
+    /**
+     * The response future for the request currently in flight on a (pooled) channel
+     */
+    static final AttributeKey<SettableFuture<HttpResponse>> RESPONSE_FUTURE = AttributeKey.valueOf("RESPONSE_FUTURE");
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
     public HttpClientHandler() {
         super(false);
     }
 
-    public SettableFuture<HttpResponse> getResponseFuture() {
-        return responseFuture;
+    /**
+     * Removes the response future from the channel so it is only ever completed once
+     */
+    static SettableFuture<HttpResponse> takeResponseFuture(Channel channel) {
+        return channel.attr(RESPONSE_FUTURE).getAndSet(null);
     }
 
     @Override
     public void channelRead0(ChannelHandlerContext ctx, HttpResponse response) {
-        responseFuture.set(response);
-        ctx.close();
+        SettableFuture<HttpResponse> responseFuture = takeResponseFuture(ctx.channel());
+        if (responseFuture != null) {
+            responseFuture.set(response);
+        } else {
+            // a response that doesn't belong to a request means the connection is out of step so it can't be reused
+            logger.debug("Received unexpected response on " + ctx.channel() + " closing connection");
+            ctx.close();
+        }
     }
 
     @Override
@@ -32,11 +50,14 @@ public class HttpClientHandler extends SimpleChannelInboundHandler<HttpResponse>
         if (isNotSslException(cause)) {
             cause.printStackTrace();
         }
-        responseFuture.setException(cause);
+        SettableFuture<HttpResponse> responseFuture = takeResponseFuture(ctx.channel());
+        if (responseFuture != null) {
+            responseFuture.setException(cause);
+        }
         ctx.close();
     }
 
     private boolean isNotSslException(Throwable cause) {
         return !(cause.getCause() instanceof SSLException || cause instanceof DecoderException | cause instanceof NotSslRecordException);
     }
-}
\ No newline at end of file
+}
@@ -1,44 +1,51 @@
 package org.mockserver.client.netty;
 
-import com.google.common.util.concurrent.SettableFuture;
-import io.netty.channel.ChannelInitializer;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelPipeline;
-import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.pool.AbstractChannelPoolHandler;
 import io.netty.handler.codec.http.HttpClientCodec;
 import io.netty.handler.codec.http.HttpContentDecompressor;
 import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.timeout.IdleStateHandler;
 import org.mockserver.client.netty.codec.MockServerClientCodec;
+import org.mockserver.configuration.ConfigurationProperties;
 import org.mockserver.logging.LoggingHandler;
-import org.mockserver.model.HttpResponse;
-import org.mockserver.socket.NettySslContextFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.net.ssl.SSLException;
-import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
 
 import static org.mockserver.socket.NettySslContextFactory.nettySslContextFactory;
 
-public class HttpClientInitializer extends ChannelInitializer<SocketChannel> {
+/**
+ * Builds the pipeline for each new connection in a NettyHttpClient connection pool,
+ * every connection in a pool is to the same host name and port so TLS connections are
+ * always negotiated with the host name (SNI) of the host being sent to
+ */
+public class HttpClientInitializer extends AbstractChannelPoolHandler {
 
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
     private final boolean secure;
-    private final InetSocketAddress remoteAddress;
-    private HttpClientHandler httpClientHandler = new HttpClientHandler();
+    private final String host;
+    private final int port;
 
-    public HttpClientInitializer(boolean secure, InetSocketAddress remoteAddress) {
+    public HttpClientInitializer(boolean secure, String host, int port) {
         this.secure = secure;
-        this.remoteAddress = remoteAddress;
+        this.host = host;
+        this.port = port;
     }
 
     @Override
-    public void initChannel(SocketChannel channel) throws SSLException {
+    public void channelCreated(Channel channel) throws SSLException {
         ChannelPipeline pipeline = channel.pipeline();
 
-        pipeline.addLast(new HttpClientConnectionHandler(httpClientHandler.getResponseFuture()));
+        pipeline.addLast(new IdleStateHandler(0, 0, ConfigurationProperties.clientIdleConnectionTimeout(), TimeUnit.MILLISECONDS));
+
+        pipeline.addLast(new HttpClientConnectionHandler());
 
         if (secure) {
-            pipeline.addLast(nettySslContextFactory().createClientSslContext().newHandler(channel.alloc(), remoteAddress.getHostName(), remoteAddress.getPort()));
+            pipeline.addLast(nettySslContextFactory().createClientSslContext().newHandler(channel.alloc(), host, port));
         }
 
         // add logging
@@ -54,10 +61,6 @@ public class HttpClientInitializer extends ChannelInitializer<SocketChannel> {
 
         pipeline.addLast(new MockServerClientCodec());
 
-        pipeline.addLast(httpClientHandler);
-    }
-
-    public SettableFuture<HttpResponse> getResponseFuture() {
-        return httpClientHandler.getResponseFuture();
+        pipeline.addLast(new HttpClientHandler());
     }
-}
\ No newline at end of file
+}
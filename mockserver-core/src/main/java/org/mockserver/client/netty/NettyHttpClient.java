@@ -1,15 +1,26 @@
 package org.mockserver.client.netty;
 
 import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
 import io.netty.bootstrap.Bootstrap;
 import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.*;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.channel.pool.ChannelHealthChecker;
+import io.netty.channel.pool.FixedChannelPool;
 import io.netty.handler.ssl.NotSslRecordException;
+import io.netty.util.AttributeKey;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.FutureListener;
+import io.netty.util.concurrent.ScheduledFuture;
 import org.mockserver.configuration.ConfigurationProperties;
 import org.mockserver.model.HttpRequest;
 import org.mockserver.model.HttpResponse;
+import org.mockserver.socket.NettyTransport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -18,15 +29,45 @@ import java.io.IOException;
 import java.net.ConnectException;
 import java.net.InetSocketAddress;
 import java.net.UnknownHostException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static io.netty.handler.codec.http.HttpHeaderNames.CONNECTION;
 import static io.netty.handler.codec.http.HttpHeaderNames.HOST;
+import static io.netty.handler.codec.http.HttpHeaderValues.CLOSE;
 import static org.mockserver.character.Character.NEW_LINE;
+import static org.mockserver.client.netty.HttpClientConnectionHandler.RESPONSE_RECEIVED;
+import static org.mockserver.client.netty.HttpClientHandler.RESPONSE_FUTURE;
+import static org.mockserver.client.netty.HttpClientHandler.takeResponseFuture;
 
+/**
+ * Sends requests using a single event loop group, shared by all instances, and a pool of keep-alive
+ * connections per host name, port and scheme so connections are reused instead of opened for every request
+ *
+ * Pools are keyed by host name, not resolved address, so virtual hosts sharing an IP address never share TLS
+ * connections, and each new connection resolves the host name again. A pool that has not been used for the
+ * clientIdleConnectionTimeout is closed and removed, the maxSocketTimeout and clientMaxConnectionsPerHost are
+ * read when a pool is created so changes to them only apply to hosts without a pool, i.e. once idle pools have
+ * been evicted.
+ */
 public class NettyHttpClient {
 
+    private static final AttributeKey<Boolean> PREVIOUSLY_USED = AttributeKey.valueOf("PREVIOUSLY_USED");
+    private static final Set<String> SAFE_METHODS = ImmutableSet.of("GET", "HEAD", "OPTIONS", "TRACE");
+    private static final EventLoopGroup clientEventLoopGroup = NettyTransport.eventLoopGroup(0, new DefaultThreadFactory(NettyHttpClient.class.getSimpleName(), true));
+    private static final ConcurrentMap<ChannelPoolKey, PooledConnections> channelPools = new ConcurrentHashMap<>();
+
+    static {
+        scheduleIdlePoolEviction();
+    }
+
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
     public HttpResponse sendRequest(final HttpRequest httpRequest) throws SocketConnectionException {
@@ -37,7 +78,8 @@ public class NettyHttpClient {
         if (!Strings.isNullOrEmpty(httpRequest.getFirstHeader(HOST.toString()))) {
             boolean isSsl = httpRequest.isSecure() != null && httpRequest.isSecure();
             String[] hostHeaderParts = httpRequest.getFirstHeader(HOST.toString()).split(":");
-            return new InetSocketAddress(hostHeaderParts[0],
+            // left unresolved so the host name is resolved by the client event loop when connecting
+            return InetSocketAddress.createUnresolved(hostHeaderParts[0],
                     hostHeaderParts.length > 1 ?
                             Integer.parseInt(hostHeaderParts[1]) :
                             isSsl ?
@@ -50,68 +92,273 @@ public class NettyHttpClient {
     }
 
     public HttpResponse sendRequest(final HttpRequest httpRequest, @Nullable InetSocketAddress remoteAddress) throws SocketConnectionException {
+        try {
+            // wait for response
+            HttpResponse httpResponse = sendRequestAsync(httpRequest, remoteAddress).get(ConfigurationProperties.maxSocketTimeout(), TimeUnit.MILLISECONDS);
+            logger.debug("Received response: {}", httpResponse);
+
+            return httpResponse;
+
+        } catch (TimeoutException e) {
+            throw socketTimeoutException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SocketConnectionException || cause instanceof SocketCommunicationException) {
+                throw (RuntimeException) cause;
+            } else {
+                throw new RuntimeException("Exception while sending request - " + e.getMessage(), e);
+            }
+        } catch (InterruptedException e) {
+            throw new RuntimeException("Exception while sending request", e);
+        }
+    }
+
+    /**
+     * Sends the request without blocking the calling thread, the returned future completes on one of the
+     * client's event loop threads and fails with a SocketConnectionException or SocketCommunicationException
+     * if the remote address can't be reached or the response is not received within the maxSocketTimeout
+     */
+    public ListenableFuture<HttpResponse> sendRequestAsync(final HttpRequest httpRequest, @Nullable InetSocketAddress remoteAddress) {
         if (remoteAddress == null) {
             remoteAddress = socketAddressFromHostHeader(httpRequest);
         }
 
         logger.debug("Sending to: {} request: {}", remoteAddress, httpRequest);
 
-        EventLoopGroup group = new NioEventLoopGroup();
+        SettableFuture<HttpResponse> responseFuture = SettableFuture.create();
+        sendRequest(httpRequest, remoteAddress, responseFuture, true);
+        return responseFuture;
+    }
 
-        try {
-            final HttpClientInitializer channelInitializer = new HttpClientInitializer(httpRequest.isSecure() != null && httpRequest.isSecure(), remoteAddress);
+    private SocketCommunicationException socketTimeoutException(Throwable cause) {
+        return new SocketCommunicationException("Response was not received after " + ConfigurationProperties.maxSocketTimeout() + " milliseconds, to make the proxy wait longer please use \"mockserver.maxSocketTimeout\" system property or ConfigurationProperties.maxSocketTimeout(long milliseconds)", cause.getCause());
+    }
+
+    private Throwable mapException(Throwable cause, InetSocketAddress remoteAddress) {
+        if (cause instanceof TimeoutException) {
+            return socketTimeoutException(cause);
+        } else if (cause instanceof ConnectException) {
+            return new SocketConnectionException("Unable to connect to socket " + remoteAddress, cause);
+        } else if (cause instanceof UnknownHostException) {
+            return new SocketConnectionException("Unable to resolve host " + remoteAddress, cause);
+        } else if (cause instanceof IOException) {
+            return new SocketConnectionException(cause.getMessage(), cause);
+        } else {
+            return cause;
+        }
+    }
+
+    private void sendRequest(final HttpRequest httpRequest, final InetSocketAddress remoteAddress, final SettableFuture<HttpResponse> responseFuture, final boolean retryOnStaleConnection) {
+        final PooledConnections pooledConnections = retainPool(new ChannelPoolKey(remoteAddress.getHostString(), remoteAddress.getPort(), httpRequest.isSecure() != null && httpRequest.isSecure()));
+        final FixedChannelPool channelPool = pooledConnections.channelPool;
+        channelPool.acquire().addListener(new FutureListener<Channel>() {
+            @Override
+            public void operationComplete(Future<Channel> future) {
+                if (!future.isSuccess()) {
+                    pooledConnections.release();
+                    responseFuture.setException(mapException(future.cause(), remoteAddress));
+                    return;
+                }
+                final Channel channel = future.getNow();
+                final boolean previouslyUsed = channel.attr(PREVIOUSLY_USED).get() != null;
+                final SettableFuture<HttpResponse> channelResponseFuture = SettableFuture.create();
+                final AtomicBoolean requestWritten = new AtomicBoolean();
+                channel.attr(RESPONSE_RECEIVED).set(null);
+                channel.attr(RESPONSE_FUTURE).set(channelResponseFuture);
+
+                // fail the request, which closes the connection, if no response is received in time
+                final ScheduledFuture<?> timeout = channel.eventLoop().schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        SettableFuture<HttpResponse> pendingResponseFuture = takeResponseFuture(channel);
+                        if (pendingResponseFuture != null) {
+                            pendingResponseFuture.setException(new TimeoutException());
+                        }
+                    }
+                }, ConfigurationProperties.maxSocketTimeout(), TimeUnit.MILLISECONDS);
+
+                Futures.addCallback(channelResponseFuture, new FutureCallback<HttpResponse>() {
+                    @Override
+                    public void onSuccess(HttpResponse httpResponse) {
+                        timeout.cancel(false);
+                        if (keepAlive(httpRequest, httpResponse)) {
+                            channel.attr(PREVIOUSLY_USED).set(Boolean.TRUE);
+                        } else {
+                            channel.close();
+                        }
+                        channelPool.release(channel);
+                        pooledConnections.release();
+                        responseFuture.set(httpResponse);
+                    }
+
+                    @Override
+                    public void onFailure(Throwable throwable) {
+                        timeout.cancel(false);
+                        channel.close();
+                        channelPool.release(channel);
+                        pooledConnections.release();
+                        if (previouslyUsed && retryOnStaleConnection && !(throwable instanceof TimeoutException) && (!requestWritten.get() || (isSafe(httpRequest) && channel.attr(RESPONSE_RECEIVED).get() == null))) {
+                            // the remote end may have closed a pooled connection while it was idle so try once more, but
+                            // only if the request wasn't written or is safe to repeat and no response had been started
+                            logger.debug("Retrying request on new connection after pooled connection failed with: {}", throwable.getMessage());
+                            sendRequest(httpRequest, remoteAddress, responseFuture, false);
+                        } else if (throwable instanceof NotSslRecordException) {
+                            // the remote end doesn't support SSL so send the request again without it
+                            sendRequest(httpRequest.withSecure(false), remoteAddress, responseFuture, retryOnStaleConnection);
+                        } else {
+                            responseFuture.setException(mapException(throwable, remoteAddress));
+                        }
+                    }
+                });
+
+                // send the HTTP request
+                channel.writeAndFlush(httpRequest).addListener(new ChannelFutureListener() {
+                    @Override
+                    public void operationComplete(ChannelFuture future) {
+                        if (future.isSuccess()) {
+                            requestWritten.set(true);
+                        } else {
+                            SettableFuture<HttpResponse> pendingResponseFuture = takeResponseFuture(channel);
+                            if (pendingResponseFuture != null) {
+                                pendingResponseFuture.setException(future.cause());
+                            }
+                        }
+                    }
+                });
+            }
+        });
+    }
 
-            // make the connection attempt
-            new Bootstrap()
-                    .group(group)
-                    .channel(NioSocketChannel.class)
+    private boolean isSafe(HttpRequest httpRequest) {
+        return SAFE_METHODS.contains(httpRequest.getMethod("GET").toUpperCase());
+    }
+
+    private boolean keepAlive(HttpRequest httpRequest, HttpResponse httpResponse) {
+        return ConfigurationProperties.clientConnectionKeepAlive()
+                && !CLOSE.contentEqualsIgnoreCase(Strings.nullToEmpty(httpRequest.getFirstHeader(CONNECTION.toString())))
+                && !CLOSE.contentEqualsIgnoreCase(Strings.nullToEmpty(httpResponse.getFirstHeader(CONNECTION.toString())));
+    }
+
+    /**
+     * Returns the pool for the key, marked as in use so it can't be evicted until it is released
+     */
+    private static PooledConnections retainPool(ChannelPoolKey key) {
+        while (true) {
+            PooledConnections pooledConnections = channelPools.get(key);
+            if (pooledConnections == null) {
+                PooledConnections created = new PooledConnections(key);
+                pooledConnections = channelPools.putIfAbsent(key, created);
+                if (pooledConnections == null) {
+                    pooledConnections = created;
+                } else {
+                    created.channelPool.close();
+                }
+            }
+            if (pooledConnections.retain()) {
+                return pooledConnections;
+            }
+            // the pool was closed by idle eviction so make sure it's removed before creating a new one
+            channelPools.remove(key, pooledConnections);
+        }
+    }
+
+    private static void scheduleIdlePoolEviction() {
+        final long idleTimeout = ConfigurationProperties.clientIdleConnectionTimeout();
+        clientEventLoopGroup.schedule(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    for (Map.Entry<ChannelPoolKey, PooledConnections> entry : channelPools.entrySet()) {
+                        if (entry.getValue().closeIfIdle(idleTimeout)) {
+                            channelPools.remove(entry.getKey(), entry.getValue());
+                        }
+                    }
+                } finally {
+                    scheduleIdlePoolEviction();
+                }
+            }
+        }, Math.max(idleTimeout, 1000), TimeUnit.MILLISECONDS);
+    }
+
+    private static class PooledConnections {
+        private final FixedChannelPool channelPool;
+        // number of requests using the pool, or -1 once the pool has been closed
+        private final AtomicInteger inUse = new AtomicInteger();
+        private volatile long lastUsed = System.currentTimeMillis();
+
+        PooledConnections(ChannelPoolKey key) {
+            Bootstrap bootstrap = new Bootstrap()
+                    .group(clientEventLoopGroup)
+                    .channel(NettyTransport.socketChannelClass(clientEventLoopGroup))
                     .option(ChannelOption.AUTO_READ, true)
                     .option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
                     .option(ChannelOption.WRITE_BUFFER_WATER_MARK, new WriteBufferWaterMark(8 * 1024, 32 * 1024))
-                    .handler(channelInitializer)
-                    .connect(remoteAddress)
-                    .addListener(new ChannelFutureListener() {
-                        @Override
-                        public void operationComplete(ChannelFuture future) throws Exception {
-                            if (future.isSuccess()) {
-                                // send the HTTP request
-                                future.channel().writeAndFlush(httpRequest);
-                            } else {
-                                channelInitializer.getResponseFuture().setException(future.cause());
-                            }
-                        }
-                    });
+                    .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) Math.min(ConfigurationProperties.socketConnectionTimeout(), Integer.MAX_VALUE))
+                    .remoteAddress(InetSocketAddress.createUnresolved(key.host, key.port));
+            this.channelPool = new FixedChannelPool(
+                    bootstrap,
+                    new HttpClientInitializer(key.secure, key.host, key.port),
+                    ChannelHealthChecker.ACTIVE,
+                    FixedChannelPool.AcquireTimeoutAction.FAIL,
+                    ConfigurationProperties.maxSocketTimeout(),
+                    ConfigurationProperties.clientMaxConnectionsPerHost(),
+                    Integer.MAX_VALUE,
+                    true
+            );
+        }
 
-            // wait for response
-            HttpResponse httpResponse = channelInitializer.getResponseFuture().get(ConfigurationProperties.maxSocketTimeout(), TimeUnit.MILLISECONDS);
-            logger.debug("Received response: {}", httpResponse);
+        boolean retain() {
+            while (true) {
+                int current = inUse.get();
+                if (current < 0) {
+                    return false;
+                }
+                if (inUse.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
 
-            // shutdown client
-            group.shutdownGracefully(0, 1, TimeUnit.MILLISECONDS);
+        void release() {
+            lastUsed = System.currentTimeMillis();
+            inUse.decrementAndGet();
+        }
 
-            return httpResponse;
+        boolean closeIfIdle(long idleTimeout) {
+            if (inUse.get() == 0 && System.currentTimeMillis() - lastUsed >= idleTimeout && inUse.compareAndSet(0, -1)) {
+                channelPool.close();
+                return true;
+            }
+            return false;
+        }
+    }
 
-        } catch (TimeoutException e) {
-            throw new SocketCommunicationException("Response was not received after " + ConfigurationProperties.maxSocketTimeout() + " milliseconds, to make the proxy wait longer please use \"mockserver.maxSocketTimeout\" system property or ConfigurationProperties.maxSocketTimeout(long milliseconds)", e.getCause());
-        } catch (ExecutionException e) {
-            Throwable cause = e.getCause();
-            if (cause instanceof ConnectException) {
-                throw new SocketConnectionException("Unable to connect to socket " + remoteAddress, cause);
-            } else if (cause instanceof UnknownHostException) {
-                throw new SocketConnectionException("Unable to resolve host " + remoteAddress, cause);
-            } else if (cause instanceof NotSslRecordException) {
-                return sendRequest(httpRequest.withSecure(false));
-            } else if (cause instanceof IOException) {
-                throw new SocketConnectionException(cause.getMessage(), cause);
-            } else {
-                throw new RuntimeException("Exception while sending request - " + e.getMessage(), e);
+    private static class ChannelPoolKey {
+        private final String host;
+        private final int port;
+        private final boolean secure;
+
+        ChannelPoolKey(String host, int port, boolean secure) {
+            this.host = host;
+            this.port = port;
+            this.secure = secure;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
             }
-        } catch (InterruptedException e) {
-            throw new RuntimeException("Exception while sending request", e);
-        } finally {
-            // shut down executor threads to exit
-            group.shutdownGracefully(0, 1, TimeUnit.MILLISECONDS);
+            if (!(other instanceof ChannelPoolKey)) {
+                return false;
+            }
+            ChannelPoolKey that = (ChannelPoolKey) other;
+            return secure == that.secure && port == that.port && host.equalsIgnoreCase(that.host);
         }
 
+        @Override
+        public int hashCode() {
+            return 31 * (31 * host.toLowerCase().hashCode() + port) + (secure ? 1 : 0);
+        }
     }
 }
@@ -39,6 +39,10 @@ public class FullHttpResponseToMockServerResponse {
         for (String headerName : fullHttpResponse.headers().names()) {
             mappedHeaders.put(headerName, new Header(headerName, fullHttpResponse.headers().getAll(headerName)));
         }
+        // i.e. the next cursor when retrieving requests, which is only known once the whole body has been sent
+        for (String headerName : fullHttpResponse.trailingHeaders().names()) {
+            mappedHeaders.put(headerName, new Header(headerName, fullHttpResponse.trailingHeaders().getAll(headerName)));
+        }
         List<Header> headers = new ArrayList<Header>(mappedHeaders.values());
         httpResponse.withHeaders(headers);
     }
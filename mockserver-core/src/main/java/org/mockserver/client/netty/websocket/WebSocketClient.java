@@ -1,22 +1,35 @@
 package org.mockserver.client.netty.websocket;
 
 import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.netty.bootstrap.Bootstrap;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
-import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.handler.codec.http.HttpClientCodec;
 import io.netty.handler.codec.http.HttpObjectAggregator;
 import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
 import org.mockserver.client.serialization.WebSocketMessageSerializer;
 import org.mockserver.client.serialization.model.WebSocketClientIdDTO;
+import org.mockserver.client.serialization.model.WebSocketMessageDTO;
+import org.mockserver.configuration.ConfigurationProperties;
 import org.mockserver.mock.action.ExpectationCallback;
 import org.mockserver.model.HttpRequest;
+import org.mockserver.model.HttpResponse;
+import org.mockserver.socket.NettyTransport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.net.InetSocketAddress;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static io.netty.handler.codec.http.HttpResponseStatus.INTERNAL_SERVER_ERROR;
+import static io.netty.handler.codec.http.HttpResponseStatus.SERVICE_UNAVAILABLE;
+import static org.mockserver.model.HttpResponse.response;
 
 /**
  * @author jamesdbloom
@@ -24,19 +37,30 @@ import java.net.InetSocketAddress;
 public class WebSocketClient {
 
     private Channel channel;
-    private EventLoopGroup group = new NioEventLoopGroup();
+    private EventLoopGroup group = NettyTransport.eventLoopGroup(0);
     private WebSocketMessageSerializer webSocketMessageSerializer = new WebSocketMessageSerializer();
     private SettableFuture<String> registrationFuture = SettableFuture.create();
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+    // bounded, like the server's action executor, so callbacks slower than requests arrive are rejected instead of queuing without limit
+    private final ThreadPoolExecutor callbackExecutor = new ThreadPoolExecutor(
+            ConfigurationProperties.actionHandlerThreadCount(),
+            ConfigurationProperties.actionHandlerThreadCount(),
+            60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<Runnable>(ConfigurationProperties.actionHandlerQueueSize()),
+            new ThreadFactoryBuilder().setNameFormat("MockServer-WebSocketClient-%d").setDaemon(true).build()
+    );
 
     private ExpectationCallback expectationCallback;
 
 
     public WebSocketClient(InetSocketAddress serverAddress, String contextPath) {
+        // idle threads exit so a client without callbacks doesn't hold on to them
+        callbackExecutor.allowCoreThreadTimeOut(true);
         try {
             final WebSocketClientHandler webSocketClientHandler = new WebSocketClientHandler(serverAddress, contextPath, this);
 
             channel = new Bootstrap().group(group)
-                    .channel(NioSocketChannel.class)
+                    .channel(NettyTransport.socketChannelClass(group))
                     .handler(new ChannelInitializer<SocketChannel>() {
                         @Override
                         protected void initChannel(SocketChannel ch) {
@@ -60,17 +84,56 @@ public class WebSocketClient {
 
     void receivedTextWebSocketFrame(TextWebSocketFrame textWebSocketFrame) {
         try {
-            Object deserializedMessage = webSocketMessageSerializer.deserialize(textWebSocketFrame.text());
+            WebSocketMessageDTO webSocketMessageDTO = webSocketMessageSerializer.deserializeMessage(textWebSocketFrame.text());
+            Object deserializedMessage = webSocketMessageSerializer.deserialize(webSocketMessageDTO);
             if (deserializedMessage instanceof HttpRequest) {
-                channel.writeAndFlush(new TextWebSocketFrame(webSocketMessageSerializer.serialize(expectationCallback.handle((HttpRequest) deserializedMessage))));
+                handleCallback((HttpRequest) deserializedMessage, webSocketMessageDTO.getCorrelationId());
             } else if (!(deserializedMessage instanceof WebSocketClientIdDTO)) {
                 throw new WebSocketException("Unsupported web socket message " + deserializedMessage);
             }
+        } catch (WebSocketException e) {
+            throw e;
         } catch (Exception e) {
             throw new WebSocketException("Exception while receiving web socket message", e);
         }
     }
 
+    /**
+     * Runs the callback on a worker thread, so a slow callback doesn't delay other requests on this socket,
+     * and sends the response with the request's correlation id so the server can match it to the request.
+     *
+     * If the callback throws a 500 response is sent, and if all threads are busy and the queue is full a 503
+     * response is sent, so the server doesn't wait for a response that will never come.
+     */
+    private void handleCallback(final HttpRequest httpRequest, final String correlationId) {
+        try {
+            callbackExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    HttpResponse httpResponse;
+                    try {
+                        httpResponse = expectationCallback.handle(httpRequest);
+                    } catch (Exception e) {
+                        logger.error("Exception while handling callback for request " + httpRequest, e);
+                        httpResponse = response().withStatusCode(INTERNAL_SERVER_ERROR.code()).withBody("Exception while handling callback: " + e.getMessage());
+                    }
+                    sendResponse(httpResponse, correlationId);
+                }
+            });
+        } catch (RejectedExecutionException ree) {
+            logger.warn("Rejected callback as all " + callbackExecutor.getMaximumPoolSize() + " callback threads are busy and " + callbackExecutor.getQueue().size() + " callbacks are queued, returning 503 for request " + httpRequest);
+            sendResponse(response().withStatusCode(SERVICE_UNAVAILABLE.code()), correlationId);
+        }
+    }
+
+    private void sendResponse(HttpResponse httpResponse, String correlationId) {
+        try {
+            channel.writeAndFlush(new TextWebSocketFrame(webSocketMessageSerializer.serialize(httpResponse, correlationId)));
+        } catch (Exception e) {
+            logger.error("Exception while sending callback response with correlation id " + correlationId, e);
+        }
+    }
+
     public void stopClient() {
         try {
             if (channel != null) {
@@ -80,6 +143,7 @@ public class WebSocketClient {
             throw new WebSocketException("Exception while closing client", e);
         }
         group.shutdownGracefully();
+        callbackExecutor.shutdown();
     }
 
     public WebSocketClient registerExpectationCallback(ExpectationCallback expectationCallback) {
@@ -1,6 +1,9 @@
 package org.mockserver.client.serialization;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.fge.jackson.JacksonUtils;
 import com.google.common.base.Joiner;
 import joptsimple.internal.Strings;
 import org.mockserver.client.serialization.model.ExpectationDTO;
@@ -9,6 +12,7 @@ import org.mockserver.validator.jsonschema.JsonSchemaExpectationValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -35,6 +39,21 @@ public class ExpectationSerializer implements Serializer<Expectation> {
         }
     }
 
+    /**
+     * Writes the JSON for a single expectation straight to the output stream, without creating a string
+     */
+    public void serialize(Expectation expectation, OutputStream outputStream) {
+        try {
+            objectMapper
+                    .writerWithDefaultPrettyPrinter()
+                    .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                    .writeValue(outputStream, new ExpectationDTO(expectation));
+        } catch (Exception e) {
+            logger.error(String.format("Exception while serializing expectation to JSON with value %s", expectation), e);
+            throw new RuntimeException(String.format("Exception while serializing expectation to JSON with value %s", expectation), e);
+        }
+    }
+
     public String serialize(List<Expectation> expectations) {
         return serialize(expectations.toArray(new Expectation[expectations.size()]));
     }
@@ -91,28 +110,44 @@ public class ExpectationSerializer implements Serializer<Expectation> {
         if (Strings.isNullOrEmpty(jsonExpectations)) {
             throw new IllegalArgumentException("1 error:" + NEW_LINE + " - an expectation or expectation array is required but value was \"" + String.valueOf(jsonExpectations) + "\"");
         } else {
-            List<String> jsonExpectationList = jsonArraySerializer.returnJSONObjects(jsonExpectations);
+            List<JsonNode> jsonExpectationList = jsonArraySerializer.returnJSONObjectTrees(jsonExpectations);
             if (jsonExpectationList.isEmpty()) {
                 throw new IllegalArgumentException("1 error:" + NEW_LINE + " - an expectation or array of expectations is required");
-            } else {
-                List<String> validationErrorsList = new ArrayList<String>();
-                for (String jsonExpecation : jsonExpectationList) {
-                    try {
-                        expectations.add(deserialize(jsonExpecation));
-                    } catch (IllegalArgumentException iae) {
-                        validationErrorsList.add(iae.getMessage());
-                    }
-                }
-                if (!validationErrorsList.isEmpty()) {
-                    if (validationErrorsList.size() > 1) {
-                        throw new IllegalArgumentException(("[" + NEW_LINE + Joiner.on("," + NEW_LINE).join(validationErrorsList)).replaceAll(NEW_LINE, NEW_LINE + "  ") + NEW_LINE + "]");
-                    } else {
-                        throw new IllegalArgumentException(validationErrorsList.get(0));
-                    }
+            }
+            List<String> validationErrorsList = new ArrayList<String>();
+            for (JsonNode jsonExpectation : jsonExpectationList) {
+                // each element is validated and converted using the tree that has already been parsed
+                deserialize(jsonExpectation, expectations, validationErrorsList);
+            }
+            if (!validationErrorsList.isEmpty()) {
+                if (validationErrorsList.size() > 1) {
+                    throw new IllegalArgumentException(("[" + NEW_LINE + Joiner.on("," + NEW_LINE).join(validationErrorsList)).replaceAll(NEW_LINE, NEW_LINE + "  ") + NEW_LINE + "]");
+                } else {
+                    throw new IllegalArgumentException(validationErrorsList.get(0));
                 }
             }
         }
         return expectations.toArray(new Expectation[expectations.size()]);
     }
 
+    private void deserialize(JsonNode jsonExpectation, List<Expectation> expectations, List<String> validationErrorsList) {
+        String validationErrors = expectationValidator.isValid(jsonExpectation);
+        if (validationErrors.isEmpty()) {
+            try {
+                ExpectationDTO expectationDTO = objectMapper.treeToValue(jsonExpectation, ExpectationDTO.class);
+                if (expectationDTO != null) {
+                    expectations.add(expectationDTO.buildObject());
+                } else {
+                    expectations.add(null);
+                }
+            } catch (Exception e) {
+                logger.error("Exception while parsing [" + JacksonUtils.prettyPrint(jsonExpectation) + "] for Expectation", e);
+                throw new RuntimeException("Exception while parsing [" + JacksonUtils.prettyPrint(jsonExpectation) + "] for Expectation", e);
+            }
+        } else {
+            logger.info("Validation failed:" + NEW_LINE + validationErrors + NEW_LINE + "-- Expectation:" + NEW_LINE + JacksonUtils.prettyPrint(jsonExpectation) + NEW_LINE + "-- Schema:" + NEW_LINE + expectationValidator.getSchema());
+            validationErrorsList.add(validationErrors);
+        }
+    }
+
 }
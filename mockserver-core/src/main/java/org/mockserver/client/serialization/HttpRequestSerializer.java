@@ -1,5 +1,6 @@
 package org.mockserver.client.serialization;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Joiner;
@@ -10,6 +11,7 @@ import org.mockserver.validator.jsonschema.JsonSchemaHttpRequestValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -36,6 +38,21 @@ public class HttpRequestSerializer implements Serializer<HttpRequest> {
         }
     }
 
+    /**
+     * Writes the JSON for a single httpRequest straight to the output stream, without creating a string
+     */
+    public void serialize(HttpRequest httpRequest, OutputStream outputStream) {
+        try {
+            objectMapper
+                    .writerWithDefaultPrettyPrinter()
+                    .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                    .writeValue(outputStream, new HttpRequestDTO(httpRequest));
+        } catch (Exception e) {
+            logger.error(String.format("Exception while serializing httpRequest to JSON with value %s", httpRequest), e);
+            throw new RuntimeException(String.format("Exception while serializing httpRequest to JSON with value %s", httpRequest), e);
+        }
+    }
+
     public String serialize(List<HttpRequest> httpRequests) {
         return serialize(httpRequests.toArray(new HttpRequest[httpRequests.size()]));
     }
@@ -1,5 +1,7 @@
 package org.mockserver.client.serialization;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
@@ -32,4 +34,29 @@ public class JsonArraySerializer {
         return arrayItems;
     }
 
+    /**
+     * Reads the array one element at a time with a streaming parser, so each element is only
+     * parsed once and can be used directly without being printed and then re-parsed
+     */
+    public List<JsonNode> returnJSONObjectTrees(String jsonArray) {
+        List<JsonNode> arrayItems = new ArrayList<JsonNode>();
+        try {
+            JsonParser jsonParser = objectMapper.getFactory().createParser(jsonArray);
+            try {
+                if (jsonParser.nextToken() == JsonToken.START_ARRAY) {
+                    while (jsonParser.nextToken() != null && jsonParser.getCurrentToken() != JsonToken.END_ARRAY) {
+                        arrayItems.add(objectMapper.<JsonNode>readTree(jsonParser));
+                    }
+                } else if (jsonParser.getCurrentToken() != null) {
+                    arrayItems.add(objectMapper.<JsonNode>readTree(jsonParser));
+                }
+            } finally {
+                jsonParser.close();
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+        return arrayItems;
+    }
+
 }
@@ -0,0 +1,104 @@
+package org.mockserver.client.serialization;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.stream.ChunkedInput;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+
+import static com.google.common.base.Charsets.UTF_8;
+
+/**
+ * Serializes records one chunk at a time as the channel is ready to write more, so a large response (i.e. a retrieved
+ * request log) is never held in memory as a whole, only the records still to be written and the current chunk.
+ *
+ * The prefix is written before the first record, the separator between records and the suffix after the last record,
+ * if there are no records nothing is written.
+ *
+ * @author jamesdbloom
+ */
+public abstract class SerializingChunkedInput<T> implements ChunkedInput<ByteBuf> {
+
+    static final int CHUNK_SIZE = 8192;
+    private final Iterator<T> records;
+    private final byte[] prefix;
+    private final byte[] separator;
+    private final byte[] suffix;
+    private boolean started;
+    private boolean endOfInput;
+    private long progress;
+
+    protected SerializingChunkedInput(Iterator<T> records, String prefix, String separator, String suffix) {
+        this.records = records;
+        this.prefix = prefix.getBytes(UTF_8);
+        this.separator = separator.getBytes(UTF_8);
+        this.suffix = suffix.getBytes(UTF_8);
+    }
+
+    protected abstract void serialize(T record, OutputStream outputStream) throws IOException;
+
+    /**
+     * Called once every record has been serialized, before the last chunk is returned (i.e. to add trailing headers
+     * that depend on the records written)
+     */
+    protected void endOfRecords() {
+    }
+
+    @Override
+    public boolean isEndOfInput() {
+        return endOfInput;
+    }
+
+    @Override
+    public void close() {
+        endOfInput = true;
+    }
+
+    @Deprecated
+    @Override
+    public ByteBuf readChunk(ChannelHandlerContext ctx) throws Exception {
+        return readChunk(ctx.alloc());
+    }
+
+    @Override
+    public ByteBuf readChunk(ByteBufAllocator allocator) throws Exception {
+        if (endOfInput) {
+            return null;
+        }
+        ByteBuf chunk = allocator.buffer(CHUNK_SIZE);
+        try {
+            ByteBufOutputStream outputStream = new ByteBufOutputStream(chunk);
+            while (chunk.readableBytes() < CHUNK_SIZE && records.hasNext()) {
+                outputStream.write(started ? separator : prefix);
+                started = true;
+                serialize(records.next(), outputStream);
+            }
+            if (!records.hasNext()) {
+                if (started) {
+                    outputStream.write(suffix);
+                }
+                endOfInput = true;
+                endOfRecords();
+            }
+        } catch (Exception e) {
+            chunk.release();
+            throw e;
+        }
+        progress += chunk.readableBytes();
+        return chunk;
+    }
+
+    @Override
+    public long length() {
+        return -1;
+    }
+
+    @Override
+    public long progress() {
+        return progress;
+    }
+}
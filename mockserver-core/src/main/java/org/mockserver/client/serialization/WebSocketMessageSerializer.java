@@ -28,15 +28,29 @@ public class WebSocketMessageSerializer {
     }
 
     public String serialize(Object message) throws JsonProcessingException {
+        return serialize(message, null);
+    }
+
+    public String serialize(Object message, String correlationId) throws JsonProcessingException {
         if (serializers.containsKey(message.getClass())) {
-            return objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(new WebSocketMessageDTO().setType(message.getClass().getName()).setValue(serializers.get(message.getClass()).serialize((message))));
+            return objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(new WebSocketMessageDTO().setType(message.getClass().getName()).setValue(serializers.get(message.getClass()).serialize((message))).setCorrelationId(correlationId));
         } else {
-            return objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(new WebSocketMessageDTO().setType(message.getClass().getName()).setValue(objectMapper.writeValueAsString(message)));
+            return objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(new WebSocketMessageDTO().setType(message.getClass().getName()).setValue(objectMapper.writeValueAsString(message)).setCorrelationId(correlationId));
         }
     }
 
     public Object deserialize(String messageJson) throws ClassNotFoundException, IOException {
-        WebSocketMessageDTO webSocketMessageDTO = objectMapper.readValue(messageJson, WebSocketMessageDTO.class);
+        return deserialize(deserializeMessage(messageJson));
+    }
+
+    /**
+     * The message envelope, for access to the correlation id, the contents can then be deserialized using deserialize(WebSocketMessageDTO)
+     */
+    public WebSocketMessageDTO deserializeMessage(String messageJson) throws IOException {
+        return objectMapper.readValue(messageJson, WebSocketMessageDTO.class);
+    }
+
+    public Object deserialize(WebSocketMessageDTO webSocketMessageDTO) throws ClassNotFoundException, IOException {
         if (webSocketMessageDTO.getType() != null && webSocketMessageDTO.getValue() != null) {
             Class format = Class.forName(webSocketMessageDTO.getType());
             if (serializers.containsKey(format)) {
@@ -11,6 +11,8 @@ public class WebSocketMessageDTO extends ObjectWithReflectiveEqualsHashCodeToStr
 
     private String value;
 
+    private String correlationId;
+
     public String getType() {
         return type;
     }
@@ -28,4 +30,16 @@ public class WebSocketMessageDTO extends ObjectWithReflectiveEqualsHashCodeToStr
         this.value = value;
         return this;
     }
+
+    /**
+     * Identifies which request a callback response is for, so a client can have many requests in progress at once
+     */
+    public String getCorrelationId() {
+        return correlationId;
+    }
+
+    public WebSocketMessageDTO setCorrelationId(String correlationId) {
+        this.correlationId = correlationId;
+        return this;
+    }
 }
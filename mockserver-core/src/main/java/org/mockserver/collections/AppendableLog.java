@@ -0,0 +1,43 @@
+package org.mockserver.collections;
+
+/**
+ * A log that records are appended to and read back in the order they were added, the iterator's remove removes a
+ * record from the log.
+ *
+ * @author jamesdbloom
+ */
+public interface AppendableLog<T> extends Iterable<T> {
+
+    /**
+     * @return the sequence of the record, or -1 if the record was dropped without being added because the log was
+     * filled by newer records first
+     */
+    long add(T record);
+
+    void clear();
+
+    /**
+     * @return a sequence greater than the sequence of every record already added, records added later are given this
+     * sequence or a greater one
+     */
+    long nextSequence();
+
+    /**
+     * @param afterSequence the sequence of a record previously returned by a {@link SequencedIterator}, or -1 to start
+     *                      from the oldest record
+     * @return an iterator over the records added after the record with the given sequence
+     */
+    SequencedIterator<T> iterator(long afterSequence);
+
+    /**
+     * Unlike {@link #iterator(long)} the iterator waits for records given a sequence before beforeSequence that are
+     * still being added, so it returns every record between the two sequences that is in the log
+     *
+     * @param afterSequence  the sequence of a record previously returned by a {@link SequencedIterator}, or -1 to start
+     *                       from the oldest record
+     * @param beforeSequence a sequence returned by {@link #nextSequence()}
+     * @return an iterator over the records added after the record with the given sequence and before beforeSequence
+     */
+    SequencedIterator<T> iterator(long afterSequence, long beforeSequence);
+
+}
@@ -0,0 +1,293 @@
+package org.mockserver.collections;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A fixed capacity buffer that keeps the most recently added entries, once full each new entry replaces the
+ * oldest entry. Any number of threads can add entries without locking, each entry is given a slot by incrementing
+ * a sequence number, and iterators walk the slots directly, without copying the buffer, skipping any entry that
+ * is replaced or removed while they are iterating.
+ *
+ * The buffer can also be bounded by the total weight of its entries (i.e. the size of request bodies), once the total
+ * weight is over the maximum the oldest entries are evicted, except the newest entry which is always kept, eviction
+ * is serialized but adding entries is still lock free.
+ *
+ * Iterators are weakly consistent, they never throw ConcurrentModificationException and may include entries added
+ * after the iterator was created. An iterator stops at the first sequence number given to an entry that is still
+ * being added, instead of skipping it, so an iterator resuming from the sequence of the last entry returned never
+ * misses an entry, an iterator bounded by a sequence instead waits for the entries before that sequence to be added.
+ *
+ * An eviction listener is told about each entry that leaves the buffer because it is full or over the maximum weight,
+ * but not about entries removed by an iterator or by clearing the buffer, nor about an entry dropped as it was added
+ * because newer entries had already filled its slot.
+ *
+ * @author jamesdbloom
+ */
+public class ConcurrentRingBuffer<T> implements AppendableLog<T> {
+
+    private final int capacity;
+    private final long maxWeight;
+    private final Weigher<T> weigher;
+    private final EvictionListener<T> evictionListener;
+    private final AtomicReferenceArray<Entry<T>> entries;
+    private final AtomicLong nextSequence = new AtomicLong();
+    // the total weight of the entries in the buffer
+    private final AtomicLong totalWeight = new AtomicLong();
+    private final Object evictionLock = new Object();
+    // entries before this sequence have been cleared or evicted
+    private volatile long firstSequence;
+
+    public ConcurrentRingBuffer(int capacity) {
+        this(capacity, Long.MAX_VALUE, null);
+    }
+
+    /**
+     * @param maxWeight the maximum total weight of the entries, or Long.MAX_VALUE for no maximum
+     * @param weigher   the weight of each entry, or null if entries have no weight
+     */
+    public ConcurrentRingBuffer(int capacity, long maxWeight, Weigher<T> weigher) {
+        this(capacity, maxWeight, weigher, null);
+    }
+
+    /**
+     * @param maxWeight        the maximum total weight of the entries, or Long.MAX_VALUE for no maximum
+     * @param weigher          the weight of each entry, or null if entries have no weight
+     * @param evictionListener told about each evicted entry on the thread adding the entry that evicted it, or null
+     */
+    public ConcurrentRingBuffer(int capacity, long maxWeight, Weigher<T> weigher, EvictionListener<T> evictionListener) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be greater than zero");
+        }
+        if (maxWeight <= 0) {
+            throw new IllegalArgumentException("Maximum weight must be greater than zero");
+        }
+        this.capacity = capacity;
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+        this.evictionListener = evictionListener;
+        this.entries = new AtomicReferenceArray<Entry<T>>(capacity);
+    }
+
+    @Override
+    public long add(T value) {
+        long sequence = nextSequence.getAndIncrement();
+        Entry<T> entry = new Entry<T>(sequence, value, weigher != null ? weigher.weigh(value) : 0);
+        int index = index(sequence);
+        while (true) {
+            Entry<T> current = entries.get(index);
+            // a slower thread must not replace a newer entry once the buffer has wrapped around
+            if (current != null && current.sequence > sequence) {
+                return -1;
+            }
+            if (entries.compareAndSet(index, current, entry)) {
+                if (current != null) {
+                    evicted(current);
+                }
+                // only the thread that drops an entry from the buffer subtracts its weight
+                if (totalWeight.addAndGet(entry.weight - (current != null ? current.weight : 0)) > maxWeight) {
+                    evictOldest();
+                }
+                return sequence;
+            }
+        }
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public long weight() {
+        return totalWeight.get();
+    }
+
+    @Override
+    public void clear() {
+        synchronized (evictionLock) {
+            long clearedSequence = nextSequence.get();
+            firstSequence = clearedSequence;
+            // release cleared entries now instead of when they are replaced
+            for (int index = 0; index < capacity; index++) {
+                drop(index, clearedSequence);
+            }
+        }
+    }
+
+    private void evictOldest() {
+        List<Entry<T>> evictedEntries = new ArrayList<Entry<T>>();
+        synchronized (evictionLock) {
+            long endSequence = nextSequence.get();
+            long sequence = Math.max(firstSequence, endSequence - capacity);
+            // the newest entry is always kept even if it is heavier than the maximum
+            while (totalWeight.get() > maxWeight && sequence < endSequence - 1) {
+                Entry<T> dropped = drop(index(sequence), sequence + 1);
+                if (dropped != null) {
+                    evictedEntries.add(dropped);
+                }
+                sequence++;
+            }
+            firstSequence = Math.max(firstSequence, sequence);
+        }
+        // outside the lock so other threads can evict while the listener runs
+        for (Entry<T> evictedEntry : evictedEntries) {
+            evicted(evictedEntry);
+        }
+    }
+
+    private void evicted(Entry<T> entry) {
+        // entries removed by an iterator have already left the buffer
+        if (entry.leave() && evictionListener != null) {
+            evictionListener.evicted(entry.sequence, entry.value);
+        }
+    }
+
+    /**
+     * Removes the entry at the index if it is before the sequence
+     *
+     * @return the removed entry, or null if no entry was removed
+     */
+    private Entry<T> drop(int index, long beforeSequence) {
+        Entry<T> current = entries.get(index);
+        if (current != null && current.sequence < beforeSequence && entries.compareAndSet(index, current, null)) {
+            totalWeight.addAndGet(-current.weight);
+            return current;
+        }
+        return null;
+    }
+
+    /**
+     * @return an iterator from the oldest to the newest entry, the iterator's remove removes the entry from the buffer
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new Cursor(firstSequence - 1, Long.MAX_VALUE, false);
+    }
+
+    /**
+     * @return an iterator from the oldest entry added after the sequence, entries are numbered from zero in the order
+     * they are added
+     */
+    @Override
+    public SequencedIterator<T> iterator(long afterSequence) {
+        return new Cursor(afterSequence, Long.MAX_VALUE, false);
+    }
+
+    @Override
+    public SequencedIterator<T> iterator(long afterSequence, long beforeSequence) {
+        return new Cursor(afterSequence, beforeSequence, true);
+    }
+
+    @Override
+    public long nextSequence() {
+        return nextSequence.get();
+    }
+
+    private int index(long sequence) {
+        return (int) (sequence % capacity);
+    }
+
+    public interface Weigher<T> {
+        long weigh(T value);
+    }
+
+    public interface EvictionListener<T> {
+        void evicted(long sequence, T value);
+    }
+
+    private static class Entry<T> {
+        private final long sequence;
+        private final T value;
+        private final long weight;
+        // set by whichever of an iterator removing it or evicting it happens first
+        private final AtomicBoolean left = new AtomicBoolean();
+
+        Entry(long sequence, T value, long weight) {
+            this.sequence = sequence;
+            this.value = value;
+            this.weight = weight;
+        }
+
+        boolean leave() {
+            return left.compareAndSet(false, true);
+        }
+    }
+
+    private class Cursor implements SequencedIterator<T> {
+        private final long beforeSequence;
+        private final boolean waitForAdding;
+        private long sequence;
+        private long lastSequence;
+        private Entry<T> next;
+        private Entry<T> last;
+
+        Cursor(long afterSequence, long beforeSequence, boolean waitForAdding) {
+            this.sequence = afterSequence < Long.MAX_VALUE ? afterSequence + 1 : afterSequence;
+            this.lastSequence = afterSequence;
+            this.beforeSequence = beforeSequence;
+            this.waitForAdding = waitForAdding;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null) {
+                long addedSequence = nextSequence.get();
+                // skip entries that have been cleared or replaced
+                sequence = Math.max(sequence, Math.max(firstSequence, addedSequence - capacity));
+                if (sequence >= Math.min(addedSequence, beforeSequence)) {
+                    break;
+                }
+                Entry<T> entry = entries.get(index(sequence));
+                if (entry == null || entry.sequence < sequence) {
+                    // the entry is still being added, or was evicted just now, so stop before it or wait for it
+                    if (!waitForAdding) {
+                        break;
+                    }
+                    Thread.yield();
+                } else {
+                    // entries since replaced have a later sequence
+                    if (entry.sequence == sequence && !entry.left.get()) {
+                        next = entry;
+                    }
+                    sequence++;
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            last = next;
+            lastSequence = next.sequence;
+            next = null;
+            return last.value;
+        }
+
+        @Override
+        public long sequence() {
+            return lastSequence;
+        }
+
+        @Override
+        public void remove() {
+            removeIfPresent();
+        }
+
+        @Override
+        public boolean removeIfPresent() {
+            if (last == null) {
+                throw new IllegalStateException();
+            }
+            Entry<T> removed = last;
+            last = null;
+            return removed.leave();
+        }
+    }
+}
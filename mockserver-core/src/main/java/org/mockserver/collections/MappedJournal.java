@@ -0,0 +1,574 @@
+package org.mockserver.collections;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.OverlappingFileLockException;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * An append only log kept in memory mapped segment files on local disk instead of on the heap, the heap only holds
+ * one small object per segment, so memory use stays flat however many records are added.
+ *
+ * Each record is written as its length, a flags byte and the serialized record, segments are created full size, so
+ * zero filled, and a zero length marks the end of the records in a segment. Removing a record only sets its removed
+ * flag, the space is reclaimed when the journal is cleared or its segment is evicted.
+ *
+ * The number of segments can be bounded, once a new segment would take the journal over the maximum the oldest segment
+ * is evicted, and the eviction listener is told about each record in it that hadn't been removed, so the journal holds
+ * at most maxSegments times the segment size on disk. A segment that has been cleared or evicted is unmapped straight
+ * away unless an iterator is still reading it, in which case it is unmapped once no iterator is reading it, an
+ * iterator abandoned part way through a segment leaves the mapping to be released by the garbage collector.
+ *
+ * A writable journal locks a lock file in its directory until it is closed or the process exits, so two live journals
+ * never share segments, if another live journal with the same name already holds the lock the first unlocked directory
+ * named directory-1, directory-2 and so on is used instead.
+ *
+ * A writable journal always starts empty, segments left in the directory by a previous run are deleted when it is
+ * opened. To retrieve and verify the records of a previous run the journal must be opened read only, which maps the
+ * existing segments without allowing records to be added, removed or cleared.
+ *
+ * The sequence of each record is its segment number followed by its position in the segment, segment numbers are never
+ * reused, so sequences keep increasing after the journal is cleared.
+ *
+ * Iterators are weakly consistent, they may include records added after the iterator was created.
+ *
+ * @author jamesdbloom
+ */
+public abstract class MappedJournal<T> implements AppendableLog<T>, Closeable {
+
+    private static final int HEADER_SIZE = 5;
+    private static final int FLAGS_OFFSET = 4;
+    private static final byte REMOVED = 1;
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final String LOCK_SUFFIX = ".lock";
+    private final File directory;
+    private final String name;
+    private final int segmentSize;
+    private final boolean readOnly;
+    // 0 for no maximum
+    private final int maxSegments;
+    private final ConcurrentRingBuffer.EvictionListener<T> evictionListener;
+    private final List<Segment> segments = new CopyOnWriteArrayList<Segment>();
+    // held open so the lock is kept until the journal is closed, null when read only
+    private final FileChannel lockChannel;
+    private long nextSegmentNumber;
+    private volatile boolean closed;
+
+    protected MappedJournal(File directory, String name, int segmentSize, boolean readOnly) {
+        this(directory, name, segmentSize, readOnly, 0, null);
+    }
+
+    /**
+     * @param maxSegments      the maximum number of segments, or 0 for no maximum
+     * @param evictionListener told about each record in an evicted segment on the thread adding the record that evicted
+     *                         it, or null
+     */
+    protected MappedJournal(File directory, String name, int segmentSize, boolean readOnly, int maxSegments, ConcurrentRingBuffer.EvictionListener<T> evictionListener) {
+        if (segmentSize <= HEADER_SIZE) {
+            throw new IllegalArgumentException("Segment size must be greater than " + HEADER_SIZE);
+        }
+        if (readOnly) {
+            checkDirectory(directory, true);
+            this.directory = directory;
+            this.lockChannel = null;
+        } else {
+            File lockedDirectory = directory;
+            FileChannel lockChannel = tryLock(lockedDirectory, name);
+            for (int suffix = 1; lockChannel == null; suffix++) {
+                lockedDirectory = new File(directory.getParentFile(), directory.getName() + "-" + suffix);
+                lockChannel = tryLock(lockedDirectory, name);
+            }
+            this.directory = lockedDirectory;
+            this.lockChannel = lockChannel;
+        }
+        this.name = name;
+        this.segmentSize = segmentSize;
+        this.readOnly = readOnly;
+        this.maxSegments = maxSegments;
+        this.evictionListener = evictionListener;
+        if (readOnly) {
+            openExistingSegments();
+        } else {
+            deleteExistingSegments();
+        }
+    }
+
+    protected abstract byte[] serialize(T record) throws IOException;
+
+    protected abstract T deserialize(byte[] bytes) throws IOException;
+
+    @Override
+    public long add(T record) {
+        checkWritable();
+        // serialized before taking the lock so concurrent adds only wait for each other's append
+        byte[] bytes;
+        try {
+            bytes = serialize(record);
+        } catch (IOException ioe) {
+            throw new RuntimeException("Exception while serializing " + record + " to journal " + name, ioe);
+        }
+        List<Segment> evictedSegments = new ArrayList<Segment>();
+        long sequence = append(bytes, evictedSegments);
+        // outside the lock so other threads can add records while the listener runs
+        for (Segment evictedSegment : evictedSegments) {
+            evict(evictedSegment);
+        }
+        return sequence;
+    }
+
+    private synchronized long append(byte[] bytes, List<Segment> evictedSegments) {
+        checkWritable();
+        Segment segment = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        if (segment == null || !segment.writable || segment.remaining() < HEADER_SIZE + bytes.length) {
+            // a record larger than a segment gets a segment of its own
+            segment = createSegment(Math.max(segmentSize, HEADER_SIZE + bytes.length));
+            segments.add(segment);
+            // the newest segment is always kept
+            while (maxSegments > 0 && segments.size() > maxSegments) {
+                evictedSegments.add(segments.remove(0));
+            }
+        }
+        return segment.sequence(segment.append(bytes));
+    }
+
+    private void evict(Segment segment) {
+        if (evictionListener != null) {
+            for (int position = 0; position < segment.end; position += HEADER_SIZE + segment.buffer.getInt(position)) {
+                // records removed by an iterator have already left the journal
+                if (segment.remove(position)) {
+                    try {
+                        evictionListener.evicted(segment.sequence(position), deserialize(segment.read(position)));
+                    } catch (IOException ioe) {
+                        throw new RuntimeException("Exception while deserializing record from journal " + name, ioe);
+                    }
+                }
+            }
+        }
+        drop(segment);
+    }
+
+    private static void drop(Segment segment) {
+        segment.drop();
+        if (!segment.file.delete()) {
+            segment.file.deleteOnExit();
+        }
+    }
+
+    @Override
+    public synchronized void clear() {
+        checkWritable();
+        List<Segment> clearedSegments = new ArrayList<Segment>(segments);
+        segments.clear();
+        for (Segment segment : clearedSegments) {
+            drop(segment);
+        }
+    }
+
+    /**
+     * @return an iterator from the oldest to the newest record, the iterator's remove marks the record as removed
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new Cursor(-1, Long.MAX_VALUE);
+    }
+
+    @Override
+    public SequencedIterator<T> iterator(long afterSequence) {
+        return new Cursor(afterSequence, Long.MAX_VALUE);
+    }
+
+    /**
+     * Records are appended while holding the journal's lock so every record before beforeSequence has already been
+     * added, the iterator never needs to wait
+     */
+    @Override
+    public SequencedIterator<T> iterator(long afterSequence, long beforeSequence) {
+        return new Cursor(afterSequence, beforeSequence);
+    }
+
+    @Override
+    public synchronized long nextSequence() {
+        if (segments.isEmpty()) {
+            return nextSegmentNumber << 32;
+        }
+        Segment segment = segments.get(segments.size() - 1);
+        // the next record is appended at the end of the last segment or starts a segment with a greater number
+        return segment.sequence(segment.end);
+    }
+
+    /**
+     * Releases the lock on the journal's directory and the journal's segments, so their mappings can be garbage
+     * collected, the segment files are kept to be opened read only, once closed the journal is empty and records can
+     * no longer be added, removed or cleared
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            for (Segment segment : segments) {
+                segment.drop();
+            }
+            segments.clear();
+            if (lockChannel != null) {
+                lockChannel.close();
+            }
+        }
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * @return the directory the segments are in, which for a writable journal may be a directory-n sibling of the
+     * directory it was opened with
+     */
+    public File directory() {
+        return directory;
+    }
+
+    private static void checkDirectory(File directory, boolean readOnly) {
+        if (!directory.isDirectory() && (readOnly || !directory.mkdirs())) {
+            throw new IllegalArgumentException("Journal directory " + directory + " does not exist and could not be created");
+        }
+    }
+
+    /**
+     * @return the open channel holding the lock, or null if another live journal holds the lock
+     */
+    private static FileChannel tryLock(File directory, String name) {
+        checkDirectory(directory, false);
+        File lockFile = new File(directory, name + LOCK_SUFFIX);
+        try {
+            FileChannel channel = new RandomAccessFile(lockFile, "rw").getChannel();
+            try {
+                if (channel.tryLock() != null) {
+                    return channel;
+                }
+            } catch (OverlappingFileLockException ofle) {
+                // held by another journal in this process
+            }
+            channel.close();
+            return null;
+        } catch (IOException ioe) {
+            throw new RuntimeException("Exception while locking journal " + lockFile, ioe);
+        }
+    }
+
+    private void checkWritable() {
+        if (readOnly) {
+            throw new UnsupportedOperationException("Journal " + name + " in " + directory + " is read only");
+        }
+        if (closed) {
+            throw new IllegalStateException("Journal " + name + " in " + directory + " is closed");
+        }
+    }
+
+    private File[] existingSegmentFiles() {
+        File[] segmentFiles = directory.listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String fileName) {
+                return fileName.startsWith(name + ".") && fileName.endsWith(SEGMENT_SUFFIX);
+            }
+        });
+        return segmentFiles != null ? segmentFiles : new File[0];
+    }
+
+    private void openExistingSegments() {
+        File[] segmentFiles = existingSegmentFiles();
+        // segment numbers are zero padded so the names sort in the order the segments were created
+        Arrays.sort(segmentFiles);
+        for (File segmentFile : segmentFiles) {
+            try {
+                MappedByteBuffer buffer = map(segmentFile, FileChannel.MapMode.READ_ONLY, segmentFile.length());
+                segments.add(new Segment(segmentNumber(segmentFile), segmentFile, buffer, false, findEnd(buffer)));
+            } catch (IOException ioe) {
+                throw new RuntimeException("Exception while opening journal segment " + segmentFile, ioe);
+            }
+        }
+    }
+
+    private void deleteExistingSegments() {
+        for (File segmentFile : existingSegmentFiles()) {
+            // a segment that can't be deleted is skipped when segments are created
+            if (!segmentFile.delete()) {
+                segmentFile.deleteOnExit();
+            }
+        }
+    }
+
+    private long segmentNumber(File segmentFile) {
+        String fileName = segmentFile.getName();
+        try {
+            return Long.parseLong(fileName.substring(name.length() + 1, fileName.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException nfe) {
+            return 0;
+        }
+    }
+
+    /**
+     * @return the position after the last complete record, a record is complete once its length has been written
+     */
+    private static int findEnd(MappedByteBuffer buffer) {
+        int position = 0;
+        while (position + HEADER_SIZE <= buffer.limit()) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + HEADER_SIZE + length > buffer.limit()) {
+                break;
+            }
+            position += HEADER_SIZE + length;
+        }
+        return position;
+    }
+
+    private Segment createSegment(int size) {
+        try {
+            long segmentNumber;
+            File segmentFile;
+            // skip numbers still used by segments of a previous run that could not be deleted
+            do {
+                segmentNumber = nextSegmentNumber++;
+                segmentFile = new File(directory, String.format("%s.%019d%s", name, segmentNumber, SEGMENT_SUFFIX));
+            } while (!segmentFile.createNewFile());
+            return new Segment(segmentNumber, segmentFile, map(segmentFile, FileChannel.MapMode.READ_WRITE, size), true, 0);
+        } catch (IOException ioe) {
+            throw new RuntimeException("Exception while creating journal segment for " + name + " in " + directory, ioe);
+        }
+    }
+
+    /**
+     * Releases the mapping now instead of when the buffer is garbage collected, only possible where the JVM allows
+     * access to the buffer's cleaner (i.e. Java 7 and 8), otherwise it is left to the garbage collector
+     */
+    private static void unmap(MappedByteBuffer buffer) {
+        try {
+            Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+            cleanerMethod.setAccessible(true);
+            Object cleaner = cleanerMethod.invoke(buffer);
+            if (cleaner != null) {
+                Method cleanMethod = cleaner.getClass().getMethod("clean");
+                cleanMethod.setAccessible(true);
+                cleanMethod.invoke(cleaner);
+            }
+        } catch (Exception e) {
+            // released by the garbage collector
+        }
+    }
+
+    private static MappedByteBuffer map(File file, FileChannel.MapMode mapMode, long size) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, mapMode == FileChannel.MapMode.READ_ONLY ? "r" : "rw");
+        try {
+            // the mapping stays valid after the file is closed
+            return randomAccessFile.getChannel().map(mapMode, 0, size);
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    private static class Segment {
+        private final long number;
+        private final File file;
+        private final MappedByteBuffer buffer;
+        private final boolean writable;
+        // records before this position are complete, readers never read past it
+        private volatile int end;
+        // guarded by this, the iterators reading the segment, which must not be unmapped until they have finished
+        private int readers;
+        // guarded by this, set once cleared or evicted
+        private boolean dropped;
+        private boolean unmapped;
+
+        Segment(long number, File file, MappedByteBuffer buffer, boolean writable, int end) {
+            this.number = number;
+            this.file = file;
+            this.buffer = buffer;
+            this.writable = writable;
+            this.end = end;
+        }
+
+        long sequence(int position) {
+            return (number << 32) | position;
+        }
+
+        int remaining() {
+            return buffer.capacity() - end;
+        }
+
+        /**
+         * @return the position of the record
+         */
+        int append(byte[] bytes) {
+            int position = end;
+            ByteBuffer writer = buffer.duplicate();
+            writer.position(end + FLAGS_OFFSET);
+            writer.put((byte) 0);
+            writer.put(bytes);
+            // the length is written last so a record only partly written before a crash is ignored when reopened
+            writer.putInt(end, bytes.length);
+            end += HEADER_SIZE + bytes.length;
+            return position;
+        }
+
+        byte[] read(int position) {
+            byte[] bytes = new byte[buffer.getInt(position)];
+            ByteBuffer reader = buffer.duplicate();
+            reader.position(position + HEADER_SIZE);
+            reader.get(bytes);
+            return bytes;
+        }
+
+        boolean isRemoved(int position) {
+            return buffer.get(position + FLAGS_OFFSET) == REMOVED;
+        }
+
+        /**
+         * @return false if the record was already removed or has left the journal because the segment was dropped
+         */
+        synchronized boolean remove(int position) {
+            if (dropped || isRemoved(position)) {
+                return false;
+            }
+            buffer.put(position + FLAGS_OFFSET, REMOVED);
+            return true;
+        }
+
+        /**
+         * @return false if the segment has been dropped so must not be read
+         */
+        synchronized boolean acquire() {
+            if (dropped) {
+                return false;
+            }
+            readers++;
+            return true;
+        }
+
+        synchronized void release() {
+            readers--;
+            unmapIfUnread();
+        }
+
+        synchronized void drop() {
+            dropped = true;
+            unmapIfUnread();
+        }
+
+        private void unmapIfUnread() {
+            if (dropped && readers == 0 && !unmapped) {
+                unmapped = true;
+                unmap(buffer);
+            }
+        }
+    }
+
+    private class Cursor implements SequencedIterator<T> {
+        private final Iterator<Segment> segmentIterator = segments.iterator();
+        private final long afterSequence;
+        private final long beforeSequence;
+        private Segment segment;
+        // whether the segment is acquired, so can't be unmapped while it is being read
+        private boolean acquired;
+        private int position;
+        private T next;
+        private Segment nextSegment;
+        private int nextPosition;
+        private Segment lastSegment;
+        private int lastPosition;
+        private long lastSequence;
+
+        Cursor(long afterSequence, long beforeSequence) {
+            this.afterSequence = afterSequence;
+            this.beforeSequence = beforeSequence;
+            this.lastSequence = afterSequence;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null) {
+                if (segment == null || position >= segment.end) {
+                    releaseSegment();
+                    if (!segmentIterator.hasNext()) {
+                        return false;
+                    }
+                    segment = segmentIterator.next();
+                    position = 0;
+                } else if (segment.number < afterSequence >> 32) {
+                    // the whole segment is before the sequence
+                    position = segment.end;
+                } else if (segment.sequence(position) >= beforeSequence) {
+                    releaseSegment();
+                    return false;
+                } else if (!acquired && !(acquired = segment.acquire())) {
+                    // cleared or evicted since the iterator reached it
+                    position = segment.end;
+                } else {
+                    int recordPosition = position;
+                    position += HEADER_SIZE + segment.buffer.getInt(recordPosition);
+                    if (segment.sequence(recordPosition) > afterSequence && !segment.isRemoved(recordPosition)) {
+                        try {
+                            next = deserialize(segment.read(recordPosition));
+                        } catch (IOException ioe) {
+                            throw new RuntimeException("Exception while deserializing record from journal " + name, ioe);
+                        }
+                        nextSegment = segment;
+                        nextPosition = recordPosition;
+                    }
+                }
+            }
+            return true;
+        }
+
+        private void releaseSegment() {
+            if (acquired) {
+                acquired = false;
+                segment.release();
+            }
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T record = next;
+            next = null;
+            lastSegment = nextSegment;
+            lastPosition = nextPosition;
+            lastSequence = nextSegment.sequence(nextPosition);
+            return record;
+        }
+
+        @Override
+        public long sequence() {
+            return lastSequence;
+        }
+
+        @Override
+        public void remove() {
+            removeIfPresent();
+        }
+
+        @Override
+        public boolean removeIfPresent() {
+            checkWritable();
+            if (lastSegment == null) {
+                throw new IllegalStateException();
+            }
+            Segment removed = lastSegment;
+            lastSegment = null;
+            return removed.remove(lastPosition);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package org.mockserver.collections;
+
+import java.util.List;
+
+/**
+ * One page of records and the cursor to pass back to retrieve the page after it, the cursor is opaque to callers.
+ *
+ * @author jamesdbloom
+ */
+public class Page<T> {
+
+    private final List<T> records;
+    private final long nextCursor;
+
+    public Page(List<T> records, long nextCursor) {
+        this.records = records;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getRecords() {
+        return records;
+    }
+
+    public long getNextCursor() {
+        return nextCursor;
+    }
+}
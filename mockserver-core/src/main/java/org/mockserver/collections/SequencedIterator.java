@@ -0,0 +1,28 @@
+package org.mockserver.collections;
+
+import java.util.Iterator;
+
+/**
+ * An iterator over an {@link AppendableLog} that also returns the sequence of each record, sequences increase in the
+ * order records are added and are never reused, even after the log is cleared, so iterating can be resumed after a
+ * given record without repeating or skipping records that are still in the log.
+ *
+ * @author jamesdbloom
+ */
+public interface SequencedIterator<T> extends Iterator<T> {
+
+    /**
+     * @return the sequence of the record last returned by next, or the sequence the iterator started after if next
+     * has not been called yet
+     */
+    long sequence();
+
+    /**
+     * Removes the record last returned by next, like remove, unless it has already left the log because another thread
+     * removed or evicted it, so each record leaving the log is accounted for by exactly one thread
+     *
+     * @return true if this call removed the record
+     */
+    boolean removeIfPresent();
+
+}
@@ -25,6 +25,21 @@ import static org.mockserver.character.Character.NEW_LINE;
 public class ConfigurationProperties {
 
     static final long DEFAULT_MAX_TIMEOUT = 120;
+    static final long DEFAULT_CONNECT_TIMEOUT = 20;
+    static final long VERIFICATION_TIMEOUT_MARGIN = 5;
+    static final int DEFAULT_MAX_CONNECTIONS_PER_HOST = 100;
+    static final long DEFAULT_IDLE_CONNECTION_TIMEOUT = 30;
+    static final int DEFAULT_ACTION_HANDLER_THREAD_COUNT = Math.max(5, Runtime.getRuntime().availableProcessors() * 2);
+    static final int DEFAULT_ACTION_HANDLER_QUEUE_SIZE = 1000;
+    static final int DEFAULT_MAX_WEB_SOCKET_CALLBACKS_IN_FLIGHT = 1000;
+    static final int DEFAULT_BOSS_THREAD_COUNT = 1;
+    static final int DEFAULT_REUSE_PORT_BOSS_THREAD_COUNT = Runtime.getRuntime().availableProcessors();
+    static final int DEFAULT_WORKER_THREAD_COUNT = Runtime.getRuntime().availableProcessors() * 2;
+    static final int DEFAULT_MAX_REQUEST_BODY_SIZE = Integer.MAX_VALUE;
+    static final int DEFAULT_REQUEST_BODY_MEMORY_THRESHOLD = 1024 * 1024;
+    static final int DEFAULT_REQUEST_LOG_SIZE = 10000;
+    static final long DEFAULT_REQUEST_LOG_MAX_BYTES = 100 * 1024 * 1024;
+    static final int DEFAULT_JOURNAL_SEGMENT_SIZE = 64 * 1024 * 1024;
     private static final Logger LOGGER = LoggerFactory.getLogger(ConfigurationProperties.class);
     private static final Properties PROPERTIES = readPropertyFile();
 
@@ -71,6 +86,217 @@ public class ConfigurationProperties {
         System.setProperty("mockserver.maxSocketTimeout", "" + milliseconds);
     }
 
+    /**
+     * The longest time a verification may wait for matching requests, this is kept below maxSocketTimeout
+     * (which is also the client's read timeout) by five seconds or a tenth of maxSocketTimeout, whichever is
+     * smaller, so the verification result is always written before the client gives up on the response
+     */
+    public static long maxVerificationTimeout() {
+        long maxSocketTimeout = maxSocketTimeout();
+        return Math.max(0, maxSocketTimeout - Math.min(TimeUnit.SECONDS.toMillis(VERIFICATION_TIMEOUT_MARGIN), maxSocketTimeout / 10));
+    }
+
+    public static long socketConnectionTimeout() {
+        return readLongProperty("mockserver.socketConnectionTimeout", TimeUnit.SECONDS.toMillis(DEFAULT_CONNECT_TIMEOUT));
+    }
+
+    public static void socketConnectionTimeout(long milliseconds) {
+        System.setProperty("mockserver.socketConnectionTimeout", "" + milliseconds);
+    }
+
+    // event loop and transport config
+    public static boolean nativeTransport() {
+        return Boolean.parseBoolean(readPropertyHierarchically("mockserver.nativeTransport", "" + false));
+    }
+
+    public static void nativeTransport(boolean enable) {
+        System.setProperty("mockserver.nativeTransport", "" + enable);
+    }
+
+    /**
+     * When SO_REUSEPORT is enabled and no boss thread count is configured there is one boss thread, and so one
+     * channel accepting connections on each port, per available processor
+     */
+    public static int bossThreadCount() {
+        return readIntProperty("mockserver.bossThreadCount", socketReusePort() ? DEFAULT_REUSE_PORT_BOSS_THREAD_COUNT : DEFAULT_BOSS_THREAD_COUNT);
+    }
+
+    public static void bossThreadCount(int threadCount) {
+        System.setProperty("mockserver.bossThreadCount", "" + threadCount);
+    }
+
+    public static int workerThreadCount() {
+        return readIntProperty("mockserver.workerThreadCount", DEFAULT_WORKER_THREAD_COUNT);
+    }
+
+    public static void workerThreadCount(int threadCount) {
+        System.setProperty("mockserver.workerThreadCount", "" + threadCount);
+    }
+
+    public static int tcpFastOpenQueueLength() {
+        return readIntProperty("mockserver.tcpFastOpenQueueLength", 0);
+    }
+
+    public static void tcpFastOpenQueueLength(int queueLength) {
+        System.setProperty("mockserver.tcpFastOpenQueueLength", "" + queueLength);
+    }
+
+    public static boolean socketReusePort() {
+        return Boolean.parseBoolean(readPropertyHierarchically("mockserver.socketReusePort", "" + false));
+    }
+
+    public static void socketReusePort(boolean enable) {
+        System.setProperty("mockserver.socketReusePort", "" + enable);
+    }
+
+    // http client connection pool config
+    public static boolean clientConnectionKeepAlive() {
+        return Boolean.parseBoolean(readPropertyHierarchically("mockserver.clientConnectionKeepAlive", "" + true));
+    }
+
+    public static void clientConnectionKeepAlive(boolean keepAlive) {
+        System.setProperty("mockserver.clientConnectionKeepAlive", "" + keepAlive);
+    }
+
+    public static int clientMaxConnectionsPerHost() {
+        return readIntProperty("mockserver.clientMaxConnectionsPerHost", DEFAULT_MAX_CONNECTIONS_PER_HOST);
+    }
+
+    public static void clientMaxConnectionsPerHost(int maxConnections) {
+        System.setProperty("mockserver.clientMaxConnectionsPerHost", "" + maxConnections);
+    }
+
+    public static long clientIdleConnectionTimeout() {
+        return readLongProperty("mockserver.clientIdleConnectionTimeout", TimeUnit.SECONDS.toMillis(DEFAULT_IDLE_CONNECTION_TIMEOUT));
+    }
+
+    public static void clientIdleConnectionTimeout(long milliseconds) {
+        System.setProperty("mockserver.clientIdleConnectionTimeout", "" + milliseconds);
+    }
+
+    // action execution config
+    public static int actionHandlerThreadCount() {
+        return readIntProperty("mockserver.actionHandlerThreadCount", DEFAULT_ACTION_HANDLER_THREAD_COUNT);
+    }
+
+    public static void actionHandlerThreadCount(int threadCount) {
+        System.setProperty("mockserver.actionHandlerThreadCount", "" + threadCount);
+    }
+
+    public static int actionHandlerQueueSize() {
+        return readIntProperty("mockserver.actionHandlerQueueSize", DEFAULT_ACTION_HANDLER_QUEUE_SIZE);
+    }
+
+    public static void actionHandlerQueueSize(int queueSize) {
+        System.setProperty("mockserver.actionHandlerQueueSize", "" + queueSize);
+    }
+
+    public static int maxWebSocketCallbacksInFlight() {
+        return readIntProperty("mockserver.maxWebSocketCallbacksInFlight", DEFAULT_MAX_WEB_SOCKET_CALLBACKS_IN_FLIGHT);
+    }
+
+    public static void maxWebSocketCallbacksInFlight(int maxInFlight) {
+        System.setProperty("mockserver.maxWebSocketCallbacksInFlight", "" + maxInFlight);
+    }
+
+    /**
+     * The largest request body, in bytes, that MockServer accepts, larger requests are rejected with a 413, by default
+     * there is no limit, this limit is not applied to requests passing through the proxy
+     *
+     * Spilling a large body to disk (see {@link #requestBodyMemoryThreshold()}) only keeps it out of the aggregation
+     * buffer, the whole body is still copied onto the heap when the request is decoded and logged, so set this to
+     * bound the heap used by each request
+     */
+    public static int maxRequestBodySize() {
+        return readIntProperty("mockserver.maxRequestBodySize", DEFAULT_MAX_REQUEST_BODY_SIZE);
+    }
+
+    public static void maxRequestBodySize(int maxSize) {
+        System.setProperty("mockserver.maxRequestBodySize", "" + maxSize);
+    }
+
+    public static int requestBodyMemoryThreshold() {
+        return readIntProperty("mockserver.requestBodyMemoryThreshold", DEFAULT_REQUEST_BODY_MEMORY_THRESHOLD);
+    }
+
+    public static void requestBodyMemoryThreshold(int threshold) {
+        System.setProperty("mockserver.requestBodyMemoryThreshold", "" + threshold);
+    }
+
+    /**
+     * If true a request with a large body is answered as soon as its headers are received, when no expectation that
+     * could match it needs the body, the body is then discarded so it is logged without a body and can't be verified
+     * or retrieved by its body
+     */
+    public static boolean respondBeforeRequestBodyReceived() {
+        return Boolean.parseBoolean(readPropertyHierarchically("mockserver.respondBeforeRequestBodyReceived", "" + false));
+    }
+
+    public static void respondBeforeRequestBodyReceived(boolean enable) {
+        System.setProperty("mockserver.respondBeforeRequestBodyReceived", "" + enable);
+    }
+
+    public static int requestLogSize() {
+        return readIntProperty("mockserver.requestLogSize", DEFAULT_REQUEST_LOG_SIZE);
+    }
+
+    public static void requestLogSize(int size) {
+        System.setProperty("mockserver.requestLogSize", "" + size);
+    }
+
+    /**
+     * The maximum total size, in bytes, of the bodies of the requests kept in memory, once over this the oldest
+     * requests are removed from the request log
+     */
+    public static long requestLogMaxBytes() {
+        return readLongProperty("mockserver.requestLogMaxBytes", DEFAULT_REQUEST_LOG_MAX_BYTES);
+    }
+
+    public static void requestLogMaxBytes(long maxBytes) {
+        System.setProperty("mockserver.requestLogMaxBytes", "" + maxBytes);
+    }
+
+    // journal config
+    public static String journalDirectory() {
+        return readPropertyHierarchically("mockserver.journalDirectory", "");
+    }
+
+    public static void journalDirectory(String directory) {
+        System.setProperty("mockserver.journalDirectory", directory);
+    }
+
+    public static int journalSegmentSize() {
+        return readIntProperty("mockserver.journalSegmentSize", DEFAULT_JOURNAL_SEGMENT_SIZE);
+    }
+
+    public static void journalSegmentSize(int size) {
+        System.setProperty("mockserver.journalSegmentSize", "" + size);
+    }
+
+    /**
+     * The maximum number of segments in each journal, once reached the oldest segment is deleted to make room for a new
+     * one, so a journal uses at most this many times the segment size on disk, 0 for no maximum (the default)
+     */
+    public static int journalMaxSegments() {
+        return readIntProperty("mockserver.journalMaxSegments", 0);
+    }
+
+    public static void journalMaxSegments(int maxSegments) {
+        System.setProperty("mockserver.journalMaxSegments", "" + maxSegments);
+    }
+
+    /**
+     * When true the journal is opened read only, so the requests journaled by a previous run can be retrieved and
+     * verified, and new requests are not journaled, otherwise the journal is emptied when it is opened
+     */
+    public static boolean journalReadOnly() {
+        return Boolean.parseBoolean(readPropertyHierarchically("mockserver.journalReadOnly", "" + false));
+    }
+
+    public static void journalReadOnly(boolean readOnly) {
+        System.setProperty("mockserver.journalReadOnly", "" + readOnly);
+    }
+
     // ssl config
     public static String javaKeyStoreFilePath() {
         return readPropertyHierarchically("mockserver.javaKeyStoreFilePath", KeyStoreFactory.defaultKeyStoreFileName());
@@ -204,6 +430,15 @@ public class ConfigurationProperties {
         }
     }
 
+    private static int readIntProperty(String key, int defaultValue) {
+        try {
+            return Integer.parseInt(readPropertyHierarchically(key, "" + defaultValue));
+        } catch (NumberFormatException nfe) {
+            LOGGER.error("NumberFormatException converting " + key + " with value [" + readPropertyHierarchically(key, "" + defaultValue) + "]", nfe);
+            return defaultValue;
+        }
+    }
+
     private static Long readLongProperty(String key, long defaultValue) {
         try {
             return Long.parseLong(readPropertyHierarchically(key, "" + defaultValue));
@@ -1,5 +1,6 @@
 package org.mockserver.cors;
 
+import io.netty.handler.codec.http.HttpHeaders;
 import org.mockserver.model.HttpResponse;
 
 import javax.servlet.http.HttpServletResponse;
@@ -54,4 +55,27 @@ public class CORSHeaders {
             httpServletResponse.setHeader("X-CORS", "MockServer CORS support enabled by default, to disable ConfigurationProperties.enableCORSForAPI(false) or -Dmockserver.disableCORS=false");
         }
     }
+
+    public void addCORSHeaders(HttpHeaders httpHeaders) {
+        String methods = "CONNECT, DELETE, GET, HEAD, OPTIONS, POST, PUT, TRACE";
+        String headers = "Allow, Content-Encoding, Content-Length, Content-Type, ETag, Expires, Last-Modified, Location, Server, Vary";
+        if (!httpHeaders.contains("Access-Control-Allow-Origin")) {
+            httpHeaders.set("Access-Control-Allow-Origin", "*");
+        }
+        if (!httpHeaders.contains("Access-Control-Allow-Methods")) {
+            httpHeaders.set("Access-Control-Allow-Methods", methods);
+        }
+        if (!httpHeaders.contains("Access-Control-Allow-Headers")) {
+            httpHeaders.set("Access-Control-Allow-Headers", headers);
+        }
+        if (!httpHeaders.contains("Access-Control-Expose-Headers")) {
+            httpHeaders.set("Access-Control-Expose-Headers", headers);
+        }
+        if (!httpHeaders.contains("Access-Control-Max-Age")) {
+            httpHeaders.set("Access-Control-Max-Age", "1");
+        }
+        if (!httpHeaders.contains("X-CORS")) {
+            httpHeaders.set("X-CORS", "MockServer CORS support enabled by default, to disable ConfigurationProperties.enableCORSForAPI(false) or -Dmockserver.disableCORS=false");
+        }
+    }
 }
@@ -15,6 +15,7 @@ import org.mockserver.model.HttpResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.Queue;
@@ -26,7 +27,7 @@ public class EchoServer {
     static final AttributeKey<RequestLogFilter> LOG_FILTER = AttributeKey.valueOf("SERVER_LOG_FILTER");
     static final AttributeKey<NextResponse> NEXT_RESPONSE = AttributeKey.valueOf("NEXT_RESPONSE");
 
-    private final RequestLogFilter requestLogFilter = new RequestLogFilter();
+    private final RequestLogFilter requestLogFilter;
     private final NextResponse nextResponse = new NextResponse();
     private final NioEventLoopGroup eventLoopGroup = new NioEventLoopGroup();
 
@@ -37,6 +38,7 @@ public class EchoServer {
 
     public EchoServer(final int port, final boolean secure, final Error error) {
         Logger logger = LoggerFactory.getLogger(EchoServer.class);
+        requestLogFilter = new RequestLogFilter("echoServer-" + port);
         final SettableFuture<String> hasStarted = SettableFuture.create();
 
         new Thread(new Runnable() {
@@ -77,6 +79,11 @@ public class EchoServer {
 
     public void stop() {
         eventLoopGroup.shutdownGracefully(0, 1, TimeUnit.MILLISECONDS);
+        try {
+            requestLogFilter.close();
+        } catch (IOException ioe) {
+            LoggerFactory.getLogger(EchoServer.class).warn("Exception while closing request log", ioe);
+        }
     }
 
     public RequestLogFilter requestLogFilter() {
@@ -1,40 +1,121 @@
 package org.mockserver.filters;
 
-import com.google.common.collect.EvictingQueue;
-import com.google.common.collect.Queues;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Strings;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
 import org.mockserver.client.serialization.HttpRequestSerializer;
+import org.mockserver.client.serialization.ObjectMapperFactory;
+import org.mockserver.client.serialization.model.HttpRequestDTO;
+import org.mockserver.collections.AppendableLog;
+import org.mockserver.collections.ConcurrentRingBuffer;
+import org.mockserver.collections.MappedJournal;
+import org.mockserver.collections.Page;
+import org.mockserver.collections.SequencedIterator;
+import org.mockserver.configuration.ConfigurationProperties;
 import org.mockserver.logging.LogFormatter;
+import org.mockserver.matchers.HttpRequestMatchContext;
 import org.mockserver.matchers.HttpRequestMatcher;
 import org.mockserver.matchers.MatcherBuilder;
 import org.mockserver.model.HttpRequest;
 import org.mockserver.model.HttpResponse;
 import org.mockserver.verify.Verification;
 import org.mockserver.verify.VerificationSequence;
+import org.mockserver.verify.VerificationTimes;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Queue;
+import java.util.NoSuchElementException;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.mockserver.character.Character.NEW_LINE;
 
 /**
  * @author jamesdbloom
  */
-public class RequestLogFilter implements ResponseFilter, RequestFilter {
+public class RequestLogFilter implements ResponseFilter, RequestFilter, Closeable {
 
+    // the cursor to retrieve the first page of requests
+    public static final long FIRST_PAGE = -1;
+    // the journal subdirectory used when a filter isn't given one
+    public static final String DEFAULT_JOURNAL_NAME = "mockserver";
     private static final Logger logger = LoggerFactory.getLogger(RequestLogFilter.class);
-    // request persistence
-    private final EvictingQueue<HttpRequest> evictingQueue = EvictingQueue.create(100);
-    private final Queue<HttpRequest> requestLog =  Queues.synchronizedQueue(evictingQueue);
+    // a journal opened read only to retrieve and verify the requests of a previous run, new requests aren't logged
+    private final boolean readOnly = !Strings.isNullOrEmpty(ConfigurationProperties.journalDirectory()) && ConfigurationProperties.journalReadOnly();
+    // request persistence, requests are read without copying the log
+    private final AppendableLog<HttpRequest> requestLog;
+    // verifications whose matching requests are counted as requests are logged
+    private final ConcurrentMap<HttpRequest, MatchingRequestCount> registeredVerifications = new ConcurrentHashMap<HttpRequest, MatchingRequestCount>();
+    // verifications waiting for matching requests to be logged
+    private final List<AwaitedVerification<?>> awaitedVerifications = new CopyOnWriteArrayList<AwaitedVerification<?>>();
+    // requests received while the server stops aren't logged once the filter is closed
+    private volatile boolean closed;
 
     // matcher
     private final MatcherBuilder matcherBuilder = new MatcherBuilder();
     private LogFormatter logFormatter = new LogFormatter(logger);
     private HttpRequestSerializer httpRequestSerializer = new HttpRequestSerializer();
 
+    public RequestLogFilter() {
+        this(DEFAULT_JOURNAL_NAME);
+    }
+
+    /**
+     * @param journalName the subdirectory of the journal directory this filter journals requests to, unique per server
+     *                    (i.e. role and port) so servers never share a journal
+     */
+    public RequestLogFilter(String journalName) {
+        requestLog = createRequestLog(journalName, readOnly, new ConcurrentRingBuffer.EvictionListener<HttpRequest>() {
+            @Override
+            public void evicted(long sequence, HttpRequest httpRequest) {
+                uncount(sequence, httpRequest);
+            }
+        });
+    }
+
+    /**
+     * Requests are kept in a memory mapped journal on disk when a journal directory is configured, bounded by the
+     * number of segments, otherwise the most recent requests are kept in memory, bounded by both count and the total
+     * size of their bodies, either way requests leaving the log because it is full are uncounted by the listener
+     */
+    private static AppendableLog<HttpRequest> createRequestLog(String journalName, boolean readOnly, ConcurrentRingBuffer.EvictionListener<HttpRequest> evictionListener) {
+        if (Strings.isNullOrEmpty(ConfigurationProperties.journalDirectory())) {
+            return new ConcurrentRingBuffer<HttpRequest>(ConfigurationProperties.requestLogSize(), ConfigurationProperties.requestLogMaxBytes(), new ConcurrentRingBuffer.Weigher<HttpRequest>() {
+                @Override
+                public long weigh(HttpRequest httpRequest) {
+                    byte[] rawBytes = httpRequest.getBody() != null ? httpRequest.getBody().getRawBytes() : null;
+                    return rawBytes != null ? rawBytes.length : 0;
+                }
+            }, evictionListener);
+        } else {
+            return new MappedJournal<HttpRequest>(new File(ConfigurationProperties.journalDirectory(), journalName), "requests", ConfigurationProperties.journalSegmentSize(), readOnly, ConfigurationProperties.journalMaxSegments(), evictionListener) {
+                private final ObjectMapper objectMapper = ObjectMapperFactory.createObjectMapper();
+
+                @Override
+                protected byte[] serialize(HttpRequest httpRequest) throws IOException {
+                    return objectMapper.writeValueAsBytes(new HttpRequestDTO(httpRequest));
+                }
+
+                @Override
+                protected HttpRequest deserialize(byte[] bytes) throws IOException {
+                    return objectMapper.readValue(bytes, HttpRequestDTO.class).buildObject();
+                }
+            };
+        }
+    }
+
     @Override
     public HttpResponse onResponse(HttpRequest httpRequest, HttpResponse httpResponse) {
         return httpResponse;
@@ -42,13 +123,37 @@ public class RequestLogFilter implements ResponseFilter, RequestFilter {
 
     @Override
     public HttpRequest onRequest(HttpRequest httpRequest) {
-        requestLog.add(httpRequest);
+        if (readOnly || closed) {
+            return httpRequest;
+        }
+        // no lock is held, a request removed before it is counted is uncounted first, so the count is only briefly low
+        long sequence = requestLog.add(httpRequest);
+        // a request dropped as it was added, because newer requests filled the log first, isn't counted
+        if (sequence >= 0) {
+            HttpRequestMatchContext matchContext = new HttpRequestMatchContext(httpRequest);
+            for (MatchingRequestCount registeredVerification : registeredVerifications.values()) {
+                registeredVerification.onRequestLogged(sequence, matchContext);
+            }
+            for (AwaitedVerification<?> awaitedVerification : awaitedVerifications) {
+                awaitedVerification.onRequestLogged(sequence, matchContext);
+            }
+        }
         return httpRequest;
     }
 
-    public /* synchronized */ List<HttpRequest> httpRequests(HttpRequest httpRequest) {
-        LinkedList<HttpRequest> requestLog = new LinkedList<HttpRequest>(this.requestLog);
+    /**
+     * Closes the journal, if requests are journaled, releasing its directory lock so a server restarted on the same
+     * port journals to the same directory
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        if (requestLog instanceof Closeable) {
+            ((Closeable) requestLog).close();
+        }
+    }
 
+    public List<HttpRequest> httpRequests(HttpRequest httpRequest) {
         List<HttpRequest> httpRequests = new ArrayList<HttpRequest>();
         HttpRequestMatcher httpRequestMatcher = matcherBuilder.transformsToMatcher(httpRequest);
         for (HttpRequest loggedHttpRequest : requestLog) {
@@ -59,100 +164,260 @@ public class RequestLogFilter implements ResponseFilter, RequestFilter {
         return httpRequests;
     }
 
-    public /* synchronized */ void reset() {
-        requestLog.clear();
+    /**
+     * Removes every logged request, unless the journal of a previous run is open read only, which is never changed so
+     * resetting doesn't fail part way through after expectations have been reset
+     */
+    public void reset() {
+        if (!readOnly) {
+            requestLog.clear();
+        }
+        registeredVerifications.clear();
+        // the log is cleared without uncounting each request so waiting verifications count again from scratch
+        for (AwaitedVerification<?> awaitedVerification : awaitedVerifications) {
+            awaitedVerification.start(requestLog);
+        }
     }
 
-    public /* synchronized */ void clear(HttpRequest httpRequest) {
+    /**
+     * Removes the logged requests matching the request, or every logged request if it is null, does nothing when the
+     * journal of a previous run is open read only
+     */
+    public void clear(HttpRequest httpRequest) {
+        if (readOnly) {
+            return;
+        }
         if (httpRequest != null) {
             HttpRequestMatcher httpRequestMatcher = matcherBuilder.transformsToMatcher(httpRequest);
-            for (HttpRequest value : new LinkedList<HttpRequest>(requestLog)) {
-                if (httpRequestMatcher.matches(value, true)) {
-                    requestLog.remove(value);
+            for (SequencedIterator<HttpRequest> iterator = requestLog.iterator(FIRST_PAGE); iterator.hasNext(); ) {
+                HttpRequest value = iterator.next();
+                // only uncounted by the thread that removes it, not again if it is evicted at the same time
+                if (httpRequestMatcher.matches(value, true) && iterator.removeIfPresent()) {
+                    uncount(iterator.sequence(), value);
                 }
             }
+            for (AwaitedVerification<?> awaitedVerification : awaitedVerifications) {
+                awaitedVerification.requestsCleared(requestLog);
+            }
         } else {
             reset();
         }
     }
 
+    /**
+     * Uncounts a request that has left the log, because it was cleared or evicted from a full log, from every
+     * verification it matches, every request still in the log has been counted by every verification it matches
+     */
+    private void uncount(long sequence, HttpRequest httpRequest) {
+        HttpRequestMatchContext matchContext = new HttpRequestMatchContext(httpRequest);
+        for (MatchingRequestCount registeredVerification : registeredVerifications.values()) {
+            registeredVerification.onRequestRemoved(sequence, matchContext);
+        }
+        for (AwaitedVerification<?> awaitedVerification : awaitedVerifications) {
+            awaitedVerification.onRequestRemoved(sequence, matchContext);
+        }
+    }
+
     public HttpRequest[] retrieve(HttpRequest httpRequestToMatch) {
-        LinkedList<HttpRequest> requestLog = new LinkedList<HttpRequest>(this.requestLog);
+        List<HttpRequest> matchingRequests = retrieve(httpRequestToMatch, FIRST_PAGE, Integer.MAX_VALUE).getRecords();
+        return matchingRequests.toArray(new HttpRequest[matchingRequests.size()]);
+    }
 
+    /**
+     * Retrieves one page of the matching requests without copying the rest of the log, the page starts after the
+     * request the cursor refers to, so requests removed from the log or the log being cleared between pages never
+     * cause requests to be repeated or skipped
+     *
+     * @param cursor the next cursor of the previous page, or FIRST_PAGE
+     */
+    public Page<HttpRequest> retrieve(HttpRequest httpRequestToMatch, long cursor, int limit) {
         List<HttpRequest> matchingRequests = new ArrayList<HttpRequest>();
-        if (httpRequestToMatch != null) {
-            HttpRequestMatcher httpRequestMatcher = matcherBuilder.transformsToMatcher(httpRequestToMatch);
-            for (HttpRequest httpRequest : requestLog) {
-                if (httpRequestMatcher.matches(httpRequest, true)) {
-                    matchingRequests.add(httpRequest);
-                }
+        SequencedIterator<HttpRequest> iterator = retrieveIterator(httpRequestToMatch, cursor, limit);
+        while (iterator.hasNext()) {
+            matchingRequests.add(iterator.next());
+        }
+        return new Page<HttpRequest>(matchingRequests, iterator.sequence());
+    }
+
+    /**
+     * Retrieves the same page of matching requests as {@link #retrieve(HttpRequest, long, int)}, but each request is
+     * read from the log and matched as the iterator is iterated, so the page is never held in memory as a whole, once
+     * iterated the iterator's sequence is the next cursor
+     *
+     * @param cursor the next cursor of the previous page, or FIRST_PAGE
+     */
+    public SequencedIterator<HttpRequest> retrieveIterator(HttpRequest httpRequestToMatch, long cursor, int limit) {
+        HttpRequestMatcher httpRequestMatcher = httpRequestToMatch != null ? matcherBuilder.transformsToMatcher(httpRequestToMatch) : null;
+        return new MatchingRequestIterator(requestLog.iterator(cursor), httpRequestMatcher, limit);
+    }
+
+    /**
+     * Registers a verification request so the requests matching it are counted as they are logged and verifying it
+     * doesn't need to match every request in the log, the count starts from the requests already in the log and is
+     * always the number of matching requests in the log, requests are uncounted when they are cleared or evicted
+     * because the log is full, so a registered verification gives the same result as the same verification unregistered
+     *
+     * The requests already in the log are counted without stopping other requests being logged, until they have been
+     * counted the verification is verified by matching every request in the log
+     */
+    public void registerVerification(HttpRequest httpRequest) {
+        if (httpRequest != null && !registeredVerifications.containsKey(httpRequest)) {
+            MatchingRequestCount registeredVerification = new MatchingRequestCount(matcherBuilder.transformsToMatcher(httpRequest));
+            // added before counting starts so every request logged from then on is passed to it
+            if (registeredVerifications.putIfAbsent(httpRequest, registeredVerification) == null) {
+                registeredVerification.start(requestLog);
             }
-        } else {
-            matchingRequests.addAll(requestLog);
         }
-        return matchingRequests.toArray(new HttpRequest[matchingRequests.size()]);
     }
 
     public String verify(Verification verification) {
-        LinkedList<HttpRequest> requestLog = new LinkedList<HttpRequest>(this.requestLog);
+        return verify(verification, false);
+    }
 
+    /**
+     * Unless the verification is registered this matches every request in the log, which for a journal means reading
+     * and deserializing every record in the journal, so verifying takes time in proportion to the size of the journal
+     *
+     * @param includeRequestLog whether the failure message for a registered verification includes every request in the log
+     */
+    public String verify(Verification verification, boolean includeRequestLog) {
         String failureMessage = "";
 
         if (verification != null) {
-            List<HttpRequest> matchingRequests = new ArrayList<HttpRequest>();
-            if (verification.getHttpRequest() != null) {
+            MatchingRequestCount registeredVerification = verification.getHttpRequest() != null ? registeredVerifications.get(verification.getHttpRequest()) : null;
+            if (registeredVerification != null && !registeredVerification.isScanned()) {
+                // still counting the requests already logged
+                registeredVerification = null;
+            }
+            long matchingRequestCount = 0;
+            if (registeredVerification != null) {
+                matchingRequestCount = registeredVerification.count();
+            } else if (verification.getHttpRequest() != null) {
                 HttpRequestMatcher httpRequestMatcher = matcherBuilder.transformsToMatcher(verification.getHttpRequest());
                 for (HttpRequest httpRequest : requestLog) {
                     if (httpRequestMatcher.matches(httpRequest, true)) {
-                        matchingRequests.add(httpRequest);
+                        matchingRequestCount++;
                     }
                 }
             }
 
-            boolean verified = true;
+            if (!verified(verification.getTimes(), matchingRequestCount)) {
+                String serializedRequestToBeVerified = httpRequestSerializer.serialize(verification.getHttpRequest());
+                if (registeredVerification == null || includeRequestLog) {
+                    HttpRequest[] allRequestsArray = retrieve(null);
+                    String serializedAllRequestInLog = allRequestsArray.length == 1 ? httpRequestSerializer.serialize(allRequestsArray[0]) : httpRequestSerializer.serialize(allRequestsArray);
+                    logFormatter.infoLog("request not found " + verification.getTimes() + ", expected:{}" + NEW_LINE + " but was:{}", serializedRequestToBeVerified, serializedAllRequestInLog);
+                    failureMessage = "Request not found " + verification.getTimes() + ", expected:<" + serializedRequestToBeVerified + "> but was:<" + serializedAllRequestInLog + ">";
+                } else {
+                    logFormatter.infoLog("request not found " + verification.getTimes() + ", expected:{}" + NEW_LINE + " but was found " + matchingRequestCount + " times", serializedRequestToBeVerified);
+                    failureMessage = "Request not found " + verification.getTimes() + ", expected:<" + serializedRequestToBeVerified + "> but was found " + matchingRequestCount + " times";
+                }
+            }
+        }
+
+        return failureMessage;
+    }
+
+    private static boolean verified(VerificationTimes times, long matchingRequestCount) {
+        if (times.getCount() != 0 && matchingRequestCount == 0) {
+            return false;
+        } else if (times.isExact() && matchingRequestCount != times.getCount()) {
+            return false;
+        } else {
+            return matchingRequestCount >= times.getCount();
+        }
+    }
 
-            if (verification.getTimes().getCount() != 0 && matchingRequests.isEmpty()) {
-                verified = false;
-            } else if (verification.getTimes().isExact() && matchingRequests.size() != verification.getTimes().getCount()) {
-                verified = false;
-            } else if (matchingRequests.size() < verification.getTimes().getCount()) {
-                verified = false;
+    /**
+     * Verifies without blocking a thread while waiting for matching requests, the returned future completes as soon
+     * as the verification passes or, with the failure message, once the timeout expires
+     *
+     * The matching requests are counted once when waiting starts and then as requests are logged, so waiting doesn't
+     * scan the log for each matching request, the log is only verified again, for the failure message, on timeout,
+     * the requests already logged are counted without stopping other requests being logged
+     *
+     * @param executor the executor that completes the result and runs the timeout (i.e. the event loop of the connection waiting for the result)
+     */
+    public ListenableFuture<String> verify(final Verification verification, final boolean includeRequestLog, long timeoutMillis, ScheduledExecutorService executor) {
+        if (verification == null) {
+            return Futures.immediateFuture("");
+        }
+        HttpRequestMatcher httpRequestMatcher = verification.getHttpRequest() != null ? matcherBuilder.transformsToMatcher(verification.getHttpRequest()) : null;
+        return awaitVerification(new AwaitedRequestCount(new Callable<String>() {
+            @Override
+            public String call() {
+                return verify(verification, includeRequestLog);
             }
+        }, executor, httpRequestMatcher, verification.getTimes()), timeoutMillis, executor);
+    }
 
-            if (!verified) {
-                HttpRequest[] allRequestsArray = requestLog.toArray(new HttpRequest[requestLog.size()]);
-                String serializedRequestToBeVerified = httpRequestSerializer.serialize(verification.getHttpRequest());
-                String serializedAllRequestInLog = allRequestsArray.length == 1 ? httpRequestSerializer.serialize(allRequestsArray[0]) : httpRequestSerializer.serialize(allRequestsArray);
-                logFormatter.infoLog("request not found " + verification.getTimes() + ", expected:{}" + NEW_LINE + " but was:{}", serializedRequestToBeVerified, serializedAllRequestInLog);
-                failureMessage = "Request not found " + verification.getTimes() + ", expected:<" + serializedRequestToBeVerified + "> but was:<" + serializedAllRequestInLog + ">";
+    /**
+     * Verifies without blocking a thread while waiting for matching requests, the returned future completes as soon
+     * as the verification passes or, with the failure message, once the timeout expires
+     *
+     * How much of the sequence has been logged is found once when waiting starts and then advanced as requests are
+     * logged, requests logged at the same time by different connections may be logged in a different order to the one
+     * they advance the sequence in, so a sequence completed by them is only found when the log is verified on timeout
+     *
+     * @param executor the executor that completes the result and runs the timeout (i.e. the event loop of the connection waiting for the result)
+     */
+    public ListenableFuture<String> verify(final VerificationSequence verificationSequence, long timeoutMillis, ScheduledExecutorService executor) {
+        List<HttpRequestMatcher> httpRequestMatchers = new ArrayList<HttpRequestMatcher>();
+        if (verificationSequence != null) {
+            for (HttpRequest verificationHttpRequest : verificationSequence.getHttpRequests()) {
+                if (verificationHttpRequest != null) {
+                    httpRequestMatchers.add(matcherBuilder.transformsToMatcher(verificationHttpRequest));
+                }
             }
         }
+        return awaitVerification(new AwaitedRequestSequence(new Callable<String>() {
+            @Override
+            public String call() {
+                return verify(verificationSequence);
+            }
+        }, executor, httpRequestMatchers), timeoutMillis, executor);
+    }
 
-        return failureMessage;
+    private ListenableFuture<String> awaitVerification(final AwaitedVerification<?> awaitedVerification, long timeoutMillis, ScheduledExecutorService executor) {
+        // added before counting starts so every request logged from then on is passed to it
+        awaitedVerifications.add(awaitedVerification);
+        awaitedVerification.start(requestLog);
+        final ScheduledFuture<?> timeout = executor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                awaitedVerification.timeout();
+            }
+        }, timeoutMillis, TimeUnit.MILLISECONDS);
+        awaitedVerification.result.addListener(new Runnable() {
+            @Override
+            public void run() {
+                awaitedVerifications.remove(awaitedVerification);
+                timeout.cancel(false);
+            }
+        }, MoreExecutors.directExecutor());
+        return awaitedVerification.result;
     }
 
     public String verify(VerificationSequence verificationSequence) {
-        LinkedList<HttpRequest> requestLog = new LinkedList<HttpRequest>(this.requestLog);
-
         String failureMessage = "";
 
         if (verificationSequence != null) {
 
-            int requestLogCounter = 0;
+            Iterator<HttpRequest> requestLogIterator = requestLog.iterator();
 
             for (HttpRequest verificationHttpRequest : verificationSequence.getHttpRequests()) {
                 if (verificationHttpRequest != null) {
                     HttpRequestMatcher httpRequestMatcher = matcherBuilder.transformsToMatcher(verificationHttpRequest);
                     boolean foundRequest = false;
-                    for (; !foundRequest && requestLogCounter < requestLog.size(); requestLogCounter++) {
-                        if (httpRequestMatcher.matches(requestLog.get(requestLogCounter), true)) {
+                    while (!foundRequest && requestLogIterator.hasNext()) {
+                        if (httpRequestMatcher.matches(requestLogIterator.next(), true)) {
                             // move on to next request
                             foundRequest = true;
                         }
                     }
                     if (!foundRequest) {
                         String serializedRequestToBeVerified = httpRequestSerializer.serialize(verificationSequence.getHttpRequests());
-                        String serializedAllRequestInLog = httpRequestSerializer.serialize(requestLog);
+                        String serializedAllRequestInLog = httpRequestSerializer.serialize(retrieve(null));
                         failureMessage = "Request sequence not found, expected:<" + serializedRequestToBeVerified + "> but was:<" + serializedAllRequestInLog + ">";
                         logFormatter.infoLog("request sequence not found, expected:{}" + NEW_LINE + " but was:{}", serializedRequestToBeVerified, serializedAllRequestInLog);
                         break;
@@ -163,4 +428,386 @@ public class RequestLogFilter implements ResponseFilter, RequestFilter {
 
         return failureMessage;
     }
+
+    private static class MatchingRequestIterator implements SequencedIterator<HttpRequest> {
+        private final SequencedIterator<HttpRequest> requestLog;
+        // null when every request matches
+        private final HttpRequestMatcher httpRequestMatcher;
+        private final int limit;
+        private int matchedRequestCount;
+        private HttpRequest next;
+        private long nextSequence;
+        private long lastSequence;
+
+        MatchingRequestIterator(SequencedIterator<HttpRequest> requestLog, HttpRequestMatcher httpRequestMatcher, int limit) {
+            this.requestLog = requestLog;
+            this.httpRequestMatcher = httpRequestMatcher;
+            this.limit = limit;
+            this.lastSequence = requestLog.sequence();
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && matchedRequestCount < limit && requestLog.hasNext()) {
+                HttpRequest httpRequest = requestLog.next();
+                if (httpRequestMatcher == null || httpRequestMatcher.matches(httpRequest, true)) {
+                    next = httpRequest;
+                    nextSequence = requestLog.sequence();
+                } else {
+                    // the last request read, not the last matched, so the next page doesn't match the same requests again
+                    lastSequence = requestLog.sequence();
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public HttpRequest next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            HttpRequest httpRequest = next;
+            next = null;
+            lastSequence = nextSequence;
+            matchedRequestCount++;
+            return httpRequest;
+        }
+
+        @Override
+        public long sequence() {
+            return lastSequence;
+        }
+
+        @Override
+        public boolean removeIfPresent() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * Scans the requests already in the log once, without stopping requests being logged, and then follows the
+     * requests logged after the scan started, the sequence of each request decides whether the scan or following it
+     * sees it, so requests logged while the log is being scanned are neither missed nor seen twice.
+     *
+     * Requests logged or removed while the scan is running are held until it has finished.
+     */
+    private abstract static class LoggedRequestScan {
+        // requests before this sequence are seen by the scan, only read once scanned
+        protected long startSequence;
+        // guarded by this, null once scanned
+        private List<PendingRequest> pendingRequests = new ArrayList<PendingRequest>();
+        private volatile boolean scanned;
+
+        /**
+         * Scans the requests in the log, must only be called once this scan is passed the requests being logged
+         */
+        void start(AppendableLog<HttpRequest> requestLog) {
+            startSequence = requestLog.nextSequence();
+            scan(requestLog.iterator(FIRST_PAGE, startSequence));
+            synchronized (this) {
+                for (PendingRequest pendingRequest : pendingRequests) {
+                    if (pendingRequest.logged) {
+                        logged(pendingRequest.sequence, pendingRequest.matchContext);
+                    } else {
+                        removed(pendingRequest.sequence, pendingRequest.matchContext);
+                    }
+                }
+                pendingRequests = null;
+                scanned = true;
+            }
+        }
+
+        boolean isScanned() {
+            return scanned;
+        }
+
+        void onRequestLogged(long sequence, HttpRequestMatchContext matchContext) {
+            if (scanned || !pend(new PendingRequest(sequence, matchContext, true))) {
+                logged(sequence, matchContext);
+            }
+        }
+
+        void onRequestRemoved(long sequence, HttpRequestMatchContext matchContext) {
+            if (scanned || !pend(new PendingRequest(sequence, matchContext, false))) {
+                removed(sequence, matchContext);
+            }
+        }
+
+        private synchronized boolean pend(PendingRequest pendingRequest) {
+            if (scanned) {
+                return false;
+            }
+            pendingRequests.add(pendingRequest);
+            return true;
+        }
+
+        /**
+         * @param requestLog the requests before the start sequence
+         */
+        abstract void scan(SequencedIterator<HttpRequest> requestLog);
+
+        /**
+         * Called once the scan has finished for each request logged since the scan was passed the requests being logged
+         */
+        abstract void logged(long sequence, HttpRequestMatchContext matchContext);
+
+        /**
+         * Called once the scan has finished for each request that has left the log, because it was cleared or evicted
+         * because the log is full, since the scan was passed the requests being logged
+         */
+        abstract void removed(long sequence, HttpRequestMatchContext matchContext);
+    }
+
+    private static class PendingRequest {
+        private final long sequence;
+        private final HttpRequestMatchContext matchContext;
+        private final boolean logged;
+
+        PendingRequest(long sequence, HttpRequestMatchContext matchContext, boolean logged) {
+            this.sequence = sequence;
+            this.matchContext = matchContext;
+            this.logged = logged;
+        }
+    }
+
+    /**
+     * The number of matching requests in the log, a request leaving the log is only uncounted if it was counted
+     */
+    private static class MatchingRequestCount extends LoggedRequestScan {
+        // null when no request matches
+        private final HttpRequestMatcher httpRequestMatcher;
+        // an AtomicLong rather than a LongAdder, which needs Java 8
+        private final AtomicLong count = new AtomicLong();
+        // guarded by this, the sequences of the matching requests the scan counted, in order, and those since uncounted
+        private long[] scannedSequences = new long[16];
+        private int scannedSequenceCount;
+        private final BitSet uncountedScannedSequences = new BitSet();
+
+        MatchingRequestCount(HttpRequestMatcher httpRequestMatcher) {
+            this.httpRequestMatcher = httpRequestMatcher;
+        }
+
+        long count() {
+            return count.get();
+        }
+
+        @Override
+        void scan(SequencedIterator<HttpRequest> requestLog) {
+            if (httpRequestMatcher != null) {
+                while (requestLog.hasNext()) {
+                    if (httpRequestMatcher.matches(requestLog.next(), false)) {
+                        addScannedSequence(requestLog.sequence());
+                        count.incrementAndGet();
+                    }
+                }
+            }
+        }
+
+        private synchronized void addScannedSequence(long sequence) {
+            if (scannedSequenceCount == scannedSequences.length) {
+                scannedSequences = Arrays.copyOf(scannedSequences, scannedSequences.length * 2);
+            }
+            scannedSequences[scannedSequenceCount++] = sequence;
+        }
+
+        @Override
+        void logged(long sequence, HttpRequestMatchContext matchContext) {
+            if (sequence >= startSequence && matches(matchContext)) {
+                count.incrementAndGet();
+            }
+        }
+
+        @Override
+        void removed(long sequence, HttpRequestMatchContext matchContext) {
+            if (matches(matchContext)) {
+                if (sequence >= startSequence) {
+                    count.decrementAndGet();
+                } else {
+                    uncountScanned(sequence);
+                }
+            }
+        }
+
+        private synchronized void uncountScanned(long sequence) {
+            // not found if it left the log before the scan reached it
+            int index = Arrays.binarySearch(scannedSequences, 0, scannedSequenceCount, sequence);
+            if (index >= 0 && !uncountedScannedSequences.get(index)) {
+                uncountedScannedSequences.set(index);
+                count.decrementAndGet();
+            }
+        }
+
+        private boolean matches(HttpRequestMatchContext matchContext) {
+            return httpRequestMatcher != null && httpRequestMatcher.matches(matchContext, false);
+        }
+    }
+
+    /**
+     * The number of requests at the start of a sequence found in the log in order
+     *
+     * Requests logged at the same time by different connections may be passed to it in a different order to the one
+     * they are logged in, so a sequence completed by them is only found by verifying the log
+     */
+    private static class MatchingRequestSequence extends LoggedRequestScan {
+        private final List<HttpRequestMatcher> httpRequestMatchers;
+        private final AtomicInteger matchedRequestCount = new AtomicInteger();
+
+        MatchingRequestSequence(List<HttpRequestMatcher> httpRequestMatchers) {
+            this.httpRequestMatchers = httpRequestMatchers;
+        }
+
+        boolean isComplete() {
+            return matchedRequestCount.get() == httpRequestMatchers.size();
+        }
+
+        @Override
+        void scan(SequencedIterator<HttpRequest> requestLog) {
+            while (!isComplete() && requestLog.hasNext()) {
+                advance(new HttpRequestMatchContext(requestLog.next()));
+            }
+        }
+
+        @Override
+        void logged(long sequence, HttpRequestMatchContext matchContext) {
+            if (sequence >= startSequence) {
+                advance(matchContext);
+            }
+        }
+
+        @Override
+        void removed(long sequence, HttpRequestMatchContext matchContext) {
+            // a request evicted while waiting stays part of the sequence found so far, cleared requests are rescanned
+        }
+
+        private void advance(HttpRequestMatchContext matchContext) {
+            int matched = matchedRequestCount.get();
+            // only advances if no other request advanced it first
+            if (matched < httpRequestMatchers.size() && httpRequestMatchers.get(matched).matches(matchContext, false)) {
+                matchedRequestCount.compareAndSet(matched, matched + 1);
+            }
+        }
+    }
+
+    private abstract static class AwaitedVerification<S extends LoggedRequestScan> {
+        private final Callable<String> verifier;
+        private final Executor executor;
+        private final SettableFuture<String> result = SettableFuture.create();
+        private volatile S scan;
+
+        AwaitedVerification(Callable<String> verifier, Executor executor) {
+            this.verifier = verifier;
+            this.executor = executor;
+        }
+
+        abstract S newScan();
+
+        abstract boolean passed(S scan);
+
+        /**
+         * Starts following the log, from scratch if it was already following it, must only be called once this
+         * verification is passed the requests being logged
+         */
+        void start(AppendableLog<HttpRequest> requestLog) {
+            S scan = newScan();
+            // visible before the scan starts so requests logged once it has started are passed to it
+            this.scan = scan;
+            scan.start(requestLog);
+            completeIfPassed();
+        }
+
+        /**
+         * Called after requests matching a clear request have been removed from the log
+         */
+        void requestsCleared(AppendableLog<HttpRequest> requestLog) {
+        }
+
+        void onRequestLogged(long sequence, HttpRequestMatchContext matchContext) {
+            S scan = this.scan;
+            if (scan != null && !result.isDone()) {
+                scan.onRequestLogged(sequence, matchContext);
+                completeIfPassed();
+            }
+        }
+
+        void onRequestRemoved(long sequence, HttpRequestMatchContext matchContext) {
+            S scan = this.scan;
+            if (scan != null && !result.isDone()) {
+                scan.onRequestRemoved(sequence, matchContext);
+            }
+        }
+
+        private void completeIfPassed() {
+            S scan = this.scan;
+            if (!result.isDone() && scan.isScanned() && passed(scan)) {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        result.set("");
+                    }
+                });
+            }
+        }
+
+        void timeout() {
+            if (!result.isDone()) {
+                try {
+                    result.set(verifier.call());
+                } catch (Exception e) {
+                    result.setException(e);
+                }
+            }
+        }
+    }
+
+    private static class AwaitedRequestCount extends AwaitedVerification<MatchingRequestCount> {
+        // null when any request matches
+        private final HttpRequestMatcher httpRequestMatcher;
+        private final VerificationTimes times;
+
+        AwaitedRequestCount(Callable<String> verifier, Executor executor, HttpRequestMatcher httpRequestMatcher, VerificationTimes times) {
+            super(verifier, executor);
+            this.httpRequestMatcher = httpRequestMatcher;
+            this.times = times;
+        }
+
+        @Override
+        MatchingRequestCount newScan() {
+            return new MatchingRequestCount(httpRequestMatcher);
+        }
+
+        @Override
+        boolean passed(MatchingRequestCount matchingRequestCount) {
+            return verified(times, matchingRequestCount.count());
+        }
+    }
+
+    private static class AwaitedRequestSequence extends AwaitedVerification<MatchingRequestSequence> {
+        private final List<HttpRequestMatcher> httpRequestMatchers;
+
+        AwaitedRequestSequence(Callable<String> verifier, Executor executor, List<HttpRequestMatcher> httpRequestMatchers) {
+            super(verifier, executor);
+            this.httpRequestMatchers = httpRequestMatchers;
+        }
+
+        @Override
+        MatchingRequestSequence newScan() {
+            return new MatchingRequestSequence(httpRequestMatchers);
+        }
+
+        @Override
+        boolean passed(MatchingRequestSequence matchingRequestSequence) {
+            return matchingRequestSequence.isComplete();
+        }
+
+        @Override
+        void requestsCleared(AppendableLog<HttpRequest> requestLog) {
+            // the sequence found so far may include cleared requests
+            start(requestLog);
+        }
+    }
 }
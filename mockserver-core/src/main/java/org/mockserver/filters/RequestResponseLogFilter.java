@@ -1,8 +1,14 @@
 package org.mockserver.filters;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Strings;
 import org.mockserver.client.serialization.ExpectationSerializer;
+import org.mockserver.client.serialization.ObjectMapperFactory;
 import org.mockserver.client.serialization.java.ExpectationToJavaSerializer;
+import org.mockserver.client.serialization.model.ExpectationDTO;
 import org.mockserver.collections.CircularMultiMap;
+import org.mockserver.collections.MappedJournal;
+import org.mockserver.configuration.ConfigurationProperties;
 import org.mockserver.matchers.HttpRequestMatcher;
 import org.mockserver.matchers.MatcherBuilder;
 import org.mockserver.matchers.TimeToLive;
@@ -13,27 +19,68 @@ import org.mockserver.model.HttpResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Map;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
 
 import static org.mockserver.model.HttpResponse.notFoundResponse;
 
 /**
  * @author jamesdbloom
  */
-public class RequestResponseLogFilter implements ResponseFilter, RequestFilter {
+public class RequestResponseLogFilter implements ResponseFilter, RequestFilter, Closeable {
 
     // request / response persistence
     private final CircularMultiMap<HttpRequest, HttpResponse> requestResponseLog = new CircularMultiMap<HttpRequest, HttpResponse>(100, 50);
+    // a journal opened read only to retrieve the requests and responses of a previous run, new ones aren't journaled
+    private final boolean readOnly = !Strings.isNullOrEmpty(ConfigurationProperties.journalDirectory()) && ConfigurationProperties.journalReadOnly();
+    // used instead of the in memory log when a journal directory is configured, each request and response is journaled as an expectation
+    private final MappedJournal<Expectation> requestResponseJournal;
     // matcher
     private final MatcherBuilder matcherBuilder = new MatcherBuilder();
     private Logger requestLogger = LoggerFactory.getLogger("REQUEST");
 
+    public RequestResponseLogFilter() {
+        this(RequestLogFilter.DEFAULT_JOURNAL_NAME);
+    }
+
+    /**
+     * @param journalName the subdirectory of the journal directory this filter journals requests and responses to,
+     *                    unique per server (i.e. role and port) so servers never share a journal
+     */
+    public RequestResponseLogFilter(String journalName) {
+        requestResponseJournal = createRequestResponseJournal(journalName, readOnly);
+    }
+
+    private static MappedJournal<Expectation> createRequestResponseJournal(String journalName, boolean readOnly) {
+        if (Strings.isNullOrEmpty(ConfigurationProperties.journalDirectory())) {
+            return null;
+        } else {
+            return new MappedJournal<Expectation>(new File(ConfigurationProperties.journalDirectory(), journalName), "requestResponses", ConfigurationProperties.journalSegmentSize(), readOnly, ConfigurationProperties.journalMaxSegments(), null) {
+                private final ObjectMapper objectMapper = ObjectMapperFactory.createObjectMapper();
+
+                @Override
+                protected byte[] serialize(Expectation expectation) throws IOException {
+                    return objectMapper.writeValueAsBytes(new ExpectationDTO(expectation));
+                }
+
+                @Override
+                protected Expectation deserialize(byte[] bytes) throws IOException {
+                    return objectMapper.readValue(bytes, ExpectationDTO.class).buildObject();
+                }
+            };
+        }
+    }
+
     @Override
     public HttpResponse onResponse(HttpRequest httpRequest, HttpResponse httpResponse) {
-        if (httpRequest != null && httpResponse != null) {
+        if (requestResponseJournal != null) {
+            // responses to forwarded requests completing while the server stops aren't journaled once it is closed
+            if (httpRequest != null && !readOnly && !requestResponseJournal.isClosed()) {
+                requestResponseJournal.add(new Expectation(httpRequest, Times.once(), TimeToLive.unlimited()).thenRespond(httpResponse != null ? httpResponse : notFoundResponse()));
+            }
+        } else if (httpRequest != null && httpResponse != null) {
             requestResponseLog.put(httpRequest, httpResponse);
         } else if (httpRequest != null) {
             requestResponseLog.put(httpRequest, notFoundResponse());
@@ -49,6 +96,24 @@ public class RequestResponseLogFilter implements ResponseFilter, RequestFilter {
     public List<HttpResponse> httpResponses(HttpRequest httpRequest) {
         List<HttpResponse> httpResponses = new ArrayList<HttpResponse>();
         HttpRequestMatcher httpRequestMatcher = matcherBuilder.transformsToMatcher(httpRequest);
+        if (requestResponseJournal != null) {
+            // grouped by request in the order each request was first logged, the same as the in memory log
+            Map<HttpRequest, List<HttpResponse>> httpResponsesByRequest = new LinkedHashMap<HttpRequest, List<HttpResponse>>();
+            for (Expectation expectation : requestResponseJournal) {
+                if (httpRequestMatcher.matches(expectation.getHttpRequest())) {
+                    List<HttpResponse> requestHttpResponses = httpResponsesByRequest.get(expectation.getHttpRequest());
+                    if (requestHttpResponses == null) {
+                        requestHttpResponses = new ArrayList<HttpResponse>();
+                        httpResponsesByRequest.put(expectation.getHttpRequest(), requestHttpResponses);
+                    }
+                    requestHttpResponses.add(expectation.getHttpResponse());
+                }
+            }
+            for (List<HttpResponse> requestHttpResponses : httpResponsesByRequest.values()) {
+                httpResponses.addAll(requestHttpResponses);
+            }
+            return httpResponses;
+        }
         for (HttpRequest loggedHttpRequest : new LinkedList<HttpRequest>(requestResponseLog.keySet())) {
             if (httpRequestMatcher.matches(loggedHttpRequest)) {
                 httpResponses.addAll(requestResponseLog.getAll(loggedHttpRequest));
@@ -57,12 +122,42 @@ public class RequestResponseLogFilter implements ResponseFilter, RequestFilter {
         return httpResponses;
     }
 
+    /**
+     * Closes the journal, if requests and responses are journaled, releasing its directory lock so a server restarted on
+     * the same port journals to the same directory
+     */
+    @Override
+    public void close() throws IOException {
+        if (requestResponseJournal != null) {
+            requestResponseJournal.close();
+        }
+    }
+
+    /**
+     * Removes every logged request and response, the journal of a previous run opened read only is never changed
+     */
     public void reset() {
-        requestResponseLog.clear();
+        if (requestResponseJournal != null) {
+            if (!readOnly) {
+                requestResponseJournal.clear();
+            }
+        } else {
+            requestResponseLog.clear();
+        }
     }
 
     public void clear(HttpRequest httpRequest) {
-        if (httpRequest != null) {
+        if (readOnly) {
+            return;
+        }
+        if (httpRequest != null && requestResponseJournal != null) {
+            HttpRequestMatcher httpRequestMatcher = matcherBuilder.transformsToMatcher(httpRequest);
+            for (Iterator<Expectation> iterator = requestResponseJournal.iterator(); iterator.hasNext(); ) {
+                if (httpRequestMatcher.matches(iterator.next().getHttpRequest())) {
+                    iterator.remove();
+                }
+            }
+        } else if (httpRequest != null) {
             HttpRequestMatcher httpRequestMatcher = matcherBuilder.transformsToMatcher(httpRequest);
             for (HttpRequest key : new LinkedList<HttpRequest>(requestResponseLog.keySet())) {
                 if (httpRequestMatcher.matches(key)) {
@@ -88,7 +183,14 @@ public class RequestResponseLogFilter implements ResponseFilter, RequestFilter {
 
     public List<Expectation> retrieveExpectations(HttpRequest httpRequest) {
         List<Expectation> matchingExpectations = new ArrayList<>();
-        if (httpRequest != null) {
+        if (requestResponseJournal != null) {
+            HttpRequestMatcher httpRequestMatcher = httpRequest != null ? matcherBuilder.transformsToMatcher(httpRequest) : null;
+            for (Expectation expectation : requestResponseJournal) {
+                if (httpRequestMatcher == null || httpRequestMatcher.matches(expectation.getHttpRequest(), true)) {
+                    matchingExpectations.add(expectation);
+                }
+            }
+        } else if (httpRequest != null) {
             HttpRequestMatcher httpRequestMatcher = matcherBuilder.transformsToMatcher(httpRequest);
             for (Map.Entry<HttpRequest, HttpResponse> entry : requestResponseLog.entrySet()) {
                 if (httpRequestMatcher.matches(entry.getKey(), true)) {
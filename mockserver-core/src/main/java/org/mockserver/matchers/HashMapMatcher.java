@@ -16,14 +16,18 @@ public class HashMapMatcher extends NotMatcher<List<KeyAndValue>> {
     }
 
     public boolean matches(List<KeyAndValue> values) {
+        return matchesHashMap(KeyAndValue.toHashMap(values));
+    }
+
+    public boolean matchesHashMap(CaseInsensitiveRegexHashMap values) {
         boolean result = false;
 
         if (hashMap == null) {
             result = true;
-        } else if (KeyAndValue.toHashMap(values).containsAll(hashMap)) {
+        } else if (values.containsAll(hashMap)) {
             result = true;
         } else {
-            logger.trace("Map [{}] is not a subset of [{}]", this.hashMap, KeyAndValue.toHashMap(values));
+            logger.trace("Map [{}] is not a subset of [{}]", this.hashMap, values);
         }
 
         return reverseResultIfNot(result);
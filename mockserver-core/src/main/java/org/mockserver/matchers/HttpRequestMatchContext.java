@@ -0,0 +1,161 @@
+package org.mockserver.matchers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Charsets;
+import org.mockserver.client.serialization.ObjectMapperFactory;
+import org.mockserver.client.serialization.model.BodyDTO;
+import org.mockserver.collections.CaseInsensitiveRegexHashMap;
+import org.mockserver.collections.CaseInsensitiveRegexMultiMap;
+import org.mockserver.model.HttpRequest;
+import org.mockserver.model.KeyAndValue;
+import org.mockserver.model.KeyToMultiValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
+
+/**
+ * Lazily derives, at most once per request, everything the request matchers need from a request
+ * (i.e. decoded body, parsed body DTO, JSON tree, XML document and header, query string parameter
+ * and cookie maps) so a request can be compared against many expectations without repeating work.
+ *
+ * A context belongs to a single request being matched on a single thread so it is not thread safe.
+ *
+ * @author jamesdbloom
+ */
+public class HttpRequestMatchContext {
+
+    private static final Logger logger = LoggerFactory.getLogger(HttpRequestMatchContext.class);
+    private static final ObjectMapper objectMapper = ObjectMapperFactory.createObjectMapper();
+
+    private final HttpRequest httpRequest;
+    private String bodyAsString;
+    private boolean bodyDTOParsed;
+    private BodyDTO bodyDTO;
+    private boolean jsonTreeParsed;
+    private JsonNode jsonTree;
+    private boolean xmlDocumentParsed;
+    private Document xmlDocument;
+    private boolean normalisedXmlBuilt;
+    private String normalisedXml;
+    private CaseInsensitiveRegexMultiMap queryStringParameters;
+    private CaseInsensitiveRegexMultiMap headers;
+    private CaseInsensitiveRegexHashMap cookies;
+
+    public HttpRequestMatchContext(HttpRequest httpRequest) {
+        this.httpRequest = httpRequest;
+    }
+
+    public HttpRequest getHttpRequest() {
+        return httpRequest;
+    }
+
+    public String getBodyAsString() {
+        if (bodyAsString == null) {
+            bodyAsString = httpRequest.getBody() != null ? new String(httpRequest.getBody().getRawBytes(), httpRequest.getBody().getCharset(Charsets.UTF_8)) : "";
+        }
+        return bodyAsString;
+    }
+
+    /**
+     * The body as a MockServer body definition (i.e. for clear or retrieve requests) or null for "normal" HTTP requests
+     */
+    public BodyDTO getBodyDTO() {
+        if (!bodyDTOParsed) {
+            bodyDTOParsed = true;
+            // only a JSON object can be deserialized as a body definition so avoid throwing and catching an exception for every other body
+            if (startsWith(getBodyAsString(), '{')) {
+                try {
+                    bodyDTO = objectMapper.readValue(getBodyAsString(), BodyDTO.class);
+                } catch (Exception e) {
+                    logger.trace("Body is not a body definition - " + e.getMessage());
+                }
+            }
+        }
+        return bodyDTO;
+    }
+
+    /**
+     * The body parsed as JSON or null if the body is not valid JSON
+     */
+    public JsonNode getJsonTree() {
+        if (!jsonTreeParsed) {
+            jsonTreeParsed = true;
+            if (startsWith(getBodyAsString(), '{') || startsWith(getBodyAsString(), '[')) {
+                try {
+                    jsonTree = objectMapper.readTree(getBodyAsString());
+                } catch (Exception e) {
+                    logger.trace("Body is not valid JSON - " + e.getMessage());
+                }
+            }
+        }
+        return jsonTree;
+    }
+
+    /**
+     * The body parsed as XML or null if the body is not valid XML
+     */
+    public Document getXmlDocument() {
+        if (!xmlDocumentParsed) {
+            xmlDocumentParsed = true;
+            try {
+                xmlDocument = new StringToXmlDocumentParser().buildDocument(getBodyAsString(), new StringToXmlDocumentParser.ErrorLogger() {
+                    @Override
+                    public void logError(final String matched, final Exception exception) {
+                        logger.debug("SAXParseException while parsing [" + matched + "]", exception);
+                    }
+                });
+            } catch (Exception e) {
+                logger.trace("Body is not valid XML - " + e.getMessage());
+            }
+        }
+        return xmlDocument;
+    }
+
+    /**
+     * The body as pretty printed XML, as produced by XmlStringMatcher, or null if the body is not valid XML
+     */
+    public String getNormalisedXml() {
+        if (!normalisedXmlBuilt) {
+            normalisedXmlBuilt = true;
+            if (getXmlDocument() != null) {
+                try {
+                    normalisedXml = StringToXmlDocumentParser.prettyPrintXmlDocument(getXmlDocument());
+                } catch (Exception e) {
+                    logger.trace("Body could not be normalised as XML - " + e.getMessage());
+                }
+            }
+        }
+        return normalisedXml;
+    }
+
+    public CaseInsensitiveRegexMultiMap getQueryStringParameters() {
+        if (queryStringParameters == null) {
+            queryStringParameters = KeyToMultiValue.toMultiMap(httpRequest.getQueryStringParameters());
+        }
+        return queryStringParameters;
+    }
+
+    public CaseInsensitiveRegexMultiMap getHeaders() {
+        if (headers == null) {
+            headers = KeyToMultiValue.toMultiMap(httpRequest.getHeaders());
+        }
+        return headers;
+    }
+
+    public CaseInsensitiveRegexHashMap getCookies() {
+        if (cookies == null) {
+            cookies = KeyAndValue.toHashMap(httpRequest.getCookies());
+        }
+        return cookies;
+    }
+
+    private static boolean startsWith(String value, char character) {
+        for (int i = 0; i < value.length(); i++) {
+            if (!Character.isWhitespace(value.charAt(i))) {
+                return value.charAt(i) == character;
+            }
+        }
+        return false;
+    }
+}
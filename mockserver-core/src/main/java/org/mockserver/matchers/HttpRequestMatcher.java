@@ -1,15 +1,11 @@
 package org.mockserver.matchers;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.common.base.Charsets;
 import com.google.common.base.Strings;
 import org.mockserver.client.serialization.ObjectMapperFactory;
 import org.mockserver.client.serialization.model.*;
 import org.mockserver.logging.LogFormatter;
 import org.mockserver.model.*;
 
-import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
 
 import static org.mockserver.character.Character.NEW_LINE;
@@ -31,7 +27,6 @@ public class HttpRequestMatcher extends NotMatcher<HttpRequest> {
     private BooleanMatcher keepAliveMatcher = null;
     private BodyDTO bodyDTOMatcher = null;
     private BooleanMatcher sslMatcher = null;
-    private ObjectMapper objectMapper = ObjectMapperFactory.createObjectMapper();
 
     public HttpRequestMatcher(HttpRequest httpRequest) {
         this.httpRequest = httpRequest;
@@ -45,7 +40,7 @@ public class HttpRequestMatcher extends NotMatcher<HttpRequest> {
             withKeepAlive(httpRequest.isKeepAlive());
             withSsl(httpRequest.isSecure());
         }
-        addFieldsExcludedFromEqualsAndHashCode("logFormatter", "objectMapper");
+        addFieldsExcludedFromEqualsAndHashCode("logFormatter");
     }
 
     private HttpRequestMatcher withMethod(NottableString method) {
@@ -154,6 +149,15 @@ public class HttpRequestMatcher extends NotMatcher<HttpRequest> {
     }
 
     public boolean matches(HttpRequest httpRequest, boolean logMatchResults) {
+        return matches(httpRequest != null ? new HttpRequestMatchContext(httpRequest) : null, logMatchResults);
+    }
+
+    /**
+     * Matches using a context shared by all the expectations a request is compared against
+     * so the request body and maps are only decoded and parsed once
+     */
+    public boolean matches(HttpRequestMatchContext matchContext, boolean logMatchResults) {
+        HttpRequest httpRequest = matchContext != null ? matchContext.getHttpRequest() : null;
         if (httpRequest == this.httpRequest) {
             return true;
         } else if (this.httpRequest == null) {
@@ -162,30 +166,16 @@ public class HttpRequestMatcher extends NotMatcher<HttpRequest> {
             if (httpRequest != null) {
                 boolean methodMatches = Strings.isNullOrEmpty(httpRequest.getMethod().getValue()) || matches(methodMatcher, httpRequest.getMethod());
                 boolean pathMatches = Strings.isNullOrEmpty(httpRequest.getPath().getValue()) || matches(pathMatcher, httpRequest.getPath());
-                boolean queryStringParametersMatches = matches(queryStringParameterMatcher, (httpRequest.getQueryStringParameters() != null ? new ArrayList<KeyToMultiValue>(httpRequest.getQueryStringParameters()) : null));
+                boolean queryStringParametersMatches = queryStringParameterMatcher == null || queryStringParameterMatcher.matchesMultiMap(matchContext.getQueryStringParameters());
                 boolean bodyMatches;
-                String bodyAsString = httpRequest.getBody() != null ? new String(httpRequest.getBody().getRawBytes(), httpRequest.getBody().getCharset(Charsets.UTF_8)) : "";
-                BodyDTO bodyDTO = null;
-                try {
-                    bodyDTO = objectMapper.readValue(bodyAsString, BodyDTO.class);
-                } catch (IOException e) {
-                    // ignore this exception as this exception will always get thrown for "normal" HTTP requests (i.e. not clear or retrieve)
-                }
-                if (bodyDTO == null || bodyDTOMatcher == null || bodyDTO.getType() == Body.Type.STRING) {
-                    if (bodyMatcher instanceof BinaryMatcher) {
-                        bodyMatches = matches(bodyMatcher, httpRequest.getBodyAsRawBytes());
-                    } else {
-                        if (bodyMatcher instanceof ExactStringMatcher || bodyMatcher instanceof RegexStringMatcher || bodyMatcher instanceof XmlStringMatcher) {
-                            bodyMatches = matches(bodyMatcher, string(bodyAsString));
-                        } else {
-                            bodyMatches = matches(bodyMatcher, bodyAsString);
-                        }
-                    }
+                BodyDTO bodyDTO = bodyDTOMatcher != null ? matchContext.getBodyDTO() : null;
+                if (bodyDTO == null || bodyDTO.getType() == Body.Type.STRING) {
+                    bodyMatches = matchesBody(matchContext);
                 } else {
                     bodyMatches = bodyDTOMatcher.equals(bodyDTO);
                 }
-                boolean headersMatch = matches(headerMatcher, (httpRequest.getHeaders() != null ? new ArrayList<KeyToMultiValue>(httpRequest.getHeaders()) : null));
-                boolean cookiesMatch = matches(cookieMatcher, (httpRequest.getCookies() != null ? new ArrayList<KeyAndValue>(httpRequest.getCookies()) : null));
+                boolean headersMatch = headerMatcher == null || headerMatcher.matchesMultiMap(matchContext.getHeaders());
+                boolean cookiesMatch = cookieMatcher == null || cookieMatcher.matchesHashMap(matchContext.getCookies());
                 boolean keepAliveMatches = matches(keepAliveMatcher, httpRequest.isKeepAlive());
                 boolean sslMatches = matches(sslMatcher, httpRequest.isSecure());
 
@@ -224,6 +214,26 @@ public class HttpRequestMatcher extends NotMatcher<HttpRequest> {
         }
     }
 
+    private boolean matchesBody(HttpRequestMatchContext matchContext) {
+        if (bodyMatcher == null) {
+            return true;
+        } else if (bodyMatcher instanceof BinaryMatcher) {
+            return matches(bodyMatcher, matchContext.getHttpRequest().getBodyAsRawBytes());
+        } else if (bodyMatcher instanceof XmlStringMatcher) {
+            return ((XmlStringMatcher) bodyMatcher).matchesBody(matchContext);
+        } else if (bodyMatcher instanceof XPathStringMatcher) {
+            return ((XPathStringMatcher) bodyMatcher).matchesBody(matchContext);
+        } else if (bodyMatcher instanceof JsonStringMatcher) {
+            return ((JsonStringMatcher) bodyMatcher).matchesBody(matchContext);
+        } else if (bodyMatcher instanceof JsonSchemaMatcher) {
+            return ((JsonSchemaMatcher) bodyMatcher).matchesBody(matchContext);
+        } else if (bodyMatcher instanceof ExactStringMatcher || bodyMatcher instanceof RegexStringMatcher) {
+            return matches(bodyMatcher, string(matchContext.getBodyAsString()));
+        } else {
+            return matches(bodyMatcher, matchContext.getBodyAsString());
+        }
+    }
+
     private <T> boolean matches(Matcher<T> matcher, T t) {
         boolean result = false;
 
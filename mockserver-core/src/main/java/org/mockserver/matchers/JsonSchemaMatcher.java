@@ -38,4 +38,27 @@ public class JsonSchemaMatcher extends BodyMatcher<String> {
         return reverseResultIfNot(result);
     }
 
+    /**
+     * Validates the request's already parsed JSON tree rather than re-parsing the body
+     */
+    public boolean matchesBody(HttpRequestMatchContext matchContext) {
+        if (matchContext.getJsonTree() == null) {
+            return matches(matchContext.getBodyAsString());
+        }
+        boolean result = false;
+
+        try {
+            String validation = jsonSchemaValidator.isValid(matchContext.getJsonTree());
+
+            result = validation.isEmpty();
+
+            if (!result) {
+                logger.trace("Failed to perform JSON match \"{}\" with schema \"{}\" because {}", matchContext.getBodyAsString(), this.schema, validation);
+            }
+        } catch (Exception e) {
+            logger.trace("Failed to perform JSON match \"{}\" with schema \"{}\" because {}", matchContext.getBodyAsString(), this.schema, e.getMessage());
+        }
+
+        return reverseResultIfNot(result);
+    }
 }
@@ -1,24 +1,82 @@
 package org.mockserver.matchers;
 
-import org.mockserver.model.JsonBody;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.mockserver.client.serialization.ObjectMapperFactory;
 import org.skyscreamer.jsonassert.JSONCompareMode;
 import org.skyscreamer.jsonassert.JSONCompareResult;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
 import static org.skyscreamer.jsonassert.JSONCompare.compareJSON;
 
 /**
  * @author jamesdbloom
  */
 public class JsonStringMatcher extends BodyMatcher<String> {
+    private static final ObjectMapper objectMapper = ObjectMapperFactory.createObjectMapper();
     private final String matcher;
     private final MatchType matchType;
+    private final JsonNode matcherJsonTree;
 
     public JsonStringMatcher(String matcher, MatchType matchType) {
         this.matcher = matcher;
         this.matchType = matchType;
+        this.matcherJsonTree = parseJsonObjectOrArray(matcher);
+        addFieldsExcludedFromEqualsAndHashCode("matcherJsonTree");
+    }
+
+    private static JsonNode parseJsonObjectOrArray(String json) {
+        if (json != null) {
+            String trimmed = json.trim();
+            if (trimmed.startsWith("{") || trimmed.startsWith("[")) {
+                try {
+                    return objectMapper.readTree(trimmed);
+                } catch (Exception e) {
+                    // not strict JSON (i.e. unquoted field names) so fall back to JSONAssert which is more lenient
+                }
+            }
+        }
+        return null;
     }
 
     public boolean matches(String matched) {
+        if (matcherJsonTree != null && matched != null) {
+            String trimmed = matched.trim();
+            if (!trimmed.startsWith("{") && !trimmed.startsWith("[")) {
+                return logResult(false, matched);
+            }
+            JsonNode matchedJsonTree = parseJsonObjectOrArray(trimmed);
+            if (matchedJsonTree != null) {
+                return logResult(matches(matcherJsonTree, matchedJsonTree), matched);
+            }
+        }
+        return compareWithJSONAssert(matched);
+    }
+
+    /**
+     * Matches against the request's already parsed JSON tree rather than re-parsing the body
+     */
+    public boolean matchesBody(HttpRequestMatchContext matchContext) {
+        if (matcherJsonTree != null && matchContext.getJsonTree() != null) {
+            return logResult(matches(matcherJsonTree, matchContext.getJsonTree()), matchContext.getBodyAsString());
+        } else {
+            return matches(matchContext.getBodyAsString());
+        }
+    }
+
+    private boolean logResult(boolean result, String matched) {
+        if (!result && logger.isTraceEnabled()) {
+            // the detailed difference is only worth building when it will be logged
+            compareWithJSONAssert(matched);
+        }
+        return reverseResultIfNot(result);
+    }
+
+    private boolean compareWithJSONAssert(String matched) {
         boolean result = false;
 
         JSONCompareResult jsonCompareResult;
@@ -42,4 +100,79 @@ public class JsonStringMatcher extends BodyMatcher<String> {
 
         return reverseResultIfNot(result);
     }
+
+    /**
+     * Compares with the same rules as JSONAssert's LENIENT (for ONLY_MATCHING_FIELDS) and STRICT
+     * modes but stops at the first difference instead of building a full diff
+     */
+    private boolean matches(JsonNode expected, JsonNode actual) {
+        if (expected.isObject()) {
+            return actual.isObject() && objectMatches(expected, actual);
+        } else if (expected.isArray()) {
+            return actual.isArray() && arrayMatches(expected, actual);
+        } else if (expected.isNumber()) {
+            return actual.isNumber() && expected.doubleValue() == actual.doubleValue();
+        } else {
+            return expected.equals(actual);
+        }
+    }
+
+    private boolean objectMatches(JsonNode expected, JsonNode actual) {
+        if (matchType == MatchType.STRICT && expected.size() != actual.size()) {
+            return false;
+        }
+        Iterator<Map.Entry<String, JsonNode>> expectedFields = expected.fields();
+        while (expectedFields.hasNext()) {
+            Map.Entry<String, JsonNode> expectedField = expectedFields.next();
+            JsonNode actualValue = actual.get(expectedField.getKey());
+            if (actualValue == null || !matches(expectedField.getValue(), actualValue)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean arrayMatches(JsonNode expected, JsonNode actual) {
+        if (expected.size() != actual.size()) {
+            return false;
+        }
+        if (matchType == MatchType.STRICT) {
+            for (int i = 0; i < expected.size(); i++) {
+                if (!matches(expected.get(i), actual.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        } else {
+            // any order, each expected element is paired with the first unmatched actual element it matches
+            List<JsonNode> unmatched = new ArrayList<JsonNode>(actual.size());
+            for (JsonNode actualElement : actual) {
+                unmatched.add(actualElement);
+            }
+            for (JsonNode expectedElement : expected) {
+                boolean matchFound = false;
+                for (Iterator<JsonNode> iterator = unmatched.iterator(); iterator.hasNext(); ) {
+                    JsonNode actualElement = iterator.next();
+                    if (elementMatches(expectedElement, actualElement)) {
+                        iterator.remove();
+                        matchFound = true;
+                        break;
+                    }
+                }
+                if (!matchFound) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private boolean elementMatches(JsonNode expectedElement, JsonNode actualElement) {
+        if (expectedElement.isNumber()) {
+            // JSONAssert compares unordered simple values by type as well as value (i.e. 1 does not match 1.0)
+            return actualElement.isNumber() && expectedElement.isIntegralNumber() == actualElement.isIntegralNumber() && expectedElement.doubleValue() == actualElement.doubleValue();
+        } else {
+            return matches(expectedElement, actualElement);
+        }
+    }
 }
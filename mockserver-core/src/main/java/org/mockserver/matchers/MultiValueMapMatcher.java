@@ -17,14 +17,18 @@ public class MultiValueMapMatcher extends NotMatcher<List<KeyToMultiValue>> {
     }
 
     public boolean matches(List<KeyToMultiValue> values) {
+        return matchesMultiMap(KeyToMultiValue.toMultiMap(values));
+    }
+
+    public boolean matchesMultiMap(CaseInsensitiveRegexMultiMap values) {
         boolean result = false;
 
         if (multiMap == null) {
             result = true;
-        } else if (KeyToMultiValue.toMultiMap(values).containsAll(multiMap)) {
+        } else if (values.containsAll(multiMap)) {
             result = true;
         } else {
-            logger.trace("Map [{}] is not a subset of [{}]", multiMap, KeyToMultiValue.toMultiMap(values));
+            logger.trace("Map [{}] is not a subset of [{}]", multiMap, values);
         }
 
         return reverseResultIfNot(result);
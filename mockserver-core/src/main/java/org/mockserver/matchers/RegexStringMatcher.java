@@ -1,10 +1,14 @@
 package org.mockserver.matchers;
 
 import com.google.common.base.Strings;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import org.mockserver.model.NottableString;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
 import static org.mockserver.model.NottableString.string;
@@ -14,46 +18,105 @@ import static org.mockserver.model.NottableString.string;
  */
 public class RegexStringMatcher extends BodyMatcher<NottableString> {
     private static final Logger logger = LoggerFactory.getLogger(RegexStringMatcher.class);
+    private static final String REGEX_META_CHARACTERS = "\\[](){}.*+?^$|";
+    private static final int MAX_CACHED_PATTERNS = 10000;
+    private static final LoadingCache<String, CompiledRegex> COMPILED_REGEX_CACHE = CacheBuilder.newBuilder()
+            .maximumSize(MAX_CACHED_PATTERNS)
+            .build(new CacheLoader<String, CompiledRegex>() {
+                @Override
+                public CompiledRegex load(String regex) {
+                    return new CompiledRegex(regex);
+                }
+            });
     private final NottableString matcher;
+    private final CompiledRegex compiledMatcher;
 
     public RegexStringMatcher(String matcher) {
-        this.matcher = string(matcher);
+        this(string(matcher));
     }
 
     public RegexStringMatcher(NottableString matcher) {
         this.matcher = matcher;
+        this.compiledMatcher = matcher != null && !Strings.isNullOrEmpty(matcher.getValue()) ? compile(matcher.getValue()) : null;
+        addFieldsExcludedFromEqualsAndHashCode("compiledMatcher");
+    }
+
+    /**
+     * A string with no regex meta characters can only ever match itself so it never needs to be compiled
+     */
+    public static boolean isLiteral(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (REGEX_META_CHARACTERS.indexOf(value.charAt(i)) != -1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Only expectation values are cached, they are compiled when the expectation's matcher is created and reused for
+     * every request
+     */
+    private static CompiledRegex compile(String regex) {
+        if (isLiteral(regex)) {
+            return CompiledRegex.LITERAL;
+        } else {
+            return COMPILED_REGEX_CACHE.getUnchecked(regex);
+        }
+    }
+
+    /**
+     * Request values are compiled without being cached so request traffic never evicts the expectation patterns
+     */
+    private static CompiledRegex compileUncached(String regex) {
+        if (isLiteral(regex)) {
+            return CompiledRegex.LITERAL;
+        } else {
+            return new CompiledRegex(regex);
+        }
+    }
+
+    static long cachedPatternCount() {
+        return COMPILED_REGEX_CACHE.size();
     }
 
     public static boolean matches(NottableString matcher, NottableString matched, boolean ignoreCase) {
         return matcher.isNot() != (matched.isNot() != matches(matcher.getValue(), matched.getValue(), ignoreCase));
     }
 
+    /**
+     * Callers such as the case insensitive regex maps pass request values as the matcher as often as expectation
+     * values, so neither value is cached
+     */
     public static boolean matches(String matcher, String matched, boolean ignoreCase) {
+        if (Strings.isNullOrEmpty(matcher)) {
+            return true;
+        } else {
+            return matches(compileUncached(matcher), matcher, matched, ignoreCase);
+        }
+    }
+
+    private static boolean matches(CompiledRegex compiledMatcher, String matcher, String matched, boolean ignoreCase) {
         boolean result = false;
 
-        if (Strings.isNullOrEmpty(matcher)) {
-            result = true;
-        } else if (matched != null) {
+        if (matched != null) {
             // match as exact string
             if (matched.equals(matcher)) {
                 result = true;
             }
             if (!result) {
+                // the request value is only compiled if the expectation value does not match it
+                CompiledRegex compiledMatched = null;
                 // match as regex - matcher -> matched
-                try {
-                    if (matched.matches(matcher)) {
-                        result = true;
-                    }
-                } catch (PatternSyntaxException pse) {
-                    logger.trace("Error while matching regex [" + matcher + "] for string [" + matched + "] " + pse.getMessage());
+                if (compiledMatcher.matches(matched)) {
+                    result = true;
                 }
                 // match as regex - matched -> matcher
-                try {
-                    if (matcher.matches(matched)) {
+                if (!result) {
+                    compiledMatched = compileUncached(matched);
+                    if (compiledMatched.matches(matcher)) {
                         result = true;
                     }
-                } catch (PatternSyntaxException pse) {
-                    logger.trace("Error while matching regex [" + matched + "] for string [" + matcher + "] " + pse.getMessage());
                 }
                 // case insensitive comparison is mainly to improve matching in web containers like Tomcat that convert header names to lower case
                 if (!result && ignoreCase) {
@@ -62,20 +125,12 @@ public class RegexStringMatcher extends BodyMatcher<NottableString> {
                         result = true;
                     }
                     // match as regex - matcher -> matched
-                    try {
-                        if (matched.toLowerCase().matches(matcher.toLowerCase())) {
-                            result = true;
-                        }
-                    } catch (PatternSyntaxException pse) {
-                        logger.trace("Error while matching regex [" + matcher.toLowerCase() + "] for string [" + matched.toLowerCase() + "] " + pse.getMessage());
+                    if (!result && compiledMatcher.matchesLowerCase(matcher, matched)) {
+                        result = true;
                     }
                     // match as regex - matched -> matcher
-                    try {
-                        if (matcher.toLowerCase().matches(matched.toLowerCase())) {
-                            result = true;
-                        }
-                    } catch (PatternSyntaxException pse) {
-                        logger.trace("Error while matching regex [" + matched.toLowerCase() + "] for string [" + matcher.toLowerCase() + "] " + pse.getMessage());
+                    if (!result && compiledMatched.matchesLowerCase(matched, matcher)) {
+                        result = true;
                     }
                 }
             }
@@ -91,7 +146,7 @@ public class RegexStringMatcher extends BodyMatcher<NottableString> {
     public boolean matches(NottableString matched) {
         boolean result = false;
 
-        if (matches(matcher.getValue(), matched.getValue(), false)) {
+        if (compiledMatcher == null || matches(compiledMatcher, matcher.getValue(), matched.getValue(), false)) {
             result = true;
         }
 
@@ -101,4 +156,60 @@ public class RegexStringMatcher extends BodyMatcher<NottableString> {
 
         return (matcher.isNot() || matched.isNot()) != reverseResultIfNot(result);
     }
+
+    /**
+     * A regex compiled once, the lower-cased version is only compiled the first time it is needed, an invalid regex never matches
+     */
+    private static class CompiledRegex {
+
+        private static final CompiledRegex LITERAL = new CompiledRegex(null, null);
+
+        private final String regex;
+        private final Pattern pattern;
+        // racing threads may both compile the lower-cased pattern, which is harmless
+        private volatile Pattern lowerCasePattern;
+        private volatile boolean lowerCaseCompiled;
+
+        private CompiledRegex(String regex) {
+            this(regex, toPattern(regex));
+        }
+
+        private CompiledRegex(String regex, Pattern pattern) {
+            this.regex = regex;
+            this.pattern = pattern;
+        }
+
+        private static Pattern toPattern(String regex) {
+            try {
+                return Pattern.compile(regex);
+            } catch (PatternSyntaxException pse) {
+                logger.trace("Error while compiling regex [" + regex + "] " + pse.getMessage());
+                return null;
+            }
+        }
+
+        boolean matches(String matched) {
+            // a literal only matches an equal string which has already been checked
+            return pattern != null && pattern.matcher(matched).matches();
+        }
+
+        boolean matchesLowerCase(String regex, String matched) {
+            if (this == LITERAL) {
+                return matched.toLowerCase().equals(regex.toLowerCase());
+            } else {
+                Pattern lowerCasePattern = lowerCasePattern();
+                return lowerCasePattern != null && lowerCasePattern.matcher(matched.toLowerCase()).matches();
+            }
+        }
+
+        private Pattern lowerCasePattern() {
+            if (!lowerCaseCompiled) {
+                // lower-casing the regex text (rather than using CASE_INSENSITIVE) keeps the existing semantics
+                String lowerCaseRegex = regex.toLowerCase();
+                lowerCasePattern = lowerCaseRegex.equals(regex) ? pattern : toPattern(lowerCaseRegex);
+                lowerCaseCompiled = true;
+            }
+            return lowerCasePattern;
+        }
+    }
 }
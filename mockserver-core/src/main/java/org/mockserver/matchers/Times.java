@@ -2,13 +2,16 @@ package org.mockserver.matchers;
 
 import org.mockserver.model.ObjectWithReflectiveEqualsHashCodeToString;
 
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
 /**
  * @author jamesdbloom
  */
 public class Times extends ObjectWithReflectiveEqualsHashCodeToString {
 
-    private int remainingTimes;
-    private boolean unlimited;
+    private static final AtomicIntegerFieldUpdater<Times> REMAINING_TIMES_UPDATER = AtomicIntegerFieldUpdater.newUpdater(Times.class, "remainingTimes");
+    private volatile int remainingTimes;
+    private volatile boolean unlimited;
 
     private Times(int remainingTimes, boolean unlimited) {
         this.remainingTimes = remainingTimes;
@@ -45,13 +48,31 @@ public class Times extends ObjectWithReflectiveEqualsHashCodeToString {
     }
 
     public Times decrement() {
-        if (!unlimited) {
-            remainingTimes--;
-        }
+        tryDecrement();
         return this;
     }
 
-    public Times setNotUnlimitedResponses() {
+    /**
+     * Atomically consumes one of the remaining times
+     *
+     * @return false if there were no remaining times left to consume
+     */
+    public boolean tryDecrement() {
+        if (unlimited) {
+            return true;
+        }
+        while (true) {
+            int current = remainingTimes;
+            if (current <= 0) {
+                return false;
+            }
+            if (REMAINING_TIMES_UPDATER.compareAndSet(this, current, current - 1)) {
+                return true;
+            }
+        }
+    }
+
+    public synchronized Times setNotUnlimitedResponses() {
         if (unlimited) {
             remainingTimes = 1;
             unlimited = false;
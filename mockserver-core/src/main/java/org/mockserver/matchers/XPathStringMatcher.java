@@ -57,6 +57,33 @@ public class XPathStringMatcher extends BodyMatcher<String> {
         return reverseResultIfNot(result);
     }
 
+    /**
+     * Matches against the request's already parsed XML document rather than re-parsing the body
+     */
+    public boolean matchesBody(final HttpRequestMatchContext matchContext) {
+        boolean result = false;
+        String matched = matchContext.getBodyAsString();
+
+        if (xpathExpression == null) {
+            logger.warn("Attempting match against null XPath Expression for [" + matched + "]" + new RuntimeException("Attempting match against null XPath Expression for [" + matched + "]"));
+        } else if (matcher.equals(matched)) {
+            result = true;
+        } else if (matchContext.getXmlDocument() != null) {
+            // match as xpath - matcher -> matched
+            try {
+                result = (Boolean) xpathExpression.evaluate(matchContext.getXmlDocument(), XPathConstants.BOOLEAN);
+            } catch (Exception e) {
+                logger.trace("Error while matching xpath [" + matcher + "] against string [" + matched + "] assuming no match - " + e.getMessage());
+            }
+        }
+
+        if (!result) {
+            logger.trace("Failed to match [{}] with [{}]", matched, this.matcher);
+        }
+
+        return reverseResultIfNot(result);
+    }
+
     @Override
     public String[] fieldsExcludedFromEqualsAndHashCode() {
         return new String[]{"logger", "xpathExpression"};
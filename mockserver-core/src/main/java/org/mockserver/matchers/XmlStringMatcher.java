@@ -70,4 +70,22 @@ public class XmlStringMatcher extends BodyMatcher<NottableString> {
 
         return matcher.isNot() != reverseResultIfNot(result);
     }
+
+    /**
+     * Matches against the request's already normalised XML rather than re-parsing the body
+     */
+    public boolean matchesBody(HttpRequestMatchContext matchContext) {
+        boolean result = false;
+
+        String normalisedXml = matchContext.getNormalisedXml();
+        if (normalisedXml != null && ExactStringMatcher.matches(matcher.getValue(), normalisedXml, false)) {
+            result = true;
+        }
+
+        if (!result) {
+            logger.trace("Failed to match [{}] with [{}]", matchContext.getBodyAsString(), this.matcher);
+        }
+
+        return matcher.isNot() != reverseResultIfNot(result);
+    }
 }
@@ -1,6 +1,7 @@
 package org.mockserver.mock;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.mockserver.matchers.HttpRequestMatchContext;
 import org.mockserver.matchers.HttpRequestMatcher;
 import org.mockserver.matchers.MatcherBuilder;
 import org.mockserver.matchers.TimeToLive;
@@ -220,6 +221,10 @@ public class Expectation extends ObjectWithJsonToString {
         return hasRemainingMatches() && isStillAlive() && httpRequestMatcher.matches(httpRequest, true);
     }
 
+    public boolean matches(HttpRequestMatchContext matchContext, boolean logMatchResults) {
+        return hasRemainingMatches() && isStillAlive() && httpRequestMatcher.matches(matchContext, logMatchResults);
+    }
+
     public boolean hasRemainingMatches() {
         return times == null || times.greaterThenZero();
     }
@@ -229,10 +234,13 @@ public class Expectation extends ObjectWithJsonToString {
         return timeToLive == null || timeToLive.stillAlive();
     }
 
-    public void decrementRemainingMatches() {
-        if (times != null) {
-            times.decrement();
-        }
+    /**
+     * Atomically consumes one remaining match so concurrent requests can never exceed the configured times
+     *
+     * @return false if another request has already consumed the last remaining match
+     */
+    public boolean decrementRemainingMatches() {
+        return times == null || times.tryDecrement();
     }
 
     public void setNotUnlimitedResponses() {
@@ -0,0 +1,427 @@
+package org.mockserver.mock;
+
+import com.google.common.base.Strings;
+import org.mockserver.matchers.RegexStringMatcher;
+import org.mockserver.model.HttpRequest;
+import org.mockserver.model.NottableString;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Narrows the expectations that need to be evaluated for a request by indexing each expectation
+ * by its HTTP method and by its literal path or literal path prefix.
+ *
+ * Expectations that can't be classified (i.e. regex method, notted values, notted request) are held
+ * in fallback buckets that are always returned as candidates, candidates are always returned in
+ * the order the expectations were added so first-match semantics are unchanged.
+ *
+ * Writers are serialised and publish immutable copies of each bucket they change so readers
+ * never lock and never copy the full list of expectations.
+ *
+ * @author jamesdbloom
+ */
+public class ExpectationIndex {
+
+    private static final String REGEX_META_CHARACTERS = "\\[](){}.*+?^$|";
+    private static final String REGEX_QUANTIFIERS = "*+?{";
+    private static final IndexedExpectation[] EMPTY = new IndexedExpectation[0];
+
+    private final CopyOnWriteArrayList<Expectation> expectations = new CopyOnWriteArrayList<Expectation>();
+    private final List<Expectation> unmodifiableExpectations = Collections.unmodifiableList(expectations);
+    private final ConcurrentHashMap<String, PathIndex> methodIndex = new ConcurrentHashMap<String, PathIndex>();
+    private final PathIndex anyMethodIndex = new PathIndex();
+    // only accessed by writers while holding the lock
+    private final Map<Expectation, IndexedExpectation> indexedExpectations = new IdentityHashMap<Expectation, IndexedExpectation>();
+    // only accessed by writers while holding the lock
+    private final Map<String, List<Expectation>> expectationsByRequestKey = new HashMap<String, List<Expectation>>();
+    private long sequence = 0;
+
+    /**
+     * All expectations in the order they were added, iterating never blocks writers and never
+     * sees a partially applied change
+     */
+    public List<Expectation> expectations() {
+        return unmodifiableExpectations;
+    }
+
+    public synchronized void add(Expectation expectation) {
+        expectations.add(expectation);
+        index(expectation);
+    }
+
+    public synchronized void addAll(List<Expectation> expectations) {
+        this.expectations.addAll(expectations);
+        for (Expectation expectation : expectations) {
+            index(expectation);
+        }
+    }
+
+    private void index(Expectation expectation) {
+        IndexedExpectation indexedExpectation = new IndexedExpectation(sequence++, expectation);
+        indexedExpectations.put(expectation, indexedExpectation);
+        HttpRequest httpRequest = expectation.getHttpRequest();
+        if (httpRequest != null) {
+            String requestKey = requestKey(httpRequest);
+            List<Expectation> expectationsWithRequestKey = expectationsByRequestKey.get(requestKey);
+            if (expectationsWithRequestKey == null) {
+                expectationsWithRequestKey = new ArrayList<Expectation>();
+                expectationsByRequestKey.put(requestKey, expectationsWithRequestKey);
+            }
+            expectationsWithRequestKey.add(expectation);
+        }
+        if (httpRequest == null || httpRequest.isNot()) {
+            anyMethodIndex.add(null, indexedExpectation);
+        } else {
+            indexedExpectation.method = literal(httpRequest.getMethod());
+            PathIndex pathIndex = anyMethodIndex;
+            if (indexedExpectation.method != null) {
+                pathIndex = methodIndex.get(indexedExpectation.method);
+                if (pathIndex == null) {
+                    pathIndex = new PathIndex();
+                    methodIndex.put(indexedExpectation.method, pathIndex);
+                }
+            }
+            pathIndex.add(httpRequest.getPath(), indexedExpectation);
+        }
+    }
+
+    /**
+     * Removes this exact expectation instance, returns false if it had already been removed
+     */
+    public synchronized boolean remove(Expectation expectation) {
+        IndexedExpectation indexedExpectation = indexedExpectations.remove(expectation);
+        if (indexedExpectation != null) {
+            for (int i = 0; i < expectations.size(); i++) {
+                if (expectations.get(i) == expectation) {
+                    expectations.remove(i);
+                    break;
+                }
+            }
+            if (expectation.getHttpRequest() != null) {
+                String requestKey = requestKey(expectation.getHttpRequest());
+                List<Expectation> expectationsWithRequestKey = expectationsByRequestKey.get(requestKey);
+                if (expectationsWithRequestKey != null) {
+                    for (int i = 0; i < expectationsWithRequestKey.size(); i++) {
+                        if (expectationsWithRequestKey.get(i) == expectation) {
+                            expectationsWithRequestKey.remove(i);
+                            break;
+                        }
+                    }
+                    if (expectationsWithRequestKey.isEmpty()) {
+                        expectationsByRequestKey.remove(requestKey);
+                    }
+                }
+            }
+            if (indexedExpectation.method == null) {
+                anyMethodIndex.remove(indexedExpectation);
+            } else {
+                PathIndex pathIndex = methodIndex.get(indexedExpectation.method);
+                if (pathIndex != null) {
+                    pathIndex.remove(indexedExpectation);
+                    if (pathIndex.isEmpty()) {
+                        methodIndex.remove(indexedExpectation.method);
+                    }
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Removes these exact expectation instances, copying the list of expectations and each bucket they
+     * are in once instead of once per expectation removed, returns false if they had all already been removed
+     */
+    public synchronized boolean removeAll(Collection<Expectation> expectationsToRemove) {
+        Set<Expectation> removedExpectations = Collections.newSetFromMap(new IdentityHashMap<Expectation, Boolean>());
+        Set<IndexedExpectation> removedIndexedExpectations = new HashSet<IndexedExpectation>();
+        Set<String> removedRequestKeys = new HashSet<String>();
+        for (Expectation expectation : expectationsToRemove) {
+            IndexedExpectation indexedExpectation = indexedExpectations.remove(expectation);
+            if (indexedExpectation != null) {
+                removedExpectations.add(expectation);
+                removedIndexedExpectations.add(indexedExpectation);
+                if (expectation.getHttpRequest() != null) {
+                    removedRequestKeys.add(requestKey(expectation.getHttpRequest()));
+                }
+            }
+        }
+        if (removedExpectations.isEmpty()) {
+            return false;
+        }
+        expectations.removeAll(removedExpectations);
+        for (String requestKey : removedRequestKeys) {
+            List<Expectation> expectationsWithRequestKey = expectationsByRequestKey.get(requestKey);
+            if (expectationsWithRequestKey != null) {
+                expectationsWithRequestKey.removeAll(removedExpectations);
+                if (expectationsWithRequestKey.isEmpty()) {
+                    expectationsByRequestKey.remove(requestKey);
+                }
+            }
+        }
+        anyMethodIndex.removeAll(removedIndexedExpectations);
+        for (Iterator<PathIndex> pathIndexIterator = methodIndex.values().iterator(); pathIndexIterator.hasNext(); ) {
+            PathIndex pathIndex = pathIndexIterator.next();
+            pathIndex.removeAll(removedIndexedExpectations);
+            if (pathIndex.isEmpty()) {
+                pathIndexIterator.remove();
+            }
+        }
+        return true;
+    }
+
+    public synchronized void clear() {
+        expectations.clear();
+        methodIndex.clear();
+        anyMethodIndex.clear();
+        indexedExpectations.clear();
+        expectationsByRequestKey.clear();
+    }
+
+    public int size() {
+        return expectations.size();
+    }
+
+    /**
+     * Returns, in insertion order, every expectation whose request is equal to this request
+     * without comparing against every expectation
+     */
+    public synchronized List<Expectation> expectationsWithRequest(HttpRequest httpRequest) {
+        List<Expectation> expectationsWithRequest = new ArrayList<Expectation>();
+        if (httpRequest != null) {
+            List<Expectation> expectationsWithRequestKey = expectationsByRequestKey.get(requestKey(httpRequest));
+            if (expectationsWithRequestKey != null) {
+                for (Expectation expectation : expectationsWithRequestKey) {
+                    if (expectation.contains(httpRequest)) {
+                        expectationsWithRequest.add(expectation);
+                    }
+                }
+            }
+        }
+        return expectationsWithRequest;
+    }
+
+    /**
+     * Duplicate requests have the same method and path so these are used as a cheap hash key, that is
+     * then confirmed with a full equals, instead of the reflective hash code of the whole request
+     */
+    static String requestKey(HttpRequest httpRequest) {
+        return String.valueOf(httpRequest.getMethod() != null ? httpRequest.getMethod().getValue() : null) + " " + String.valueOf(httpRequest.getPath() != null ? httpRequest.getPath().getValue() : null);
+    }
+
+    /**
+     * Returns, in insertion order, every expectation that could possibly match the request
+     */
+    public List<Expectation> candidates(HttpRequest httpRequest) {
+        if (httpRequest == null || httpRequest.isNot() || !isPlainLiteral(httpRequest.getMethod()) || httpRequest.getMethod().isNot()) {
+            return unmodifiableExpectations;
+        }
+        List<IndexedExpectation> candidates = new ArrayList<IndexedExpectation>();
+        NottableString path = httpRequest.getPath();
+        boolean literalPath = isPlainLiteral(path) && !path.isNot();
+        PathIndex pathIndex = methodIndex.get(httpRequest.getMethod().getValue());
+        if (pathIndex != null) {
+            pathIndex.collect(path.getValue(), literalPath, candidates);
+        }
+        anyMethodIndex.collect(path.getValue(), literalPath, candidates);
+        Collections.sort(candidates);
+        List<Expectation> expectations = new ArrayList<Expectation>(candidates.size());
+        for (IndexedExpectation candidate : candidates) {
+            expectations.add(candidate.expectation);
+        }
+        return expectations;
+    }
+
+    /**
+     * Matching is bi-directional (i.e. the request value is also treated as a regex) so a request
+     * value can only be used as a lookup key if it contains no regex meta characters
+     */
+    private static boolean isPlainLiteral(NottableString value) {
+        return value != null && !Strings.isNullOrEmpty(value.getValue()) && RegexStringMatcher.isLiteral(value.getValue());
+    }
+
+    private static String literal(NottableString value) {
+        if (isPlainLiteral(value) && !value.isNot()) {
+            return value.getValue();
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * The literal characters a regex must start with, or null if the regex has no fixed prefix
+     */
+    private static String literalPrefix(NottableString value) {
+        if (value == null || value.isNot() || Strings.isNullOrEmpty(value.getValue()) || value.getValue().indexOf('|') != -1) {
+            return null;
+        }
+        String regex = value.getValue();
+        int index = indexOfRegexMetaCharacter(regex);
+        if (index == -1) {
+            return null;
+        }
+        if (REGEX_QUANTIFIERS.indexOf(regex.charAt(index)) != -1) {
+            // quantifier applies to previous character so it is not part of the fixed prefix
+            index--;
+        }
+        return index > 0 ? regex.substring(0, index) : null;
+    }
+
+    private static int indexOfRegexMetaCharacter(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (REGEX_META_CHARACTERS.indexOf(value.charAt(i)) != -1) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static class PathIndex {
+
+        private final ConcurrentHashMap<String, IndexedExpectation[]> exactPaths = new ConcurrentHashMap<String, IndexedExpectation[]>();
+        private final ConcurrentHashMap<String, IndexedExpectation[]> pathPrefixes = new ConcurrentHashMap<String, IndexedExpectation[]>();
+        private volatile IndexedExpectation[] anyPath = EMPTY;
+
+        void add(NottableString path, IndexedExpectation indexedExpectation) {
+            String literalPath = literal(path);
+            if (literalPath != null) {
+                indexedExpectation.exactPath = literalPath;
+                exactPaths.put(literalPath, append(exactPaths.get(literalPath), indexedExpectation));
+            } else {
+                String literalPrefix = literalPrefix(path);
+                if (literalPrefix != null) {
+                    indexedExpectation.pathPrefix = literalPrefix;
+                    pathPrefixes.put(literalPrefix, append(pathPrefixes.get(literalPrefix), indexedExpectation));
+                } else {
+                    anyPath = append(anyPath, indexedExpectation);
+                }
+            }
+        }
+
+        void collect(String path, boolean literalPath, List<IndexedExpectation> candidates) {
+            if (literalPath) {
+                addAll(candidates, exactPaths.get(path));
+                if (!pathPrefixes.isEmpty()) {
+                    for (int i = 1; i <= path.length(); i++) {
+                        addAll(candidates, pathPrefixes.get(path.substring(0, i)));
+                    }
+                }
+            } else {
+                for (IndexedExpectation[] exactPath : exactPaths.values()) {
+                    addAll(candidates, exactPath);
+                }
+                for (IndexedExpectation[] pathPrefix : pathPrefixes.values()) {
+                    addAll(candidates, pathPrefix);
+                }
+            }
+            addAll(candidates, anyPath);
+        }
+
+        void remove(IndexedExpectation indexedExpectation) {
+            if (indexedExpectation.exactPath != null) {
+                remove(exactPaths, indexedExpectation.exactPath, indexedExpectation);
+            } else if (indexedExpectation.pathPrefix != null) {
+                remove(pathPrefixes, indexedExpectation.pathPrefix, indexedExpectation);
+            } else {
+                anyPath = without(anyPath, indexedExpectation);
+            }
+        }
+
+        void removeAll(Set<IndexedExpectation> indexedExpectations) {
+            removeAll(exactPaths, indexedExpectations);
+            removeAll(pathPrefixes, indexedExpectations);
+            anyPath = without(anyPath, indexedExpectations);
+        }
+
+        boolean isEmpty() {
+            return exactPaths.isEmpty() && pathPrefixes.isEmpty() && anyPath.length == 0;
+        }
+
+        void clear() {
+            exactPaths.clear();
+            pathPrefixes.clear();
+            anyPath = EMPTY;
+        }
+
+        private static void addAll(List<IndexedExpectation> candidates, IndexedExpectation[] bucket) {
+            if (bucket != null) {
+                Collections.addAll(candidates, bucket);
+            }
+        }
+
+        private static IndexedExpectation[] append(IndexedExpectation[] bucket, IndexedExpectation indexedExpectation) {
+            if (bucket == null) {
+                return new IndexedExpectation[]{indexedExpectation};
+            }
+            IndexedExpectation[] copy = Arrays.copyOf(bucket, bucket.length + 1);
+            copy[bucket.length] = indexedExpectation;
+            return copy;
+        }
+
+        private static IndexedExpectation[] without(IndexedExpectation[] bucket, IndexedExpectation indexedExpectation) {
+            for (int i = 0; i < bucket.length; i++) {
+                if (bucket[i] == indexedExpectation) {
+                    IndexedExpectation[] copy = new IndexedExpectation[bucket.length - 1];
+                    System.arraycopy(bucket, 0, copy, 0, i);
+                    System.arraycopy(bucket, i + 1, copy, i, bucket.length - i - 1);
+                    return copy;
+                }
+            }
+            return bucket;
+        }
+
+        private static IndexedExpectation[] without(IndexedExpectation[] bucket, Set<IndexedExpectation> indexedExpectations) {
+            List<IndexedExpectation> remaining = new ArrayList<IndexedExpectation>(bucket.length);
+            for (IndexedExpectation indexedExpectation : bucket) {
+                if (!indexedExpectations.contains(indexedExpectation)) {
+                    remaining.add(indexedExpectation);
+                }
+            }
+            return remaining.size() == bucket.length ? bucket : remaining.toArray(EMPTY);
+        }
+
+        private static void removeAll(ConcurrentHashMap<String, IndexedExpectation[]> buckets, Set<IndexedExpectation> indexedExpectations) {
+            for (Map.Entry<String, IndexedExpectation[]> bucket : buckets.entrySet()) {
+                IndexedExpectation[] remaining = without(bucket.getValue(), indexedExpectations);
+                if (remaining.length == 0) {
+                    buckets.remove(bucket.getKey());
+                } else if (remaining != bucket.getValue()) {
+                    buckets.put(bucket.getKey(), remaining);
+                }
+            }
+        }
+
+        private static void remove(ConcurrentHashMap<String, IndexedExpectation[]> buckets, String key, IndexedExpectation indexedExpectation) {
+            IndexedExpectation[] bucket = buckets.get(key);
+            if (bucket != null) {
+                IndexedExpectation[] remaining = without(bucket, indexedExpectation);
+                if (remaining.length == 0) {
+                    buckets.remove(key);
+                } else {
+                    buckets.put(key, remaining);
+                }
+            }
+        }
+    }
+
+    private static class IndexedExpectation implements Comparable<IndexedExpectation> {
+
+        private final long sequence;
+        private final Expectation expectation;
+        private String method;
+        private String exactPath;
+        private String pathPrefix;
+
+        IndexedExpectation(long sequence, Expectation expectation) {
+            this.sequence = sequence;
+            this.expectation = expectation;
+        }
+
+        @Override
+        public int compareTo(IndexedExpectation other) {
+            return sequence < other.sequence ? -1 : (sequence == other.sequence ? 0 : 1);
+        }
+    }
+}
@@ -1,23 +1,44 @@
 package org.mockserver.mock;
 
 import com.google.common.base.Strings;
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.HttpChunkedInput;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.handler.stream.ChunkedInput;
 import org.mockserver.client.serialization.ExpectationSerializer;
 import org.mockserver.client.serialization.HttpRequestSerializer;
+import org.mockserver.client.serialization.SerializingChunkedInput;
 import org.mockserver.client.serialization.java.ExpectationToJavaSerializer;
 import org.mockserver.client.serialization.java.HttpRequestToJavaSerializer;
+import org.mockserver.collections.Page;
+import org.mockserver.collections.SequencedIterator;
 import org.mockserver.filters.RequestLogFilter;
 import org.mockserver.filters.RequestResponseLogFilter;
 import org.mockserver.logging.LogFormatter;
 import org.mockserver.model.HttpRequest;
+import org.mockserver.model.HttpResponse;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
+import static com.google.common.base.Charsets.UTF_8;
+import static io.netty.handler.codec.http.HttpHeaderNames.TRAILER;
+import static org.mockserver.character.Character.NEW_LINE;
+
 /**
  * @author jamesdbloom
  */
 public class HttpStateHandler {
 
+    // the cursor to pass as the "cursor" query string parameter to retrieve the next page, a trailing header when
+    // requests are retrieved in chunks as it is only known once every request in the page has been read
+    public static final String NEXT_CURSOR_HEADER = "x-mockserver-next-cursor";
+
     private LogFormatter logFormatter = new LogFormatter(LoggerFactory.getLogger(this.getClass()));
     // mockserver
     private final RequestLogFilter requestLogFilter;
@@ -63,7 +84,11 @@ public class HttpStateHandler {
         }
     }
 
-    public String retrieve(final HttpRequest request) {
+    /**
+     * Retrieves the matching requests, or expectations, the "cursor" and "limit" query string parameters select
+     * one page of the matching records, the cursor for the next page is added to the response as a header
+     */
+    public String retrieve(final HttpRequest request, final HttpResponse response) {
         HttpRequest httpRequest = null;
         if (!Strings.isNullOrEmpty(request.getBodyAsString())) {
             httpRequest = httpRequestSerializer.deserialize(request.getBodyAsString());
@@ -72,16 +97,20 @@ public class HttpStateHandler {
         boolean asJava = request.hasQueryStringParameter("format", "java");
         boolean asExpectations = request.hasQueryStringParameter("type", "expectation");
         if (asExpectations) {
-            List<Expectation> expectations = mockServerMatcher.retrieveExpectations(httpRequest);
+            Page<Expectation> page = retrieveExpectations(request, httpRequest);
+            List<Expectation> expectations = page.getRecords();
+            response.withHeader(NEXT_CURSOR_HEADER, "" + page.getNextCursor());
             if (asJava) {
                 responseBody.append(expectationToJavaSerializer.serializeAsJava(0, expectations));
             } else {
                 responseBody.append(expectationSerializer.serialize(expectations));
             }
         } else {
-            HttpRequest[] httpRequests = requestLogFilter.retrieve(httpRequest);
+            Page<HttpRequest> page = retrieveRequests(request, httpRequest);
+            List<HttpRequest> httpRequests = page.getRecords();
+            response.withHeader(NEXT_CURSOR_HEADER, "" + page.getNextCursor());
             if (asJava) {
-                responseBody.append(httpRequestToJavaSerializer.serializeAsJava(0, httpRequests));
+                responseBody.append(httpRequestToJavaSerializer.serializeAsJava(0, httpRequests.toArray(new HttpRequest[httpRequests.size()])));
             } else {
                 responseBody.append(httpRequestSerializer.serialize(httpRequests));
             }
@@ -91,6 +120,129 @@ public class HttpStateHandler {
         return responseBody.toString();
     }
 
+    /**
+     * Retrieves the same records as {@link #retrieve(HttpRequest, HttpResponse)} but they are serialized one chunk at a
+     * time as the response is written, instead of building the whole response body in memory, requests are also read
+     * from the request log one at a time as they are serialized so the next cursor is sent as a trailing header
+     */
+    public ChunkedInput<HttpContent> retrieveChunked(final HttpRequest request, final HttpHeaders responseHeaders) {
+        HttpRequest httpRequest = null;
+        if (!Strings.isNullOrEmpty(request.getBodyAsString())) {
+            httpRequest = httpRequestSerializer.deserialize(request.getBodyAsString());
+        }
+        ChunkedInput<ByteBuf> content;
+        LastHttpContent lastContent = LastHttpContent.EMPTY_LAST_CONTENT;
+        boolean asJava = request.hasQueryStringParameter("format", "java");
+        boolean asExpectations = request.hasQueryStringParameter("type", "expectation");
+        if (asExpectations) {
+            Page<Expectation> page = retrieveExpectations(request, httpRequest);
+            List<Expectation> expectations = page.getRecords();
+            responseHeaders.set(NEXT_CURSOR_HEADER, "" + page.getNextCursor());
+            if (asJava) {
+                content = new SerializingChunkedInput<Expectation>(expectations.iterator(), "", "", "") {
+                    @Override
+                    protected void serialize(Expectation expectation, OutputStream outputStream) throws IOException {
+                        outputStream.write((expectationToJavaSerializer.serializeAsJava(0, expectation) + NEW_LINE + NEW_LINE).getBytes(UTF_8));
+                    }
+                };
+            } else {
+                content = new SerializingChunkedInput<Expectation>(expectations.iterator(), "[ ", ", ", " ]") {
+                    @Override
+                    protected void serialize(Expectation expectation, OutputStream outputStream) {
+                        expectationSerializer.serialize(expectation, outputStream);
+                    }
+                };
+            }
+        } else {
+            final SequencedIterator<HttpRequest> httpRequests = retrieveRequestIterator(request, httpRequest);
+            final LastHttpContent lastRequestContent = new DefaultLastHttpContent();
+            responseHeaders.set(TRAILER, NEXT_CURSOR_HEADER);
+            if (asJava) {
+                content = new SerializingChunkedInput<HttpRequest>(httpRequests, "", "", "") {
+                    @Override
+                    protected void serialize(HttpRequest loggedRequest, OutputStream outputStream) throws IOException {
+                        outputStream.write((httpRequestToJavaSerializer.serializeAsJava(0, loggedRequest) + NEW_LINE + NEW_LINE).getBytes(UTF_8));
+                    }
+
+                    @Override
+                    protected void endOfRecords() {
+                        lastRequestContent.trailingHeaders().set(NEXT_CURSOR_HEADER, "" + httpRequests.sequence());
+                    }
+                };
+            } else {
+                content = new SerializingChunkedInput<HttpRequest>(httpRequests, "[ ", ", ", " ]") {
+                    @Override
+                    protected void serialize(HttpRequest loggedRequest, OutputStream outputStream) {
+                        httpRequestSerializer.serialize(loggedRequest, outputStream);
+                    }
+
+                    @Override
+                    protected void endOfRecords() {
+                        lastRequestContent.trailingHeaders().set(NEXT_CURSOR_HEADER, "" + httpRequests.sequence());
+                    }
+                };
+            }
+            lastContent = lastRequestContent;
+        }
+        logFormatter.infoLog("retrieving " + (asExpectations ? "expectations" : "requests") + " that match:{}", httpRequest);
+
+        return new HttpChunkedInput(content, lastContent);
+    }
+
+    /**
+     * The expectations cursor is the number of matching expectations already retrieved
+     */
+    private Page<Expectation> retrieveExpectations(HttpRequest request, HttpRequest httpRequest) {
+        List<Expectation> expectations = mockServerMatcher.retrieveExpectations(httpRequest);
+        int cursor = (int) Math.min(cursorQueryStringParameter(request, 0), expectations.size());
+        int limit = queryStringParameterAsInt(request, "limit", Integer.MAX_VALUE);
+        List<Expectation> page = expectations.subList(cursor, cursor + Math.min(limit, expectations.size() - cursor));
+        return new Page<Expectation>(page, cursor + page.size());
+    }
+
+    /**
+     * The requests cursor is the sequence of the last request read from the request log
+     */
+    private Page<HttpRequest> retrieveRequests(HttpRequest request, HttpRequest httpRequest) {
+        return requestLogFilter.retrieve(httpRequest, cursorQueryStringParameter(request, RequestLogFilter.FIRST_PAGE), queryStringParameterAsInt(request, "limit", Integer.MAX_VALUE));
+    }
+
+    private SequencedIterator<HttpRequest> retrieveRequestIterator(HttpRequest request, HttpRequest httpRequest) {
+        return requestLogFilter.retrieveIterator(httpRequest, cursorQueryStringParameter(request, RequestLogFilter.FIRST_PAGE), queryStringParameterAsInt(request, "limit", Integer.MAX_VALUE));
+    }
+
+    private long cursorQueryStringParameter(HttpRequest request, long firstPage) {
+        String value = request.getFirstQueryStringParameter("cursor");
+        if (value.isEmpty()) {
+            return firstPage;
+        }
+        try {
+            long cursor = Long.parseLong(value);
+            if (cursor >= firstPage) {
+                return cursor;
+            }
+        } catch (NumberFormatException nfe) {
+            // reported below
+        }
+        throw new IllegalArgumentException("\"cursor\" query string parameter must be the " + NEXT_CURSOR_HEADER + " header of a previous response");
+    }
+
+    private int queryStringParameterAsInt(HttpRequest request, String name, int defaultValue) {
+        String value = request.getFirstQueryStringParameter(name);
+        if (value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            int intValue = Integer.parseInt(value);
+            if (intValue >= 0) {
+                return intValue;
+            }
+        } catch (NumberFormatException nfe) {
+            // reported below
+        }
+        throw new IllegalArgumentException("\"" + name + "\" query string parameter must be zero or a positive number");
+    }
+
     public void dumpRecordedRequestResponsesToLog(final HttpRequest request) {
         HttpRequest httpRequest = null;
         if (!Strings.isNullOrEmpty(request.getBodyAsString())) {
@@ -4,20 +4,23 @@ import com.google.common.annotations.VisibleForTesting;
 import org.mockserver.client.serialization.Base64Converter;
 import org.mockserver.client.serialization.ExpectationSerializer;
 import org.mockserver.client.serialization.java.ExpectationToJavaSerializer;
+import org.mockserver.matchers.HttpRequestMatchContext;
 import org.mockserver.matchers.HttpRequestMatcher;
 import org.mockserver.matchers.MatcherBuilder;
 import org.mockserver.matchers.TimeToLive;
 import org.mockserver.matchers.Times;
 import org.mockserver.model.Action;
+import org.mockserver.model.HttpError;
 import org.mockserver.model.HttpRequest;
+import org.mockserver.model.HttpResponse;
 import org.mockserver.model.ObjectWithReflectiveEqualsHashCodeToString;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -26,9 +29,14 @@ import java.util.regex.Pattern;
  */
 public class MockServerMatcher extends ObjectWithReflectiveEqualsHashCodeToString {
 
-    protected final List<Expectation> expectations = Collections.synchronizedList(new ArrayList<Expectation>());
+    private final ExpectationIndex expectationIndex = new ExpectationIndex();
+    protected final List<Expectation> expectations = expectationIndex.expectations();
     private Logger requestLogger = LoggerFactory.getLogger("REQUEST");
 
+    public MockServerMatcher() {
+        addFieldsExcludedFromEqualsAndHashCode("expectationIndex");
+    }
+
     public Expectation when(HttpRequest httpRequest) {
         return when(httpRequest, Times.unlimited(), TimeToLive.unlimited());
     }
@@ -36,71 +44,132 @@ public class MockServerMatcher extends ObjectWithReflectiveEqualsHashCodeToStrin
     public Expectation when(final HttpRequest httpRequest, Times times, TimeToLive timeToLive) {
         Expectation expectation;
         if (times.isUnlimited()) {
-            Collection<Expectation> existingExpectationsWithMatchingRequest = new ArrayList<Expectation>();
-            for (Expectation potentialExpectation : new ArrayList<Expectation>(this.expectations)) {
-                if (potentialExpectation.contains(httpRequest)) {
-                    existingExpectationsWithMatchingRequest.add(potentialExpectation);
+            expectation = newUnlimitedExpectation(httpRequest, times, timeToLive, this.expectationIndex.expectationsWithRequest(httpRequest));
+        } else {
+            expectation = new Expectation(httpRequest, times, timeToLive);
+        }
+        this.expectationIndex.add(expectation);
+        return expectation;
+    }
+
+    /**
+     * Adds many expectations at once (i.e. a PUT /expectation with a large array), with the same outcome as
+     * calling when(...) followed by then...(...) for each expectation in order, but publishing them together
+     */
+    public List<Expectation> add(List<Expectation> expectations) {
+        List<Expectation> addedExpectations = new ArrayList<Expectation>(expectations.size());
+        Map<String, List<Expectation>> addedExpectationsByRequestKey = new HashMap<String, List<Expectation>>();
+        for (Expectation expectation : expectations) {
+            HttpRequest httpRequest = expectation.getHttpRequest();
+            Expectation addedExpectation;
+            if (expectation.getTimes().isUnlimited()) {
+                List<Expectation> existingExpectationsWithMatchingRequest = this.expectationIndex.expectationsWithRequest(httpRequest);
+                if (httpRequest != null && addedExpectationsByRequestKey.containsKey(ExpectationIndex.requestKey(httpRequest))) {
+                    for (Expectation potentialExpectation : addedExpectationsByRequestKey.get(ExpectationIndex.requestKey(httpRequest))) {
+                        if (potentialExpectation.contains(httpRequest)) {
+                            existingExpectationsWithMatchingRequest.add(potentialExpectation);
+                        }
+                    }
                 }
+                addedExpectation = newUnlimitedExpectation(httpRequest, expectation.getTimes(), expectation.getTimeToLive(), existingExpectationsWithMatchingRequest);
+            } else {
+                addedExpectation = new Expectation(httpRequest, expectation.getTimes(), expectation.getTimeToLive());
             }
-            if (!existingExpectationsWithMatchingRequest.isEmpty()) {
-                for (Expectation existingExpectation : existingExpectationsWithMatchingRequest) {
-                    existingExpectation.setNotUnlimitedResponses();
+            addedExpectation
+                    .thenRespond(expectation.getHttpResponse())
+                    .thenRespond(expectation.getHttpResponseTemplate())
+                    .thenForward(expectation.getHttpForward())
+                    .thenError(expectation.getHttpError())
+                    .thenCallback(expectation.getHttpClassCallback())
+                    .thenCallback(expectation.getHttpObjectCallback());
+            addedExpectations.add(addedExpectation);
+            if (httpRequest != null) {
+                String requestKey = ExpectationIndex.requestKey(httpRequest);
+                if (!addedExpectationsByRequestKey.containsKey(requestKey)) {
+                    addedExpectationsByRequestKey.put(requestKey, new ArrayList<Expectation>());
                 }
-                expectation = new Expectation(httpRequest, times, timeToLive);
-            } else {
-                expectation = new Expectation(httpRequest, Times.unlimited(), timeToLive);
+                addedExpectationsByRequestKey.get(requestKey).add(addedExpectation);
+            }
+        }
+        this.expectationIndex.addAll(addedExpectations);
+        return addedExpectations;
+    }
+
+    private Expectation newUnlimitedExpectation(HttpRequest httpRequest, Times times, TimeToLive timeToLive, List<Expectation> existingExpectationsWithMatchingRequest) {
+        if (!existingExpectationsWithMatchingRequest.isEmpty()) {
+            for (Expectation existingExpectation : existingExpectationsWithMatchingRequest) {
+                existingExpectation.setNotUnlimitedResponses();
             }
+            return new Expectation(httpRequest, times, timeToLive);
         } else {
-            expectation = new Expectation(httpRequest, times, timeToLive);
+            return new Expectation(httpRequest, Times.unlimited(), timeToLive);
         }
-        this.expectations.add(expectation);
-        return expectation;
     }
 
     public Action retrieveAction(HttpRequest httpRequest) {
-        for (Expectation expectation : new ArrayList<>(this.expectations)) {
-            if (expectation.matches(httpRequest)) {
-                expectation.decrementRemainingMatches();
-                if (!expectation.hasRemainingMatches()) {
-                    if (this.expectations.contains(expectation)) {
-                        this.expectations.remove(expectation);
+        HttpRequestMatchContext matchContext = httpRequest != null ? new HttpRequestMatchContext(httpRequest) : null;
+        for (Expectation expectation : this.expectationIndex.candidates(httpRequest)) {
+            if (expectation.matches(matchContext, true)) {
+                if (expectation.decrementRemainingMatches()) {
+                    if (!expectation.hasRemainingMatches()) {
+                        this.expectationIndex.remove(expectation);
                     }
+                    return expectation.getAction();
                 }
-                return expectation.getAction();
+                // another request consumed the last remaining match, so continue to the next candidate
             } else if (!expectation.isStillAlive()) {
-                if (this.expectations.contains(expectation)) {
-                    this.expectations.remove(expectation);
-                }
+                this.expectationIndex.remove(expectation);
             }
         }
         return null;
     }
 
+    /**
+     * Whether the action for a request can be chosen from the request without its body (i.e. before the body has
+     * been received), that is when no expectation up to and including the first one that matches has a body
+     * matcher and the matching action (or 404 if none match) doesn't use the request body
+     */
+    public boolean canRetrieveActionWithoutBody(HttpRequest requestWithoutBody) {
+        HttpRequestMatchContext matchContext = new HttpRequestMatchContext(requestWithoutBody);
+        for (Expectation expectation : this.expectationIndex.candidates(requestWithoutBody)) {
+            if (expectation.getHttpRequest() != null && expectation.getHttpRequest().getBody() != null) {
+                return false;
+            }
+            if (expectation.matches(matchContext, false)) {
+                Action action = expectation.getAction();
+                return action instanceof HttpResponse || action instanceof HttpError;
+            }
+        }
+        return true;
+    }
+
     public void clear(HttpRequest httpRequest) {
         if (httpRequest != null) {
             HttpRequestMatcher httpRequestMatcher = new MatcherBuilder().transformsToMatcher(httpRequest);
-            for (Expectation expectation : new ArrayList<Expectation>(this.expectations)) {
+            List<Expectation> clearedExpectations = new ArrayList<Expectation>();
+            for (Expectation expectation : this.expectations) {
                 if (httpRequestMatcher.matches(expectation.getHttpRequest(), true)) {
-                    if (this.expectations.contains(expectation)) {
-                        this.expectations.remove(expectation);
-                    }
+                    clearedExpectations.add(expectation);
                 }
             }
+            // removed together so the expectations are copied once, not once per cleared expectation
+            this.expectationIndex.removeAll(clearedExpectations);
         } else {
             reset();
         }
     }
 
     public void reset() {
-        this.expectations.clear();
+        this.expectationIndex.clear();
     }
 
     public void dumpToLog(HttpRequest httpRequest, boolean asJava) {
         ExpectationSerializer expectationSerializer = new ExpectationSerializer();
         ExpectationToJavaSerializer expectationToJavaSerializer = new ExpectationToJavaSerializer();
         if (httpRequest != null) {
-            for (Expectation expectation : new ArrayList<>(this.expectations)) {
-                if (expectation.matches(httpRequest)) {
+            HttpRequestMatchContext matchContext = new HttpRequestMatchContext(httpRequest);
+            for (Expectation expectation : this.expectationIndex.candidates(httpRequest)) {
+                if (expectation.matches(matchContext, true)) {
                     if (asJava) {
                         requestLogger.info(expectationToJavaSerializer.serializeAsJava(0, expectation));
                     } else {
@@ -109,7 +178,7 @@ public class MockServerMatcher extends ObjectWithReflectiveEqualsHashCodeToStrin
                 }
             }
         } else {
-            for (Expectation expectation : new ArrayList<>(this.expectations)) {
+            for (Expectation expectation : this.expectations) {
                 if (asJava) {
                     requestLogger.info(expectationToJavaSerializer.serializeAsJava(0, expectation));
                 } else {
@@ -122,8 +191,9 @@ public class MockServerMatcher extends ObjectWithReflectiveEqualsHashCodeToStrin
     public List<Expectation> retrieveExpectations(HttpRequest httpRequest) {
         List<Expectation> expectations = new ArrayList<Expectation>();
         if (httpRequest != null) {
-            for (Expectation expectation : new ArrayList<>(this.expectations)) {
-                if (expectation.matches(httpRequest)) {
+            HttpRequestMatchContext matchContext = new HttpRequestMatchContext(httpRequest);
+            for (Expectation expectation : this.expectationIndex.candidates(httpRequest)) {
+                if (expectation.matches(matchContext, true)) {
                     expectations.add(expectation);
                 }
             }
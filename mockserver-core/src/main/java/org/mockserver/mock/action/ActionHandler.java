@@ -1,5 +1,8 @@
 package org.mockserver.mock.action;
 
+import com.google.common.base.Function;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import org.mockserver.filters.Filters;
 import org.mockserver.filters.HopByHopHeaderFilter;
 import org.mockserver.filters.RequestLogFilter;
@@ -18,8 +21,20 @@ public class ActionHandler {
     private HttpResponseActionHandler httpResponseActionHandler = new HttpResponseActionHandler();
     private HttpResponseTemplateActionHandler httpResponseTemplateActionHandler = new HttpResponseTemplateActionHandler();
     private Filters filters = new Filters();
+    private final boolean applyDelays;
 
     public ActionHandler(RequestLogFilter requestLogFilter) {
+        this(requestLogFilter, true);
+    }
+
+    /**
+     * @param applyDelays false if the caller schedules the response write for the action's delay itself,
+     *                    so processing a response action never blocks the calling thread, a template still
+     *                    applies its own delay because it only applies when the template produces no response,
+     *                    so template actions must be processed on a thread that can block
+     */
+    public ActionHandler(RequestLogFilter requestLogFilter, boolean applyDelays) {
+        this.applyDelays = applyDelays;
         filters.withFilter(request(), new HopByHopHeaderFilter());
         filters.withFilter(request(), requestLogFilter);
     }
@@ -36,7 +51,7 @@ public class ActionHandler {
                     httpResponse = httpCallbackActionHandler.handle((HttpClassCallback) action, httpRequest);
                     break;
                 case RESPONSE:
-                    httpResponse = httpResponseActionHandler.handle((HttpResponse) action);
+                    httpResponse = httpResponseActionHandler.handle((HttpResponse) action, applyDelays);
                     break;
                 case RESPONSE_TEMPLATE:
                     httpResponse = httpResponseTemplateActionHandler.handle((HttpTemplate) action, httpRequest);
@@ -45,4 +60,46 @@ public class ActionHandler {
         }
         return filters.applyOnResponseFilters(httpRequest, httpResponse);
     }
+
+    /**
+     * Applies the filters for a response action without copying the response, so the caller can write a response
+     * that was encoded once for the action when no filter has replaced it, the returned response must not be modified
+     */
+    public HttpResponse processStaticResponseAction(HttpResponse httpResponse, HttpRequest httpRequest) {
+        httpRequest = filters.applyOnRequestFilters(httpRequest);
+        return filters.applyOnResponseFilters(httpRequest, httpResponse);
+    }
+
+    /**
+     * Forwards the request without blocking the calling thread, the returned future completes, on one of the
+     * http client's threads, once the response has been received and the response filters have been applied
+     */
+    public ListenableFuture<HttpResponse> processForwardAction(HttpForward httpForward, HttpRequest httpRequest) {
+        final HttpRequest filteredRequest = filters.applyOnRequestFilters(httpRequest);
+        return Futures.transform(httpForwardActionHandler.handleAsync(httpForward, filteredRequest), new Function<HttpResponse, HttpResponse>() {
+            @Override
+            public HttpResponse apply(HttpResponse httpResponse) {
+                return filters.applyOnResponseFilters(filteredRequest, httpResponse);
+            }
+        });
+    }
+
+    /**
+     * The delay before the response to this action should be written, or null if there is no delay
+     */
+    public static Delay getDelay(Action action) {
+        Delay delay = null;
+        if (action instanceof HttpResponse) {
+            delay = ((HttpResponse) action).getDelay();
+        } else if (action instanceof HttpTemplate) {
+            delay = ((HttpTemplate) action).getDelay();
+        } else if (action instanceof HttpError) {
+            delay = ((HttpError) action).getDelay();
+        }
+        if (delay != null && delay.getTimeUnit() != null && delay.getValue() > 0) {
+            return delay;
+        } else {
+            return null;
+        }
+    }
 }
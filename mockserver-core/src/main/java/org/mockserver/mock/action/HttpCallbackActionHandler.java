@@ -6,8 +6,11 @@ import org.mockserver.model.HttpResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static org.mockserver.model.HttpResponse.notFoundResponse;
 
@@ -15,29 +18,57 @@ import static org.mockserver.model.HttpResponse.notFoundResponse;
  * @author jamesdbloom
  */
 public class HttpCallbackActionHandler {
+    // shared by all handlers so each callback class is only resolved (and each singleton only created) once
+    private static final ConcurrentMap<String, CallbackConstructor> constructors = new ConcurrentHashMap<String, CallbackConstructor>();
+
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
     public HttpResponse handle(HttpClassCallback httpClassCallback, HttpRequest httpRequest) {
         return invokeCallbackMethod(httpClassCallback, httpRequest);
     }
 
+    static void clearCallbackCache() {
+        constructors.clear();
+    }
+
     private ExpectationCallback instantiateCallback(HttpClassCallback httpClassCallback) {
+        String callbackClass = httpClassCallback.getCallbackClass();
+        CallbackConstructor constructor = constructors.get(callbackClass);
+        if (constructor == null) {
+            constructor = resolveConstructor(callbackClass);
+            if (constructor == null) {
+                return null;
+            }
+            CallbackConstructor existingConstructor = constructors.putIfAbsent(callbackClass, constructor);
+            if (existingConstructor != null) {
+                constructor = existingConstructor;
+            }
+        }
         try {
-            Class expectationCallbackClass = Class.forName(httpClassCallback.getCallbackClass());
+            return constructor.instance();
+        } catch (Throwable throwable) {
+            logger.error("Exception while trying to execute default constructor on ExpectationCallback class \"" + callbackClass + "\"", throwable);
+        }
+        return null;
+    }
+
+    private CallbackConstructor resolveConstructor(String callbackClass) {
+        try {
+            Class<?> expectationCallbackClass = Class.forName(callbackClass);
             if (ExpectationCallback.class.isAssignableFrom(expectationCallbackClass)) {
-                Constructor<? extends ExpectationCallback> constructor = expectationCallbackClass.getConstructor();
-                return constructor.newInstance();
+                return new CallbackConstructor(
+                        MethodHandles.publicLookup()
+                                .findConstructor(expectationCallbackClass, MethodType.methodType(void.class))
+                                .asType(MethodType.methodType(ExpectationCallback.class)),
+                        SingletonExpectationCallback.class.isAssignableFrom(expectationCallbackClass)
+                );
             }
         } catch (ClassNotFoundException e) {
-            logger.error("ClassNotFoundException - while trying to instantiate ExpectationCallback class \"" + httpClassCallback.getCallbackClass() + "\"", e);
+            logger.error("ClassNotFoundException - while trying to instantiate ExpectationCallback class \"" + callbackClass + "\"", e);
         } catch (NoSuchMethodException e) {
-            logger.error("NoSuchMethodException - while trying to create default constructor on ExpectationCallback class \"" + httpClassCallback.getCallbackClass() + "\"", e);
-        } catch (InvocationTargetException e) {
-            logger.error("InvocationTargetException - while trying to execute default constructor on ExpectationCallback class \"" + httpClassCallback.getCallbackClass() + "\"", e);
-        } catch (InstantiationException e) {
-            logger.error("InvocationTargetException - while trying to execute default constructor on ExpectationCallback class \"" + httpClassCallback.getCallbackClass() + "\"", e);
+            logger.error("NoSuchMethodException - while trying to create default constructor on ExpectationCallback class \"" + callbackClass + "\"", e);
         } catch (IllegalAccessException e) {
-            logger.error("InvocationTargetException - while trying to execute default constructor on ExpectationCallback class \"" + httpClassCallback.getCallbackClass() + "\"", e);
+            logger.error("IllegalAccessException - while trying to create default constructor on ExpectationCallback class \"" + callbackClass + "\"", e);
         }
         return null;
     }
@@ -54,4 +85,36 @@ public class HttpCallbackActionHandler {
             return notFoundResponse();
         }
     }
+
+    /**
+     * The resolved constructor of a callback class, a singleton is created, under this object's lock, the first
+     * time it is needed so its constructor only ever runs once
+     */
+    private static class CallbackConstructor {
+        private final MethodHandle constructor;
+        private final boolean singleton;
+        private volatile ExpectationCallback singletonInstance;
+
+        CallbackConstructor(MethodHandle constructor, boolean singleton) {
+            this.constructor = constructor;
+            this.singleton = singleton;
+        }
+
+        ExpectationCallback instance() throws Throwable {
+            if (!singleton) {
+                return (ExpectationCallback) constructor.invokeExact();
+            }
+            ExpectationCallback instance = singletonInstance;
+            if (instance == null) {
+                synchronized (this) {
+                    instance = singletonInstance;
+                    if (instance == null) {
+                        instance = (ExpectationCallback) constructor.invokeExact();
+                        singletonInstance = instance;
+                    }
+                }
+            }
+            return instance;
+        }
+    }
 }
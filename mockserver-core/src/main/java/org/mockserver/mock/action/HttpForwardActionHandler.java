@@ -1,5 +1,8 @@
 package org.mockserver.mock.action;
 
+import com.google.common.util.concurrent.FutureFallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import org.mockserver.client.netty.NettyHttpClient;
 import org.mockserver.model.HttpForward;
 import org.mockserver.model.HttpRequest;
@@ -19,12 +22,25 @@ public class HttpForwardActionHandler {
     private NettyHttpClient httpClient = new NettyHttpClient();
 
     public HttpResponse handle(HttpForward httpForward, HttpRequest httpRequest) {
+        updateScheme(httpForward, httpRequest);
+        return sendRequest(httpRequest, new InetSocketAddress(httpForward.getHost(), httpForward.getPort()));
+    }
+
+    /**
+     * Forwards the request without blocking the calling thread while waiting for the response,
+     * as with handle(...) the response is null if the request could not be forwarded
+     */
+    public ListenableFuture<HttpResponse> handleAsync(HttpForward httpForward, HttpRequest httpRequest) {
+        updateScheme(httpForward, httpRequest);
+        return sendRequestAsync(httpRequest, new InetSocketAddress(httpForward.getHost(), httpForward.getPort()));
+    }
+
+    private void updateScheme(HttpForward httpForward, HttpRequest httpRequest) {
         if (httpForward.getScheme().equals(HttpForward.Scheme.HTTPS)) {
             httpRequest.withSecure(true);
         } else {
             httpRequest.withSecure(false);
         }
-        return sendRequest(httpRequest, new InetSocketAddress(httpForward.getHost(), httpForward.getPort()));
     }
 
     private HttpResponse sendRequest(HttpRequest httpRequest, InetSocketAddress remoteAddress) {
@@ -37,4 +53,21 @@ public class HttpForwardActionHandler {
         }
         return null;
     }
+
+    private ListenableFuture<HttpResponse> sendRequestAsync(final HttpRequest httpRequest, InetSocketAddress remoteAddress) {
+        if (httpRequest != null) {
+            try {
+                return Futures.withFallback(httpClient.sendRequestAsync(httpRequest, remoteAddress), new FutureFallback<HttpResponse>() {
+                    @Override
+                    public ListenableFuture<HttpResponse> create(Throwable throwable) {
+                        logger.error("Exception forwarding request " + httpRequest, throwable);
+                        return Futures.<HttpResponse>immediateFuture(null);
+                    }
+                });
+            } catch (Exception e) {
+                logger.error("Exception forwarding request " + httpRequest, e);
+            }
+        }
+        return Futures.<HttpResponse>immediateFuture(null);
+    }
 }
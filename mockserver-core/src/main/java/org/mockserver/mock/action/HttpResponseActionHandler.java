@@ -8,6 +8,16 @@ import org.mockserver.model.HttpResponse;
 public class HttpResponseActionHandler {
 
     public HttpResponse handle(HttpResponse httpResponse) {
-        return httpResponse.applyDelay().shallowClone();
+        return handle(httpResponse, true);
+    }
+
+    /**
+     * @param applyDelay false if the caller will delay writing the response itself (i.e. without blocking a thread)
+     */
+    public HttpResponse handle(HttpResponse httpResponse, boolean applyDelay) {
+        if (applyDelay) {
+            httpResponse.applyDelay();
+        }
+        return httpResponse.shallowClone();
     }
 }
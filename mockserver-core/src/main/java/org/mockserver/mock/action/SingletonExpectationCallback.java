@@ -0,0 +1,13 @@
+package org.mockserver.mock.action;
+
+/**
+ * An ExpectationCallback that is instantiated once and then shared by every request that matches an
+ * expectation using it, rather than being instantiated for each request, so any expensive state
+ * (i.e. loaded fixtures or compiled regular expressions) is only built once.
+ *
+ * Implementations are called concurrently from multiple threads so must be thread safe.
+ *
+ * @author jamesdbloom
+ */
+public interface SingletonExpectationCallback extends ExpectationCallback {
+}
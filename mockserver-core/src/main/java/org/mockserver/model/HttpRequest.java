@@ -241,6 +241,17 @@ public class HttpRequest extends Not {
         return false;
     }
 
+    public String getFirstQueryStringParameter(String name) {
+        String firstParameterValue = "";
+        Parameter parameter = queryStringParameters.get(string(name));
+        if (parameter != null) {
+            if (!parameter.getValues().isEmpty() && !Strings.isNullOrEmpty(parameter.getValues().get(0).getValue())) {
+                firstParameterValue = parameter.getValues().get(0).getValue();
+            }
+        }
+        return firstParameterValue;
+    }
+
     /**
      * The exact string body to match on such as "this is an exact string body"
      *
@@ -0,0 +1,139 @@
+package org.mockserver.server.netty;
+
+import com.google.common.net.MediaType;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.stream.ChunkedInput;
+import io.netty.handler.stream.ChunkedWriteHandler;
+import org.mockserver.cors.CORSHeaders;
+import org.mockserver.model.HttpRequest;
+import org.mockserver.model.HttpResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static io.netty.handler.codec.http.HttpHeaderNames.CONNECTION;
+import static io.netty.handler.codec.http.HttpHeaderNames.CONTENT_TYPE;
+import static io.netty.handler.codec.http.HttpHeaderValues.CLOSE;
+import static io.netty.handler.codec.http.HttpHeaderValues.KEEP_ALIVE;
+import static io.netty.handler.codec.http.HttpResponseStatus.ACCEPTED;
+import static io.netty.handler.codec.http.HttpResponseStatus.BAD_REQUEST;
+import static io.netty.handler.codec.http.HttpResponseStatus.NOT_ACCEPTABLE;
+import static org.mockserver.configuration.ConfigurationProperties.enableCORSForAPI;
+import static org.mockserver.configuration.ConfigurationProperties.enableCORSForAllResponses;
+import static org.mockserver.configuration.ConfigurationProperties.maxVerificationTimeout;
+import static org.mockserver.model.Header.header;
+import static org.mockserver.model.HttpResponse.response;
+
+/**
+ * Writes the responses to the verify and retrieve requests of the MockServer and proxy APIs that are written
+ * asynchronously, once a verification passes or times out, or one chunk at a time
+ *
+ * All methods must be called on the channel's event loop.
+ *
+ * @author jamesdbloom
+ */
+public class ApiResponses {
+
+    private static final Logger logger = LoggerFactory.getLogger(ApiResponses.class);
+    private static final CORSHeaders addCORSHeaders = new CORSHeaders();
+
+    /**
+     * Writes a response to a request, adding the headers the server adds to every response (i.e. Connection)
+     */
+    public interface ResponseWriter {
+        void writeResponse(ChannelHandlerContext ctx, HttpRequest request, HttpResponse response);
+    }
+
+    /**
+     * @return the timeout in milliseconds to wait for a verification to pass, or zero to verify immediately
+     */
+    public static long verificationTimeout(HttpRequest request) {
+        String timeout = request.getFirstQueryStringParameter("timeout");
+        if (timeout.isEmpty()) {
+            return 0;
+        }
+        try {
+            return Math.min(Long.parseLong(timeout), maxVerificationTimeout());
+        } catch (NumberFormatException nfe) {
+            throw new IllegalArgumentException("\"timeout\" query string parameter must be a number of milliseconds");
+        }
+    }
+
+    /**
+     * Writes the verification result once matching requests have been received, or the timeout expires, without
+     * holding a thread while waiting
+     */
+    public static void verifyResponseWhenComplete(final ChannelHandlerContext ctx, final HttpRequest request, ListenableFuture<String> resultFuture, final ResponseWriter responseWriter) {
+        PipelinedRequests.awaitResponse(ctx);
+        Futures.addCallback(resultFuture, new FutureCallback<String>() {
+            @Override
+            public void onSuccess(String result) {
+                try {
+                    responseWriter.writeResponse(ctx, request, verifyResponse(result));
+                    // the read that triggered this verification has already completed so flush explicitly
+                    ctx.flush();
+                } finally {
+                    PipelinedRequests.responded(ctx);
+                }
+            }
+
+            @Override
+            public void onFailure(Throwable throwable) {
+                try {
+                    logger.error("Exception processing " + request, throwable);
+                    responseWriter.writeResponse(ctx, request, response().withStatusCode(BAD_REQUEST.code()).withBody(throwable.getMessage()));
+                    ctx.flush();
+                } finally {
+                    PipelinedRequests.responded(ctx);
+                }
+            }
+        }, ctx.executor());
+    }
+
+    /**
+     * @return the response to a verification, with the failure message if it failed
+     */
+    public static HttpResponse verifyResponse(String result) {
+        HttpResponse response;
+        if (result.isEmpty()) {
+            response = response().withStatusCode(ACCEPTED.code());
+        } else {
+            response = response()
+                    .withStatusCode(NOT_ACCEPTABLE.code())
+                    .withBody(result)
+                    .withHeader(header(CONTENT_TYPE.toString(), MediaType.create("text", "plain").toString() + "; charset=utf-8"));
+        }
+        if (enableCORSForAPI()) {
+            addCORSHeaders.addCORSHeaders(response);
+        }
+        return response;
+    }
+
+    /**
+     * Writes the content using chunked transfer encoding as the channel is ready for more, instead of building the
+     * whole response body in memory first
+     */
+    public static void writeChunkedResponse(ChannelHandlerContext ctx, DefaultHttpResponse chunkedResponse, ChunkedInput<HttpContent> content, String contentType, boolean closeChannel) {
+        HttpUtil.setTransferEncodingChunked(chunkedResponse, true);
+        chunkedResponse.headers().set(CONTENT_TYPE, contentType);
+        if (enableCORSForAPI() || enableCORSForAllResponses()) {
+            addCORSHeaders.addCORSHeaders(chunkedResponse.headers());
+        }
+        chunkedResponse.headers().set(CONNECTION, closeChannel ? CLOSE : KEEP_ALIVE);
+        if (ctx.pipeline().get(ChunkedWriteHandler.class) == null) {
+            // added when first needed so only connections that retrieve records have it
+            ctx.pipeline().addBefore(ctx.name(), null, new ChunkedWriteHandler());
+        }
+        ctx.write(chunkedResponse);
+        ChannelFuture writeFuture = ctx.writeAndFlush(content);
+        // a failure part way through can't be reported in the response so the connection is closed
+        writeFuture.addListener(closeChannel ? ChannelFutureListener.CLOSE : ChannelFutureListener.CLOSE_ON_FAILURE);
+    }
+}
@@ -0,0 +1,80 @@
+package org.mockserver.server.netty;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandler;
+import io.netty.util.AttributeKey;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+/**
+ * Keeps responses on a keep-alive connection in the same order as their requests, as HTTP/1.1 (and the
+ * HttpServerCodec, which pairs each response with the method of the oldest unanswered request) requires, when
+ * some responses are written asynchronously (i.e. after a delay or once a forwarded request completes).
+ *
+ * While a response is outstanding reads are paused and any request already read is queued, the queued requests
+ * are handled, in order, once the outstanding response has been written.
+ *
+ * All methods must be called on the channel's event loop.
+ *
+ * @author jamesdbloom
+ */
+public class PipelinedRequests {
+
+    private static final AttributeKey<PipelinedRequests> PIPELINED_REQUESTS = AttributeKey.valueOf("PIPELINED_REQUESTS");
+    private final Queue<Object> queuedRequests = new ArrayDeque<Object>();
+    private ChannelInboundHandler handler;
+    private int outstandingResponses;
+
+    private static PipelinedRequests pipelinedRequests(ChannelHandlerContext ctx) {
+        PipelinedRequests pipelinedRequests = ctx.channel().attr(PIPELINED_REQUESTS).get();
+        if (pipelinedRequests == null) {
+            pipelinedRequests = new PipelinedRequests();
+            ctx.channel().attr(PIPELINED_REQUESTS).set(pipelinedRequests);
+        }
+        return pipelinedRequests;
+    }
+
+    /**
+     * @return true if the request was queued, to be passed to the handler once the outstanding response has been
+     * written, or false if there is no outstanding response and the request should be handled now
+     */
+    public static boolean queueIfResponseOutstanding(ChannelHandlerContext ctx, ChannelInboundHandler handler, Object request) {
+        PipelinedRequests pipelinedRequests = pipelinedRequests(ctx);
+        if (pipelinedRequests.outstandingResponses > 0) {
+            pipelinedRequests.handler = handler;
+            pipelinedRequests.queuedRequests.add(request);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Marks the response to the request being handled as outstanding, each call must be matched by a call to
+     * {@link #responded(ChannelHandlerContext)} once the response has been written
+     */
+    public static void awaitResponse(ChannelHandlerContext ctx) {
+        pipelinedRequests(ctx).outstandingResponses++;
+        ctx.channel().config().setAutoRead(false);
+    }
+
+    /**
+     * Handles any requests queued while the response was outstanding, then resumes reading once no response is
+     * outstanding
+     */
+    public static void responded(ChannelHandlerContext ctx) {
+        PipelinedRequests pipelinedRequests = pipelinedRequests(ctx);
+        pipelinedRequests.outstandingResponses--;
+        while (pipelinedRequests.outstandingResponses == 0 && !pipelinedRequests.queuedRequests.isEmpty()) {
+            try {
+                pipelinedRequests.handler.channelRead(ctx, pipelinedRequests.queuedRequests.poll());
+            } catch (Exception e) {
+                ctx.fireExceptionCaught(e);
+            }
+        }
+        ctx.flush();
+        if (pipelinedRequests.outstandingResponses == 0) {
+            ctx.channel().config().setAutoRead(true);
+        }
+    }
+}
@@ -1,11 +1,15 @@
 package org.mockserver.server.netty.codec;
 
 import com.google.common.base.Strings;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToMessageEncoder;
 import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpResponse;
 import io.netty.handler.codec.http.HttpResponseStatus;
 import io.netty.handler.codec.http.HttpVersion;
 import io.netty.handler.codec.http.cookie.ClientCookieDecoder;
@@ -28,6 +32,20 @@ import static org.mockserver.model.ConnectionOptions.isFalseOrNull;
  * @author jamesdbloom
  */
 public class MockServerResponseEncoder extends MessageToMessageEncoder<HttpResponse> {
+
+    // the responses of expectations don't change once the expectation is created so each is only encoded once,
+    // weak keys compare by identity and let an entry go when its expectation is removed
+    private static final LoadingCache<HttpResponse, FullHttpResponse> staticResponses = CacheBuilder.newBuilder()
+            .weakKeys()
+            .build(new CacheLoader<HttpResponse, FullHttpResponse>() {
+                @Override
+                public FullHttpResponse load(HttpResponse response) {
+                    DefaultFullHttpResponse encodedResponse = new MockServerResponseEncoder().encode(response);
+                    // the body is shared by every response written from this template so must never be released
+                    return encodedResponse.replace(Unpooled.unreleasableBuffer(encodedResponse.content()));
+                }
+            });
+
     @Override
     protected void encode(ChannelHandlerContext ctx, HttpResponse response, List<Object> out) {
         out.add(encode(response));
@@ -44,6 +62,23 @@ public class MockServerResponseEncoder extends MessageToMessageEncoder<HttpRespo
         return defaultFullHttpResponse;
     }
 
+    /**
+     * Encodes a response that doesn't change (i.e. the response of an expectation) the first time it is used, then
+     * returns a duplicate of the encoded response that shares its body, the duplicate's headers are a copy so headers
+     * for each request, such as Connection, can be added without modifying the encoded response
+     */
+    public FullHttpResponse encodeStaticResponse(HttpResponse response) {
+        return staticResponses.getUnchecked(response).retainedDuplicate();
+    }
+
+    /**
+     * Encodes a response that doesn't change (i.e. the response of an expectation) ahead of its first use, so
+     * {@link #encodeStaticResponse(HttpResponse)} only duplicates it, without returning anything to release
+     */
+    public void prime(HttpResponse response) {
+        staticResponses.getUnchecked(response);
+    }
+
     private ByteBuf getBody(HttpResponse response) {
         ByteBuf content = Unpooled.buffer(0, 0);
 
@@ -0,0 +1,187 @@
+package org.mockserver.server.netty.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToMessageDecoder;
+import io.netty.handler.codec.TooLongFrameException;
+import io.netty.handler.codec.http.*;
+import org.mockserver.configuration.ConfigurationProperties;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static io.netty.handler.codec.http.HttpHeaderNames.CONTENT_LENGTH;
+import static io.netty.handler.codec.http.HttpHeaderNames.EXPECT;
+import static io.netty.handler.codec.http.HttpResponseStatus.CONTINUE;
+import static io.netty.handler.codec.http.HttpResponseStatus.REQUEST_ENTITY_TOO_LARGE;
+import static io.netty.handler.codec.http.HttpVersion.HTTP_1_1;
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * Aggregates an HttpMessage and its HttpContents into a FullHttpMessage, like HttpObjectAggregator, except
+ * that content is only held in memory up to the memory threshold, larger bodies are streamed to a temporary
+ * file as they arrive and the completed message wraps a read-only memory mapping of that file so the body
+ * never occupies the heap while it is being received
+ *
+ * @author jamesdbloom
+ */
+public class SpillingHttpObjectAggregator extends MessageToMessageDecoder<HttpObject> {
+
+    private final int maxContentLength;
+    private final int memoryThreshold;
+    private HttpMessage currentMessage;
+    private CompositeByteBuf memoryContent;
+    private FileChannel spillChannel;
+    private long contentLength;
+
+    public SpillingHttpObjectAggregator() {
+        this(ConfigurationProperties.maxRequestBodySize(), ConfigurationProperties.requestBodyMemoryThreshold());
+    }
+
+    public SpillingHttpObjectAggregator(int maxContentLength, int memoryThreshold) {
+        this.maxContentLength = maxContentLength;
+        this.memoryThreshold = memoryThreshold;
+    }
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, HttpObject msg, List<Object> out) throws Exception {
+        if (msg instanceof FullHttpMessage) {
+            reset();
+            out.add(((FullHttpMessage) msg).retain());
+        } else if (msg instanceof HttpMessage) {
+            reset();
+            HttpMessage message = (HttpMessage) msg;
+            if (HttpUtil.getContentLength(message, -1L) > maxContentLength) {
+                handleOversized(ctx, message);
+                return;
+            }
+            if (message instanceof HttpRequest && HttpUtil.is100ContinueExpected(message)) {
+                ctx.writeAndFlush(new DefaultFullHttpResponse(HTTP_1_1, CONTINUE, Unpooled.EMPTY_BUFFER)).addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
+                message.headers().remove(EXPECT);
+            }
+            HttpUtil.setTransferEncodingChunked(message, false);
+            currentMessage = message;
+            memoryContent = ctx.alloc().compositeBuffer(Integer.MAX_VALUE);
+        } else if (msg instanceof HttpContent && currentMessage != null) {
+            // content without a current message belongs to a message that was too large and is discarded
+            HttpContent content = (HttpContent) msg;
+            contentLength += content.content().readableBytes();
+            if (contentLength > maxContentLength) {
+                HttpMessage message = currentMessage;
+                reset();
+                handleOversized(ctx, message);
+                return;
+            }
+            append(content.content());
+            if (content instanceof LastHttpContent || content.decoderResult().isFailure()) {
+                out.add(finish(content));
+            }
+        }
+    }
+
+    private void append(ByteBuf buffer) throws IOException {
+        if (spillChannel == null && memoryContent.readableBytes() + buffer.readableBytes() > memoryThreshold) {
+            Path spillFile = Files.createTempFile("mockserver-body-", ".tmp");
+            try {
+                spillChannel = FileChannel.open(spillFile, READ, WRITE, DELETE_ON_CLOSE);
+            } catch (IOException ioe) {
+                Files.deleteIfExists(spillFile);
+                throw ioe;
+            }
+            write(memoryContent);
+            memoryContent.release();
+            memoryContent = null;
+        }
+        if (spillChannel != null) {
+            write(buffer);
+        } else if (buffer.isReadable()) {
+            memoryContent.addComponent(true, buffer.retain());
+        }
+    }
+
+    private void write(ByteBuf buffer) throws IOException {
+        while (buffer.isReadable()) {
+            buffer.readBytes(spillChannel, buffer.readableBytes());
+        }
+    }
+
+    private FullHttpMessage finish(HttpContent lastContent) throws IOException {
+        ByteBuf content;
+        if (spillChannel != null) {
+            // a mapping remains valid after its channel is closed, closing the channel deletes the file
+            content = Unpooled.wrappedBuffer(spillChannel.map(FileChannel.MapMode.READ_ONLY, 0, spillChannel.size()));
+        } else {
+            content = memoryContent;
+            memoryContent = null;
+        }
+        FullHttpMessage aggregated;
+        if (currentMessage instanceof HttpRequest) {
+            HttpRequest request = (HttpRequest) currentMessage;
+            aggregated = new DefaultFullHttpRequest(request.protocolVersion(), request.method(), request.uri(), content);
+        } else {
+            HttpResponse response = (HttpResponse) currentMessage;
+            aggregated = new DefaultFullHttpResponse(response.protocolVersion(), response.status(), content);
+        }
+        aggregated.headers().set(currentMessage.headers());
+        aggregated.setDecoderResult(lastContent.decoderResult().isFailure() ? lastContent.decoderResult() : currentMessage.decoderResult());
+        if (lastContent instanceof LastHttpContent) {
+            aggregated.trailingHeaders().set(((LastHttpContent) lastContent).trailingHeaders());
+        }
+        if (!HttpUtil.isContentLengthSet(aggregated)) {
+            aggregated.headers().set(CONTENT_LENGTH, String.valueOf(content.readableBytes()));
+        }
+        reset();
+        return aggregated;
+    }
+
+    private void handleOversized(ChannelHandlerContext ctx, HttpMessage message) throws TooLongFrameException {
+        if (message instanceof HttpRequest) {
+            // the rest of the body is discarded so the connection can't be reused
+            FullHttpResponse tooLarge = new DefaultFullHttpResponse(HTTP_1_1, REQUEST_ENTITY_TOO_LARGE, Unpooled.EMPTY_BUFFER);
+            tooLarge.headers().set(CONTENT_LENGTH, 0);
+            ctx.writeAndFlush(tooLarge).addListener(ChannelFutureListener.CLOSE);
+        } else {
+            throw new TooLongFrameException("Response entity larger than " + maxContentLength + " bytes");
+        }
+    }
+
+    private void reset() throws IOException {
+        currentMessage = null;
+        contentLength = 0;
+        if (memoryContent != null) {
+            memoryContent.release();
+            memoryContent = null;
+        }
+        if (spillChannel != null) {
+            try {
+                spillChannel.close();
+            } finally {
+                spillChannel = null;
+            }
+        }
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        try {
+            super.channelInactive(ctx);
+        } finally {
+            reset();
+        }
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+        try {
+            super.handlerRemoved(ctx);
+        } finally {
+            reset();
+        }
+    }
+}
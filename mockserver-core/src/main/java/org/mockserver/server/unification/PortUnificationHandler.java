@@ -6,11 +6,11 @@ import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPipeline;
 import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.handler.codec.http.HttpContentDecompressor;
-import io.netty.handler.codec.http.HttpObjectAggregator;
 import io.netty.handler.codec.http.HttpServerCodec;
 import io.netty.handler.logging.LoggingHandler;
 import io.netty.handler.ssl.SslHandler;
 import io.netty.util.AttributeKey;
+import org.mockserver.server.netty.codec.SpillingHttpObjectAggregator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -92,7 +92,7 @@ public abstract class PortUnificationHandler extends SimpleChannelInboundHandler
         addLastIfNotPresent(pipeline, new HttpServerCodec(8192, 8192, 8192));
         addLastIfNotPresent(pipeline, new HttpContentDecompressor());
         addLastIfNotPresent(pipeline, new HttpContentLengthRemover());
-        addLastIfNotPresent(pipeline, new HttpObjectAggregator(Integer.MAX_VALUE));
+        addLastIfNotPresent(pipeline, new SpillingHttpObjectAggregator());
         if (logger.isDebugEnabled()) {
             addLastIfNotPresent(pipeline, new LoggingHandler());
         }
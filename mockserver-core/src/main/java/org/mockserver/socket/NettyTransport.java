@@ -0,0 +1,126 @@
+package org.mockserver.socket;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.EventLoop;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.*;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.ServerSocketChannel;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.MultithreadEventExecutorGroup;
+import org.mockserver.configuration.ConfigurationProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Creates event loops and chooses channel classes for either the native epoll transport, when it is enabled
+ * and available (i.e. on Linux), or the NIO transport, so servers and clients never mix the two
+ *
+ * @author jamesdbloom
+ */
+public class NettyTransport {
+
+    private static final Logger logger = LoggerFactory.getLogger(NettyTransport.class);
+    private static final AtomicBoolean unavailableLogged = new AtomicBoolean(false);
+
+    public static boolean useNativeTransport() {
+        if (ConfigurationProperties.nativeTransport()) {
+            if (Epoll.isAvailable()) {
+                return true;
+            } else if (unavailableLogged.compareAndSet(false, true)) {
+                logger.warn("Native epoll transport is not available falling back to NIO transport", Epoll.unavailabilityCause());
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param threadCount the number of threads or 0 for the Netty default
+     */
+    public static EventLoopGroup eventLoopGroup(int threadCount) {
+        return eventLoopGroup(threadCount, null);
+    }
+
+    /**
+     * @param threadCount   the number of threads or 0 for the Netty default
+     * @param threadFactory the factory for the event loop threads or null for the Netty default
+     */
+    public static EventLoopGroup eventLoopGroup(int threadCount, ThreadFactory threadFactory) {
+        if (useNativeTransport()) {
+            return new EpollEventLoopGroup(threadCount, threadFactory);
+        } else {
+            return new NioEventLoopGroup(threadCount, threadFactory);
+        }
+    }
+
+    public static Class<? extends ServerSocketChannel> serverSocketChannelClass(EventLoopGroup eventLoopGroup) {
+        if (isNative(eventLoopGroup)) {
+            return EpollServerSocketChannel.class;
+        } else {
+            return NioServerSocketChannel.class;
+        }
+    }
+
+    /**
+     * @param eventLoopGroup the event loop group, or event loop, the channel will be registered with
+     */
+    public static Class<? extends SocketChannel> socketChannelClass(EventLoopGroup eventLoopGroup) {
+        if (isNative(eventLoopGroup)) {
+            return EpollSocketChannel.class;
+        } else {
+            return NioSocketChannel.class;
+        }
+    }
+
+    /**
+     * Adds the Linux only socket options that have been configured, these are ignored by the NIO transport
+     */
+    public static ServerBootstrap withNativeOptions(ServerBootstrap serverBootstrap, EventLoopGroup bossGroup) {
+        if (isNative(bossGroup)) {
+            if (ConfigurationProperties.tcpFastOpenQueueLength() > 0) {
+                serverBootstrap.option(EpollChannelOption.TCP_FASTOPEN, ConfigurationProperties.tcpFastOpenQueueLength());
+            }
+            if (ConfigurationProperties.socketReusePort()) {
+                serverBootstrap.option(EpollChannelOption.SO_REUSEPORT, true);
+            }
+        }
+        return serverBootstrap;
+    }
+
+    /**
+     * The number of channels to bind to each port, when SO_REUSEPORT is enabled this is one per boss event loop
+     * (the size of the group actually created, which is one per available processor when no boss thread count is
+     * configured) otherwise only a single channel can bind to a port
+     */
+    public static int reusePortAcceptorCount(EventLoopGroup bossGroup) {
+        if (isNative(bossGroup) && ConfigurationProperties.socketReusePort()) {
+            return Math.max(1, executorCount(bossGroup));
+        } else {
+            return 1;
+        }
+    }
+
+    private static int executorCount(EventLoopGroup eventLoopGroup) {
+        if (eventLoopGroup instanceof MultithreadEventExecutorGroup) {
+            return ((MultithreadEventExecutorGroup) eventLoopGroup).executorCount();
+        }
+        int executorCount = 0;
+        for (EventExecutor ignored : eventLoopGroup) {
+            executorCount++;
+        }
+        return executorCount;
+    }
+
+    private static boolean isNative(EventLoopGroup eventLoopGroup) {
+        if (eventLoopGroup instanceof EventLoop && ((EventLoop) eventLoopGroup).parent() != null) {
+            eventLoopGroup = ((EventLoop) eventLoopGroup).parent();
+        }
+        return eventLoopGroup instanceof EpollEventLoopGroup;
+    }
+}
@@ -1,6 +1,9 @@
 package org.mockserver.templates.engine.javascript;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import org.mockserver.client.serialization.ObjectMapperFactory;
 import org.mockserver.client.serialization.model.HttpResponseDTO;
 import org.mockserver.logging.LogFormatter;
@@ -10,9 +13,7 @@ import org.mockserver.templates.engine.TemplateEngine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.script.Invocable;
-import javax.script.ScriptEngine;
-import javax.script.ScriptEngineManager;
+import javax.script.*;
 
 import static org.mockserver.character.Character.NEW_LINE;
 
@@ -21,20 +22,66 @@ import static org.mockserver.character.Character.NEW_LINE;
  */
 public class JavaScriptTemplateEngine implements TemplateEngine {
 
+    private static final int MAX_CACHED_TEMPLATES = 1000;
+    /**
+     * Converts the object returned by the template into java lists and maps so it can be converted into
+     * a response without serialising it to JSON and parsing it again
+     */
+    private static final String TO_JAVA_FUNCTION = "function toJava(value) {" + NEW_LINE +
+            "    if (Array.isArray(value)) {" + NEW_LINE +
+            "        var list = new java.util.ArrayList();" + NEW_LINE +
+            "        for (var i = 0; i < value.length; i++) {" + NEW_LINE +
+            "            list.add(toJava(value[i]));" + NEW_LINE +
+            "        }" + NEW_LINE +
+            "        return list;" + NEW_LINE +
+            "    } else if (value !== null && typeof value === 'object') {" + NEW_LINE +
+            "        var map = new java.util.LinkedHashMap();" + NEW_LINE +
+            "        for (var key in value) {" + NEW_LINE +
+            "            if (value[key] !== undefined && typeof value[key] !== 'function') {" + NEW_LINE +
+            "                map.put(key, toJava(value[key]));" + NEW_LINE +
+            "            }" + NEW_LINE +
+            "        }" + NEW_LINE +
+            "        return map;" + NEW_LINE +
+            "    } else {" + NEW_LINE +
+            "        return value === undefined ? null : value;" + NEW_LINE +
+            "    }" + NEW_LINE +
+            "}" + NEW_LINE;
+
     private static ObjectMapper objectMapper = ObjectMapperFactory.createObjectMapper();
     private static Logger logger = LoggerFactory.getLogger(JavaScriptTemplateEngine.class);
     private static LogFormatter logFormatter = new LogFormatter(logger);
 
     private static final ScriptEngine engine = new ScriptEngineManager().getEngineByName("nashorn");
+    // each thread evaluates templates in its own global scope as the engine's default scope isn't thread safe
+    private static final ThreadLocal<Bindings> bindings = new ThreadLocal<Bindings>() {
+        @Override
+        protected Bindings initialValue() {
+            return engine.createBindings();
+        }
+    };
+    private static final LoadingCache<String, CompiledScript> compiledTemplates = CacheBuilder.newBuilder()
+            .maximumSize(MAX_CACHED_TEMPLATES)
+            .build(new CacheLoader<String, CompiledScript>() {
+                @Override
+                public CompiledScript load(String template) throws ScriptException {
+                    // HttpResponse handle(HttpRequest httpRequest) - ES5
+                    return ((Compilable) engine).compile(TO_JAVA_FUNCTION + "toJava((function (request) {" + template + NEW_LINE + "})(JSON.parse(httpRequest)));");
+                }
+            });
 
     public HttpResponse executeTemplate(String template, HttpRequest httpRequest) {
         try {
             if (engine != null) {
-                engine.eval("function handle(request) {" + template + "} function serialise(request) { return JSON.stringify(handle(JSON.parse(request)), null, 2); }");
-                // HttpResponse handle(HttpRequest httpRequest) - ES5
-                Object stringifiedResponse = ((Invocable) engine).invokeFunction("serialise", httpRequest);
-                logFormatter.infoLog("Generated response:{}from template:{}for request:{}", stringifiedResponse, template, httpRequest);
-                return objectMapper.readValue((String) stringifiedResponse, HttpResponseDTO.class).buildObject();
+                Bindings templateBindings = bindings.get();
+                templateBindings.put("httpRequest", httpRequest);
+                try {
+                    Object generatedResponse = compiledTemplates.getUnchecked(template).eval(templateBindings);
+                    HttpResponse httpResponse = generatedResponse != null ? objectMapper.convertValue(generatedResponse, HttpResponseDTO.class).buildObject() : null;
+                    logFormatter.infoLog("Generated response:{}from template:{}for request:{}", httpResponse, template, httpRequest);
+                    return httpResponse;
+                } finally {
+                    templateBindings.remove("httpRequest");
+                }
             } else {
                 logger.error("JavaScript based templating is only available in a JVM with the \"nashorn\" JavaScript engine, " +
                         "please use a JVM with the \"nashorn\" JavaScript engine, such as Oracle Java 8+", new RuntimeException("\"nashorn\" JavaScript engine not available"));
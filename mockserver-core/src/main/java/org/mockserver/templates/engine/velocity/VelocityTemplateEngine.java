@@ -1,6 +1,10 @@
 package org.mockserver.templates.engine.velocity;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import org.apache.velocity.script.VelocityScriptEngineFactory;
 import org.mockserver.client.serialization.ObjectMapperFactory;
 import org.mockserver.client.serialization.model.HttpRequestDTO;
@@ -13,9 +17,7 @@ import org.mockserver.templates.engine.velocity.model.HttpRequestTemplateObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.script.ScriptContext;
-import javax.script.ScriptEngine;
-import javax.script.ScriptEngineManager;
+import javax.script.*;
 import java.io.StringWriter;
 import java.io.Writer;
 
@@ -27,8 +29,20 @@ public class VelocityTemplateEngine implements TemplateEngine {
     private static Logger logger = LoggerFactory.getLogger(VelocityTemplateEngine.class);
     private static LogFormatter logFormatter = new LogFormatter(logger);
 
+    private static final ObjectReader httpResponseDTOReader = objectMapper.readerFor(HttpResponseDTO.class);
+    private static final int MAX_CACHED_TEMPLATES = 1000;
+
     private static final ScriptEngineManager manager = new ScriptEngineManager();
     private static final ScriptEngine engine;
+    // templates are parsed once, a parsed template can be merged by many threads at once
+    private static final LoadingCache<String, CompiledScript> compiledTemplates = CacheBuilder.newBuilder()
+            .maximumSize(MAX_CACHED_TEMPLATES)
+            .build(new CacheLoader<String, CompiledScript>() {
+                @Override
+                public CompiledScript load(String template) throws ScriptException {
+                    return ((Compilable) engine).compile(template);
+                }
+            });
 
     static {
         manager.registerEngineName("velocity", new VelocityScriptEngineFactory());
@@ -39,12 +53,13 @@ public class VelocityTemplateEngine implements TemplateEngine {
     public HttpResponse executeTemplate(String template, HttpRequest httpRequest) {
         try {
             Writer writer = new StringWriter();
-            ScriptContext context = engine.getContext();
+            // a new context for every request so concurrent requests never see each other's request or writer
+            ScriptContext context = new SimpleScriptContext();
             context.setWriter(writer);
             context.setAttribute("request", new HttpRequestTemplateObject(httpRequest), ScriptContext.ENGINE_SCOPE);
-            engine.eval(template);
+            compiledTemplates.getUnchecked(template).eval(context);
             logFormatter.infoLog("Generated response:{}from template:{}for request:{}", writer.toString(), template, httpRequest);
-            return objectMapper.readValue(writer.toString(), HttpResponseDTO.class).buildObject();
+            return httpResponseDTOReader.<HttpResponseDTO>readValue(writer.toString()).buildObject();
         } catch (Exception e) {
             logFormatter.errorLog(e, "Exception transforming template:{}for request:{}", template, httpRequest);
         }
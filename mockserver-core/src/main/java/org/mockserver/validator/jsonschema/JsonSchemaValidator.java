@@ -5,10 +5,14 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.github.fge.jsonschema.core.report.ProcessingMessage;
 import com.github.fge.jsonschema.core.report.ProcessingReport;
+import com.github.fge.jsonschema.main.JsonSchema;
 import com.github.fge.jsonschema.main.JsonSchemaFactory;
 import com.github.fge.jsonschema.main.JsonValidator;
 import com.google.common.base.Joiner;
 import com.google.common.base.Strings;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import org.mockserver.client.serialization.ObjectMapperFactory;
 import org.mockserver.file.FileReader;
 import org.mockserver.model.ObjectWithReflectiveEqualsHashCodeToString;
@@ -27,7 +31,17 @@ import static org.mockserver.character.Character.NEW_LINE;
 public class JsonSchemaValidator extends ObjectWithReflectiveEqualsHashCodeToString implements Validator<String> {
 
     private static Logger logger = LoggerFactory.getLogger(JsonSchemaValidator.class);
+    private static final int MAX_CACHED_SCHEMAS = 1000;
+    private static final LoadingCache<String, JsonSchema> COMPILED_SCHEMA_CACHE = CacheBuilder.newBuilder()
+            .maximumSize(MAX_CACHED_SCHEMAS)
+            .build(new CacheLoader<String, JsonSchema>() {
+                @Override
+                public JsonSchema load(String schema) throws Exception {
+                    return JsonSchemaFactory.byDefault().getJsonSchema(ObjectMapperFactory.createObjectMapper().readTree(schema));
+                }
+            });
     private final String schema;
+    private final JsonSchema jsonSchema;
     private final JsonValidator validator = JsonSchemaFactory.byDefault().getValidator();
     private ObjectMapper objectMapper = ObjectMapperFactory.createObjectMapper();
 
@@ -40,6 +54,21 @@ public class JsonSchemaValidator extends ObjectWithReflectiveEqualsHashCodeToStr
         } else {
             throw new IllegalArgumentException("Schema must either be a path reference to a *.json file or a json string");
         }
+        this.jsonSchema = compile(this.schema);
+        addFieldsExcludedFromEqualsAndHashCode("jsonSchema");
+    }
+
+    /**
+     * Schemas are compiled once and shared, by schema text, across all validators and matchers
+     */
+    private static JsonSchema compile(String schema) {
+        try {
+            return COMPILED_SCHEMA_CACHE.get(schema);
+        } catch (Exception e) {
+            // invalid schemas are reported, as before, each time they are used to validate
+            logger.debug("Exception compiling JSON schema", e);
+            return null;
+        }
     }
 
     protected static String addReferencesIntoSchema(String routePath, String mainSchemeFile, String... referenceFiles) {
@@ -71,17 +100,7 @@ public class JsonSchemaValidator extends ObjectWithReflectiveEqualsHashCodeToStr
         String validationResult = "";
         if (!Strings.isNullOrEmpty(json)) {
             try {
-
-                ProcessingReport processingReport = validator
-                        .validate(
-                                objectMapper.readTree(schema),
-                                objectMapper.readTree(json),
-                                true
-                        );
-
-                if (!processingReport.isSuccess()) {
-                    validationResult = formatProcessingReport(processingReport);
-                }
+                validationResult = isValid(objectMapper.readTree(json));
             } catch (Exception e) {
                 logger.info("Exception validating JSON", e);
                 return e.getClass().getSimpleName() + " - " + e.getMessage();
@@ -90,6 +109,29 @@ public class JsonSchemaValidator extends ObjectWithReflectiveEqualsHashCodeToStr
         return validationResult;
     }
 
+    /**
+     * Validates JSON that has already been parsed, i.e. by the caller that needs the tree for other purposes
+     */
+    public String isValid(JsonNode json) {
+        String validationResult = "";
+        try {
+            ProcessingReport processingReport;
+            if (jsonSchema != null) {
+                processingReport = jsonSchema.validate(json, true);
+            } else {
+                processingReport = validator.validate(objectMapper.readTree(schema), json, true);
+            }
+
+            if (!processingReport.isSuccess()) {
+                validationResult = formatProcessingReport(processingReport);
+            }
+        } catch (Exception e) {
+            logger.info("Exception validating JSON", e);
+            return e.getClass().getSimpleName() + " - " + e.getMessage();
+        }
+        return validationResult;
+    }
+
     private String formatProcessingReport(ProcessingReport validate) {
         List<String> validationErrors = new ArrayList<String>();
         for (ProcessingMessage processingMessage : validate) {
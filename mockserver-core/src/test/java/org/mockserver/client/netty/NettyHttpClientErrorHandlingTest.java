@@ -11,15 +11,25 @@ import org.mockserver.echo.http.EchoServer;
 import org.mockserver.model.HttpResponse;
 import org.mockserver.socket.PortFactory;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import static io.netty.handler.codec.http.HttpHeaderNames.*;
 import static io.netty.handler.codec.http.HttpHeaderValues.DEFLATE;
 import static io.netty.handler.codec.http.HttpHeaderValues.GZIP;
 import static io.netty.handler.codec.http.HttpHeaderValues.KEEP_ALIVE;
+import static com.google.common.base.Charsets.UTF_8;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.fail;
 import static org.mockserver.model.Header.header;
 import static org.mockserver.model.HttpRequest.request;
 import static org.mockserver.model.HttpResponse.response;
@@ -110,4 +120,132 @@ public class NettyHttpClientErrorHandlingTest {
         }
     }
 
-}
\ No newline at end of file
+    @Test
+    public void shouldNotResendUnsafeRequestWhenPooledConnectionClosedAfterRequestSent() throws Exception {
+        // given - a server that closes the connection, without responding, to the second request
+        ClosingServer closingServer = new ClosingServer(freePort, 2);
+        InetSocketAddress socket = new InetSocketAddress("127.0.0.1", freePort);
+        NettyHttpClient nettyHttpClient = new NettyHttpClient();
+
+        try {
+            nettyHttpClient.sendRequest(request().withMethod("POST").withBody(exact("first")), socket);
+
+            // when
+            try {
+                nettyHttpClient.sendRequest(request().withMethod("POST").withBody(exact("second")), socket);
+                fail("expected exception to be thrown");
+            } catch (RuntimeException re) {
+                // expected
+            }
+
+            // then - request not sent again
+            assertThat(closingServer.requestCount.get(), is(2));
+        } finally {
+            closingServer.stop();
+        }
+    }
+
+    @Test
+    public void shouldResendSafeRequestWhenPooledConnectionClosedBeforeResponse() throws Exception {
+        // given - a server that closes the connection, without responding, to the second request
+        ClosingServer closingServer = new ClosingServer(freePort, 2);
+        InetSocketAddress socket = new InetSocketAddress("127.0.0.1", freePort);
+        NettyHttpClient nettyHttpClient = new NettyHttpClient();
+
+        try {
+            nettyHttpClient.sendRequest(request().withMethod("GET"), socket);
+
+            // when
+            HttpResponse httpResponse = nettyHttpClient.sendRequest(request().withMethod("GET"), socket);
+
+            // then - request sent again on a new connection
+            assertThat(httpResponse.getStatusCode(), is(200));
+            assertThat(closingServer.requestCount.get(), is(3));
+        } finally {
+            closingServer.stop();
+        }
+    }
+
+    /**
+     * Responds to every request on keep-alive connections except one, for which the connection is closed once the
+     * whole request has been received
+     */
+    private static class ClosingServer implements Runnable {
+        private final ServerSocket serverSocket;
+        private final int closeOnRequest;
+        private final AtomicInteger requestCount = new AtomicInteger();
+
+        ClosingServer(int port, int closeOnRequest) throws IOException {
+            this.serverSocket = new ServerSocket(port);
+            this.closeOnRequest = closeOnRequest;
+            Thread thread = new Thread(this, "ClosingServer");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        @Override
+        public void run() {
+            while (!serverSocket.isClosed()) {
+                try {
+                    final Socket socket = serverSocket.accept();
+                    Thread thread = new Thread(new Runnable() {
+                        @Override
+                        public void run() {
+                            handle(socket);
+                        }
+                    }, "ClosingServerConnection");
+                    thread.setDaemon(true);
+                    thread.start();
+                } catch (IOException ioe) {
+                    // server stopped
+                }
+            }
+        }
+
+        private void handle(Socket socket) {
+            try {
+                InputStream inputStream = socket.getInputStream();
+                OutputStream outputStream = socket.getOutputStream();
+                while (readRequest(inputStream)) {
+                    if (requestCount.incrementAndGet() == closeOnRequest) {
+                        break;
+                    }
+                    outputStream.write("HTTP/1.1 200 OK\r\nContent-Length: 0\r\n\r\n".getBytes(UTF_8));
+                    outputStream.flush();
+                }
+            } catch (IOException ioe) {
+                // connection closed by client
+            } finally {
+                try {
+                    socket.close();
+                } catch (IOException ioe) {
+                    // ignore
+                }
+            }
+        }
+
+        private boolean readRequest(InputStream inputStream) throws IOException {
+            StringBuilder headers = new StringBuilder();
+            while (!headers.toString().endsWith("\r\n\r\n")) {
+                int read = inputStream.read();
+                if (read == -1) {
+                    return false;
+                }
+                headers.append((char) read);
+            }
+            Matcher contentLength = Pattern.compile("(?i)content-length:\\s*(\\d+)").matcher(headers);
+            if (contentLength.find()) {
+                for (int remaining = Integer.parseInt(contentLength.group(1)); remaining > 0; remaining--) {
+                    if (inputStream.read() == -1) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        void stop() throws IOException {
+            serverSocket.close();
+        }
+    }
+}
@@ -5,6 +5,7 @@ import org.junit.BeforeClass;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.mockserver.configuration.ConfigurationProperties;
 import org.mockserver.echo.http.EchoServer;
 import org.mockserver.model.HttpResponse;
 import org.mockserver.socket.PortFactory;
@@ -129,4 +130,40 @@ public class NettyHttpClientTest {
         ));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void shouldReuseConnectionForSequentialRequests() {
+        // given
+        NettyHttpClient nettyHttpClient = new NettyHttpClient();
+
+        for (int i = 0; i < 5; i++) {
+            // when
+            HttpResponse httpResponse = nettyHttpClient.sendRequest(request().withHeader("Host", "0.0.0.0:" + freePort).withBody(exact("request " + i)));
+
+            // then
+            assertThat(httpResponse.getStatusCode(), is(200));
+            assertThat(httpResponse.getBodyAsString(), is("request " + i));
+        }
+    }
+
+    @Test
+    public void shouldSendSequentialRequestsWithoutKeepAlive() {
+        boolean originalKeepAlive = ConfigurationProperties.clientConnectionKeepAlive();
+        try {
+            // given
+            ConfigurationProperties.clientConnectionKeepAlive(false);
+            NettyHttpClient nettyHttpClient = new NettyHttpClient();
+
+            for (int i = 0; i < 3; i++) {
+                // when
+                HttpResponse httpResponse = nettyHttpClient.sendRequest(request().withHeader("Host", "0.0.0.0:" + freePort).withBody(exact("request " + i)));
+
+                // then
+                assertThat(httpResponse.getStatusCode(), is(200));
+                assertThat(httpResponse.getBodyAsString(), is("request " + i));
+            }
+        } finally {
+            ConfigurationProperties.clientConnectionKeepAlive(originalKeepAlive);
+        }
+    }
+
+}
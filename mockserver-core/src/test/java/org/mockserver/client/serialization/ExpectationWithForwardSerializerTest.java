@@ -1,7 +1,9 @@
 package org.mockserver.client.serialization;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.node.TextNode;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -78,6 +80,7 @@ public class ExpectationWithForwardSerializerTest {
     private ObjectMapper objectMapper;
     @Mock
     private ObjectWriter objectWriter;
+    private final JsonNode jsonExpectation = TextNode.valueOf("requestBytes");
     @Mock
     private JsonArraySerializer jsonArraySerializer;
     @Mock
@@ -134,9 +137,9 @@ public class ExpectationWithForwardSerializerTest {
     @Test
     public void shouldDeserializeArray() throws IOException {
         // given
-        when(jsonArraySerializer.returnJSONObjects("requestBytes")).thenReturn(Arrays.asList("requestBytes", "requestBytes"));
-        when(expectationValidator.isValid("requestBytes")).thenReturn("");
-        when(objectMapper.readValue(eq("requestBytes"), same(ExpectationDTO.class))).thenReturn(fullExpectationDTO);
+        when(jsonArraySerializer.returnJSONObjectTrees("requestBytes")).thenReturn(Arrays.asList(jsonExpectation, jsonExpectation));
+        when(expectationValidator.isValid(jsonExpectation)).thenReturn("");
+        when(objectMapper.treeToValue(jsonExpectation, ExpectationDTO.class)).thenReturn(fullExpectationDTO);
 
         // when
         Expectation[] expectations = expectationSerializer.deserializeArray("requestBytes");
@@ -162,9 +165,9 @@ public class ExpectationWithForwardSerializerTest {
     @Test
     public void shouldDeserializeArrayWithError() throws IOException {
         // given
-        when(jsonArraySerializer.returnJSONObjects("requestBytes")).thenReturn(Arrays.asList("requestBytes", "requestBytes"));
-        when(expectationValidator.isValid("requestBytes")).thenReturn("an error");
-        when(objectMapper.readValue(eq("requestBytes"), same(ExpectationDTO.class))).thenReturn(fullExpectationDTO);
+        when(jsonArraySerializer.returnJSONObjectTrees("requestBytes")).thenReturn(Arrays.asList(jsonExpectation, jsonExpectation));
+        when(expectationValidator.isValid(jsonExpectation)).thenReturn("an error");
+        when(objectMapper.treeToValue(jsonExpectation, ExpectationDTO.class)).thenReturn(fullExpectationDTO);
 
         // then
         thrown.expect(IllegalArgumentException.class);
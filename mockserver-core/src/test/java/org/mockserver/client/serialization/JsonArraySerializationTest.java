@@ -68,4 +68,23 @@ public class JsonArraySerializationTest {
         assertThat(new JsonArraySerializer().returnJSONObjects("[\"\",\"\"]"), hasItems("\"\"", "\"\""));
         assertThat(new JsonArraySerializer().returnJSONObjects("[\"ab\",\"cd\"]"), hasItems("\"ab\"", "\"cd\""));
     }
+
+    @Test
+    public void shouldReturnArrayItemTrees() throws IOException {
+        // when
+        assertThat(new JsonArraySerializer().returnJSONObjectTrees("[{'foo':'bar'},{'foo':'bar'}]"), hasItems(new ObjectMapper().readTree("{\"foo\":\"bar\"}"), new ObjectMapper().readTree("{\"foo\":\"bar\"}")));
+        assertThat(new JsonArraySerializer().returnJSONObjectTrees("[{},{}]").size(), is(2));
+        assertThat(new JsonArraySerializer().returnJSONObjectTrees("[\"ab\",\"cd\"]"), hasItems(new ObjectMapper().readTree("\"ab\""), new ObjectMapper().readTree("\"cd\"")));
+        assertThat(new JsonArraySerializer().returnJSONObjectTrees("{'foo':'bar'}"), hasItems(new ObjectMapper().readTree("{\"foo\":\"bar\"}")));
+        assertThat(new JsonArraySerializer().returnJSONObjectTrees("[]").size(), is(0));
+    }
+
+    @Test
+    public void shouldHandleInvalidJsonWhileStreamingArray() {
+        // given
+        thrown.expect(IllegalArgumentException.class);
+
+        // when
+        new JsonArraySerializer().returnJSONObjectTrees("[{'foo':");
+    }
 }
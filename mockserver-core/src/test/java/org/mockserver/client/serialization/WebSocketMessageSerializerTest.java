@@ -191,4 +191,29 @@ public class WebSocketMessageSerializerTest {
                 "}", jsonHttpRequest);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void shouldSerializeAndDeserializeCorrelationId() throws IOException, ClassNotFoundException {
+        // given
+        WebSocketMessageSerializer webSocketMessageSerializer = new WebSocketMessageSerializer();
+        HttpResponseDTO httpResponseDTO = new HttpResponseDTO().setStatusCode(123);
+
+        // when
+        WebSocketMessageDTO webSocketMessageDTO = webSocketMessageSerializer.deserializeMessage(webSocketMessageSerializer.serialize(httpResponseDTO.buildObject(), "some_correlation_id"));
+
+        // then
+        assertEquals("some_correlation_id", webSocketMessageDTO.getCorrelationId());
+        assertEquals(httpResponseDTO.buildObject(), webSocketMessageSerializer.deserialize(webSocketMessageDTO));
+    }
+
+    @Test
+    public void shouldDeserializeMessageWithoutCorrelationId() throws IOException {
+        // given
+        WebSocketMessageSerializer webSocketMessageSerializer = new WebSocketMessageSerializer();
+
+        // when
+        WebSocketMessageDTO webSocketMessageDTO = webSocketMessageSerializer.deserializeMessage(webSocketMessageSerializer.serialize(new HttpResponseDTO().setStatusCode(123).buildObject()));
+
+        // then
+        assertEquals(null, webSocketMessageDTO.getCorrelationId());
+    }
+}
@@ -0,0 +1,402 @@
+package org.mockserver.collections;
+
+import com.google.common.collect.Lists;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author jamesdbloom
+ */
+public class ConcurrentRingBufferTest {
+
+    private static final ConcurrentRingBuffer.Weigher<String> LENGTH_WEIGHER = new ConcurrentRingBuffer.Weigher<String>() {
+        @Override
+        public long weigh(String value) {
+            return value.length();
+        }
+    };
+
+    @Test
+    public void shouldReturnEntriesInOrderAdded() {
+        // given
+        ConcurrentRingBuffer<String> ringBuffer = new ConcurrentRingBuffer<String>(3);
+
+        // when
+        ringBuffer.add("1");
+        ringBuffer.add("2");
+
+        // then
+        assertEquals(Arrays.asList("1", "2"), Lists.newArrayList(ringBuffer));
+    }
+
+    @Test
+    public void shouldReplaceOldestEntriesWhenFull() {
+        // given
+        ConcurrentRingBuffer<String> ringBuffer = new ConcurrentRingBuffer<String>(3);
+
+        // when
+        ringBuffer.add("1");
+        ringBuffer.add("2");
+        ringBuffer.add("3");
+        ringBuffer.add("4");
+        ringBuffer.add("5");
+
+        // then
+        assertEquals(Arrays.asList("3", "4", "5"), Lists.newArrayList(ringBuffer));
+    }
+
+    @Test
+    public void shouldSkipEntriesReplacedWhileIterating() {
+        // given
+        ConcurrentRingBuffer<String> ringBuffer = new ConcurrentRingBuffer<String>(3);
+        ringBuffer.add("1");
+        ringBuffer.add("2");
+        ringBuffer.add("3");
+        Iterator<String> iterator = ringBuffer.iterator();
+        assertEquals("1", iterator.next());
+
+        // when
+        ringBuffer.add("4");
+        ringBuffer.add("5");
+
+        // then
+        assertEquals(Arrays.asList("3", "4", "5"), Lists.newArrayList(iterator));
+    }
+
+    @Test
+    public void shouldRemoveEntriesUsingIterator() {
+        // given
+        ConcurrentRingBuffer<String> ringBuffer = new ConcurrentRingBuffer<String>(3);
+        ringBuffer.add("1");
+        ringBuffer.add("2");
+        ringBuffer.add("3");
+
+        // when
+        for (Iterator<String> iterator = ringBuffer.iterator(); iterator.hasNext(); ) {
+            if (iterator.next().equals("2")) {
+                iterator.remove();
+            }
+        }
+
+        // then
+        assertEquals(Arrays.asList("1", "3"), Lists.newArrayList(ringBuffer));
+    }
+
+    @Test
+    public void shouldClearEntries() {
+        // given
+        ConcurrentRingBuffer<String> ringBuffer = new ConcurrentRingBuffer<String>(3);
+        ringBuffer.add("1");
+        ringBuffer.add("2");
+
+        // when
+        ringBuffer.clear();
+        ringBuffer.add("3");
+
+        // then
+        assertEquals(Collections.singletonList("3"), Lists.newArrayList(ringBuffer));
+    }
+
+    @Test
+    public void shouldIterateFromAfterSequence() {
+        // given
+        ConcurrentRingBuffer<String> ringBuffer = new ConcurrentRingBuffer<String>(3);
+        ringBuffer.add("1");
+        ringBuffer.add("2");
+        SequencedIterator<String> firstIterator = ringBuffer.iterator(-1);
+        firstIterator.next();
+
+        // when
+        ringBuffer.add("3");
+        ringBuffer.add("4");
+        SequencedIterator<String> secondIterator = ringBuffer.iterator(firstIterator.sequence());
+
+        // then
+        assertEquals(0, firstIterator.sequence());
+        assertEquals(Arrays.asList("2", "3", "4"), Lists.newArrayList(secondIterator));
+        assertEquals(3, secondIterator.sequence());
+    }
+
+    @Test
+    public void shouldIterateFromOldestEntryWhenSequenceReplacedOrCleared() {
+        // given
+        ConcurrentRingBuffer<String> ringBuffer = new ConcurrentRingBuffer<String>(2);
+        ringBuffer.add("1");
+        ringBuffer.add("2");
+        ringBuffer.add("3");
+
+        // then
+        assertEquals(Arrays.asList("2", "3"), Lists.newArrayList(ringBuffer.iterator(-1)));
+
+        // when
+        ringBuffer.clear();
+        ringBuffer.add("4");
+
+        // then
+        assertEquals(Collections.singletonList("4"), Lists.newArrayList(ringBuffer.iterator(0)));
+        assertEquals(Collections.<String>emptyList(), Lists.newArrayList(ringBuffer.iterator(3)));
+    }
+
+    @Test
+    public void shouldEvictOldestEntriesWhenOverMaximumWeight() {
+        // given
+        ConcurrentRingBuffer<String> ringBuffer = new ConcurrentRingBuffer<String>(10, 10, LENGTH_WEIGHER);
+
+        // when
+        ringBuffer.add("1111");
+        ringBuffer.add("2222");
+        ringBuffer.add("33");
+        ringBuffer.add("444");
+
+        // then
+        assertEquals(Arrays.asList("2222", "33", "444"), Lists.newArrayList(ringBuffer));
+        assertEquals(9, ringBuffer.weight());
+    }
+
+    @Test
+    public void shouldKeepNewestEntryHeavierThanMaximumWeight() {
+        // given
+        ConcurrentRingBuffer<String> ringBuffer = new ConcurrentRingBuffer<String>(10, 10, LENGTH_WEIGHER);
+        ringBuffer.add("1111");
+
+        // when
+        ringBuffer.add("22222222222");
+
+        // then
+        assertEquals(Collections.singletonList("22222222222"), Lists.newArrayList(ringBuffer));
+
+        // when
+        ringBuffer.add("3");
+
+        // then
+        assertEquals(Collections.singletonList("3"), Lists.newArrayList(ringBuffer));
+        assertEquals(1, ringBuffer.weight());
+    }
+
+    @Test
+    public void shouldNotifyEvictionListenerOfReplacedAndEvictedEntriesOnly() {
+        // given
+        final List<String> evicted = new ArrayList<String>();
+        ConcurrentRingBuffer<String> ringBuffer = new ConcurrentRingBuffer<String>(3, 10, LENGTH_WEIGHER, new ConcurrentRingBuffer.EvictionListener<String>() {
+            @Override
+            public void evicted(long sequence, String value) {
+                evicted.add(value);
+            }
+        });
+        ringBuffer.add("1");
+        ringBuffer.add("2");
+        ringBuffer.add("3");
+        Iterator<String> iterator = ringBuffer.iterator();
+        iterator.next();
+        iterator.next();
+        iterator.remove();
+
+        // when
+        ringBuffer.add("4");
+        ringBuffer.add("5");
+        ringBuffer.add("6666666666");
+        ringBuffer.clear();
+
+        // then
+        assertEquals(Arrays.asList("1", "3", "4", "5"), evicted);
+    }
+
+    @Test
+    public void shouldOnlyRemoveEntryThatHasNotAlreadyBeenEvicted() {
+        // given
+        final List<String> evicted = new ArrayList<String>();
+        ConcurrentRingBuffer<String> ringBuffer = new ConcurrentRingBuffer<String>(2, Long.MAX_VALUE, null, new ConcurrentRingBuffer.EvictionListener<String>() {
+            @Override
+            public void evicted(long sequence, String value) {
+                evicted.add(value);
+            }
+        });
+        ringBuffer.add("1");
+        ringBuffer.add("2");
+        SequencedIterator<String> iterator = ringBuffer.iterator(-1);
+        iterator.next();
+
+        // when - evicted after the iterator returned it
+        ringBuffer.add("3");
+
+        // then
+        assertFalse(iterator.removeIfPresent());
+        assertEquals(Collections.singletonList("1"), evicted);
+
+        // when
+        iterator.next();
+
+        // then
+        assertTrue(iterator.removeIfPresent());
+        assertEquals(Collections.singletonList("3"), Lists.newArrayList(ringBuffer));
+    }
+
+    @Test
+    public void shouldTrackWeightOfReplacedAndClearedEntries() {
+        // given
+        ConcurrentRingBuffer<String> ringBuffer = new ConcurrentRingBuffer<String>(2, 100, LENGTH_WEIGHER);
+
+        // when
+        ringBuffer.add("111");
+        ringBuffer.add("222");
+        ringBuffer.add("3");
+
+        // then
+        assertEquals(4, ringBuffer.weight());
+
+        // when
+        ringBuffer.clear();
+
+        // then
+        assertEquals(0, ringBuffer.weight());
+    }
+
+    @Test
+    public void shouldAddEntriesConcurrently() throws InterruptedException {
+        // given
+        final ConcurrentRingBuffer<Integer> ringBuffer = new ConcurrentRingBuffer<Integer>(1000);
+        ExecutorService executorService = Executors.newFixedThreadPool(10);
+        final CountDownLatch countDownLatch = new CountDownLatch(10);
+
+        // when
+        for (int thread = 0; thread < 10; thread++) {
+            final int offset = thread * 100;
+            executorService.submit(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 100; i++) {
+                        ringBuffer.add(offset + i);
+                    }
+                    countDownLatch.countDown();
+                }
+            });
+        }
+        assertTrue(countDownLatch.await(10, TimeUnit.SECONDS));
+        executorService.shutdown();
+
+        // then
+        assertEquals(1000, Lists.newArrayList(ringBuffer).size());
+    }
+
+    @Test
+    public void shouldStopBeforeEntryStillBeingAdded() throws InterruptedException {
+        // given - an add that has its sequence but hasn't written its entry yet
+        final CountDownLatch weighing = new CountDownLatch(1);
+        final CountDownLatch weighed = new CountDownLatch(1);
+        final ConcurrentRingBuffer<String> ringBuffer = new ConcurrentRingBuffer<String>(10, Long.MAX_VALUE, new ConcurrentRingBuffer.Weigher<String>() {
+            @Override
+            public long weigh(String value) {
+                if (value.equals("2")) {
+                    weighing.countDown();
+                    try {
+                        weighed.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return value.length();
+            }
+        });
+        ringBuffer.add("1");
+        Thread slowAdd = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                ringBuffer.add("2");
+            }
+        });
+        slowAdd.start();
+        assertTrue(weighing.await(10, TimeUnit.SECONDS));
+        ringBuffer.add("3");
+
+        // when
+        SequencedIterator<String> firstPage = ringBuffer.iterator(-1);
+
+        // then
+        assertEquals(Collections.singletonList("1"), Lists.newArrayList(firstPage));
+        assertEquals(0, firstPage.sequence());
+
+        // when
+        weighed.countDown();
+        slowAdd.join(10000);
+
+        // then
+        assertEquals(Arrays.asList("2", "3"), Lists.newArrayList(ringBuffer.iterator(firstPage.sequence())));
+    }
+
+    @Test
+    public void shouldWaitForEntryStillBeingAddedBeforeSequence() throws InterruptedException {
+        // given - an add that has its sequence but hasn't written its entry yet
+        final CountDownLatch weighing = new CountDownLatch(1);
+        final CountDownLatch weighed = new CountDownLatch(1);
+        final ConcurrentRingBuffer<String> ringBuffer = new ConcurrentRingBuffer<String>(10, Long.MAX_VALUE, new ConcurrentRingBuffer.Weigher<String>() {
+            @Override
+            public long weigh(String value) {
+                if (value.equals("2")) {
+                    weighing.countDown();
+                    try {
+                        weighed.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return value.length();
+            }
+        });
+        ringBuffer.add("1");
+        Thread slowAdd = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                ringBuffer.add("2");
+            }
+        });
+        slowAdd.start();
+        assertTrue(weighing.await(10, TimeUnit.SECONDS));
+        ringBuffer.add("3");
+        long beforeSequence = ringBuffer.nextSequence();
+        ringBuffer.add("4");
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    TimeUnit.MILLISECONDS.sleep(100);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+                weighed.countDown();
+            }
+        }).start();
+
+        // when
+        List<String> entries = Lists.newArrayList(ringBuffer.iterator(-1, beforeSequence));
+
+        // then
+        assertEquals(Arrays.asList("1", "2", "3"), entries);
+        slowAdd.join(10000);
+    }
+
+    @Test
+    public void shouldReturnSequenceOfAddedEntry() {
+        // given
+        ConcurrentRingBuffer<String> ringBuffer = new ConcurrentRingBuffer<String>(2);
+
+        // then
+        assertEquals(0, ringBuffer.nextSequence());
+        assertEquals(0, ringBuffer.add("1"));
+        assertEquals(1, ringBuffer.add("2"));
+        assertEquals(2, ringBuffer.add("3"));
+        assertEquals(3, ringBuffer.nextSequence());
+    }
+}
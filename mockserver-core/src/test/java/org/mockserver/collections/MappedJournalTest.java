@@ -0,0 +1,314 @@
+package org.mockserver.collections;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author jamesdbloom
+ */
+public class MappedJournalTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private static MappedJournal<String> journal(File directory, int segmentSize, boolean readOnly) {
+        return journal(directory, segmentSize, readOnly, 0, null);
+    }
+
+    private static MappedJournal<String> journal(File directory, int segmentSize, boolean readOnly, int maxSegments, ConcurrentRingBuffer.EvictionListener<String> evictionListener) {
+        return new MappedJournal<String>(directory, "test", segmentSize, readOnly, maxSegments, evictionListener) {
+            @Override
+            protected byte[] serialize(String record) {
+                return record.getBytes(UTF_8);
+            }
+
+            @Override
+            protected String deserialize(byte[] bytes) {
+                return new String(bytes, UTF_8);
+            }
+        };
+    }
+
+    @Test
+    public void shouldReturnRecordsInOrderAdded() throws IOException {
+        // given
+        MappedJournal<String> journal = journal(temporaryFolder.newFolder(), 1024, false);
+
+        // when
+        journal.add("1");
+        journal.add("2");
+        journal.add("3");
+
+        // then
+        assertEquals(Arrays.asList("1", "2", "3"), Lists.newArrayList(journal));
+        assertEquals(1, journal.segmentCount());
+    }
+
+    @Test
+    public void shouldAddSegmentsWhenSegmentIsFull() throws IOException {
+        // given
+        MappedJournal<String> journal = journal(temporaryFolder.newFolder(), 16, false);
+
+        // when
+        journal.add("one");
+        journal.add("two");
+        journal.add("three");
+
+        // then
+        assertEquals(Arrays.asList("one", "two", "three"), Lists.newArrayList(journal));
+        assertEquals(2, journal.segmentCount());
+    }
+
+    @Test
+    public void shouldEvictOldestSegmentWhenOverMaximumSegments() throws IOException {
+        // given
+        final List<String> evicted = new ArrayList<String>();
+        final List<Long> evictedSequences = new ArrayList<Long>();
+        File directory = temporaryFolder.newFolder();
+        MappedJournal<String> journal = journal(directory, 16, false, 1, new ConcurrentRingBuffer.EvictionListener<String>() {
+            @Override
+            public void evicted(long sequence, String value) {
+                evictedSequences.add(sequence);
+                evicted.add(value);
+            }
+        });
+        long firstSequence = journal.add("one");
+        journal.add("two");
+        SequencedIterator<String> iterator = journal.iterator(firstSequence);
+        iterator.next();
+        iterator.remove();
+
+        // when
+        journal.add("three");
+
+        // then - removed records aren't evicted again
+        assertEquals(Collections.singletonList("one"), evicted);
+        assertEquals(Collections.singletonList(firstSequence), evictedSequences);
+        assertEquals(Collections.singletonList("three"), Lists.newArrayList(journal));
+        assertEquals(1, journal.segmentCount());
+        assertEquals(1, directory.listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.endsWith(".journal");
+            }
+        }).length);
+    }
+
+    @Test
+    public void shouldNotReadOrRemoveRecordsOfSegmentEvictedWhileIterating() throws IOException {
+        // given
+        MappedJournal<String> journal = journal(temporaryFolder.newFolder(), 16, false, 1, null);
+        journal.add("one");
+        journal.add("two");
+        SequencedIterator<String> iterator = journal.iterator(-1);
+        assertEquals("one", iterator.next());
+
+        // when
+        journal.add("three");
+
+        // then - the iterator still reading the evicted segment finishes it before it is unmapped
+        assertEquals("two", iterator.next());
+        assertFalse(iterator.removeIfPresent());
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void shouldAddRecordLargerThanSegment() throws IOException {
+        // given
+        MappedJournal<String> journal = journal(temporaryFolder.newFolder(), 16, false);
+        String largeRecord = Strings.repeat("a", 100);
+
+        // when
+        journal.add("1");
+        journal.add(largeRecord);
+        journal.add("2");
+
+        // then
+        assertEquals(Arrays.asList("1", largeRecord, "2"), Lists.newArrayList(journal));
+    }
+
+    @Test
+    public void shouldRemoveRecordsUsingIterator() throws IOException {
+        // given
+        MappedJournal<String> journal = journal(temporaryFolder.newFolder(), 1024, false);
+        journal.add("1");
+        journal.add("2");
+        journal.add("3");
+
+        // when
+        for (Iterator<String> iterator = journal.iterator(); iterator.hasNext(); ) {
+            if (iterator.next().equals("2")) {
+                iterator.remove();
+            }
+        }
+
+        // then
+        assertEquals(Arrays.asList("1", "3"), Lists.newArrayList(journal));
+    }
+
+    @Test
+    public void shouldIterateFromAfterSequence() throws IOException {
+        // given
+        MappedJournal<String> journal = journal(temporaryFolder.newFolder(), 16, false);
+        journal.add("one");
+        journal.add("two");
+        SequencedIterator<String> firstIterator = journal.iterator(-1);
+        firstIterator.next();
+
+        // when
+        journal.add("three");
+        SequencedIterator<String> secondIterator = journal.iterator(firstIterator.sequence());
+
+        // then
+        assertEquals(Arrays.asList("two", "three"), Lists.newArrayList(secondIterator));
+        assertTrue(secondIterator.sequence() > firstIterator.sequence());
+    }
+
+    @Test
+    public void shouldIterateBeforeSequence() throws IOException {
+        // given
+        MappedJournal<String> journal = journal(temporaryFolder.newFolder(), 16, false);
+        long firstSequence = journal.add("one");
+        journal.add("two");
+        long beforeSequence = journal.nextSequence();
+
+        // when
+        long thirdSequence = journal.add("three");
+
+        // then
+        assertEquals(Arrays.asList("one", "two"), Lists.newArrayList(journal.iterator(-1, beforeSequence)));
+        assertEquals(Collections.singletonList("two"), Lists.newArrayList(journal.iterator(firstSequence, beforeSequence)));
+        assertTrue(thirdSequence >= beforeSequence);
+    }
+
+    @Test
+    public void shouldNotRepeatRecordsAfterClear() throws IOException {
+        // given
+        MappedJournal<String> journal = journal(temporaryFolder.newFolder(), 1024, false);
+        journal.add("1");
+        journal.add("2");
+        SequencedIterator<String> iterator = journal.iterator(-1);
+        Lists.newArrayList(iterator);
+
+        // when
+        journal.clear();
+        journal.add("3");
+
+        // then
+        assertEquals(Collections.singletonList("3"), Lists.newArrayList(journal.iterator(iterator.sequence())));
+    }
+
+    @Test
+    public void shouldClearRecords() throws IOException {
+        // given
+        File directory = temporaryFolder.newFolder();
+        MappedJournal<String> journal = journal(directory, 16, false);
+        journal.add("one");
+        journal.add("two");
+
+        // when
+        journal.clear();
+        journal.add("three");
+
+        // then
+        assertEquals(Collections.singletonList("three"), Lists.newArrayList(journal));
+        // the remaining segment and the lock file
+        assertEquals(2, directory.listFiles().length);
+    }
+
+    @Test
+    public void shouldStartEmptyWhenReopenedWritable() throws IOException {
+        // given
+        File directory = temporaryFolder.newFolder();
+        MappedJournal<String> previousJournal = journal(directory, 1024, false);
+        previousJournal.add("1");
+        previousJournal.add("2");
+        previousJournal.close();
+
+        // when
+        MappedJournal<String> journal = journal(directory, 1024, false);
+        journal.add("3");
+
+        // then
+        assertEquals(directory, journal.directory());
+        assertEquals(Collections.singletonList("3"), Lists.newArrayList(journal));
+        assertEquals(1, journal.segmentCount());
+        assertEquals(Collections.singletonList("3"), Lists.newArrayList(journal(directory, 1024, true)));
+    }
+
+    @Test
+    public void shouldNotShareDirectoryWithOpenJournal() throws IOException {
+        // given
+        File directory = temporaryFolder.newFolder();
+        MappedJournal<String> openJournal = journal(directory, 1024, false);
+        openJournal.add("1");
+
+        // when
+        MappedJournal<String> journal = journal(directory, 1024, false);
+        journal.add("2");
+
+        // then
+        assertEquals(new File(directory.getParentFile(), directory.getName() + "-1"), journal.directory());
+        assertEquals(Collections.singletonList("1"), Lists.newArrayList(openJournal));
+        assertEquals(Collections.singletonList("2"), Lists.newArrayList(journal));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldNotAddToClosedJournal() throws IOException {
+        // given
+        MappedJournal<String> journal = journal(temporaryFolder.newFolder(), 1024, false);
+        journal.close();
+
+        // when
+        journal.add("1");
+    }
+
+    @Test
+    public void shouldOpenJournalReadOnly() throws IOException {
+        // given
+        File directory = temporaryFolder.newFolder();
+        MappedJournal<String> previousJournal = journal(directory, 1024, false);
+        previousJournal.add("1");
+        previousJournal.add("2");
+
+        // when
+        MappedJournal<String> journal = journal(directory, 1024, true);
+
+        // then
+        assertEquals(Arrays.asList("1", "2"), Lists.newArrayList(journal));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void shouldNotAddToReadOnlyJournal() throws IOException {
+        // given
+        File directory = temporaryFolder.newFolder();
+        journal(directory, 1024, false).add("1");
+        MappedJournal<String> journal = journal(directory, 1024, true);
+
+        // when
+        journal.add("2");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAllowSegmentSmallerThanRecordHeader() throws IOException {
+        // when
+        journal(temporaryFolder.newFolder(), 5, false);
+    }
+}
@@ -94,6 +94,348 @@ public class ConfigurationPropertiesTest {
         assertEquals(TimeUnit.SECONDS.toMillis(ConfigurationProperties.DEFAULT_MAX_TIMEOUT), ConfigurationProperties.maxSocketTimeout());
     }
 
+    @Test
+    public void shouldKeepMaxVerificationTimeoutBelowMaxSocketTimeout() {
+        // when
+        ConfigurationProperties.maxSocketTimeout(TimeUnit.SECONDS.toMillis(120));
+
+        // then
+        assertEquals(TimeUnit.SECONDS.toMillis(115), ConfigurationProperties.maxVerificationTimeout());
+
+        // when
+        ConfigurationProperties.maxSocketTimeout(1000);
+
+        // then
+        assertEquals(900, ConfigurationProperties.maxVerificationTimeout());
+    }
+
+    @Test
+    public void shouldSetAndReadSocketConnectionTimeout() {
+        // given
+        System.clearProperty("mockserver.socketConnectionTimeout");
+
+        // when
+        assertEquals(TimeUnit.SECONDS.toMillis(ConfigurationProperties.DEFAULT_CONNECT_TIMEOUT), ConfigurationProperties.socketConnectionTimeout());
+        ConfigurationProperties.socketConnectionTimeout(100);
+
+        // then
+        assertEquals(100, ConfigurationProperties.socketConnectionTimeout());
+        assertEquals("100", System.getProperty("mockserver.socketConnectionTimeout"));
+    }
+
+    @Test
+    public void shouldSetAndReadClientConnectionKeepAlive() {
+        // given
+        System.clearProperty("mockserver.clientConnectionKeepAlive");
+
+        // when
+        assertEquals(true, ConfigurationProperties.clientConnectionKeepAlive());
+        ConfigurationProperties.clientConnectionKeepAlive(false);
+
+        // then
+        assertEquals(false, ConfigurationProperties.clientConnectionKeepAlive());
+        assertEquals("false", System.getProperty("mockserver.clientConnectionKeepAlive"));
+    }
+
+    @Test
+    public void shouldSetAndReadClientMaxConnectionsPerHost() {
+        // given
+        System.clearProperty("mockserver.clientMaxConnectionsPerHost");
+
+        // when
+        assertEquals(ConfigurationProperties.DEFAULT_MAX_CONNECTIONS_PER_HOST, ConfigurationProperties.clientMaxConnectionsPerHost());
+        ConfigurationProperties.clientMaxConnectionsPerHost(10);
+
+        // then
+        assertEquals(10, ConfigurationProperties.clientMaxConnectionsPerHost());
+        assertEquals("10", System.getProperty("mockserver.clientMaxConnectionsPerHost"));
+    }
+
+    @Test
+    public void shouldHandleInvalidClientMaxConnectionsPerHost() {
+        // given
+        System.setProperty("mockserver.clientMaxConnectionsPerHost", "invalid");
+
+        // then
+        assertEquals(ConfigurationProperties.DEFAULT_MAX_CONNECTIONS_PER_HOST, ConfigurationProperties.clientMaxConnectionsPerHost());
+    }
+
+    @Test
+    public void shouldSetAndReadClientIdleConnectionTimeout() {
+        // given
+        System.clearProperty("mockserver.clientIdleConnectionTimeout");
+
+        // when
+        assertEquals(TimeUnit.SECONDS.toMillis(ConfigurationProperties.DEFAULT_IDLE_CONNECTION_TIMEOUT), ConfigurationProperties.clientIdleConnectionTimeout());
+        ConfigurationProperties.clientIdleConnectionTimeout(100);
+
+        // then
+        assertEquals(100, ConfigurationProperties.clientIdleConnectionTimeout());
+        assertEquals("100", System.getProperty("mockserver.clientIdleConnectionTimeout"));
+    }
+
+    @Test
+    public void shouldSetAndReadNativeTransport() {
+        // given
+        System.clearProperty("mockserver.nativeTransport");
+
+        // when
+        assertEquals(false, ConfigurationProperties.nativeTransport());
+        ConfigurationProperties.nativeTransport(true);
+
+        // then
+        assertEquals(true, ConfigurationProperties.nativeTransport());
+        assertEquals("true", System.getProperty("mockserver.nativeTransport"));
+    }
+
+    @Test
+    public void shouldSetAndReadBossThreadCount() {
+        // given
+        System.clearProperty("mockserver.bossThreadCount");
+
+        // when
+        assertEquals(ConfigurationProperties.DEFAULT_BOSS_THREAD_COUNT, ConfigurationProperties.bossThreadCount());
+        ConfigurationProperties.bossThreadCount(2);
+
+        // then
+        assertEquals(2, ConfigurationProperties.bossThreadCount());
+        assertEquals("2", System.getProperty("mockserver.bossThreadCount"));
+    }
+
+    @Test
+    public void shouldDefaultBossThreadCountToAvailableProcessorsWhenReusingPort() {
+        // given
+        System.clearProperty("mockserver.bossThreadCount");
+        boolean originalSocketReusePort = ConfigurationProperties.socketReusePort();
+
+        try {
+            // when
+            ConfigurationProperties.socketReusePort(true);
+
+            // then
+            assertEquals(Runtime.getRuntime().availableProcessors(), ConfigurationProperties.bossThreadCount());
+
+            // when
+            ConfigurationProperties.bossThreadCount(2);
+
+            // then
+            assertEquals(2, ConfigurationProperties.bossThreadCount());
+        } finally {
+            ConfigurationProperties.socketReusePort(originalSocketReusePort);
+            System.clearProperty("mockserver.bossThreadCount");
+        }
+    }
+
+    @Test
+    public void shouldSetAndReadWorkerThreadCount() {
+        // given
+        System.clearProperty("mockserver.workerThreadCount");
+
+        // when
+        assertEquals(ConfigurationProperties.DEFAULT_WORKER_THREAD_COUNT, ConfigurationProperties.workerThreadCount());
+        ConfigurationProperties.workerThreadCount(3);
+
+        // then
+        assertEquals(3, ConfigurationProperties.workerThreadCount());
+        assertEquals("3", System.getProperty("mockserver.workerThreadCount"));
+    }
+
+    @Test
+    public void shouldSetAndReadTcpFastOpenQueueLength() {
+        // given
+        System.clearProperty("mockserver.tcpFastOpenQueueLength");
+
+        // when
+        assertEquals(0, ConfigurationProperties.tcpFastOpenQueueLength());
+        ConfigurationProperties.tcpFastOpenQueueLength(256);
+
+        // then
+        assertEquals(256, ConfigurationProperties.tcpFastOpenQueueLength());
+        assertEquals("256", System.getProperty("mockserver.tcpFastOpenQueueLength"));
+    }
+
+    @Test
+    public void shouldSetAndReadSocketReusePort() {
+        // given
+        System.clearProperty("mockserver.socketReusePort");
+
+        // when
+        assertEquals(false, ConfigurationProperties.socketReusePort());
+        ConfigurationProperties.socketReusePort(true);
+
+        // then
+        assertEquals(true, ConfigurationProperties.socketReusePort());
+        assertEquals("true", System.getProperty("mockserver.socketReusePort"));
+    }
+
+    @Test
+    public void shouldSetAndReadRespondBeforeRequestBodyReceived() {
+        // given
+        System.clearProperty("mockserver.respondBeforeRequestBodyReceived");
+
+        // when
+        assertEquals(false, ConfigurationProperties.respondBeforeRequestBodyReceived());
+        ConfigurationProperties.respondBeforeRequestBodyReceived(true);
+
+        // then
+        assertEquals(true, ConfigurationProperties.respondBeforeRequestBodyReceived());
+        assertEquals("true", System.getProperty("mockserver.respondBeforeRequestBodyReceived"));
+    }
+
+    @Test
+    public void shouldSetAndReadActionHandlerThreadCount() {
+        // given
+        System.clearProperty("mockserver.actionHandlerThreadCount");
+
+        // when
+        assertEquals(ConfigurationProperties.DEFAULT_ACTION_HANDLER_THREAD_COUNT, ConfigurationProperties.actionHandlerThreadCount());
+        ConfigurationProperties.actionHandlerThreadCount(2);
+
+        // then
+        assertEquals(2, ConfigurationProperties.actionHandlerThreadCount());
+        assertEquals("2", System.getProperty("mockserver.actionHandlerThreadCount"));
+    }
+
+    @Test
+    public void shouldSetAndReadActionHandlerQueueSize() {
+        // given
+        System.clearProperty("mockserver.actionHandlerQueueSize");
+
+        // when
+        assertEquals(ConfigurationProperties.DEFAULT_ACTION_HANDLER_QUEUE_SIZE, ConfigurationProperties.actionHandlerQueueSize());
+        ConfigurationProperties.actionHandlerQueueSize(10);
+
+        // then
+        assertEquals(10, ConfigurationProperties.actionHandlerQueueSize());
+        assertEquals("10", System.getProperty("mockserver.actionHandlerQueueSize"));
+    }
+
+    @Test
+    public void shouldSetAndReadMaxWebSocketCallbacksInFlight() {
+        // given
+        System.clearProperty("mockserver.maxWebSocketCallbacksInFlight");
+
+        // when
+        assertEquals(ConfigurationProperties.DEFAULT_MAX_WEB_SOCKET_CALLBACKS_IN_FLIGHT, ConfigurationProperties.maxWebSocketCallbacksInFlight());
+        ConfigurationProperties.maxWebSocketCallbacksInFlight(10);
+
+        // then
+        assertEquals(10, ConfigurationProperties.maxWebSocketCallbacksInFlight());
+        assertEquals("10", System.getProperty("mockserver.maxWebSocketCallbacksInFlight"));
+    }
+
+    @Test
+    public void shouldSetAndReadMaxRequestBodySize() {
+        // given
+        System.clearProperty("mockserver.maxRequestBodySize");
+
+        // when
+        assertEquals(ConfigurationProperties.DEFAULT_MAX_REQUEST_BODY_SIZE, ConfigurationProperties.maxRequestBodySize());
+        ConfigurationProperties.maxRequestBodySize(1024);
+
+        // then
+        assertEquals(1024, ConfigurationProperties.maxRequestBodySize());
+        assertEquals("1024", System.getProperty("mockserver.maxRequestBodySize"));
+    }
+
+    @Test
+    public void shouldSetAndReadRequestBodyMemoryThreshold() {
+        // given
+        System.clearProperty("mockserver.requestBodyMemoryThreshold");
+
+        // when
+        assertEquals(ConfigurationProperties.DEFAULT_REQUEST_BODY_MEMORY_THRESHOLD, ConfigurationProperties.requestBodyMemoryThreshold());
+        ConfigurationProperties.requestBodyMemoryThreshold(2048);
+
+        // then
+        assertEquals(2048, ConfigurationProperties.requestBodyMemoryThreshold());
+        assertEquals("2048", System.getProperty("mockserver.requestBodyMemoryThreshold"));
+    }
+
+    @Test
+    public void shouldSetAndReadRequestLogSize() {
+        // given
+        System.clearProperty("mockserver.requestLogSize");
+
+        // when
+        assertEquals(ConfigurationProperties.DEFAULT_REQUEST_LOG_SIZE, ConfigurationProperties.requestLogSize());
+        ConfigurationProperties.requestLogSize(500);
+
+        // then
+        assertEquals(500, ConfigurationProperties.requestLogSize());
+        assertEquals("500", System.getProperty("mockserver.requestLogSize"));
+    }
+
+    @Test
+    public void shouldSetAndReadRequestLogMaxBytes() {
+        // given
+        System.clearProperty("mockserver.requestLogMaxBytes");
+
+        // when
+        assertEquals(ConfigurationProperties.DEFAULT_REQUEST_LOG_MAX_BYTES, ConfigurationProperties.requestLogMaxBytes());
+        ConfigurationProperties.requestLogMaxBytes(1024);
+
+        // then
+        assertEquals(1024, ConfigurationProperties.requestLogMaxBytes());
+        assertEquals("1024", System.getProperty("mockserver.requestLogMaxBytes"));
+    }
+
+    @Test
+    public void shouldSetAndReadJournalDirectory() {
+        // given
+        System.clearProperty("mockserver.journalDirectory");
+
+        // when
+        assertEquals("", ConfigurationProperties.journalDirectory());
+        ConfigurationProperties.journalDirectory("/tmp/journal");
+
+        // then
+        assertEquals("/tmp/journal", ConfigurationProperties.journalDirectory());
+        assertEquals("/tmp/journal", System.getProperty("mockserver.journalDirectory"));
+    }
+
+    @Test
+    public void shouldSetAndReadJournalSegmentSize() {
+        // given
+        System.clearProperty("mockserver.journalSegmentSize");
+
+        // when
+        assertEquals(ConfigurationProperties.DEFAULT_JOURNAL_SEGMENT_SIZE, ConfigurationProperties.journalSegmentSize());
+        ConfigurationProperties.journalSegmentSize(1024);
+
+        // then
+        assertEquals(1024, ConfigurationProperties.journalSegmentSize());
+        assertEquals("1024", System.getProperty("mockserver.journalSegmentSize"));
+    }
+
+    @Test
+    public void shouldSetAndReadJournalMaxSegments() {
+        // given
+        System.clearProperty("mockserver.journalMaxSegments");
+
+        // when
+        assertEquals(0, ConfigurationProperties.journalMaxSegments());
+        ConfigurationProperties.journalMaxSegments(4);
+
+        // then
+        assertEquals(4, ConfigurationProperties.journalMaxSegments());
+        assertEquals("4", System.getProperty("mockserver.journalMaxSegments"));
+    }
+
+    @Test
+    public void shouldSetAndReadJournalReadOnly() {
+        // given
+        System.clearProperty("mockserver.journalReadOnly");
+
+        // when
+        assertEquals(false, ConfigurationProperties.journalReadOnly());
+        ConfigurationProperties.journalReadOnly(true);
+
+        // then
+        assertEquals(true, ConfigurationProperties.journalReadOnly());
+        assertEquals("true", System.getProperty("mockserver.journalReadOnly"));
+    }
+
     @Test
     public void shouldSetAndReadJavaKeyStoreFilePath() {
         // given
@@ -1,11 +1,17 @@
 package org.mockserver.filters;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockserver.collections.Page;
+import org.mockserver.configuration.ConfigurationProperties;
 import org.mockserver.model.Cookie;
 import org.mockserver.model.Header;
 import org.mockserver.model.HttpRequest;
 import org.mockserver.model.HttpResponse;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -13,6 +19,7 @@ import java.util.concurrent.*;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.mockserver.model.HttpRequest.request;
 import static org.mockserver.model.HttpResponse.response;
 
@@ -23,6 +30,9 @@ public class RequestLogFilterTest {
 
     public static final List<HttpRequest> EMPTY_REQUEST_LIST = Arrays.<HttpRequest>asList();
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @Test
     public void shouldPassConcurrent() throws ExecutionException, InterruptedException {
         // given
@@ -58,7 +68,7 @@ public class RequestLogFilterTest {
         }
 
         HttpRequest[] retrievedLogs = requestLogFilter.retrieve(new HttpRequest());
-        assertEquals(100, retrievedLogs.length);
+        assertEquals(Math.min(10000, ConfigurationProperties.requestLogSize()), retrievedLogs.length);
     }
 
     @Test
@@ -146,6 +156,96 @@ public class RequestLogFilterTest {
                 });
     }
 
+    @Test
+    public void shouldRetrievePage() {
+        // given
+        RequestLogFilter requestLogFilter = new RequestLogFilter();
+
+        // when
+        requestLogFilter.onRequest(request("some_path_one"));
+        requestLogFilter.onRequest(request("some_other_path"));
+        requestLogFilter.onRequest(request("some_path_two"));
+        requestLogFilter.onRequest(request("some_path_three"));
+
+        // then
+        Page<HttpRequest> firstPage = requestLogFilter.retrieve(null, RequestLogFilter.FIRST_PAGE, 2);
+        assertEquals(Arrays.asList(
+                request("some_path_one"),
+                request("some_other_path")
+        ), firstPage.getRecords());
+        Page<HttpRequest> secondPage = requestLogFilter.retrieve(null, firstPage.getNextCursor(), 2);
+        assertEquals(Arrays.asList(
+                request("some_path_two"),
+                request("some_path_three")
+        ), secondPage.getRecords());
+        Page<HttpRequest> lastPage = requestLogFilter.retrieve(null, secondPage.getNextCursor(), 2);
+        assertEquals(Arrays.<HttpRequest>asList(), lastPage.getRecords());
+        assertEquals(secondPage.getNextCursor(), lastPage.getNextCursor());
+    }
+
+    @Test
+    public void shouldRetrieveMatchingPage() {
+        // given
+        RequestLogFilter requestLogFilter = new RequestLogFilter();
+        requestLogFilter.onRequest(request("some_path_one"));
+        requestLogFilter.onRequest(request("some_other_path"));
+        requestLogFilter.onRequest(request("some_path_two"));
+        requestLogFilter.onRequest(request("some_path_three"));
+
+        // when
+        Page<HttpRequest> firstPage = requestLogFilter.retrieve(request("some_path_.*"), RequestLogFilter.FIRST_PAGE, 1);
+        Page<HttpRequest> secondPage = requestLogFilter.retrieve(request("some_path_.*"), firstPage.getNextCursor(), 10);
+
+        // then
+        assertEquals(Arrays.asList(
+                request("some_path_one")
+        ), firstPage.getRecords());
+        assertEquals(Arrays.asList(
+                request("some_path_two"),
+                request("some_path_three")
+        ), secondPage.getRecords());
+    }
+
+    @Test
+    public void shouldNotRepeatOrSkipRequestsWhenClearedBetweenPages() {
+        // given
+        RequestLogFilter requestLogFilter = new RequestLogFilter();
+        requestLogFilter.onRequest(request("some_path_one"));
+        requestLogFilter.onRequest(request("some_path_two"));
+        requestLogFilter.onRequest(request("some_path_three"));
+        Page<HttpRequest> firstPage = requestLogFilter.retrieve(null, RequestLogFilter.FIRST_PAGE, 2);
+
+        // when
+        requestLogFilter.clear(request("some_path_one"));
+        requestLogFilter.onRequest(request("some_path_four"));
+        Page<HttpRequest> secondPage = requestLogFilter.retrieve(null, firstPage.getNextCursor(), 2);
+
+        // then
+        assertEquals(Arrays.asList(
+                request("some_path_three"),
+                request("some_path_four")
+        ), secondPage.getRecords());
+    }
+
+    @Test
+    public void shouldNotRepeatRequestsWhenResetBetweenPages() {
+        // given
+        RequestLogFilter requestLogFilter = new RequestLogFilter();
+        requestLogFilter.onRequest(request("some_path_one"));
+        requestLogFilter.onRequest(request("some_path_two"));
+        Page<HttpRequest> firstPage = requestLogFilter.retrieve(null, RequestLogFilter.FIRST_PAGE, 2);
+
+        // when
+        requestLogFilter.reset();
+        requestLogFilter.onRequest(request("some_path_three"));
+        Page<HttpRequest> secondPage = requestLogFilter.retrieve(null, firstPage.getNextCursor(), 2);
+
+        // then
+        assertEquals(Arrays.asList(
+                request("some_path_three")
+        ), secondPage.getRecords());
+    }
+
     @Test
     public void shouldReset() {
         // given
@@ -233,4 +333,95 @@ public class RequestLogFilterTest {
         assertEquals(requestLogFilter.httpRequests(request("some_path")), EMPTY_REQUEST_LIST);
         assertEquals(requestLogFilter.httpRequests(request("some_other_path")), Arrays.asList(request("some_other_path")));
     }
+
+    @Test
+    public void shouldRetrieveRequestsJournaledByPreviousRunWhenReadOnly() throws IOException {
+        // given
+        ConfigurationProperties.journalDirectory(temporaryFolder.newFolder().getAbsolutePath());
+        try {
+            new RequestLogFilter("mockServer-1080").onRequest(request("some_path_one"));
+            ConfigurationProperties.journalReadOnly(true);
+
+            // when
+            RequestLogFilter requestLogFilter = new RequestLogFilter("mockServer-1080");
+            requestLogFilter.onRequest(request("some_path_two"));
+
+            // then
+            HttpRequest[] retrievedRequests = requestLogFilter.retrieve(null);
+            assertEquals(1, retrievedRequests.length);
+            assertEquals("some_path_one", retrievedRequests[0].getPath().getValue());
+        } finally {
+            System.clearProperty("mockserver.journalDirectory");
+            System.clearProperty("mockserver.journalReadOnly");
+        }
+    }
+
+    @Test
+    public void shouldNotRetrieveRequestsJournaledByOtherServer() throws IOException {
+        // given
+        ConfigurationProperties.journalDirectory(temporaryFolder.newFolder().getAbsolutePath());
+        try {
+            new RequestLogFilter("mockServer-1080").onRequest(request("some_path_one"));
+
+            // when
+            RequestLogFilter requestLogFilter = new RequestLogFilter("mockServer-1081");
+            requestLogFilter.onRequest(request("some_path_two"));
+
+            // then
+            HttpRequest[] retrievedRequests = requestLogFilter.retrieve(null);
+            assertEquals(1, retrievedRequests.length);
+            assertEquals("some_path_two", retrievedRequests[0].getPath().getValue());
+        } finally {
+            System.clearProperty("mockserver.journalDirectory");
+        }
+    }
+
+    @Test
+    public void shouldReuseJournalDirectoryOnceClosed() throws IOException {
+        // given
+        File journalDirectory = temporaryFolder.newFolder();
+        ConfigurationProperties.journalDirectory(journalDirectory.getAbsolutePath());
+        try {
+            RequestLogFilter previousRequestLogFilter = new RequestLogFilter("mockServer-1080");
+            previousRequestLogFilter.onRequest(request("some_path_one"));
+            previousRequestLogFilter.close();
+
+            // when
+            RequestLogFilter requestLogFilter = new RequestLogFilter("mockServer-1080");
+            requestLogFilter.onRequest(request("some_path_two"));
+
+            // then
+            assertFalse(new File(journalDirectory, "mockServer-1080-1").exists());
+            HttpRequest[] retrievedRequests = requestLogFilter.retrieve(null);
+            assertEquals(1, retrievedRequests.length);
+            assertEquals("some_path_two", retrievedRequests[0].getPath().getValue());
+        } finally {
+            System.clearProperty("mockserver.journalDirectory");
+        }
+    }
+
+    @Test
+    public void shouldNotClearRequestsJournaledByPreviousRunWhenReadOnly() throws IOException {
+        // given
+        ConfigurationProperties.journalDirectory(temporaryFolder.newFolder().getAbsolutePath());
+        try {
+            RequestLogFilter previousRequestLogFilter = new RequestLogFilter("mockServer-1080");
+            previousRequestLogFilter.onRequest(request("some_path_one"));
+            previousRequestLogFilter.close();
+            ConfigurationProperties.journalReadOnly(true);
+            RequestLogFilter requestLogFilter = new RequestLogFilter("mockServer-1080");
+
+            // when
+            requestLogFilter.clear(request("some_path_one"));
+            requestLogFilter.reset();
+
+            // then
+            HttpRequest[] retrievedRequests = requestLogFilter.retrieve(null);
+            assertEquals(1, retrievedRequests.length);
+            assertEquals("some_path_one", retrievedRequests[0].getPath().getValue());
+        } finally {
+            System.clearProperty("mockserver.journalDirectory");
+            System.clearProperty("mockserver.journalReadOnly");
+        }
+    }
 }
@@ -1,10 +1,20 @@
 package org.mockserver.filters;
 
+import com.google.common.util.concurrent.ListenableFuture;
 import org.junit.Test;
+import org.mockserver.configuration.ConfigurationProperties;
 import org.mockserver.model.HttpRequest;
 import org.mockserver.verify.Verification;
+import org.mockserver.verify.VerificationSequence;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
 import static org.mockserver.character.Character.NEW_LINE;
 import static org.mockserver.model.HttpRequest.request;
@@ -328,4 +338,354 @@ public class RequestLogFilterVerificationTest {
                 ),
                 is("Request not found exactly 0 times, expected:<{ }> but was:<{ }>"));
     }
+
+    @Test
+    public void shouldPassRegisteredVerificationUsingRequestsReceivedBeforeAndAfterRegistration() {
+        // given
+        HttpRequest httpRequest = new HttpRequest().withPath("some_path");
+        HttpRequest otherHttpRequest = new HttpRequest().withPath("some_other_path");
+        RequestLogFilter requestLogFilter = new RequestLogFilter();
+
+        // when
+        requestLogFilter.onRequest(httpRequest);
+        requestLogFilter.registerVerification(new HttpRequest().withPath("some_path"));
+        requestLogFilter.onRequest(httpRequest);
+        requestLogFilter.onRequest(otherHttpRequest);
+        requestLogFilter.onRequest(httpRequest);
+
+        // then - the same result as an unregistered verification
+        assertThat(requestLogFilter.verify(
+                verification()
+                        .withRequest(
+                                new HttpRequest().withPath("some_path")
+                        )
+                        .withTimes(exactly(3))
+        ), is(""));
+    }
+
+    @Test
+    public void shouldNotCountClearedRequestsLoggedBeforeRegistrationTwice() {
+        // given
+        HttpRequest httpRequest = new HttpRequest().withPath("some_path");
+        RequestLogFilter requestLogFilter = new RequestLogFilter();
+        requestLogFilter.onRequest(httpRequest);
+        requestLogFilter.onRequest(httpRequest);
+        requestLogFilter.registerVerification(new HttpRequest().withPath("some_path"));
+        requestLogFilter.onRequest(httpRequest);
+
+        // when
+        requestLogFilter.clear(new HttpRequest().withPath("some_path"));
+        requestLogFilter.onRequest(httpRequest);
+
+        // then - count never goes negative
+        assertThat(requestLogFilter.verify(
+                verification()
+                        .withRequest(
+                                new HttpRequest().withPath("some_path")
+                        )
+                        .withTimes(exactly(1))
+        ), is(""));
+    }
+
+    @Test
+    public void shouldNeitherMissNorDoubleCountRequestsLoggedWhileVerificationIsRegistered() throws Exception {
+        // given
+        final RequestLogFilter requestLogFilter = new RequestLogFilter();
+        ExecutorService loggingThreads = Executors.newFixedThreadPool(4);
+        final CountDownLatch startLogging = new CountDownLatch(1);
+        try {
+            for (int thread = 0; thread < 4; thread++) {
+                loggingThreads.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            startLogging.await();
+                        } catch (InterruptedException ie) {
+                            Thread.currentThread().interrupt();
+                        }
+                        for (int i = 0; i < 500; i++) {
+                            requestLogFilter.onRequest(new HttpRequest().withPath("some_path"));
+                        }
+                    }
+                });
+            }
+
+            // when - registered while requests are being logged
+            startLogging.countDown();
+            requestLogFilter.registerVerification(new HttpRequest().withPath("some_path"));
+            loggingThreads.shutdown();
+            assertThat(loggingThreads.awaitTermination(20, TimeUnit.SECONDS), is(true));
+
+            // then
+            assertThat(requestLogFilter.verify(
+                    verification()
+                            .withRequest(
+                                    new HttpRequest().withPath("some_path")
+                            )
+                            .withTimes(exactly(2000))
+            ), is(""));
+        } finally {
+            loggingThreads.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldFailRegisteredVerificationWithoutRequestLog() {
+        // given
+        HttpRequest httpRequest = new HttpRequest().withPath("some_path");
+        RequestLogFilter requestLogFilter = new RequestLogFilter();
+
+        // when
+        requestLogFilter.registerVerification(new HttpRequest().withPath("some_path"));
+        requestLogFilter.onRequest(httpRequest);
+
+        // then
+        assertThat(requestLogFilter.verify(
+                        verification()
+                                .withRequest(
+                                        new HttpRequest().withPath("some_path")
+                                )
+                                .withTimes(exactly(2))
+                ),
+                is("Request not found exactly 2 times, expected:<{" + NEW_LINE +
+                        "  \"path\" : \"some_path\"" + NEW_LINE +
+                        "}> but was found 1 times"));
+        assertThat(requestLogFilter.verify(
+                        verification()
+                                .withRequest(
+                                        new HttpRequest().withPath("some_path")
+                                )
+                                .withTimes(exactly(2)),
+                        true
+                ),
+                is("Request not found exactly 2 times, expected:<{" + NEW_LINE +
+                        "  \"path\" : \"some_path\"" + NEW_LINE +
+                        "}> but was:<{" + NEW_LINE +
+                        "  \"path\" : \"some_path\"" + NEW_LINE +
+                        "}>"));
+    }
+
+    @Test
+    public void shouldUpdateRegisteredVerificationWhenRequestsCleared() {
+        // given
+        HttpRequest httpRequest = new HttpRequest().withPath("some_path");
+        RequestLogFilter requestLogFilter = new RequestLogFilter();
+        requestLogFilter.registerVerification(new HttpRequest().withPath("some_path"));
+        requestLogFilter.onRequest(httpRequest);
+        requestLogFilter.onRequest(httpRequest);
+
+        // when
+        requestLogFilter.clear(new HttpRequest().withPath("some_path"));
+
+        // then
+        assertThat(requestLogFilter.verify(
+                verification()
+                        .withRequest(
+                                new HttpRequest().withPath("some_path")
+                        )
+                        .withTimes(exactly(0))
+        ), is(""));
+    }
+
+    @Test
+    public void shouldGiveSameResultForRegisteredVerificationAfterRequestsEvictedAndCleared() {
+        // given
+        ConfigurationProperties.requestLogSize(2);
+        try {
+            RequestLogFilter requestLogFilter = new RequestLogFilter();
+            requestLogFilter.registerVerification(new HttpRequest().withPath("some_path"));
+            requestLogFilter.onRequest(new HttpRequest().withPath("some_path"));
+            requestLogFilter.onRequest(new HttpRequest().withPath("some_path"));
+            requestLogFilter.onRequest(new HttpRequest().withPath("some_other_path"));
+
+            // when
+            requestLogFilter.clear(new HttpRequest().withPath("some_path"));
+
+            // then
+            assertThat(requestLogFilter.verify(
+                    verification()
+                            .withRequest(
+                                    new HttpRequest().withPath("some_path")
+                            )
+                            .withTimes(exactly(0))
+            ), is(""));
+        } finally {
+            System.clearProperty("mockserver.requestLogSize");
+        }
+    }
+
+    @Test
+    public void shouldCompleteAwaitedVerificationWhenMatchingRequestsLogged() throws Exception {
+        // given
+        RequestLogFilter requestLogFilter = new RequestLogFilter();
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        try {
+            ListenableFuture<String> result = requestLogFilter.verify(
+                    verification()
+                            .withRequest(
+                                    new HttpRequest().withPath("some_path")
+                            )
+                            .withTimes(atLeast(2)),
+                    false, TimeUnit.MINUTES.toMillis(1), executor
+            );
+
+            // when
+            requestLogFilter.onRequest(new HttpRequest().withPath("some_path"));
+            requestLogFilter.onRequest(new HttpRequest().withPath("some_other_path"));
+            requestLogFilter.onRequest(new HttpRequest().withPath("some_path"));
+
+            // then
+            assertThat(result.get(10, TimeUnit.SECONDS), is(""));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldReturnFailureWhenAwaitedVerificationTimesOut() throws Exception {
+        // given
+        RequestLogFilter requestLogFilter = new RequestLogFilter();
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        try {
+            requestLogFilter.onRequest(new HttpRequest().withPath("some_path"));
+
+            // when
+            ListenableFuture<String> result = requestLogFilter.verify(
+                    verification()
+                            .withRequest(
+                                    new HttpRequest().withPath("some_path")
+                            )
+                            .withTimes(exactly(2)),
+                    false, 50, executor
+            );
+
+            // then
+            assertFalse(result.get(10, TimeUnit.SECONDS).isEmpty());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldCompleteAwaitedVerificationSequenceWhenMatchingRequestsLogged() throws Exception {
+        // given
+        RequestLogFilter requestLogFilter = new RequestLogFilter();
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        try {
+            requestLogFilter.onRequest(new HttpRequest().withPath("some_path"));
+            ListenableFuture<String> result = requestLogFilter.verify(
+                    new VerificationSequence()
+                            .withRequests(
+                                    new HttpRequest().withPath("some_path"),
+                                    new HttpRequest().withPath("some_other_path")
+                            ),
+                    TimeUnit.MINUTES.toMillis(1), executor
+            );
+
+            // when
+            requestLogFilter.onRequest(new HttpRequest().withPath("some_other_path"));
+
+            // then
+            assertThat(result.get(10, TimeUnit.SECONDS), is(""));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldCountRequestsAlreadyLoggedForAwaitedVerification() throws Exception {
+        // given
+        RequestLogFilter requestLogFilter = new RequestLogFilter();
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        try {
+            requestLogFilter.onRequest(new HttpRequest().withPath("some_path"));
+            ListenableFuture<String> result = requestLogFilter.verify(
+                    verification()
+                            .withRequest(
+                                    new HttpRequest().withPath("some_path")
+                            )
+                            .withTimes(exactly(2)),
+                    false, TimeUnit.MINUTES.toMillis(1), executor
+            );
+
+            // when
+            requestLogFilter.onRequest(new HttpRequest().withPath("some_path"));
+
+            // then
+            assertThat(result.get(10, TimeUnit.SECONDS), is(""));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldRecountAwaitedVerificationWhenRequestsCleared() throws Exception {
+        // given
+        RequestLogFilter requestLogFilter = new RequestLogFilter();
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        try {
+            requestLogFilter.onRequest(new HttpRequest().withPath("some_path"));
+            ListenableFuture<String> result = requestLogFilter.verify(
+                    verification()
+                            .withRequest(
+                                    new HttpRequest().withPath("some_path")
+                            )
+                            .withTimes(atLeast(2)),
+                    false, 200, executor
+            );
+
+            // when
+            requestLogFilter.clear(new HttpRequest().withPath("some_path"));
+            requestLogFilter.onRequest(new HttpRequest().withPath("some_path"));
+
+            // then
+            assertFalse(result.get(10, TimeUnit.SECONDS).isEmpty());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldNeitherMissNorDoubleCountRequestsLoggedWhileAwaitedVerificationStarts() throws Exception {
+        // given
+        final RequestLogFilter requestLogFilter = new RequestLogFilter();
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        ExecutorService loggingThreads = Executors.newFixedThreadPool(4);
+        final CountDownLatch startLogging = new CountDownLatch(1);
+        try {
+            for (int thread = 0; thread < 4; thread++) {
+                loggingThreads.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            startLogging.await();
+                        } catch (InterruptedException ie) {
+                            Thread.currentThread().interrupt();
+                        }
+                        for (int i = 0; i < 500; i++) {
+                            requestLogFilter.onRequest(new HttpRequest().withPath("some_path"));
+                        }
+                    }
+                });
+            }
+
+            // when - waiting starts while requests are being logged
+            startLogging.countDown();
+            ListenableFuture<String> exactResult = requestLogFilter.verify(
+                    verification().withRequest(new HttpRequest().withPath("some_path")).withTimes(exactly(2000)),
+                    false, TimeUnit.SECONDS.toMillis(10), executor
+            );
+            ListenableFuture<String> tooManyResult = requestLogFilter.verify(
+                    verification().withRequest(new HttpRequest().withPath("some_path")).withTimes(atLeast(2001)),
+                    false, 500, executor
+            );
+
+            // then
+            assertThat(exactResult.get(20, TimeUnit.SECONDS), is(""));
+            assertFalse(tooManyResult.get(20, TimeUnit.SECONDS).isEmpty());
+        } finally {
+            loggingThreads.shutdownNow();
+            executor.shutdownNow();
+        }
+    }
 }
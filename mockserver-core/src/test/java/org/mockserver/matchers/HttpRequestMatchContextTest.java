@@ -0,0 +1,105 @@
+package org.mockserver.matchers;
+
+import org.junit.Test;
+import org.mockserver.client.serialization.model.JsonBodyDTO;
+import org.mockserver.model.Cookie;
+import org.mockserver.model.Header;
+import org.mockserver.model.Parameter;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.hamcrest.core.Is.is;
+import static org.mockserver.model.HttpRequest.request;
+
+/**
+ * @author jamesdbloom
+ */
+public class HttpRequestMatchContextTest {
+
+    @Test
+    public void shouldDecodeBodyOnlyOnce() {
+        // given
+        HttpRequestMatchContext matchContext = new HttpRequestMatchContext(request().withBody("some_body"));
+
+        // then
+        assertThat(matchContext.getBodyAsString(), is("some_body"));
+        assertThat(matchContext.getBodyAsString(), sameInstance(matchContext.getBodyAsString()));
+    }
+
+    @Test
+    public void shouldReturnEmptyStringForNoBody() {
+        assertThat(new HttpRequestMatchContext(request()).getBodyAsString(), is(""));
+    }
+
+    @Test
+    public void shouldNotParseNonJsonBodyAsBodyDTO() {
+        // given
+        HttpRequestMatchContext matchContext = new HttpRequestMatchContext(request().withBody("some_body"));
+
+        // then
+        assertThat(matchContext.getBodyDTO(), nullValue());
+        assertThat(matchContext.getJsonTree(), nullValue());
+    }
+
+    @Test
+    public void shouldParseBodyDTO() {
+        // given
+        HttpRequestMatchContext matchContext = new HttpRequestMatchContext(request().withBody("{ \"type\": \"JSON\", \"json\": \"{ \\\"id\\\": 1 }\" }"));
+
+        // then
+        assertThat(matchContext.getBodyDTO(), instanceOf(JsonBodyDTO.class));
+        assertThat(matchContext.getBodyDTO(), sameInstance(matchContext.getBodyDTO()));
+    }
+
+    @Test
+    public void shouldParseJsonTreeOnlyOnce() {
+        // given
+        HttpRequestMatchContext matchContext = new HttpRequestMatchContext(request().withBody("{ \"id\": 1 }"));
+
+        // then
+        assertThat(matchContext.getJsonTree().get("id").asInt(), is(1));
+        assertThat(matchContext.getJsonTree(), sameInstance(matchContext.getJsonTree()));
+    }
+
+    @Test
+    public void shouldParseXmlDocumentOnlyOnce() {
+        // given
+        HttpRequestMatchContext matchContext = new HttpRequestMatchContext(request().withBody("<element>value</element>"));
+
+        // then
+        assertThat(matchContext.getXmlDocument(), notNullValue());
+        assertThat(matchContext.getXmlDocument(), sameInstance(matchContext.getXmlDocument()));
+        assertThat(matchContext.getNormalisedXml(), notNullValue());
+    }
+
+    @Test
+    public void shouldNotParseInvalidXml() {
+        // given
+        HttpRequestMatchContext matchContext = new HttpRequestMatchContext(request().withBody("some_body"));
+
+        // then
+        assertThat(matchContext.getXmlDocument(), nullValue());
+        assertThat(matchContext.getNormalisedXml(), nullValue());
+    }
+
+    @Test
+    public void shouldBuildMapsOnlyOnce() {
+        // given
+        HttpRequestMatchContext matchContext = new HttpRequestMatchContext(
+                request()
+                        .withHeader(new Header("headerName", "headerValue"))
+                        .withQueryStringParameter(new Parameter("parameterName", "parameterValue"))
+                        .withCookie(new Cookie("cookieName", "cookieValue"))
+        );
+
+        // then
+        assertThat(matchContext.getHeaders().containsKeyValue("headerName", "headerValue"), is(true));
+        assertThat(matchContext.getHeaders(), sameInstance(matchContext.getHeaders()));
+        assertThat(matchContext.getQueryStringParameters().containsKeyValue("parameterName", "parameterValue"), is(true));
+        assertThat(matchContext.getQueryStringParameters(), sameInstance(matchContext.getQueryStringParameters()));
+        assertThat(matchContext.getCookies(), sameInstance(matchContext.getCookies()));
+    }
+}
@@ -5,6 +5,7 @@ import org.junit.Test;
 import static org.junit.Assert.*;
 import static org.mockserver.character.Character.NEW_LINE;
 import static org.mockserver.matchers.NotMatcher.not;
+import static org.mockserver.model.HttpRequest.request;
 
 /**
  * @author jamesdbloom
@@ -578,4 +579,34 @@ public class JsonStringMatcherTest {
     public void showHaveCorrectEqualsBehaviour() {
         assertEquals(new JsonStringMatcher("some_value", MatchType.ONLY_MATCHING_FIELDS), new JsonStringMatcher("some_value", MatchType.ONLY_MATCHING_FIELDS));
     }
+
+    @Test
+    public void shouldMatchNumbersByValue() {
+        assertTrue(new JsonStringMatcher("{ \"id\": 1 }", MatchType.ONLY_MATCHING_FIELDS).matches("{ \"id\": 1.0 }"));
+        assertFalse(new JsonStringMatcher("{ \"id\": 1 }", MatchType.ONLY_MATCHING_FIELDS).matches("{ \"id\": \"1\" }"));
+    }
+
+    @Test
+    public void shouldNotMatchArraysOfDifferentLength() {
+        assertFalse(new JsonStringMatcher("[ 1, 2 ]", MatchType.ONLY_MATCHING_FIELDS).matches("[ 2, 1, 3 ]"));
+        assertTrue(new JsonStringMatcher("[ 1, 2 ]", MatchType.ONLY_MATCHING_FIELDS).matches("[ 2, 1 ]"));
+        assertFalse(new JsonStringMatcher("[ 1, 2 ]", MatchType.STRICT).matches("[ 2, 1 ]"));
+    }
+
+    @Test
+    public void shouldMatchUsingParsedRequestBody() {
+        // given
+        HttpRequestMatchContext matchContext = new HttpRequestMatchContext(request().withBody("{ \"id\": 1, \"name\": \"some_name\" }"));
+
+        // then
+        assertTrue(new JsonStringMatcher("{ \"id\": 1 }", MatchType.ONLY_MATCHING_FIELDS).matchesBody(matchContext));
+        assertFalse(new JsonStringMatcher("{ \"id\": 1 }", MatchType.STRICT).matchesBody(matchContext));
+        assertFalse(new JsonStringMatcher("{ \"id\": 2 }", MatchType.ONLY_MATCHING_FIELDS).matchesBody(matchContext));
+        assertTrue(not(new JsonStringMatcher("{ \"id\": 2 }", MatchType.ONLY_MATCHING_FIELDS)).matchesBody(matchContext));
+    }
+
+    @Test
+    public void shouldNotMatchNonJsonRequestBody() {
+        assertFalse(new JsonStringMatcher("{ \"id\": 1 }", MatchType.ONLY_MATCHING_FIELDS).matchesBody(new HttpRequestMatchContext(request().withBody("some_value"))));
+    }
 }
@@ -3,6 +3,7 @@ package org.mockserver.matchers;
 import org.junit.Test;
 import org.mockserver.model.NottableString;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockserver.matchers.NotMatcher.not;
@@ -119,4 +120,60 @@ public class RegexStringMatcherTest {
     public void shouldHandleIllegalRegexPatternForTest() {
         assertFalse(new RegexStringMatcher("some_value").matches("/{}"));
     }
+
+    @Test
+    public void shouldClassifyLiteralStrings() {
+        assertTrue(RegexStringMatcher.isLiteral("some_value"));
+        assertTrue(RegexStringMatcher.isLiteral("/some/path"));
+        assertFalse(RegexStringMatcher.isLiteral("/some/path.json"));
+        assertFalse(RegexStringMatcher.isLiteral("some_[a-z]+"));
+    }
+
+    @Test
+    public void shouldMatchRegexInEitherDirection() {
+        assertTrue(RegexStringMatcher.matches("some_[a-z]+", "some_value", false));
+        assertTrue(RegexStringMatcher.matches("some_value", "some_[a-z]+", false));
+        assertFalse(RegexStringMatcher.matches("some_[a-z]+", "some_VALUE", false));
+    }
+
+    @Test
+    public void shouldMatchRegexIgnoringCase() {
+        assertTrue(RegexStringMatcher.matches("some_[a-z]+", "SOME_VALUE", true));
+        assertTrue(RegexStringMatcher.matches("SOME_VALUE", "some_[a-z]+", true));
+        assertTrue(RegexStringMatcher.matches("Some_Value", "sOME_vALUE", true));
+    }
+
+    @Test
+    public void shouldNotMatchInvalidRegex() {
+        assertFalse(RegexStringMatcher.matches("some_[value", "some_value", false));
+        assertFalse(RegexStringMatcher.matches("some_[value", "some_value", true));
+        assertTrue(RegexStringMatcher.matches("some_[value", "some_[value", true));
+    }
+
+    @Test
+    public void shouldNotCacheRequestValues() {
+        // given
+        new RegexStringMatcher("some_[a-z]+_cached");
+        long cachedPatternCount = RegexStringMatcher.cachedPatternCount();
+
+        // when
+        assertFalse(RegexStringMatcher.matches("some_[a-z]+_cached", "Mozilla/5.0 (X11; Linux x86_64)", false));
+        assertFalse(RegexStringMatcher.matches("some_[a-z]+_cached", "/request/path.json", true));
+
+        // then
+        assertEquals(cachedPatternCount, RegexStringMatcher.cachedPatternCount());
+    }
+
+    @Test
+    public void shouldNotCacheRequestValuesPassedAsMatcher() {
+        // given
+        long cachedPatternCount = RegexStringMatcher.cachedPatternCount();
+
+        // when - i.e. a request header checked against an expectation's headers
+        assertFalse(RegexStringMatcher.matches("/request/path_[0-9]+.json", "some_value", false));
+        assertFalse(RegexStringMatcher.matches(string("(Mozilla)/5.0"), string("some_value"), true));
+
+        // then
+        assertEquals(cachedPatternCount, RegexStringMatcher.cachedPatternCount());
+    }
 }
@@ -2,6 +2,10 @@ package org.mockserver.matchers;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 
@@ -31,4 +35,48 @@ public class TimesTest {
         times.decrement().decrement();
         assertThat(times.greaterThenZero(), is(false));
     }
+
+    @Test
+    public void shouldNotDecrementBelowZero() {
+        // given
+        Times times = Times.once();
+
+        // then
+        assertThat(times.tryDecrement(), is(true));
+        assertThat(times.tryDecrement(), is(false));
+        assertThat(times.getRemainingTimes(), is(0));
+        assertThat(Times.unlimited().tryDecrement(), is(true));
+    }
+
+    @Test
+    public void shouldDecrementExactlyOnceForEachRemainingTimeWhenConcurrent() throws InterruptedException {
+        // given
+        final Times times = Times.exactly(500);
+        final AtomicInteger successfulDecrements = new AtomicInteger();
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < 8; i++) {
+            threads.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < 200; j++) {
+                        if (times.tryDecrement()) {
+                            successfulDecrements.incrementAndGet();
+                        }
+                    }
+                }
+            }));
+        }
+
+        // when
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // then
+        assertThat(successfulDecrements.get(), is(500));
+        assertThat(times.greaterThenZero(), is(false));
+    }
 }
@@ -0,0 +1,163 @@
+package org.mockserver.mock;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockserver.matchers.TimeToLive;
+import org.mockserver.matchers.Times;
+
+import java.util.Arrays;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.collection.IsEmptyCollection.empty;
+import static org.hamcrest.core.Is.is;
+import static org.mockserver.model.HttpRequest.request;
+import static org.mockserver.model.NottableString.not;
+
+/**
+ * @author jamesdbloom
+ */
+public class ExpectationIndexTest {
+
+    private ExpectationIndex expectationIndex;
+
+    @Before
+    public void prepareTestFixture() {
+        expectationIndex = new ExpectationIndex();
+    }
+
+    private Expectation add(Expectation expectation) {
+        expectationIndex.add(expectation);
+        return expectation;
+    }
+
+    @Test
+    public void shouldReturnCandidatesForLiteralMethodAndPath() {
+        // given
+        Expectation getSomePath = add(new Expectation(request().withMethod("GET").withPath("/somePath"), Times.unlimited(), TimeToLive.unlimited()));
+        add(new Expectation(request().withMethod("POST").withPath("/somePath"), Times.unlimited(), TimeToLive.unlimited()));
+        add(new Expectation(request().withMethod("GET").withPath("/otherPath"), Times.unlimited(), TimeToLive.unlimited()));
+
+        // then
+        assertThat(expectationIndex.candidates(request().withMethod("GET").withPath("/somePath")), contains(getSomePath));
+    }
+
+    @Test
+    public void shouldReturnCandidatesInInsertionOrder() {
+        // given
+        Expectation anyMethod = add(new Expectation(request().withPath("/somePath"), Times.unlimited(), TimeToLive.unlimited()));
+        Expectation regexPath = add(new Expectation(request().withMethod("GET").withPath("/some.*"), Times.unlimited(), TimeToLive.unlimited()));
+        Expectation literalPath = add(new Expectation(request().withMethod("GET").withPath("/somePath"), Times.unlimited(), TimeToLive.unlimited()));
+        Expectation notPath = add(new Expectation(request().withMethod("GET").withPath(not("/otherPath")), Times.unlimited(), TimeToLive.unlimited()));
+        Expectation regexMethod = add(new Expectation(request().withMethod("P.*").withPath("/somePath"), Times.unlimited(), TimeToLive.unlimited()));
+
+        // then
+        assertThat(expectationIndex.candidates(request().withMethod("GET").withPath("/somePath")), contains(anyMethod, regexPath, literalPath, notPath, regexMethod));
+    }
+
+    @Test
+    public void shouldOnlyReturnPathPrefixCandidatesWhenPrefixMatches() {
+        // given
+        Expectation prefix = add(new Expectation(request().withMethod("GET").withPath("/api/.*"), Times.unlimited(), TimeToLive.unlimited()));
+        Expectation optionalCharacter = add(new Expectation(request().withMethod("GET").withPath("/apis?/.*"), Times.unlimited(), TimeToLive.unlimited()));
+
+        // then
+        assertThat(expectationIndex.candidates(request().withMethod("GET").withPath("/api/someResource")), contains(prefix, optionalCharacter));
+        assertThat(expectationIndex.candidates(request().withMethod("GET").withPath("/apis/someResource")), contains(optionalCharacter));
+        assertThat(expectationIndex.candidates(request().withMethod("GET").withPath("/other")), empty());
+    }
+
+    @Test
+    public void shouldReturnAllExpectationsWhenRequestCanNotBeIndexed() {
+        // given
+        Expectation first = add(new Expectation(request().withMethod("GET").withPath("/somePath"), Times.unlimited(), TimeToLive.unlimited()));
+        Expectation second = add(new Expectation(request().withMethod("POST").withPath("/otherPath"), Times.unlimited(), TimeToLive.unlimited()));
+
+        // then
+        assertThat(expectationIndex.candidates(request().withPath("/somePath")), contains(first, second));
+        assertThat(expectationIndex.candidates(request().withMethod("GET").withPath("/some.*")), contains(first));
+        assertThat(expectationIndex.candidates(request().withMethod(not("GET")).withPath("/somePath")), contains(first, second));
+        assertThat(expectationIndex.candidates(null), contains(first, second));
+    }
+
+    @Test
+    public void shouldRemoveAndClearExpectations() {
+        // given
+        Expectation first = add(new Expectation(request().withMethod("GET").withPath("/somePath"), Times.unlimited(), TimeToLive.unlimited()));
+        Expectation second = add(new Expectation(request().withMethod("GET").withPath("/somePath"), Times.unlimited(), TimeToLive.unlimited()));
+
+        // when
+        expectationIndex.remove(first);
+
+        // then
+        assertThat(expectationIndex.candidates(request().withMethod("GET").withPath("/somePath")), contains(second));
+        assertThat(expectationIndex.size(), is(1));
+
+        // when
+        expectationIndex.clear();
+
+        // then
+        assertThat(expectationIndex.candidates(request().withMethod("GET").withPath("/somePath")), empty());
+        assertThat(expectationIndex.size(), is(0));
+    }
+
+    @Test
+    public void shouldOnlyRemoveExpectationOnce() {
+        // given
+        Expectation expectation = add(new Expectation(request().withMethod("GET").withPath("/somePath"), Times.unlimited(), TimeToLive.unlimited()));
+
+        // then
+        assertThat(expectationIndex.remove(expectation), is(true));
+        assertThat(expectationIndex.remove(expectation), is(false));
+        assertThat(expectationIndex.expectations(), empty());
+    }
+
+    @Test
+    public void shouldRemoveManyExpectationsAtOnce() {
+        // given
+        Expectation first = add(new Expectation(request().withMethod("GET").withPath("/somePath"), Times.unlimited(), TimeToLive.unlimited()));
+        Expectation second = add(new Expectation(request().withMethod("GET").withPath("/somePath"), Times.unlimited(), TimeToLive.unlimited()));
+        Expectation regexPath = add(new Expectation(request().withMethod("GET").withPath("/some.*"), Times.unlimited(), TimeToLive.unlimited()));
+        Expectation anyMethod = add(new Expectation(request().withPath("/somePath"), Times.unlimited(), TimeToLive.unlimited()));
+        Expectation otherMethod = add(new Expectation(request().withMethod("POST").withPath("/somePath"), Times.unlimited(), TimeToLive.unlimited()));
+
+        // when
+        boolean removed = expectationIndex.removeAll(Arrays.asList(first, regexPath, anyMethod, otherMethod));
+
+        // then
+        assertThat(removed, is(true));
+        assertThat(expectationIndex.expectations(), contains(second));
+        assertThat(expectationIndex.candidates(request().withMethod("GET").withPath("/somePath")), contains(second));
+        assertThat(expectationIndex.candidates(request().withMethod("POST").withPath("/somePath")), empty());
+        assertThat(expectationIndex.expectationsWithRequest(request().withMethod("GET").withPath("/somePath")), contains(second));
+        assertThat(expectationIndex.removeAll(Arrays.asList(first, otherMethod)), is(false));
+    }
+
+    @Test
+    public void shouldReturnAllExpectationsInInsertionOrder() {
+        // given
+        Expectation first = add(new Expectation(request().withMethod("GET").withPath("/somePath"), Times.unlimited(), TimeToLive.unlimited()));
+        Expectation second = add(new Expectation(request().withMethod("POST").withPath("/otherPath"), Times.unlimited(), TimeToLive.unlimited()));
+
+        // then
+        assertThat(expectationIndex.expectations(), contains(first, second));
+    }
+
+    @Test
+    public void shouldReturnExpectationsWithEqualRequest() {
+        // given
+        Expectation first = add(new Expectation(request().withMethod("GET").withPath("/somePath"), Times.unlimited(), TimeToLive.unlimited()));
+        add(new Expectation(request().withMethod("GET").withPath("/somePath").withBody("some_body"), Times.unlimited(), TimeToLive.unlimited()));
+        Expectation third = add(new Expectation(request().withMethod("GET").withPath("/somePath"), Times.unlimited(), TimeToLive.unlimited()));
+
+        // then
+        assertThat(expectationIndex.expectationsWithRequest(request().withMethod("GET").withPath("/somePath")), contains(first, third));
+
+        // when
+        expectationIndex.remove(first);
+
+        // then
+        assertThat(expectationIndex.expectationsWithRequest(request().withMethod("GET").withPath("/somePath")), contains(third));
+        assertThat(expectationIndex.expectationsWithRequest(request().withMethod("GET").withPath("/otherPath")), empty());
+    }
+}
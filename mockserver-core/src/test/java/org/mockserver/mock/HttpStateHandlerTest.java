@@ -1,5 +1,11 @@
 package org.mockserver.mock;
 
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.handler.stream.ChunkedInput;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.InjectMocks;
@@ -8,24 +14,33 @@ import org.mockserver.client.serialization.ExpectationSerializer;
 import org.mockserver.client.serialization.HttpRequestSerializer;
 import org.mockserver.client.serialization.java.ExpectationToJavaSerializer;
 import org.mockserver.client.serialization.java.HttpRequestToJavaSerializer;
+import org.mockserver.collections.ConcurrentRingBuffer;
+import org.mockserver.collections.Page;
+import org.mockserver.collections.SequencedIterator;
 import org.mockserver.filters.RequestLogFilter;
 import org.mockserver.filters.RequestResponseLogFilter;
 import org.mockserver.logging.LogFormatter;
 import org.mockserver.matchers.TimeToLive;
 import org.mockserver.model.HttpRequest;
+import org.mockserver.model.HttpResponse;
 
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
+import static com.google.common.base.Charsets.UTF_8;
+import static io.netty.handler.codec.http.HttpHeaderNames.TRAILER;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.mockito.Mockito.*;
 import static org.mockito.MockitoAnnotations.initMocks;
 import static org.mockserver.character.Character.NEW_LINE;
+import static org.mockserver.filters.RequestLogFilter.FIRST_PAGE;
 import static org.mockserver.matchers.TimeToLive.unlimited;
 import static org.mockserver.matchers.Times.once;
+import static org.mockserver.mock.HttpStateHandler.NEXT_CURSOR_HEADER;
 import static org.mockserver.model.HttpRequest.request;
+import static org.mockserver.model.HttpResponse.response;
 
 /**
  * @author jamesdbloom
@@ -240,7 +255,7 @@ public class HttpStateHandlerTest {
         when(mockMockServerMatcher.retrieveExpectations(requestMatcher)).thenReturn(expectations);
 
         // when
-        String retrieve = httpStateHandler.retrieve(request);
+        String retrieve = httpStateHandler.retrieve(request, response());
 
         // then
         assertThat(retrieve, is("[ {" + NEW_LINE +
@@ -270,7 +285,7 @@ public class HttpStateHandlerTest {
         when(mockMockServerMatcher.retrieveExpectations(requestMatcher)).thenReturn(expectations);
 
         // when
-        String retrieve = httpStateHandler.retrieve(request);
+        String retrieve = httpStateHandler.retrieve(request, response());
 
         // then
         assertThat(retrieve, is(NEW_LINE +
@@ -290,14 +305,14 @@ public class HttpStateHandlerTest {
         HttpRequest requestMatcher = request().withBody("some_body");
         HttpRequest request = request()
                 .withBody(httpRequestSerializer.serialize(requestMatcher));
-        HttpRequest[] httpRequests = new HttpRequest[]{
+        List<HttpRequest> httpRequests = Arrays.asList(
                 request("some_path_one"),
                 request("some_path_two")
-        };
-        when(mockRequestLogFilter.retrieve(requestMatcher)).thenReturn(httpRequests);
+        );
+        when(mockRequestLogFilter.retrieve(requestMatcher, FIRST_PAGE, Integer.MAX_VALUE)).thenReturn(new Page<HttpRequest>(httpRequests, 1));
 
         // when
-        String retrieve = httpStateHandler.retrieve(request);
+        String retrieve = httpStateHandler.retrieve(request, response());
 
         // then
         assertThat(retrieve, is("[ {" + NEW_LINE +
@@ -315,14 +330,14 @@ public class HttpStateHandlerTest {
         HttpRequest request = request()
                 .withQueryStringParameter("format", "java")
                 .withBody(httpRequestSerializer.serialize(requestMatcher));
-        HttpRequest[] httpRequests = new HttpRequest[]{
+        List<HttpRequest> httpRequests = Arrays.asList(
                 request("some_path_one"),
                 request("some_path_two")
-        };
-        when(mockRequestLogFilter.retrieve(requestMatcher)).thenReturn(httpRequests);
+        );
+        when(mockRequestLogFilter.retrieve(requestMatcher, FIRST_PAGE, Integer.MAX_VALUE)).thenReturn(new Page<HttpRequest>(httpRequests, 1));
 
         // when
-        String retrieve = httpStateHandler.retrieve(request);
+        String retrieve = httpStateHandler.retrieve(request, response());
 
         // then
         assertThat(retrieve, is(NEW_LINE +
@@ -336,6 +351,150 @@ public class HttpStateHandlerTest {
         verify(mockLogFormatter).infoLog("retrieving requests that match:{}", requestMatcher);
     }
 
+    @Test
+    public void shouldRetrievePageOfExpectations() {
+        // given
+        HttpRequest request = request()
+                .withQueryStringParameter("type", "expectation")
+                .withQueryStringParameter("cursor", "1")
+                .withQueryStringParameter("limit", "1");
+        List<Expectation> expectations = Arrays.asList(
+                new Expectation(request("some_path_one"), once(), unlimited()),
+                new Expectation(request("some_path_two"), once(), unlimited()),
+                new Expectation(request("some_path_three"), once(), unlimited())
+        );
+        when(mockMockServerMatcher.retrieveExpectations(null)).thenReturn(expectations);
+        HttpResponse response = response();
+
+        // when
+        String retrieve = httpStateHandler.retrieve(request, response);
+
+        // then
+        assertThat(retrieve, is(expectationSerializer.serialize(expectations.subList(1, 2))));
+        assertThat(response.getFirstHeader(NEXT_CURSOR_HEADER), is("2"));
+    }
+
+    @Test
+    public void shouldRetrievePageOfRequests() {
+        // given
+        HttpRequest request = request()
+                .withQueryStringParameter("cursor", "2")
+                .withQueryStringParameter("limit", "10");
+        when(mockRequestLogFilter.retrieve(null, 2, 10)).thenReturn(new Page<HttpRequest>(Collections.singletonList(request("some_path_three")), 5));
+        HttpResponse response = response();
+
+        // when
+        String retrieve = httpStateHandler.retrieve(request, response);
+
+        // then
+        assertThat(retrieve, is("[ {" + NEW_LINE +
+                "  \"path\" : \"some_path_three\"" + NEW_LINE +
+                "} ]"));
+        assertThat(response.getFirstHeader(NEXT_CURSOR_HEADER), is("5"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectInvalidLimit() {
+        // when
+        httpStateHandler.retrieve(request().withQueryStringParameter("limit", "-1"), response());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectInvalidCursor() {
+        // when
+        httpStateHandler.retrieve(request().withQueryStringParameter("cursor", "not_a_cursor"), response());
+    }
+
+    @Test
+    public void shouldRetrieveRequestsAsChunkedJson() throws Exception {
+        // given
+        HttpRequest request = request();
+        when(mockRequestLogFilter.retrieveIterator(null, FIRST_PAGE, Integer.MAX_VALUE)).thenReturn(requestLog(
+                request("some_path_one"),
+                request("some_path_two")
+        ));
+
+        // when
+        ChunkedInput<HttpContent> retrieve = httpStateHandler.retrieveChunked(request, new DefaultHttpHeaders());
+
+        // then
+        assertThat(readChunks(retrieve), is("[ {" + NEW_LINE +
+                "  \"path\" : \"some_path_one\"" + NEW_LINE +
+                "}, {" + NEW_LINE +
+                "  \"path\" : \"some_path_two\"" + NEW_LINE +
+                "} ]"));
+    }
+
+    @Test
+    public void shouldRetrieveExpectationsAsChunkedJava() throws Exception {
+        // given
+        HttpRequest request = request()
+                .withQueryStringParameter("type", "expectation")
+                .withQueryStringParameter("format", "java");
+        List<Expectation> expectations = Collections.singletonList(new Expectation(request().withBody("some_body"), once(), unlimited()));
+        when(mockMockServerMatcher.retrieveExpectations(null)).thenReturn(expectations);
+
+        // when
+        ChunkedInput<HttpContent> retrieve = httpStateHandler.retrieveChunked(request, new DefaultHttpHeaders());
+
+        // then
+        assertThat(readChunks(retrieve), is(expectationToJavaSerializer.serializeAsJava(0, expectations)));
+    }
+
+    @Test
+    public void shouldSendNextCursorOfChunkedRequestsAsTrailingHeader() throws Exception {
+        // given
+        HttpRequest request = request()
+                .withQueryStringParameter("limit", "1");
+        when(mockRequestLogFilter.retrieveIterator(null, FIRST_PAGE, 1)).thenReturn(requestLog(
+                request("some_path_one")
+        ));
+        HttpHeaders responseHeaders = new DefaultHttpHeaders();
+
+        // when
+        ChunkedInput<HttpContent> retrieve = httpStateHandler.retrieveChunked(request, responseHeaders);
+
+        // then
+        assertThat(responseHeaders.get(TRAILER), is(NEXT_CURSOR_HEADER));
+        HttpContent lastContent = null;
+        while (!retrieve.isEndOfInput()) {
+            HttpContent httpContent = retrieve.readChunk(UnpooledByteBufAllocator.DEFAULT);
+            httpContent.release();
+            lastContent = httpContent;
+        }
+        assertThat(((LastHttpContent) lastContent).trailingHeaders().get(NEXT_CURSOR_HEADER), is("0"));
+    }
+
+    @Test
+    public void shouldRetrieveNoRequestsAsEmptyChunkedBody() throws Exception {
+        // given
+        when(mockRequestLogFilter.retrieveIterator(null, FIRST_PAGE, Integer.MAX_VALUE)).thenReturn(requestLog());
+
+        // when
+        ChunkedInput<HttpContent> retrieve = httpStateHandler.retrieveChunked(request(), new DefaultHttpHeaders());
+
+        // then
+        assertThat(readChunks(retrieve), is(""));
+    }
+
+    private SequencedIterator<HttpRequest> requestLog(HttpRequest... httpRequests) {
+        ConcurrentRingBuffer<HttpRequest> requestLog = new ConcurrentRingBuffer<HttpRequest>(10);
+        for (HttpRequest httpRequest : httpRequests) {
+            requestLog.add(httpRequest);
+        }
+        return requestLog.iterator(FIRST_PAGE);
+    }
+
+    private String readChunks(ChunkedInput<HttpContent> chunkedInput) throws Exception {
+        StringBuilder content = new StringBuilder();
+        while (!chunkedInput.isEndOfInput()) {
+            HttpContent httpContent = chunkedInput.readChunk(UnpooledByteBufAllocator.DEFAULT);
+            content.append(httpContent.content().toString(UTF_8));
+            httpContent.release();
+        }
+        return content.toString();
+    }
+
     @Test
     public void shouldReset() {
         // when
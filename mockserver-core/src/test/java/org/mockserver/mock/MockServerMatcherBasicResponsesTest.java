@@ -5,7 +5,9 @@ import org.junit.Test;
 import org.mockserver.model.*;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author jamesdbloom
@@ -475,4 +477,34 @@ public class MockServerMatcherBasicResponsesTest {
         // then
         assertEquals(httpResponse, mockServerMatcher.retrieveAction(new HttpRequest().withPath("somePath").withCookies(new Cookie("name", "value"))));
     }
+
+    @Test
+    public void canRetrieveActionWithoutBodyWhenMatchingExpectationHasNoBody() {
+        // when
+        mockServerMatcher.when(new HttpRequest().withPath("otherPath").withBody("someBody")).thenRespond(httpResponse.withBody("someBody"));
+        mockServerMatcher.when(httpRequest.withPath("somePath")).thenRespond(httpResponse.withBody("someBody"));
+
+        // then
+        assertTrue(mockServerMatcher.canRetrieveActionWithoutBody(new HttpRequest().withPath("somePath")));
+        assertTrue(mockServerMatcher.canRetrieveActionWithoutBody(new HttpRequest().withPath("unmatchedPath")));
+    }
+
+    @Test
+    public void canNotRetrieveActionWithoutBodyWhenEarlierExpectationHasBody() {
+        // when
+        mockServerMatcher.when(new HttpRequest().withPath("somePath").withBody("someBody")).thenRespond(httpResponse.withBody("someBody"));
+        mockServerMatcher.when(httpRequest.withPath("somePath")).thenRespond(httpResponse.withBody("someBody"));
+
+        // then
+        assertFalse(mockServerMatcher.canRetrieveActionWithoutBody(new HttpRequest().withPath("somePath")));
+    }
+
+    @Test
+    public void canNotRetrieveActionWithoutBodyWhenActionUsesBody() {
+        // when
+        mockServerMatcher.when(httpRequest.withPath("somePath")).thenForward(new HttpForward().withHost("localhost").withPort(1080));
+
+        // then
+        assertFalse(mockServerMatcher.canRetrieveActionWithoutBody(new HttpRequest().withPath("somePath")));
+    }
 }
@@ -7,7 +7,10 @@ import org.mockserver.matchers.TimeToLive;
 import org.mockserver.matchers.Times;
 import org.mockserver.model.*;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.nullValue;
@@ -70,4 +73,70 @@ public class MockServerMatcherManageExpectationsTest {
         assertThat(mockServerMatcher.retrieveAction(new HttpRequest().withPath("somePath")), Is.<Action>is(httpResponse.withBody("someBody")));
         assertThat(mockServerMatcher.expectations.size(), is(1));
     }
+
+    @Test
+    public void shouldNotRespondMoreThanLimitedTimesWhenConcurrent() throws InterruptedException {
+        // given
+        mockServerMatcher.when(httpRequest.withMethod("GET").withPath("somePath"), Times.exactly(100), TimeToLive.unlimited()).thenRespond(httpResponse.withBody("someBody"));
+        final AtomicInteger responses = new AtomicInteger();
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < 8; i++) {
+            threads.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < 50; j++) {
+                        if (mockServerMatcher.retrieveAction(new HttpRequest().withMethod("GET").withPath("somePath")) != null) {
+                            responses.incrementAndGet();
+                        }
+                    }
+                }
+            }));
+        }
+
+        // when
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // then
+        assertThat(responses.get(), is(100));
+        assertThat(mockServerMatcher.expectations, empty());
+    }
+
+    @Test
+    public void shouldAddExpectationsInBulk() {
+        // given
+        List<Expectation> expectations = new ArrayList<Expectation>();
+        expectations.add(new Expectation(new HttpRequest().withMethod("GET").withPath("somePath"), Times.exactly(2), TimeToLive.unlimited()).thenRespond(new HttpResponse().withBody("someBody")));
+        expectations.add(new Expectation(new HttpRequest().withMethod("GET").withPath("otherPath"), Times.unlimited(), TimeToLive.unlimited()).thenRespond(new HttpResponse().withBody("otherBody")));
+
+        // when
+        mockServerMatcher.add(expectations);
+
+        // then
+        assertThat(mockServerMatcher.expectations.size(), is(2));
+        assertThat(mockServerMatcher.retrieveAction(new HttpRequest().withMethod("GET").withPath("somePath")), Is.<Action>is(new HttpResponse().withBody("someBody")));
+        assertThat(mockServerMatcher.retrieveAction(new HttpRequest().withMethod("GET").withPath("otherPath")), Is.<Action>is(new HttpResponse().withBody("otherBody")));
+    }
+
+    @Test
+    public void shouldLimitDuplicateUnlimitedExpectationsAddedInBulk() {
+        // given
+        mockServerMatcher.when(new HttpRequest().withMethod("GET").withPath("somePath")).thenRespond(new HttpResponse().withBody("firstBody"));
+        List<Expectation> expectations = new ArrayList<Expectation>();
+        expectations.add(new Expectation(new HttpRequest().withMethod("GET").withPath("somePath"), Times.unlimited(), TimeToLive.unlimited()).thenRespond(new HttpResponse().withBody("secondBody")));
+        expectations.add(new Expectation(new HttpRequest().withMethod("GET").withPath("somePath"), Times.unlimited(), TimeToLive.unlimited()).thenRespond(new HttpResponse().withBody("thirdBody")));
+
+        // when
+        mockServerMatcher.add(expectations);
+
+        // then - same as adding each expectation with when(...), earlier duplicates only respond once
+        assertThat(mockServerMatcher.retrieveAction(new HttpRequest().withMethod("GET").withPath("somePath")), Is.<Action>is(new HttpResponse().withBody("firstBody")));
+        assertThat(mockServerMatcher.retrieveAction(new HttpRequest().withMethod("GET").withPath("somePath")), Is.<Action>is(new HttpResponse().withBody("secondBody")));
+        assertThat(mockServerMatcher.retrieveAction(new HttpRequest().withMethod("GET").withPath("somePath")), Is.<Action>is(new HttpResponse().withBody("thirdBody")));
+        assertThat(mockServerMatcher.retrieveAction(new HttpRequest().withMethod("GET").withPath("somePath")), Is.<Action>is(new HttpResponse().withBody("thirdBody")));
+    }
 }
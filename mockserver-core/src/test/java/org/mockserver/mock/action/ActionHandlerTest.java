@@ -1,5 +1,7 @@
 package org.mockserver.mock.action;
 
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.InjectMocks;
@@ -7,6 +9,9 @@ import org.mockito.Mock;
 import org.mockserver.filters.RequestLogFilter;
 import org.mockserver.model.*;
 
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.*;
@@ -81,10 +86,32 @@ public class ActionHandlerTest {
         verify(requestLogFilter, times(1)).onRequest(httpRequest);
     }
 
+    @Test
+    public void shouldProcessForwardActionAsynchronously() throws Exception {
+        // given
+        HttpForward httpForward = forward();
+        SettableFuture<HttpResponse> upstreamResponse = SettableFuture.create();
+        when(mockHttpForwardActionHandler.handleAsync(httpForward, httpRequest)).thenReturn(upstreamResponse);
+
+        // when
+        ListenableFuture<HttpResponse> actualHttpResponse = actionHandler.processForwardAction(httpForward, httpRequest);
+
+        // then - not complete until upstream responds
+        assertThat(actualHttpResponse.isDone(), is(false));
+        verify(requestLogFilter, times(1)).onRequest(httpRequest);
+
+        // when
+        upstreamResponse.set(httpResponse);
+
+        // then
+        assertThat(actualHttpResponse.get(), is(httpResponse));
+        verify(requestLogFilter, times(1)).onResponse(httpRequest, httpResponse);
+    }
+
     @Test
     public void shouldProcessResponseAction() {
         // given
-        when(mockHttpResponseActionHandler.handle(httpResponse)).thenReturn(httpResponse);
+        when(mockHttpResponseActionHandler.handle(httpResponse, true)).thenReturn(httpResponse);
 
         // when
         HttpResponse actualHttpResponse = actionHandler.processAction(httpResponse, httpRequest);
@@ -107,4 +134,29 @@ public class ActionHandlerTest {
         assertThat(actualHttpResponse, is(httpResponse));
         verify(requestLogFilter, times(1)).onRequest(httpRequest);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldNotApplyDelayWhenCallerDelaysResponse() {
+        // given
+        HttpResponse delayedHttpResponse = response("some_body").withDelay(TimeUnit.SECONDS, 5);
+        long start = System.currentTimeMillis();
+
+        // when
+        HttpResponse actualHttpResponse = new ActionHandler(new RequestLogFilter(), false).processAction(delayedHttpResponse, httpRequest);
+
+        // then
+        assertThat(actualHttpResponse.getBodyAsString(), is("some_body"));
+        assertThat(System.currentTimeMillis() - start < TimeUnit.SECONDS.toMillis(5), is(true));
+    }
+
+    @Test
+    public void shouldReturnDelayForAction() {
+        assertThat(ActionHandler.getDelay(response().withDelay(TimeUnit.SECONDS, 1)), is(new Delay(TimeUnit.SECONDS, 1)));
+        assertThat(ActionHandler.getDelay(template(HttpTemplate.TemplateType.JAVASCRIPT, "").withDelay(TimeUnit.SECONDS, 2)), is(new Delay(TimeUnit.SECONDS, 2)));
+        assertThat(ActionHandler.getDelay(HttpError.error().withDelay(TimeUnit.SECONDS, 3)), is(new Delay(TimeUnit.SECONDS, 3)));
+        assertThat(ActionHandler.getDelay(response().withDelay(TimeUnit.SECONDS, 0)), nullValue());
+        assertThat(ActionHandler.getDelay(response()), nullValue());
+        assertThat(ActionHandler.getDelay(forward()), nullValue());
+        assertThat(ActionHandler.getDelay(null), nullValue());
+    }
+}
@@ -1,14 +1,22 @@
 package org.mockserver.mock.action;
 
+import org.junit.Before;
 import org.junit.Test;
 import org.mockserver.model.HttpClassCallback;
 import org.mockserver.model.HttpRequest;
 import org.mockserver.model.HttpResponse;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
 import static org.mockserver.model.HttpClassCallback.callback;
 import static org.mockserver.model.HttpRequest.request;
+import static org.mockserver.model.HttpResponse.notFoundResponse;
 import static org.mockserver.model.HttpResponse.response;
 
 /**
@@ -16,6 +24,13 @@ import static org.mockserver.model.HttpResponse.response;
  */
 public class HttpCallbackActionHandlerTest {
 
+    @Before
+    public void clearCallbackCache() {
+        // singletons are shared by every handler so start each test without any
+        HttpCallbackActionHandler.clearCallbackCache();
+        ConstructorCountingSingletonCallback.instances.set(0);
+    }
+
     @Test
     public void shouldHandleHttpRequests() {
         // given
@@ -28,6 +43,113 @@ public class HttpCallbackActionHandlerTest {
         assertThat(actualHttpResponse, is(response("some_body")));
     }
 
+    @Test
+    public void shouldCreateNewCallbackForEachRequest() {
+        // given
+        HttpClassCallback httpClassCallback = callback("org.mockserver.mock.action.HttpCallbackActionHandlerTest$CountingCallback");
+        HttpCallbackActionHandler httpCallbackActionHandler = new HttpCallbackActionHandler();
+
+        // when
+        httpCallbackActionHandler.handle(httpClassCallback, request());
+        HttpResponse actualHttpResponse = httpCallbackActionHandler.handle(httpClassCallback, request());
+
+        // then
+        assertThat(actualHttpResponse, is(response("1")));
+    }
+
+    @Test
+    public void shouldReuseSingletonCallback() {
+        // given
+        HttpClassCallback httpClassCallback = callback("org.mockserver.mock.action.HttpCallbackActionHandlerTest$CountingSingletonCallback");
+
+        // when
+        new HttpCallbackActionHandler().handle(httpClassCallback, request());
+        HttpResponse actualHttpResponse = new HttpCallbackActionHandler().handle(httpClassCallback, request());
+
+        // then
+        assertThat(actualHttpResponse, is(response("2")));
+    }
+
+    @Test
+    public void shouldOnlyCreateSingletonCallbackOnceWhenRequestsRace() throws InterruptedException {
+        // given
+        final HttpClassCallback httpClassCallback = callback("org.mockserver.mock.action.HttpCallbackActionHandlerTest$ConstructorCountingSingletonCallback");
+        ExecutorService executorService = Executors.newFixedThreadPool(10);
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final CountDownLatch finishedLatch = new CountDownLatch(10);
+
+        // when
+        for (int i = 0; i < 10; i++) {
+            executorService.submit(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        startLatch.await();
+                        new HttpCallbackActionHandler().handle(httpClassCallback, request());
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        finishedLatch.countDown();
+                    }
+                }
+            });
+        }
+        startLatch.countDown();
+        assertThat(finishedLatch.await(10, TimeUnit.SECONDS), is(true));
+        executorService.shutdown();
+
+        // then
+        assertThat(ConstructorCountingSingletonCallback.instances.get(), is(1));
+    }
+
+    @Test
+    public void shouldReturnNotFoundForUnknownCallbackClass() {
+        // given
+        HttpClassCallback httpClassCallback = callback("org.mockserver.mock.action.HttpCallbackActionHandlerTest$UnknownCallback");
+
+        // when
+        HttpResponse actualHttpResponse = new HttpCallbackActionHandler().handle(httpClassCallback, request());
+
+        // then
+        assertThat(actualHttpResponse, is(notFoundResponse()));
+    }
+
+    public static class CountingCallback implements ExpectationCallback {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public HttpResponse handle(HttpRequest httpRequest) {
+            return response("" + count.incrementAndGet());
+        }
+    }
+
+    public static class CountingSingletonCallback implements SingletonExpectationCallback {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public HttpResponse handle(HttpRequest httpRequest) {
+            return response("" + count.incrementAndGet());
+        }
+    }
+
+    public static class ConstructorCountingSingletonCallback implements SingletonExpectationCallback {
+
+        static final AtomicInteger instances = new AtomicInteger();
+
+        public ConstructorCountingSingletonCallback() throws InterruptedException {
+            instances.incrementAndGet();
+            // widen the window for racing requests to construct a second instance
+            TimeUnit.MILLISECONDS.sleep(50);
+        }
+
+        @Override
+        public HttpResponse handle(HttpRequest httpRequest) {
+            return response();
+        }
+    }
+
     public static class TestCallback implements ExpectationCallback {
 
         @Override
@@ -1,18 +1,26 @@
 package org.mockserver.mock.action;
 
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockserver.client.netty.NettyHttpClient;
+import org.mockserver.client.netty.SocketConnectionException;
 import org.mockserver.filters.RequestLogFilter;
 import org.mockserver.model.HttpForward;
 import org.mockserver.model.HttpRequest;
+import org.mockserver.model.HttpResponse;
 
 import java.net.InetSocketAddress;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.core.Is.is;
 import static org.mockito.Mockito.*;
 import static org.mockito.MockitoAnnotations.initMocks;
+import static org.mockserver.model.HttpResponse.response;
 
 /**
  * @author jamesdbloom
@@ -60,4 +68,32 @@ public class HttpForwardActionHandlerTest {
         verify(httpRequest).withSecure(true);
         verify(mockHttpClient).sendRequest(httpRequest, new InetSocketAddress(httpForward.getHost(), httpForward.getPort()));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldHandleHttpRequestsAsynchronously() throws Exception {
+        // given
+        when(httpForward.getScheme()).thenReturn(HttpForward.Scheme.HTTP);
+        when(mockHttpClient.sendRequestAsync(httpRequest, new InetSocketAddress(httpForward.getHost(), httpForward.getPort()))).thenReturn(Futures.immediateFuture(response("some_body")));
+
+        // when
+        ListenableFuture<HttpResponse> httpResponse = httpForwardActionHandler.handleAsync(httpForward, httpRequest);
+
+        // then
+        verify(httpRequest).withSecure(false);
+        assertThat(httpResponse.get(), is(response("some_body")));
+    }
+
+    @Test
+    public void shouldReturnNullResponseWhenAsynchronousForwardFails() throws Exception {
+        // given
+        when(httpForward.getScheme()).thenReturn(HttpForward.Scheme.HTTPS);
+        when(mockHttpClient.sendRequestAsync(httpRequest, new InetSocketAddress(httpForward.getHost(), httpForward.getPort()))).thenReturn(Futures.<HttpResponse>immediateFailedFuture(new SocketConnectionException("Unable to connect to socket", null)));
+
+        // when
+        ListenableFuture<HttpResponse> httpResponse = httpForwardActionHandler.handleAsync(httpForward, httpRequest);
+
+        // then
+        verify(httpRequest).withSecure(true);
+        assertThat(httpResponse.get(), nullValue());
+    }
+}
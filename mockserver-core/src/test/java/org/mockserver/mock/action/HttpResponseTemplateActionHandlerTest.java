@@ -4,8 +4,13 @@ import org.junit.Test;
 import org.mockserver.model.HttpResponse;
 import org.mockserver.model.HttpTemplate;
 
-import javax.script.ScriptEngine;
 import javax.script.ScriptEngineManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
@@ -91,6 +96,72 @@ public class HttpResponseTemplateActionHandlerTest {
         }
     }
 
+    @Test
+    public void shouldHandleHttpRequestsWithJavaScriptTemplateReturningHeaders() {
+        // given
+        HttpTemplate template = template(HttpTemplate.TemplateType.JAVASCRIPT, "return {" + NEW_LINE +
+                "    'statusCode': 200," + NEW_LINE +
+                "    'headers': [ { 'name': 'requestPath', 'values': [ request.path ] } ]," + NEW_LINE +
+                "    'body': request.body" + NEW_LINE +
+                "};");
+
+        // when
+        HttpResponse actualHttpResponse = new HttpResponseTemplateActionHandler().handle(template, request()
+                .withPath("/somePath")
+                .withBody("some_body")
+        );
+
+        // then
+        if (new ScriptEngineManager().getEngineByName("nashorn") != null) {
+            assertThat(actualHttpResponse, is(
+                    response()
+                            .withStatusCode(200)
+                            .withHeader("requestPath", "/somePath")
+                            .withBody("some_body")
+            ));
+        } else {
+            assertThat(actualHttpResponse, is(
+                    notFoundResponse()
+            ));
+        }
+    }
+
+    @Test
+    public void shouldHandleConcurrentHttpRequestsWithSameJavaScriptTemplate() throws Exception {
+        // given
+        final HttpTemplate template = template(HttpTemplate.TemplateType.JAVASCRIPT, "return {" + NEW_LINE +
+                "    'statusCode': 200," + NEW_LINE +
+                "    'body': request.path" + NEW_LINE +
+                "};");
+        final HttpResponseTemplateActionHandler httpResponseTemplateActionHandler = new HttpResponseTemplateActionHandler();
+        ExecutorService executorService = Executors.newFixedThreadPool(5);
+        List<Future<HttpResponse>> responses = new ArrayList<Future<HttpResponse>>();
+
+        // when
+        for (int i = 0; i < 50; i++) {
+            final String path = "/somePath" + i;
+            responses.add(executorService.submit(new Callable<HttpResponse>() {
+                @Override
+                public HttpResponse call() {
+                    return httpResponseTemplateActionHandler.handle(template, request().withPath(path));
+                }
+            }));
+        }
+
+        // then
+        try {
+            for (int i = 0; i < responses.size(); i++) {
+                if (new ScriptEngineManager().getEngineByName("nashorn") != null) {
+                    assertThat(responses.get(i).get(), is(response().withStatusCode(200).withBody("/somePath" + i)));
+                } else {
+                    assertThat(responses.get(i).get(), is(notFoundResponse()));
+                }
+            }
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
     @Test
     public void shouldHandleHttpRequestsWithVelocityTemplateFirstExample() {
         // given
@@ -150,4 +221,36 @@ public class HttpResponseTemplateActionHandlerTest {
         ));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void shouldHandleConcurrentHttpRequestsWithSameVelocityTemplate() throws Exception {
+        // given
+        final HttpTemplate template = template(HttpTemplate.TemplateType.VELOCITY, "{" + NEW_LINE +
+                "    'statusCode': 200," + NEW_LINE +
+                "    'body': \"$!request.path\"" + NEW_LINE +
+                "}");
+        final HttpResponseTemplateActionHandler httpResponseTemplateActionHandler = new HttpResponseTemplateActionHandler();
+        ExecutorService executorService = Executors.newFixedThreadPool(5);
+        List<Future<HttpResponse>> responses = new ArrayList<Future<HttpResponse>>();
+
+        // when
+        for (int i = 0; i < 50; i++) {
+            final String path = "/somePath" + i;
+            responses.add(executorService.submit(new Callable<HttpResponse>() {
+                @Override
+                public HttpResponse call() {
+                    return httpResponseTemplateActionHandler.handle(template, request().withPath(path));
+                }
+            }));
+        }
+
+        // then
+        try {
+            for (int i = 0; i < responses.size(); i++) {
+                assertThat(responses.get(i).get(), is(response().withStatusCode(200).withBody("/somePath" + i)));
+            }
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+}
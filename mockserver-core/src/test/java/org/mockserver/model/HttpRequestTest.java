@@ -80,6 +80,12 @@ public class HttpRequestTest {
         assertEquals("value1", new HttpRequest().withHeaders(new Header("name", "value1", "value2"), new Header("name", "value3")).getFirstHeader("name"));
     }
 
+    @Test
+    public void returnsFirstQueryStringParameter() {
+        assertEquals("value1", new HttpRequest().withQueryStringParameter("name", "value1", "value2").getFirstQueryStringParameter("name"));
+        assertEquals("", new HttpRequest().withQueryStringParameter("name", "value1").getFirstQueryStringParameter("other"));
+    }
+
     @Test
     public void returnsCookies() {
         assertEquals(new Cookie("name", "value"), new HttpRequest().withCookies(new Cookie("name", "value")).getCookies().get(0));
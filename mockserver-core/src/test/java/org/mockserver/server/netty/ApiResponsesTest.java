@@ -0,0 +1,51 @@
+package org.mockserver.server.netty;
+
+import org.junit.Test;
+import org.mockserver.model.HttpResponse;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.mockserver.configuration.ConfigurationProperties.maxVerificationTimeout;
+import static org.mockserver.model.HttpRequest.request;
+
+/**
+ * @author jamesdbloom
+ */
+public class ApiResponsesTest {
+
+    @Test
+    public void shouldReturnZeroVerificationTimeoutWhenNotSpecified() {
+        assertThat(ApiResponses.verificationTimeout(request()), is(0L));
+    }
+
+    @Test
+    public void shouldLimitVerificationTimeoutToMaximum() {
+        assertThat(ApiResponses.verificationTimeout(request().withQueryStringParameter("timeout", "10")), is(10L));
+        assertThat(ApiResponses.verificationTimeout(request().withQueryStringParameter("timeout", String.valueOf(Long.MAX_VALUE))), is(maxVerificationTimeout()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectVerificationTimeoutThatIsNotANumber() {
+        ApiResponses.verificationTimeout(request().withQueryStringParameter("timeout", "soon"));
+    }
+
+    @Test
+    public void shouldReturnAcceptedWhenVerificationPasses() {
+        // when
+        HttpResponse response = ApiResponses.verifyResponse("");
+
+        // then
+        assertThat(response.getStatusCode(), is(202));
+    }
+
+    @Test
+    public void shouldReturnFailureMessageWhenVerificationFails() {
+        // when
+        HttpResponse response = ApiResponses.verifyResponse("Request not found");
+
+        // then
+        assertThat(response.getStatusCode(), is(406));
+        assertThat(response.getBodyAsString(), is("Request not found"));
+        assertThat(response.getFirstHeader("Content-Type"), is("text/plain; charset=utf-8"));
+    }
+}
@@ -0,0 +1,108 @@
+package org.mockserver.server.netty;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * @author jamesdbloom
+ */
+public class PipelinedRequestsTest {
+
+    @Test
+    public void shouldWriteResponsesInRequestOrderWhenEarlierResponseIsAsynchronous() {
+        // given
+        RespondingHandler respondingHandler = new RespondingHandler();
+        EmbeddedChannel embeddedChannel = new EmbeddedChannel(respondingHandler);
+
+        // when
+        embeddedChannel.writeInbound("async_one", "sync_two", "sync_three");
+
+        // then - later requests wait for the outstanding response
+        assertThat(embeddedChannel.readOutbound(), is(nullValue()));
+        assertThat(embeddedChannel.config().isAutoRead(), is(false));
+
+        // when
+        respondingHandler.respondToOutstanding();
+
+        // then
+        assertThat((String) embeddedChannel.readOutbound(), is("async_one_response"));
+        assertThat((String) embeddedChannel.readOutbound(), is("sync_two_response"));
+        assertThat((String) embeddedChannel.readOutbound(), is("sync_three_response"));
+        assertThat(embeddedChannel.config().isAutoRead(), is(true));
+        assertThat(embeddedChannel.finish(), is(false));
+    }
+
+    @Test
+    public void shouldStopHandlingQueuedRequestsAtNextAsynchronousResponse() {
+        // given
+        RespondingHandler respondingHandler = new RespondingHandler();
+        EmbeddedChannel embeddedChannel = new EmbeddedChannel(respondingHandler);
+        embeddedChannel.writeInbound("async_one", "sync_two", "async_three", "sync_four");
+
+        // when
+        respondingHandler.respondToOutstanding();
+
+        // then
+        assertThat((String) embeddedChannel.readOutbound(), is("async_one_response"));
+        assertThat((String) embeddedChannel.readOutbound(), is("sync_two_response"));
+        assertThat(embeddedChannel.readOutbound(), is(nullValue()));
+        assertThat(embeddedChannel.config().isAutoRead(), is(false));
+
+        // when
+        respondingHandler.respondToOutstanding();
+
+        // then
+        assertThat((String) embeddedChannel.readOutbound(), is("async_three_response"));
+        assertThat((String) embeddedChannel.readOutbound(), is("sync_four_response"));
+        assertThat(embeddedChannel.config().isAutoRead(), is(true));
+        assertThat(embeddedChannel.finish(), is(false));
+    }
+
+    @Test
+    public void shouldHandleRequestsImmediatelyWhenNoResponseOutstanding() {
+        // given
+        EmbeddedChannel embeddedChannel = new EmbeddedChannel(new RespondingHandler());
+
+        // when
+        embeddedChannel.writeInbound("sync_one", "sync_two");
+
+        // then
+        assertThat((String) embeddedChannel.readOutbound(), is("sync_one_response"));
+        assertThat((String) embeddedChannel.readOutbound(), is("sync_two_response"));
+        assertThat(embeddedChannel.config().isAutoRead(), is(true));
+        assertThat(embeddedChannel.finish(), is(false));
+    }
+
+    private static class RespondingHandler extends SimpleChannelInboundHandler<String> {
+        private final List<String> outstandingRequests = new ArrayList<String>();
+        private ChannelHandlerContext ctx;
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, String request) {
+            if (PipelinedRequests.queueIfResponseOutstanding(ctx, this, request)) {
+                return;
+            }
+            if (request.startsWith("async")) {
+                this.ctx = ctx;
+                outstandingRequests.add(request);
+                PipelinedRequests.awaitResponse(ctx);
+            } else {
+                ctx.writeAndFlush(request + "_response");
+            }
+        }
+
+        void respondToOutstanding() {
+            ctx.writeAndFlush(outstandingRequests.remove(0) + "_response");
+            PipelinedRequests.responded(ctx);
+        }
+    }
+}
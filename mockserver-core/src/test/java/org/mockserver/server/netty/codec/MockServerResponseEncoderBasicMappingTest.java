@@ -163,4 +163,39 @@ public class MockServerResponseEncoderBasicMappingTest {
         assertThat(fullHttpResponse.content().toString(ContentTypeMapper.DEFAULT_HTTP_CHARACTER_SET), is(""));
     }
 
+    @Test
+    public void shouldEncodeStaticResponseOnceAndReturnIndependentDuplicates() {
+        // given
+        httpResponse.withStatusCode(201).withHeader("headerName", "headerValue").withBody("somebody");
+
+        // when
+        FullHttpResponse firstResponse = mockServerResponseEncoder.encodeStaticResponse(httpResponse);
+        firstResponse.headers().set("Connection", "close");
+        firstResponse.content().readerIndex(firstResponse.content().writerIndex());
+        firstResponse.release();
+        FullHttpResponse secondResponse = mockServerResponseEncoder.encodeStaticResponse(httpResponse);
+
+        // then
+        assertThat(secondResponse.status().code(), is(201));
+        assertThat(secondResponse.headers().getAll("headerName"), containsInAnyOrder("headerValue"));
+        assertThat(secondResponse.headers().contains("Connection"), is(false));
+        assertThat(secondResponse.content().toString(ContentTypeMapper.DEFAULT_HTTP_CHARACTER_SET), is("somebody"));
+        assertThat(secondResponse.headers().get(CONTENT_LENGTH), is("8"));
+    }
+
+    @Test
+    public void shouldEncodeStaticResponseWhenPrimed() {
+        // given
+        httpResponse.withStatusCode(201).withBody("somebody");
+
+        // when
+        mockServerResponseEncoder.prime(httpResponse);
+        httpResponse.withBody("changed after being primed");
+
+        // then - the response encoded when primed is reused
+        FullHttpResponse encodedResponse = mockServerResponseEncoder.encodeStaticResponse(httpResponse);
+        assertThat(encodedResponse.content().toString(ContentTypeMapper.DEFAULT_HTTP_CHARACTER_SET), is("somebody"));
+        encodedResponse.release();
+    }
+
 }
@@ -0,0 +1,136 @@
+package org.mockserver.server.netty.codec;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.*;
+import org.junit.Test;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static io.netty.handler.codec.http.HttpHeaderNames.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * @author jamesdbloom
+ */
+public class SpillingHttpObjectAggregatorTest {
+
+    private static DefaultHttpRequest chunkedRequest() {
+        DefaultHttpRequest request = new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/somePath");
+        request.headers().set(TRANSFER_ENCODING, HttpHeaderValues.CHUNKED);
+        request.headers().set("someHeader", "someValue");
+        return request;
+    }
+
+    @Test
+    public void shouldAggregateContentInMemoryBelowThreshold() {
+        // given
+        EmbeddedChannel embeddedChannel = new EmbeddedChannel(new SpillingHttpObjectAggregator(1024, 16));
+
+        // when
+        embeddedChannel.writeInbound(chunkedRequest());
+        embeddedChannel.writeInbound(new DefaultHttpContent(Unpooled.copiedBuffer("some_", UTF_8)));
+        embeddedChannel.writeInbound(new DefaultLastHttpContent(Unpooled.copiedBuffer("body", UTF_8)));
+
+        // then
+        FullHttpRequest fullHttpRequest = embeddedChannel.readInbound();
+        assertThat(fullHttpRequest.uri(), is("/somePath"));
+        assertThat(fullHttpRequest.headers().get("someHeader"), is("someValue"));
+        assertThat(fullHttpRequest.headers().get(CONTENT_LENGTH), is("9"));
+        assertThat(fullHttpRequest.headers().contains(TRANSFER_ENCODING), is(false));
+        assertThat(fullHttpRequest.content().toString(UTF_8), is("some_body"));
+        assertThat(fullHttpRequest.content().isDirect(), is(false));
+        fullHttpRequest.release();
+    }
+
+    @Test
+    public void shouldSpillContentAboveThreshold() {
+        // given
+        EmbeddedChannel embeddedChannel = new EmbeddedChannel(new SpillingHttpObjectAggregator(1024, 8));
+
+        // when
+        embeddedChannel.writeInbound(chunkedRequest());
+        embeddedChannel.writeInbound(new DefaultHttpContent(Unpooled.copiedBuffer("some_", UTF_8)));
+        embeddedChannel.writeInbound(new DefaultHttpContent(Unpooled.copiedBuffer("larger_", UTF_8)));
+        LastHttpContent lastHttpContent = new DefaultLastHttpContent(Unpooled.copiedBuffer("body", UTF_8));
+        lastHttpContent.trailingHeaders().set("someTrailer", "someValue");
+        embeddedChannel.writeInbound(lastHttpContent);
+
+        // then
+        FullHttpRequest fullHttpRequest = embeddedChannel.readInbound();
+        assertThat(fullHttpRequest.headers().get(CONTENT_LENGTH), is("16"));
+        assertThat(fullHttpRequest.trailingHeaders().get("someTrailer"), is("someValue"));
+        assertThat(fullHttpRequest.content().toString(UTF_8), is("some_larger_body"));
+        assertThat(fullHttpRequest.content().isDirect(), is(true));
+        fullHttpRequest.release();
+    }
+
+    @Test
+    public void shouldPassThroughFullRequest() {
+        // given
+        EmbeddedChannel embeddedChannel = new EmbeddedChannel(new SpillingHttpObjectAggregator(1024, 8));
+        FullHttpRequest fullHttpRequest = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, "/somePath", Unpooled.copiedBuffer("some_body", UTF_8));
+
+        // when
+        embeddedChannel.writeInbound(fullHttpRequest);
+
+        // then
+        assertThat(embeddedChannel.readInbound(), is((Object) fullHttpRequest));
+        fullHttpRequest.release();
+    }
+
+    @Test
+    public void shouldRejectRequestLargerThanMaximumSize() {
+        // given
+        EmbeddedChannel embeddedChannel = new EmbeddedChannel(new SpillingHttpObjectAggregator(8, 4));
+
+        // when
+        embeddedChannel.writeInbound(chunkedRequest());
+        embeddedChannel.writeInbound(new DefaultHttpContent(Unpooled.copiedBuffer("some_", UTF_8)));
+        embeddedChannel.writeInbound(new DefaultLastHttpContent(Unpooled.copiedBuffer("body", UTF_8)));
+
+        // then
+        assertThat(embeddedChannel.readInbound(), is(nullValue()));
+        FullHttpResponse response = embeddedChannel.readOutbound();
+        assertThat(response.status(), is(HttpResponseStatus.REQUEST_ENTITY_TOO_LARGE));
+        assertThat(embeddedChannel.isOpen(), is(false));
+    }
+
+    @Test
+    public void shouldRejectRequestWithContentLengthLargerThanMaximumSize() {
+        // given
+        EmbeddedChannel embeddedChannel = new EmbeddedChannel(new SpillingHttpObjectAggregator(8, 4));
+        DefaultHttpRequest request = new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/somePath");
+        request.headers().set(CONTENT_LENGTH, 9);
+
+        // when
+        embeddedChannel.writeInbound(request);
+
+        // then
+        FullHttpResponse response = embeddedChannel.readOutbound();
+        assertThat(response.status(), is(HttpResponseStatus.REQUEST_ENTITY_TOO_LARGE));
+        assertThat(embeddedChannel.isOpen(), is(false));
+    }
+
+    @Test
+    public void shouldSendContinueWhenExpected() {
+        // given
+        EmbeddedChannel embeddedChannel = new EmbeddedChannel(new SpillingHttpObjectAggregator(1024, 8));
+        DefaultHttpRequest request = new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/somePath");
+        request.headers().set(CONTENT_LENGTH, 9);
+        request.headers().set(EXPECT, HttpHeaderValues.CONTINUE);
+
+        // when
+        embeddedChannel.writeInbound(request);
+        embeddedChannel.writeInbound(new DefaultLastHttpContent(Unpooled.copiedBuffer("some_body", UTF_8)));
+
+        // then
+        FullHttpResponse response = embeddedChannel.readOutbound();
+        assertThat(response.status(), is(HttpResponseStatus.CONTINUE));
+        FullHttpRequest fullHttpRequest = embeddedChannel.readInbound();
+        assertThat(fullHttpRequest.headers().contains(EXPECT), is(false));
+        assertThat(fullHttpRequest.content().toString(UTF_8), is("some_body"));
+        fullHttpRequest.release();
+    }
+}
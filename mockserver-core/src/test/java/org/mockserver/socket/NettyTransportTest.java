@@ -0,0 +1,90 @@
+package org.mockserver.socket;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import org.junit.Assume;
+import org.junit.Test;
+import org.mockserver.configuration.ConfigurationProperties;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsInstanceOf.instanceOf;
+
+/**
+ * @author jamesdbloom
+ */
+public class NettyTransportTest {
+
+    @Test
+    public void shouldUseNioTransportWhenNativeTransportDisabled() {
+        // given
+        boolean originalNativeTransport = ConfigurationProperties.nativeTransport();
+        ConfigurationProperties.nativeTransport(false);
+        EventLoopGroup eventLoopGroup = null;
+
+        try {
+            // when
+            eventLoopGroup = NettyTransport.eventLoopGroup(1);
+
+            // then
+            assertThat(eventLoopGroup, instanceOf(NioEventLoopGroup.class));
+            assertThat(NettyTransport.serverSocketChannelClass(eventLoopGroup).equals(NioServerSocketChannel.class), is(true));
+            assertThat(NettyTransport.socketChannelClass(eventLoopGroup.next()).equals(NioSocketChannel.class), is(true));
+        } finally {
+            ConfigurationProperties.nativeTransport(originalNativeTransport);
+            if (eventLoopGroup != null) {
+                eventLoopGroup.shutdownGracefully();
+            }
+        }
+    }
+
+    @Test
+    public void shouldBindSingleAcceptorWithoutNativeTransport() {
+        // given
+        boolean originalSocketReusePort = ConfigurationProperties.socketReusePort();
+        int originalBossThreadCount = ConfigurationProperties.bossThreadCount();
+        ConfigurationProperties.socketReusePort(true);
+        ConfigurationProperties.bossThreadCount(4);
+        EventLoopGroup bossGroup = new NioEventLoopGroup(4);
+
+        try {
+            // when
+            int acceptorCount = NettyTransport.reusePortAcceptorCount(bossGroup);
+
+            // then - SO_REUSEPORT is only supported by the native transport
+            assertThat(acceptorCount, is(1));
+        } finally {
+            ConfigurationProperties.socketReusePort(originalSocketReusePort);
+            ConfigurationProperties.bossThreadCount(originalBossThreadCount);
+            bossGroup.shutdownGracefully();
+        }
+    }
+
+    @Test
+    public void shouldBindAcceptorPerBossEventLoopWhenBossThreadCountIsNettyDefault() {
+        Assume.assumeTrue(Epoll.isAvailable());
+
+        // given
+        boolean originalSocketReusePort = ConfigurationProperties.socketReusePort();
+        int originalBossThreadCount = ConfigurationProperties.bossThreadCount();
+        ConfigurationProperties.socketReusePort(true);
+        ConfigurationProperties.bossThreadCount(0);
+        EventLoopGroup bossGroup = new EpollEventLoopGroup(3);
+
+        try {
+            // when
+            int acceptorCount = NettyTransport.reusePortAcceptorCount(bossGroup);
+
+            // then - the size of the boss group, not the configured thread count
+            assertThat(acceptorCount, is(3));
+        } finally {
+            ConfigurationProperties.socketReusePort(originalSocketReusePort);
+            ConfigurationProperties.bossThreadCount(originalBossThreadCount);
+            bossGroup.shutdownGracefully();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package org.mockserver.validator.jsonschema;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -70,6 +71,30 @@ public class JsonSchemaValidatorTest {
         assertThat(new JsonSchemaValidator(JSON_SCHEMA).isValid("{arrayField: [ \"one\" ], enumField: \"one\"}"), is(""));
     }
 
+    @Test
+    public void shouldMatchParsedJson() throws Exception {
+        // given
+        JsonSchemaValidator jsonSchemaValidator = new JsonSchemaValidator(JSON_SCHEMA);
+
+        // then
+        assertThat(jsonSchemaValidator.isValid(new ObjectMapper().readTree("{\"arrayField\": [ \"one\" ], \"enumField\": \"one\"}")), is(""));
+        assertThat(jsonSchemaValidator.isValid(new ObjectMapper().readTree("{}")), is("1 error:" + NEW_LINE +
+                " - object has missing required properties ([\"arrayField\",\"enumField\"])"));
+    }
+
+    @Test
+    public void shouldShareCompiledSchemaBetweenValidators() {
+        // when
+        JsonSchemaValidator first = new JsonSchemaValidator(JSON_SCHEMA);
+        JsonSchemaValidator second = new JsonSchemaValidator(JSON_SCHEMA);
+
+        // then
+        assertThat(first.isValid("{arrayField: [ \"one\" ], enumField: \"one\"}"), is(""));
+        assertThat(second.isValid("{arrayField: [ \"one\" ], enumField: \"one\"}"), is(""));
+        assertThat(second.isValid("{}"), is("1 error:" + NEW_LINE +
+                " - object has missing required properties ([\"arrayField\",\"enumField\"])"));
+    }
+
     @Test
     public void shouldHandleJsonMissingRequiredFields() {
         // then
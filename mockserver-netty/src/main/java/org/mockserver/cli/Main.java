@@ -3,6 +3,7 @@ package org.mockserver.cli;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Joiner;
 import com.google.common.base.Strings;
+import org.mockserver.configuration.ConfigurationProperties;
 import org.mockserver.configuration.IntegerStringListParser;
 import org.mockserver.mockserver.MockServerBuilder;
 import org.mockserver.proxy.ProxyBuilder;
@@ -23,8 +24,11 @@ public class Main {
     public static final String PROXY_PORT_KEY = "proxyPort";
     public static final String PROXY_REMOTE_PORT_KEY = "proxyRemotePort";
     public static final String PROXY_REMOTE_HOST_KEY = "proxyRemoteHost";
+    public static final String NATIVE_TRANSPORT_KEY = "nativeTransport";
+    public static final String BOSS_THREAD_COUNT_KEY = "bossThreadCount";
+    public static final String WORKER_THREAD_COUNT_KEY = "workerThreadCount";
     public static final String USAGE = "" +
-            "   java -jar <path to mockserver-jetty-jar-with-dependencies.jar> [-serverPort <port>] [-proxyPort <port>] [-proxyRemotePort <port>] [-proxyRemoteHost <hostname>]" + NEW_LINE +
+            "   java -jar <path to mockserver-jetty-jar-with-dependencies.jar> [-serverPort <port>] [-proxyPort <port>] [-proxyRemotePort <port>] [-proxyRemoteHost <hostname>] [-nativeTransport <boolean>] [-bossThreadCount <count>] [-workerThreadCount <count>]" + NEW_LINE +
             "                                                                                       " + NEW_LINE +
             "     valid options are:                                                                " + NEW_LINE +
             "        -serverPort <port>           Specifies the HTTP and HTTPS port(s) for the      " + NEW_LINE +
@@ -50,6 +54,18 @@ public class Main {
             "                                     proxyRemotePort has been specified,               " + NEW_LINE +
             "                                     proxyRemoteHost will default to \"localhost\".    " + NEW_LINE +
             "                                                                                       " + NEW_LINE +
+            "        -nativeTransport <boolean>   Specifies if the native epoll transport           " + NEW_LINE +
+            "                                     should be used when available (i.e. on Linux)     " + NEW_LINE +
+            "                                     instead of the NIO transport, defaults to false.  " + NEW_LINE +
+            "                                                                                       " + NEW_LINE +
+            "        -bossThreadCount <count>     Specifies the number of threads accepting         " + NEW_LINE +
+            "                                     connections, defaults to 1, or to the number of   " + NEW_LINE +
+            "                                     processors when SO_REUSEPORT is enabled.          " + NEW_LINE +
+            "                                                                                       " + NEW_LINE +
+            "        -workerThreadCount <count>   Specifies the number of threads handling          " + NEW_LINE +
+            "                                     connections, defaults to twice the number of      " + NEW_LINE +
+            "                                     processors.                                       " + NEW_LINE +
+            "                                                                                       " + NEW_LINE +
             "   i.e. java -jar ./mockserver-jetty-jar-with-dependencies.jar -serverPort 1080 -proxyPort 1090 -proxyRemotePort 80 -proxyRemoteHost www.mock-server.com" + NEW_LINE +
             "                                                                                       " + NEW_LINE;
 
@@ -76,6 +92,9 @@ public class Main {
      *                  - "-proxyPort"        followed by the proxy           port if not provided the Proxy is not started,
      *                  - "-proxyRemotePort"  followed by the proxyRemotePort port,
      *                  - "-proxyRemoteHost"  followed by the proxyRemoteHost port
+     *                  - "-nativeTransport"   followed by true to use the native epoll transport when available
+     *                  - "-bossThreadCount"   followed by the number of threads accepting connections
+     *                  - "-workerThreadCount" followed by the number of threads handling connections
      */
     public static void main(String... arguments) {
         usagePrinted = false;
@@ -88,6 +107,15 @@ public class Main {
         }
 
         if (parsedArguments.size() > 0 && validateArguments(parsedArguments)) {
+            if (parsedArguments.containsKey(NATIVE_TRANSPORT_KEY)) {
+                ConfigurationProperties.nativeTransport(Boolean.parseBoolean(parsedArguments.get(NATIVE_TRANSPORT_KEY)));
+            }
+            if (parsedArguments.containsKey(BOSS_THREAD_COUNT_KEY)) {
+                ConfigurationProperties.bossThreadCount(Integer.parseInt(parsedArguments.get(BOSS_THREAD_COUNT_KEY)));
+            }
+            if (parsedArguments.containsKey(WORKER_THREAD_COUNT_KEY)) {
+                ConfigurationProperties.workerThreadCount(Integer.parseInt(parsedArguments.get(WORKER_THREAD_COUNT_KEY)));
+            }
             if (parsedArguments.containsKey(SERVER_PORT_KEY)) {
                 mockServerBuilder.withStopEventQueue(stopEventQueue).withHTTPPort(INTEGER_STRING_LIST_PARSER.toArray(parsedArguments.get(SERVER_PORT_KEY))).build();
             }
@@ -113,6 +141,9 @@ public class Main {
         validatePortArgument(parsedArguments, PROXY_PORT_KEY, errorMessages);
         validatePortArgument(parsedArguments, PROXY_REMOTE_PORT_KEY, errorMessages);
         validateHostnameArgument(parsedArguments, PROXY_REMOTE_HOST_KEY, errorMessages);
+        validateBooleanArgument(parsedArguments, NATIVE_TRANSPORT_KEY, errorMessages);
+        validateCountArgument(parsedArguments, BOSS_THREAD_COUNT_KEY, errorMessages);
+        validateCountArgument(parsedArguments, WORKER_THREAD_COUNT_KEY, errorMessages);
 
         if (!errorMessages.isEmpty()) {
             int maxLengthMessage = 0;
@@ -143,6 +174,18 @@ public class Main {
         }
     }
 
+    private static void validateBooleanArgument(Map<String, String> parsedArguments, String argumentKey, List<String> errorMessages) {
+        if (parsedArguments.containsKey(argumentKey) && !parsedArguments.get(argumentKey).matches("^(true|false)$")) {
+            errorMessages.add(argumentKey + " value \"" + parsedArguments.get(argumentKey) + "\" is invalid, please specify either \"true\" or \"false\"");
+        }
+    }
+
+    private static void validateCountArgument(Map<String, String> parsedArguments, String argumentKey, List<String> errorMessages) {
+        if (parsedArguments.containsKey(argumentKey) && !parsedArguments.get(argumentKey).matches("^[1-9]\\d*$")) {
+            errorMessages.add(argumentKey + " value \"" + parsedArguments.get(argumentKey) + "\" is invalid, please specify a number greater than zero i.e. \"4\"");
+        }
+    }
+
     private static void validateHostnameArgument(Map<String, String> parsedArguments, String argumentKey, List<String> errorMessages) {
         String validIpAddressRegex = "^(([0-9]|[1-9][0-9]|1[0-9]{2}|2[0-4][0-9]|25[0-5])\\.){3}([0-9]|[1-9][0-9]|1[0-9]{2}|2[0-4][0-9]|25[0-5])$";
         String validHostnameRegex = "^(([a-zA-Z0-9]|[a-zA-Z0-9][a-zA-Z0-9\\-]*[a-zA-Z0-9])\\.)*([A-Za-z0-9]|[A-Za-z0-9][A-Za-z0-9\\-]*[A-Za-z0-9])$";
@@ -161,13 +204,10 @@ public class Main {
                 if (!parsePort(parsedArguments, SERVER_PORT_KEY, argumentName, argumentValue)
                         && !parsePort(parsedArguments, PROXY_PORT_KEY, argumentName, argumentValue)
                         && !parsePort(parsedArguments, PROXY_REMOTE_PORT_KEY, argumentName, argumentValue)
-                        && !("-" + PROXY_REMOTE_HOST_KEY).equalsIgnoreCase(argumentName)) {
+                        && !parseOption(parsedArguments, argumentName, argumentValue, PROXY_REMOTE_HOST_KEY, NATIVE_TRANSPORT_KEY, BOSS_THREAD_COUNT_KEY, WORKER_THREAD_COUNT_KEY)) {
                     showUsage();
                     break;
                 }
-                if (("-" + PROXY_REMOTE_HOST_KEY).equalsIgnoreCase(argumentName)) {
-                    parsedArguments.put(PROXY_REMOTE_HOST_KEY, argumentValue);
-                }
             } else {
                 showUsage();
                 break;
@@ -184,6 +224,16 @@ public class Main {
         return false;
     }
 
+    private static boolean parseOption(Map<String, String> parsedArguments, final String argumentName, final String argumentValue, final String... keys) {
+        for (String key : keys) {
+            if (("-" + key).equalsIgnoreCase(argumentName)) {
+                parsedArguments.put(key, argumentValue);
+                return true;
+            }
+        }
+        return false;
+    }
+
     private static void showUsage() {
         if (!usagePrinted) {
             outputPrintStream.print(USAGE);
@@ -6,12 +6,15 @@ import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
+import org.mockserver.configuration.ConfigurationProperties;
+import org.mockserver.socket.NettyTransport;
 import org.mockserver.stop.StopEventQueue;
 import org.mockserver.stop.Stoppable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.util.ArrayList;
 import java.util.List;
@@ -25,15 +28,38 @@ public abstract class LifeCycle<T extends LifeCycle> implements Stoppable {
 
     protected final Logger logger = LoggerFactory.getLogger(this.getClass());
     protected final List<Future<Channel>> channelOpenedFutures = new ArrayList<Future<Channel>>();
-    protected final EventLoopGroup bossGroup = new NioEventLoopGroup();
-    protected final EventLoopGroup workerGroup = new NioEventLoopGroup();
+    protected final EventLoopGroup bossGroup = NettyTransport.eventLoopGroup(ConfigurationProperties.bossThreadCount());
+    protected final EventLoopGroup workerGroup = NettyTransport.eventLoopGroup(ConfigurationProperties.workerThreadCount());
     private final SettableFuture<String> stopping = SettableFuture.<String>create();
+    // closed once the event loops have terminated, so nothing is still using them
+    private final List<Closeable> closeables = new ArrayList<Closeable>();
     protected StopEventQueue stopEventQueue = new StopEventQueue();
     protected ServerBootstrap serverBootstrap;
 
     public Future<?> stop() {
         stopped();
-        return stopEventQueue.stop(this, stopping, bossGroup, workerGroup);
+        Future<?> stopped = stopEventQueue.stop(this, stopping, bossGroup, workerGroup);
+        synchronized (closeables) {
+            for (Closeable closeable : closeables) {
+                try {
+                    closeable.close();
+                } catch (IOException ioe) {
+                    logger.warn("Exception while closing " + closeable + " when stopping", ioe);
+                }
+            }
+            closeables.clear();
+        }
+        return stopped;
+    }
+
+    /**
+     * Registers a resource, such as a journaling log filter, to be closed when the server stops
+     */
+    protected <C extends Closeable> C closeOnStop(C closeable) {
+        synchronized (closeables) {
+            closeables.add(closeable);
+        }
+        return closeable;
     }
 
     public T withStopEventQueue(StopEventQueue stopEventQueue) {
@@ -71,42 +97,22 @@ public abstract class LifeCycle<T extends LifeCycle> implements Stoppable {
 
     public List<Integer> bindToPorts(final List<Integer> requestedPortBindings) {
         List<Integer> actualPortBindings = new ArrayList<>();
+        NettyTransport.withNativeOptions(serverBootstrap, bossGroup);
         for (final Integer portToBind : requestedPortBindings) {
             try {
-                final SettableFuture<Channel> channelOpened = SettableFuture.create();
-                new Thread(new Runnable() {
-                    @Override
-                    public void run() {
-                        channelOpenedFutures.add(channelOpened);
-                        try {
-
-                            Channel channel =
-                                    serverBootstrap
-                                            .bind(portToBind)
-                                            .addListener(new ChannelFutureListener() {
-                                                @Override
-                                                public void operationComplete(ChannelFuture future) throws Exception {
-                                                    if (future.isSuccess()) {
-                                                        channelOpened.set(future.channel());
-                                                    } else {
-                                                        channelOpened.setException(future.cause());
-                                                    }
-                                                }
-                                            })
-                                            .channel();
-
-                            int boundPort = ((InetSocketAddress) channelOpened.get().localAddress()).getPort();
-                            started(boundPort);
-                            logger.info("MockServer started on port: {}", boundPort);
-
-                            channel.closeFuture().syncUninterruptibly();
-                        } catch (Exception e) {
-                            throw new RuntimeException("Exception while binding MockServer to port " + portToBind, e.getCause());
-                        }
-                    }
-                }, "MockServer thread for port: " + portToBind).start();
-
-                actualPortBindings.add(((InetSocketAddress) channelOpened.get().localAddress()).getPort());
+                Future<Channel> channelOpened = bind(portToBind);
+                channelOpenedFutures.add(channelOpened);
+                int boundPort = ((InetSocketAddress) channelOpened.get().localAddress()).getPort();
+
+                // with SO_REUSEPORT more channels can listen on the same port, each is registered with
+                // the next boss event loop and the kernel balances new connections across them
+                for (int i = 1; i < NettyTransport.reusePortAcceptorCount(bossGroup); i++) {
+                    bind(boundPort).get();
+                }
+
+                started(boundPort);
+                logger.info("MockServer started on port: {}", boundPort);
+                actualPortBindings.add(boundPort);
             } catch (Exception e) {
                 throw new RuntimeException("Exception while binding MockServer to port " + portToBind, e.getCause());
             }
@@ -114,6 +120,23 @@ public abstract class LifeCycle<T extends LifeCycle> implements Stoppable {
         return actualPortBindings;
     }
 
+    private Future<Channel> bind(int port) {
+        final SettableFuture<Channel> channelOpened = SettableFuture.create();
+        serverBootstrap
+                .bind(port)
+                .addListener(new ChannelFutureListener() {
+                    @Override
+                    public void operationComplete(ChannelFuture future) {
+                        if (future.isSuccess()) {
+                            channelOpened.set(future.channel());
+                        } else {
+                            channelOpened.setException(future.cause());
+                        }
+                    }
+                });
+        return channelOpened;
+    }
+
     protected void started(Integer port) {
 
     }
@@ -0,0 +1,74 @@
+package org.mockserver.mockserver;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.mockserver.configuration.ConfigurationProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs actions that may block (i.e. class callbacks and response templates) on a bounded pool of threads
+ * so they never block an event loop, once every thread is busy and the queue is full further actions are
+ * rejected instead of queuing without limit
+ *
+ * @author jamesdbloom
+ */
+public class ActionExecutor {
+
+    private static ActionExecutor actionExecutor;
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+    private final ThreadPoolExecutor threadPoolExecutor;
+    private final ListeningExecutorService executorService;
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    ActionExecutor(int threadCount, int queueSize) {
+        threadPoolExecutor = new ThreadPoolExecutor(
+                threadCount,
+                threadCount,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(queueSize),
+                new ThreadFactoryBuilder().setNameFormat("MockServer-ActionExecutor-%d").setDaemon(true).build()
+        );
+        // idle threads exit so an idle server doesn't hold on to them
+        threadPoolExecutor.allowCoreThreadTimeOut(true);
+        executorService = MoreExecutors.listeningDecorator(threadPoolExecutor);
+    }
+
+    public static synchronized ActionExecutor actionExecutor() {
+        if (actionExecutor == null) {
+            actionExecutor = new ActionExecutor(ConfigurationProperties.actionHandlerThreadCount(), ConfigurationProperties.actionHandlerQueueSize());
+        }
+        return actionExecutor;
+    }
+
+    /**
+     * @throws RejectedExecutionException if all threads are busy and the queue is full
+     */
+    public <T> ListenableFuture<T> submit(Callable<T> action) {
+        try {
+            return executorService.submit(action);
+        } catch (RejectedExecutionException ree) {
+            long rejected = rejectedCount.incrementAndGet();
+            logger.warn("Rejected action as all " + threadPoolExecutor.getMaximumPoolSize() + " action threads are busy and " + getQueueDepth() + " actions are queued, " + rejected + " actions rejected in total");
+            throw ree;
+        }
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    public int getQueueDepth() {
+        return threadPoolExecutor.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return threadPoolExecutor.getActiveCount();
+    }
+}
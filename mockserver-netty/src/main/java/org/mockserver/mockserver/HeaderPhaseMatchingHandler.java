@@ -0,0 +1,72 @@
+package org.mockserver.mockserver;
+
+import com.google.common.collect.ImmutableSet;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.handler.codec.http.*;
+import io.netty.util.ReferenceCountUtil;
+import org.mockserver.configuration.ConfigurationProperties;
+import org.mockserver.mock.MockServerMatcher;
+import org.mockserver.server.netty.codec.MockServerRequestDecoder;
+import org.mockserver.url.URLParser;
+
+import java.util.Set;
+
+/**
+ * Decides, as soon as the headers of a request with a large body have been received, whether the body is needed
+ * to choose its action, if no expectation that could match needs the body the request is passed on immediately
+ * without a body, so it is answered (i.e. with a static response or a 404) before the body has been received, and
+ * the body is discarded as it arrives instead of being aggregated.
+ *
+ * Requests for the MockServer API and requests expecting "100 Continue" are always aggregated.
+ *
+ * A request answered early is logged without its body, so it can't be verified or retrieved by its body, this
+ * handler is therefore only added when mockserver.respondBeforeRequestBodyReceived is enabled.
+ *
+ * @author jamesdbloom
+ */
+public class HeaderPhaseMatchingHandler extends ChannelInboundHandlerAdapter {
+
+    private static final Set<String> API_PATHS = ImmutableSet.of(
+            "/status", "/bind", "/expectation", "/clear", "/reset", "/dumpToLog", "/retrieve", "/registerVerification", "/verify", "/verifySequence", "/stop"
+    );
+    private final MockServerMatcher mockServerMatcher;
+    private final MockServerRequestDecoder mockServerRequestDecoder;
+    private boolean discardingBody;
+
+    public HeaderPhaseMatchingHandler(MockServerMatcher mockServerMatcher, boolean isSecure) {
+        this.mockServerMatcher = mockServerMatcher;
+        this.mockServerRequestDecoder = new MockServerRequestDecoder(isSecure);
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (msg instanceof HttpRequest && !(msg instanceof FullHttpRequest)) {
+            discardingBody = false;
+            HttpRequest request = (HttpRequest) msg;
+            if (hasLargeBody(request) && !HttpUtil.is100ContinueExpected(request) && !isApiRequest(request)) {
+                FullHttpRequest requestWithoutBody = new DefaultFullHttpRequest(request.protocolVersion(), request.method(), request.uri(), Unpooled.EMPTY_BUFFER);
+                requestWithoutBody.headers().set(request.headers());
+                if (mockServerMatcher.canRetrieveActionWithoutBody(mockServerRequestDecoder.decode(requestWithoutBody))) {
+                    discardingBody = true;
+                    ctx.fireChannelRead(requestWithoutBody);
+                    return;
+                }
+            }
+        } else if (msg instanceof HttpContent && discardingBody) {
+            discardingBody = !(msg instanceof LastHttpContent);
+            ReferenceCountUtil.release(msg);
+            return;
+        }
+        ctx.fireChannelRead(msg);
+    }
+
+    private boolean hasLargeBody(HttpRequest request) {
+        return HttpUtil.getContentLength(request, -1L) > ConfigurationProperties.requestBodyMemoryThreshold();
+    }
+
+    private boolean isApiRequest(HttpRequest request) {
+        return request.method().equals(HttpMethod.PUT) && API_PATHS.contains(URLParser.returnPath(request.uri()));
+    }
+}
@@ -4,11 +4,13 @@ import io.netty.bootstrap.ServerBootstrap;
 import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.WriteBufferWaterMark;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
+import org.mockserver.filters.RequestLogFilter;
 import org.mockserver.lifecycle.LifeCycle;
 
 import java.util.Arrays;
 
+import static org.mockserver.socket.NettyTransport.serverSocketChannelClass;
+
 /**
  * @author jamesdbloom
  */
@@ -27,11 +29,11 @@ public class MockServer extends LifeCycle<MockServer> {
         serverBootstrap = new ServerBootstrap()
                 .group(bossGroup, workerGroup)
                 .option(ChannelOption.SO_BACKLOG, 1024)
-                .channel(NioServerSocketChannel.class)
+                .channel(serverSocketChannelClass(bossGroup))
                 .childOption(ChannelOption.AUTO_READ, true)
                 .childOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
                 .option(ChannelOption.WRITE_BUFFER_WATER_MARK, new WriteBufferWaterMark(8 * 1024, 32 * 1024))
-                .childHandler(new MockServerInitializer(MockServer.this));
+                .childHandler(new MockServerInitializer(MockServer.this, closeOnStop(new RequestLogFilter("mockServer-" + requestedPortBindings[0]))));
 
         bindToPorts(Arrays.asList(requestedPortBindings));
 
@@ -1,13 +1,19 @@
 package org.mockserver.mockserver;
 
 import com.google.common.net.MediaType;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.FullHttpResponse;
 import io.netty.handler.codec.http.HttpResponseStatus;
 import io.netty.handler.codec.http.HttpServerCodec;
+import io.netty.handler.codec.http.HttpVersion;
 import org.mockserver.mock.HttpStateHandler;
 import org.mockserver.client.serialization.*;
 import org.mockserver.cors.CORSHeaders;
@@ -19,6 +25,9 @@ import org.mockserver.mock.action.ActionHandler;
 import org.mockserver.mockserver.callback.ExpectationCallbackResponse;
 import org.mockserver.mockserver.callback.WebSocketClientRegistry;
 import org.mockserver.model.*;
+import org.mockserver.server.netty.ApiResponses;
+import org.mockserver.server.netty.PipelinedRequests;
+import org.mockserver.server.netty.codec.MockServerResponseEncoder;
 import org.mockserver.socket.KeyAndCertificateFactory;
 import org.mockserver.verify.Verification;
 import org.mockserver.verify.VerificationSequence;
@@ -26,7 +35,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.net.BindException;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
 
 import static com.google.common.net.MediaType.JSON_UTF_8;
 import static io.netty.handler.codec.http.HttpHeaderNames.*;
@@ -44,6 +56,7 @@ import static org.mockserver.model.Header.header;
 import static org.mockserver.model.HttpResponse.notFoundResponse;
 import static org.mockserver.model.HttpResponse.response;
 import static org.mockserver.model.PortBinding.portBinding;
+import static org.mockserver.server.netty.ApiResponses.*;
 
 @ChannelHandler.Sharable
 public class MockServerHandler extends SimpleChannelInboundHandler<HttpRequest> {
@@ -56,14 +69,24 @@ public class MockServerHandler extends SimpleChannelInboundHandler<HttpRequest>
     private MockServerMatcher mockServerMatcher;
     private WebSocketClientRegistry webSocketClientRegistry;
     private ActionHandler actionHandler;
+    private ActionExecutor actionExecutor = ActionExecutor.actionExecutor();
     private HttpStateHandler httpStateHandler;
     // serializers
     private ExpectationSerializer expectationSerializer = new ExpectationSerializer();
     private PortBindingSerializer portBindingSerializer = new PortBindingSerializer();
+    private HttpRequestSerializer httpRequestSerializer = new HttpRequestSerializer();
     private VerificationSerializer verificationSerializer = new VerificationSerializer();
     private VerificationSequenceSerializer verificationSequenceSerializer = new VerificationSequenceSerializer();
     // CORS
     private CORSHeaders addCORSHeaders = new CORSHeaders();
+    // writes the asynchronous responses to verifications with the headers this handler adds to every response
+    private final ApiResponses.ResponseWriter responseWriter = new ApiResponses.ResponseWriter() {
+        @Override
+        public void writeResponse(ChannelHandlerContext ctx, HttpRequest request, HttpResponse response) {
+            MockServerHandler.this.writeResponse(ctx, request, response);
+        }
+    };
+    private MockServerResponseEncoder mockServerResponseEncoder = new MockServerResponseEncoder();
 
     public MockServerHandler(MockServer server, MockServerMatcher mockServerMatcher, WebSocketClientRegistry webSocketClientRegistry, RequestLogFilter requestLogFilter) {
         super(false);
@@ -71,13 +94,19 @@ public class MockServerHandler extends SimpleChannelInboundHandler<HttpRequest>
         this.requestLogFilter = requestLogFilter;
         this.mockServerMatcher = mockServerMatcher;
         this.webSocketClientRegistry = webSocketClientRegistry;
-        actionHandler = new ActionHandler(requestLogFilter);
+        // delays are scheduled on the event loop by this handler instead of blocking it
+        actionHandler = new ActionHandler(requestLogFilter, false);
         httpStateHandler = new HttpStateHandler(requestLogFilter, null, mockServerMatcher);
     }
 
     @Override
     protected void channelRead0(final ChannelHandlerContext ctx, final HttpRequest request) {
 
+        if (PipelinedRequests.queueIfResponseOutstanding(ctx, this, request)) {
+            // handled once the earlier response has been written so responses are in the same order as requests
+            return;
+        }
+
         try {
 
             logFormatter.traceLog("received request:{}" + NEW_LINE, request);
@@ -106,16 +135,16 @@ public class MockServerHandler extends SimpleChannelInboundHandler<HttpRequest>
 
             } else if (request.matches("PUT", "/expectation")) {
 
-                for (Expectation expectation : expectationSerializer.deserializeArray(request.getBodyAsString())) {
+                List<Expectation> expectations = Arrays.asList(expectationSerializer.deserializeArray(request.getBodyAsString()));
+                for (Expectation expectation : expectations) {
                     KeyAndCertificateFactory.addSubjectAlternativeName(expectation.getHttpRequest().getFirstHeader(HOST.toString()));
-                    mockServerMatcher
-                            .when(expectation.getHttpRequest(), expectation.getTimes(), expectation.getTimeToLive())
-                            .thenRespond(expectation.getHttpResponse())
-                            .thenRespond(expectation.getHttpResponseTemplate())
-                            .thenForward(expectation.getHttpForward())
-                            .thenError(expectation.getHttpError())
-                            .thenCallback(expectation.getHttpClassCallback())
-                            .thenCallback(expectation.getHttpObjectCallback());
+                }
+                mockServerMatcher.add(expectations);
+                for (Expectation expectation : expectations) {
+                    if (expectation.getAction() instanceof HttpResponse) {
+                        // encode static responses now so matching requests only write a duplicate of the encoded response
+                        mockServerResponseEncoder.prime((HttpResponse) expectation.getAction());
+                    }
                     logFormatter.infoLog("creating expectation:{}", expectation);
                 }
                 writeResponse(ctx, request, CREATED);
@@ -137,22 +166,40 @@ public class MockServerHandler extends SimpleChannelInboundHandler<HttpRequest>
 
             } else if (request.matches("PUT", "/retrieve")) {
 
-                writeResponse(ctx, request, OK, httpStateHandler.retrieve(request),
-                        JSON_UTF_8.toString().replace(request.hasQueryStringParameter("format", "java") ? "json" : "", "java")
+                DefaultHttpResponse chunkedResponse = new DefaultHttpResponse(HttpVersion.HTTP_1_1, OK);
+                writeChunkedResponse(ctx, chunkedResponse, httpStateHandler.retrieveChunked(request, chunkedResponse.headers()),
+                        request.hasQueryStringParameter("format", "java") ? JSON_UTF_8.toString().replace("json", "java") : JSON_UTF_8.toString(),
+                        closeChannel(request, null)
                 );
 
+            } else if (request.matches("PUT", "/registerVerification")) {
+
+                requestLogFilter.registerVerification(httpRequestSerializer.deserialize(request.getBodyAsString()));
+                writeResponse(ctx, request, CREATED);
+
             } else if (request.matches("PUT", "/verify")) {
 
                 Verification verification = verificationSerializer.deserialize(request.getBodyAsString());
-                String result = requestLogFilter.verify(verification);
-                verifyResponse(ctx, request, result);
+                boolean includeRequestLog = request.hasQueryStringParameter("requestLog", "true");
+                long timeout = verificationTimeout(request);
+                if (timeout > 0) {
+                    verifyResponseWhenComplete(ctx, request, requestLogFilter.verify(verification, includeRequestLog, timeout, ctx.executor()), responseWriter);
+                } else {
+                    String result = includeRequestLog ? requestLogFilter.verify(verification, true) : requestLogFilter.verify(verification);
+                    writeResponse(ctx, request, verifyResponse(result));
+                }
                 logFormatter.infoLog("verifying requests that match:{}", verification);
 
             } else if (request.matches("PUT", "/verifySequence")) {
 
                 VerificationSequence verificationSequence = verificationSequenceSerializer.deserialize(request.getBodyAsString());
-                String result = requestLogFilter.verify(verificationSequence);
-                verifyResponse(ctx, request, result);
+                long timeout = verificationTimeout(request);
+                if (timeout > 0) {
+                    verifyResponseWhenComplete(ctx, request, requestLogFilter.verify(verificationSequence, timeout, ctx.executor()), responseWriter);
+                } else {
+                    String result = requestLogFilter.verify(verificationSequence);
+                    writeResponse(ctx, request, verifyResponse(result));
+                }
                 logFormatter.infoLog("verifying sequence that match:{}", verificationSequence);
 
             } else if (request.matches("PUT", "/stop")) {
@@ -167,36 +214,59 @@ public class MockServerHandler extends SimpleChannelInboundHandler<HttpRequest>
 
             } else {
 
-                Action action = mockServerMatcher.retrieveAction(request);
+                final Action action = mockServerMatcher.retrieveAction(request);
                 if (action instanceof HttpError) {
-                    HttpError httpError = ((HttpError) action).applyDelay();
+                    final HttpError httpError = (HttpError) action;
                     requestLogFilter.onRequest(request);
-                    if (httpError.getResponseBytes() != null) {
-                        // write byte directly by skipping over HTTP codec
-                        ChannelHandlerContext httpCodecContext = ctx.pipeline().context(HttpServerCodec.class);
-                        if (httpCodecContext != null) {
-                            httpCodecContext.writeAndFlush(Unpooled.wrappedBuffer(httpError.getResponseBytes())).awaitUninterruptibly();
+                    schedule(ctx, ActionHandler.getDelay(action), new Runnable() {
+                        @Override
+                        public void run() {
+                            writeError(ctx, httpError);
                         }
-                    }
-                    if (httpError.getDropConnection()) {
-                        ctx.close();
-                    }
+                    });
                 } else if (action instanceof HttpObjectCallback) {
                     String clientId = ((HttpObjectCallback) action).getClientId();
-                    webSocketClientRegistry.registerCallbackResponseHandler(clientId, new ExpectationCallbackResponse() {
+                    requestLogFilter.onRequest(request);
+                    sendClientMessage(ctx, clientId, request);
+                } else if (action instanceof HttpForward) {
+                    // write the response when the upstream server responds instead of blocking the event loop waiting for it
+                    writeResponseWhenComplete(ctx, request, null, actionHandler.processForwardAction((HttpForward) action, request));
+                } else if (action instanceof HttpClassCallback || action instanceof HttpTemplate) {
+                    // callback classes and template engines may block so run them off the event loop, a template
+                    // applies its own delay only when it produces no response, the same as the servlet
+                    try {
+                        writeResponseWhenComplete(ctx, request, null, actionExecutor.submit(new Callable<HttpResponse>() {
+                            @Override
+                            public HttpResponse call() {
+                                return actionHandler.processAction(action, request);
+                            }
+                        }));
+                    } catch (RejectedExecutionException ree) {
+                        writeResponse(ctx, request, response().withStatusCode(SERVICE_UNAVAILABLE.code()).withBody("too many actions in progress, please retry later"));
+                    }
+                } else if (action instanceof HttpResponse) {
+                    final HttpResponse response = actionHandler.processStaticResponseAction((HttpResponse) action, request);
+                    schedule(ctx, ActionHandler.getDelay(action), new Runnable() {
                         @Override
-                        public void handle(HttpResponse response) {
-                            requestLogFilter.onResponse(request, response);
-                            writeResponse(ctx, request, response.withConnectionOptions(connectionOptions().withCloseSocket(true)));
+                        public void run() {
+                            if (response == action) {
+                                writeStaticResponse(ctx, request, response);
+                            } else {
+                                // a filter replaced the response so it can't use the encoded response of the action
+                                writeResponse(ctx, request, response != null ? response.shallowClone() : null);
+                            }
                             logFormatter.infoLog("returning response:{}" + NEW_LINE + " for request:{}", response, request);
                         }
                     });
-                    requestLogFilter.onRequest(request);
-                    webSocketClientRegistry.sendClientMessage(clientId, request);
                 } else {
-                    HttpResponse response = actionHandler.processAction(action, request);
-                    writeResponse(ctx, request, response);
-                    logFormatter.infoLog("returning response:{}" + NEW_LINE + " for request:{}", response, request);
+                    final HttpResponse response = actionHandler.processAction(action, request);
+                    schedule(ctx, ActionHandler.getDelay(action), new Runnable() {
+                        @Override
+                        public void run() {
+                            writeResponse(ctx, request, response);
+                            logFormatter.infoLog("returning response:{}" + NEW_LINE + " for request:{}", response, request);
+                        }
+                    });
                 }
 
             }
@@ -210,11 +280,117 @@ public class MockServerHandler extends SimpleChannelInboundHandler<HttpRequest>
         }
     }
 
-    private void verifyResponse(ChannelHandlerContext ctx, HttpRequest request, String result) {
-        if (result.isEmpty()) {
-            writeResponse(ctx, request, ACCEPTED);
+    /**
+     * Sends the request to the web socket client, the response is written once the client has responded, or with a
+     * 404 if it doesn't respond in time
+     */
+    private void sendClientMessage(final ChannelHandlerContext ctx, String clientId, final HttpRequest request) {
+        PipelinedRequests.awaitResponse(ctx);
+        try {
+            webSocketClientRegistry.sendClientMessage(clientId, request, new ExpectationCallbackResponse() {
+                @Override
+                public void handle(final HttpResponse response) {
+                    // usually called on the web socket's event loop so write the response on this channel's event loop
+                    ctx.executor().execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            try {
+                                requestLogFilter.onResponse(request, response);
+                                writeResponse(ctx, request, response.withConnectionOptions(connectionOptions().withCloseSocket(true)));
+                                logFormatter.infoLog("returning response:{}" + NEW_LINE + " for request:{}", response, request);
+                            } finally {
+                                PipelinedRequests.responded(ctx);
+                            }
+                        }
+                    });
+                }
+            });
+        } catch (RuntimeException e) {
+            // no response will be written by the callback
+            PipelinedRequests.responded(ctx);
+            throw e;
+        }
+    }
+
+    /**
+     * Writes the response, once the delay has passed, when an action that completes off the event loop has completed
+     */
+    private void writeResponseWhenComplete(final ChannelHandlerContext ctx, final HttpRequest request, final Delay delay, ListenableFuture<HttpResponse> responseFuture) {
+        PipelinedRequests.awaitResponse(ctx);
+        Futures.addCallback(responseFuture, new FutureCallback<HttpResponse>() {
+            @Override
+            public void onSuccess(final HttpResponse response) {
+                try {
+                    schedule(ctx, delay, new Runnable() {
+                        @Override
+                        public void run() {
+                            writeResponse(ctx, request, response);
+                            logFormatter.infoLog("returning response:{}" + NEW_LINE + " for request:{}", response, request);
+                        }
+                    });
+                    // the read that triggered this response has already completed so flush explicitly
+                    ctx.flush();
+                } finally {
+                    PipelinedRequests.responded(ctx);
+                }
+            }
+
+            @Override
+            public void onFailure(Throwable throwable) {
+                try {
+                    logger.error("Exception processing " + request, throwable);
+                    writeResponse(ctx, request, response().withStatusCode(BAD_REQUEST.code()).withBody(throwable.getMessage()));
+                    ctx.flush();
+                } finally {
+                    PipelinedRequests.responded(ctx);
+                }
+            }
+        }, ctx.executor());
+    }
+
+    /**
+     * Runs the task once the delay has passed on the channel's event loop, so a delayed response never blocks
+     * the event loop (or any other thread) while it waits, tasks without a delay are run immediately, later
+     * requests on the connection are not handled until the delayed task has run
+     */
+    private void schedule(final ChannelHandlerContext ctx, Delay delay, final Runnable task) {
+        if (delay == null) {
+            task.run();
         } else {
-            writeResponse(ctx, request, NOT_ACCEPTABLE, result, MediaType.create("text", "plain").toString());
+            PipelinedRequests.awaitResponse(ctx);
+            ctx.executor().schedule(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        task.run();
+                        // the read that triggered this response has already completed so flush explicitly
+                        ctx.flush();
+                    } catch (Exception e) {
+                        logger.error("Exception writing delayed response", e);
+                        ctx.close();
+                    } finally {
+                        PipelinedRequests.responded(ctx);
+                    }
+                }
+            }, delay.getValue(), delay.getTimeUnit());
+        }
+    }
+
+    private void writeError(ChannelHandlerContext ctx, HttpError httpError) {
+        if (httpError.getResponseBytes() != null) {
+            // write byte directly by skipping over HTTP codec
+            ChannelHandlerContext httpCodecContext = ctx.pipeline().context(HttpServerCodec.class);
+            if (httpCodecContext != null) {
+                if (httpError.getDropConnection()) {
+                    httpCodecContext.writeAndFlush(Unpooled.wrappedBuffer(httpError.getResponseBytes())).addListener(ChannelFutureListener.CLOSE);
+                    return;
+                } else {
+                    httpCodecContext.writeAndFlush(Unpooled.wrappedBuffer(httpError.getResponseBytes()));
+                }
+            }
+        }
+        if (httpError.getDropConnection()) {
+            ctx.close();
         }
     }
 
@@ -248,35 +424,57 @@ public class MockServerHandler extends SimpleChannelInboundHandler<HttpRequest>
         writeAndCloseSocket(ctx, request, response);
     }
 
+    /**
+     * Writes a duplicate of the response encoded when the expectation was created, the response is shared by every
+     * request matching the expectation so the per request headers are added to the duplicate not the response
+     */
+    private void writeStaticResponse(ChannelHandlerContext ctx, HttpRequest request, HttpResponse response) {
+        FullHttpResponse encodedResponse = mockServerResponseEncoder.encodeStaticResponse(response);
+        if (enableCORSForAllResponses()) {
+            addCORSHeaders.addCORSHeaders(encodedResponse.headers());
+        }
+        Boolean keepAlive = connectionHeaderKeepAlive(request, response.getConnectionOptions());
+        if (keepAlive != null) {
+            encodedResponse.headers().set(CONNECTION, keepAlive ? KEEP_ALIVE : CLOSE);
+        }
+        if (closeChannel(request, response.getConnectionOptions())) {
+            ctx.writeAndFlush(encodedResponse).addListener(ChannelFutureListener.CLOSE);
+        } else {
+            ctx.write(encodedResponse);
+        }
+    }
+
     private void addConnectionHeader(HttpRequest request, HttpResponse response) {
-        ConnectionOptions connectionOptions = response.getConnectionOptions();
+        Boolean keepAlive = connectionHeaderKeepAlive(request, response.getConnectionOptions());
+        if (keepAlive != null) {
+            response.updateHeader(header(CONNECTION.toString(), (keepAlive ? KEEP_ALIVE : CLOSE).toString()));
+        }
+    }
+
+    /**
+     * @return true for "Connection: keep-alive", false for "Connection: close" or null if the header is suppressed
+     */
+    private Boolean connectionHeaderKeepAlive(HttpRequest request, ConnectionOptions connectionOptions) {
         if (connectionOptions != null && connectionOptions.getKeepAliveOverride() != null) {
-            if (connectionOptions.getKeepAliveOverride()) {
-                response.updateHeader(header(CONNECTION.toString(), KEEP_ALIVE.toString()));
-            } else {
-                response.updateHeader(header(CONNECTION.toString(), CLOSE.toString()));
-            }
+            return connectionOptions.getKeepAliveOverride();
         } else if (connectionOptions == null || isFalseOrNull(connectionOptions.getSuppressConnectionHeader())) {
-            if (request.isKeepAlive() != null && request.isKeepAlive()
-                    && (connectionOptions == null || isFalseOrNull(connectionOptions.getCloseSocket()))) {
-                response.updateHeader(header(CONNECTION.toString(), KEEP_ALIVE.toString()));
-            } else {
-                response.updateHeader(header(CONNECTION.toString(), CLOSE.toString()));
-            }
+            return request.isKeepAlive() != null && request.isKeepAlive()
+                    && (connectionOptions == null || isFalseOrNull(connectionOptions.getCloseSocket()));
+        } else {
+            return null;
         }
     }
 
-    private void writeAndCloseSocket(ChannelHandlerContext ctx, HttpRequest request, HttpResponse response) {
-        boolean closeChannel;
-
-        ConnectionOptions connectionOptions = response.getConnectionOptions();
+    private boolean closeChannel(HttpRequest request, ConnectionOptions connectionOptions) {
         if (connectionOptions != null && connectionOptions.getCloseSocket() != null) {
-            closeChannel = connectionOptions.getCloseSocket();
+            return connectionOptions.getCloseSocket();
         } else {
-            closeChannel = !(request.isKeepAlive() != null && request.isKeepAlive());
+            return !(request.isKeepAlive() != null && request.isKeepAlive());
         }
+    }
 
-        if (closeChannel) {
+    private void writeAndCloseSocket(ChannelHandlerContext ctx, HttpRequest request, HttpResponse response) {
+        if (closeChannel(request, response.getConnectionOptions())) {
             ctx.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
         } else {
             ctx.write(response);
@@ -2,12 +2,14 @@ package org.mockserver.mockserver;
 
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPipeline;
+import org.mockserver.configuration.ConfigurationProperties;
 import org.mockserver.filters.RequestLogFilter;
 import org.mockserver.logging.LoggingHandler;
 import org.mockserver.mock.MockServerMatcher;
 import org.mockserver.mockserver.callback.WebSocketClientRegistry;
 import org.mockserver.mockserver.callback.WebSocketServerHandler;
 import org.mockserver.server.netty.codec.MockServerServerCodec;
+import org.mockserver.server.netty.codec.SpillingHttpObjectAggregator;
 import org.mockserver.server.unification.PortUnificationHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,12 +18,13 @@ public class MockServerInitializer extends PortUnificationHandler {
 
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
     private final MockServerMatcher mockServerMatcher = new MockServerMatcher();
-    private final RequestLogFilter requestLogFilter = new RequestLogFilter();
+    private final RequestLogFilter requestLogFilter;
     private final WebSocketClientRegistry webSocketClientRegistry = new WebSocketClientRegistry();
     private final MockServer mockServer;
 
-    MockServerInitializer(MockServer mockServer) {
+    MockServerInitializer(MockServer mockServer, RequestLogFilter requestLogFilter) {
         this.mockServer = mockServer;
+        this.requestLogFilter = requestLogFilter;
     }
 
     @Override
@@ -35,6 +38,10 @@ public class MockServerInitializer extends PortUnificationHandler {
         if (ctx.channel().attr(PortUnificationHandler.SSL_ENABLED).get() != null) {
             isSecure = ctx.channel().attr(PortUnificationHandler.SSL_ENABLED).get();
         }
+        if (ConfigurationProperties.respondBeforeRequestBodyReceived()) {
+            // choose actions that don't need the body before the body is aggregated
+            pipeline.addBefore(pipeline.context(SpillingHttpObjectAggregator.class).name(), null, new HeaderPhaseMatchingHandler(mockServerMatcher, isSecure));
+        }
         pipeline.addLast(new WebSocketServerHandler(webSocketClientRegistry));
         pipeline.addLast(new MockServerServerCodec(isSecure));
 
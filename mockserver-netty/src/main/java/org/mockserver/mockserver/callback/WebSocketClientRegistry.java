@@ -1,30 +1,50 @@
 package org.mockserver.mockserver.callback;
 
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import io.netty.util.AttributeKey;
+import io.netty.util.concurrent.ScheduledFuture;
 import org.mockserver.client.netty.websocket.WebSocketException;
 import org.mockserver.client.serialization.WebSocketMessageSerializer;
 import org.mockserver.client.serialization.model.WebSocketClientIdDTO;
+import org.mockserver.client.serialization.model.WebSocketMessageDTO;
 import org.mockserver.collections.CircularHashMap;
+import org.mockserver.configuration.ConfigurationProperties;
 import org.mockserver.model.HttpRequest;
 import org.mockserver.model.HttpResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static io.netty.handler.codec.http.HttpResponseStatus.SERVICE_UNAVAILABLE;
+import static org.mockserver.model.HttpResponse.notFoundResponse;
+import static org.mockserver.model.HttpResponse.response;
 
 /**
  * @author jamesdbloom
  */
 public class WebSocketClientRegistry {
 
+    private static final AttributeKey<WebSocketClient> WEB_SOCKET_CLIENT = AttributeKey.valueOf("WEB_SOCKET_CLIENT");
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
     private WebSocketMessageSerializer webSocketMessageSerializer = new WebSocketMessageSerializer();
-    private CircularHashMap<String, ChannelHandlerContext> clientRegistry = new CircularHashMap<String, ChannelHandlerContext>(100);
-    private CircularHashMap<String, ExpectationCallbackResponse> callbackResponseRegistry = new CircularHashMap<String, ExpectationCallbackResponse>(100);
+    private CircularHashMap<String, WebSocketClient> clientRegistry = new CircularHashMap<String, WebSocketClient>(100);
 
     void receivedTextWebSocketFrame(ChannelHandlerContext ctx, TextWebSocketFrame textWebSocketFrame) {
         try {
-            Object deserializedMessage = webSocketMessageSerializer.deserialize(textWebSocketFrame.text());
+            WebSocketMessageDTO webSocketMessageDTO = webSocketMessageSerializer.deserializeMessage(textWebSocketFrame.text());
+            Object deserializedMessage = webSocketMessageSerializer.deserialize(webSocketMessageDTO);
             if (deserializedMessage instanceof HttpResponse) {
-                String key = clientRegistry.findKey(ctx);
-                if (key != null) {
-                    callbackResponseRegistry.get(key).handle((HttpResponse) deserializedMessage);
+                WebSocketClient webSocketClient = ctx.channel().attr(WEB_SOCKET_CLIENT).get();
+                PendingCallback pendingCallback = webSocketClient != null ? webSocketClient.removePendingCallback(webSocketMessageDTO.getCorrelationId()) : null;
+                if (pendingCallback != null) {
+                    pendingCallback.complete((HttpResponse) deserializedMessage);
+                } else {
+                    logger.warn("Received web socket callback response that does not match a request in progress, it may have timed out " + deserializedMessage);
                 }
             } else {
                 throw new WebSocketException("Unsupported web socket message " + deserializedMessage);
@@ -34,27 +54,152 @@ public class WebSocketClientRegistry {
         }
     }
 
-    void registerClient(String clientId, ChannelHandlerContext ctx) {
+    private WebSocketClient findClient(String clientId) {
+        synchronized (clientRegistry) {
+            return clientRegistry.get(clientId);
+        }
+    }
+
+    void registerClient(final String clientId, ChannelHandlerContext ctx) {
         try {
             ctx.channel().writeAndFlush(new TextWebSocketFrame(webSocketMessageSerializer.serialize(new WebSocketClientIdDTO().setClientId(clientId))));
         } catch (Exception e) {
             throw new WebSocketException("Exception while sending web socket registration client id message to client " + clientId, e);
         }
-        clientRegistry.put(clientId, ctx);
-    }
-
-    public void registerCallbackResponseHandler(String clientId, ExpectationCallbackResponse expectationCallbackResponse) {
-        callbackResponseRegistry.put(clientId, expectationCallbackResponse);
+        final WebSocketClient webSocketClient = new WebSocketClient(ctx);
+        ctx.channel().attr(WEB_SOCKET_CLIENT).set(webSocketClient);
+        synchronized (clientRegistry) {
+            clientRegistry.put(clientId, webSocketClient);
+        }
+        ctx.channel().closeFuture().addListener(new ChannelFutureListener() {
+            @Override
+            public void operationComplete(ChannelFuture future) {
+                synchronized (clientRegistry) {
+                    if (clientRegistry.get(clientId) == webSocketClient) {
+                        clientRegistry.remove(clientId);
+                    }
+                }
+                // requests waiting for a client that has gone get the same response as if it had timed out
+                for (PendingCallback pendingCallback : webSocketClient.close()) {
+                    logger.warn("Web socket closed before callback response received for request with correlation id " + pendingCallback.correlationId);
+                    pendingCallback.complete(notFoundResponse());
+                }
+            }
+        });
     }
 
-    public void sendClientMessage(String clientId, HttpRequest httpRequest) {
-        try {
-            if (clientRegistry.containsKey(clientId)) {
-                clientRegistry.get(clientId).channel().writeAndFlush(new TextWebSocketFrame(webSocketMessageSerializer.serialize(httpRequest)));
+    /**
+     * Sends the request to the client and calls the expectationCallbackResponse when the client responds, many
+     * requests can be in progress for the same client at once. If the client has too many requests in progress,
+     * or can't accept more data, a 503 response is returned immediately and if the client doesn't respond within
+     * the maxSocketTimeout, or its web socket is closed first, a 404 response is returned.
+     */
+    public void sendClientMessage(String clientId, HttpRequest httpRequest, ExpectationCallbackResponse expectationCallbackResponse) {
+        final WebSocketClient webSocketClient = findClient(clientId);
+        if (webSocketClient == null) {
+            logger.warn("No web socket client registered with id " + clientId + " returning 404 for request " + httpRequest);
+            expectationCallbackResponse.handle(notFoundResponse());
+            return;
+        }
+        final PendingCallback pendingCallback = webSocketClient.ctx.channel().isWritable() ? webSocketClient.addPendingCallback(expectationCallbackResponse) : null;
+        if (pendingCallback == null) {
+            logger.warn("Too many web socket callback requests in progress for client " + clientId + " returning 503 for request " + httpRequest);
+            expectationCallbackResponse.handle(response().withStatusCode(SERVICE_UNAVAILABLE.code()));
+            return;
+        }
+        pendingCallback.timeout = webSocketClient.ctx.executor().schedule(new Runnable() {
+            @Override
+            public void run() {
+                if (webSocketClient.removePendingCallback(pendingCallback)) {
+                    logger.warn("No web socket callback response received after " + ConfigurationProperties.maxSocketTimeout() + " milliseconds for request with correlation id " + pendingCallback.correlationId);
+                    pendingCallback.expectationCallbackResponse.handle(notFoundResponse());
+                }
             }
+        }, ConfigurationProperties.maxSocketTimeout(), TimeUnit.MILLISECONDS);
+        try {
+            webSocketClient.ctx.channel().writeAndFlush(new TextWebSocketFrame(webSocketMessageSerializer.serialize(httpRequest, pendingCallback.correlationId)));
         } catch (Exception e) {
+            webSocketClient.removePendingCallback(pendingCallback);
+            pendingCallback.timeout.cancel(false);
             throw new WebSocketException("Exception while sending web socket message " + httpRequest + " to client " + clientId, e);
         }
     }
 
+    /**
+     * The requests in progress for one client, so sending and responding only ever look at that client's requests
+     */
+    private static class WebSocketClient {
+        private final ChannelHandlerContext ctx;
+        // in the order sent, keyed by correlation id
+        private final Map<String, PendingCallback> pendingCallbacks = new LinkedHashMap<String, PendingCallback>();
+        private boolean closed;
+
+        WebSocketClient(ChannelHandlerContext ctx) {
+            this.ctx = ctx;
+        }
+
+        /**
+         * @return the new pending callback, or null if the client has too many requests in progress or is closed
+         */
+        synchronized PendingCallback addPendingCallback(ExpectationCallbackResponse expectationCallbackResponse) {
+            if (closed || pendingCallbacks.size() >= ConfigurationProperties.maxWebSocketCallbacksInFlight()) {
+                return null;
+            }
+            PendingCallback pendingCallback = new PendingCallback(UUID.randomUUID().toString(), expectationCallbackResponse);
+            pendingCallbacks.put(pendingCallback.correlationId, pendingCallback);
+            return pendingCallback;
+        }
+
+        synchronized PendingCallback removePendingCallback(String correlationId) {
+            if (correlationId != null) {
+                return pendingCallbacks.remove(correlationId);
+            } else {
+                // clients that don't send a correlation id handle requests one at a time in order so the response is for the oldest request
+                Iterator<PendingCallback> iterator = pendingCallbacks.values().iterator();
+                if (iterator.hasNext()) {
+                    PendingCallback oldest = iterator.next();
+                    iterator.remove();
+                    return oldest;
+                }
+                return null;
+            }
+        }
+
+        synchronized boolean removePendingCallback(PendingCallback pendingCallback) {
+            if (pendingCallbacks.get(pendingCallback.correlationId) == pendingCallback) {
+                pendingCallbacks.remove(pendingCallback.correlationId);
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * @return the requests still in progress, which no longer are
+         */
+        synchronized List<PendingCallback> close() {
+            closed = true;
+            List<PendingCallback> inProgress = new ArrayList<PendingCallback>(pendingCallbacks.values());
+            pendingCallbacks.clear();
+            return inProgress;
+        }
+    }
+
+    private static class PendingCallback {
+        private final String correlationId;
+        private final ExpectationCallbackResponse expectationCallbackResponse;
+        private volatile ScheduledFuture<?> timeout;
+
+        PendingCallback(String correlationId, ExpectationCallbackResponse expectationCallbackResponse) {
+            this.correlationId = correlationId;
+            this.expectationCallbackResponse = expectationCallbackResponse;
+        }
+
+        void complete(HttpResponse httpResponse) {
+            if (timeout != null) {
+                timeout.cancel(false);
+            }
+            expectationCallbackResponse.handle(httpResponse);
+        }
+    }
+
 }
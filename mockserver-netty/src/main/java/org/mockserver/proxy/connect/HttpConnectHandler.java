@@ -4,11 +4,11 @@ import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPipeline;
 import io.netty.handler.codec.http.HttpContentDecompressor;
-import io.netty.handler.codec.http.HttpObjectAggregator;
 import io.netty.handler.codec.http.HttpResponseStatus;
 import io.netty.handler.codec.http.HttpServerCodec;
 import io.netty.handler.ssl.SslHandler;
 import org.mockserver.server.netty.codec.MockServerServerCodec;
+import org.mockserver.server.netty.codec.SpillingHttpObjectAggregator;
 import org.mockserver.model.HttpRequest;
 import org.mockserver.proxy.relay.RelayConnectHandler;
 
@@ -26,7 +26,7 @@ public final class HttpConnectHandler extends RelayConnectHandler<HttpRequest> {
         removeHandler(pipeline, SslHandler.class);
         removeHandler(pipeline, HttpServerCodec.class);
         removeHandler(pipeline, HttpContentDecompressor.class);
-        removeHandler(pipeline, HttpObjectAggregator.class);
+        removeHandler(pipeline, SpillingHttpObjectAggregator.class);
         removeHandler(pipeline, MockServerServerCodec.class);
         if (pipeline.get(this.getClass()) != null) {
             pipeline.remove(this);
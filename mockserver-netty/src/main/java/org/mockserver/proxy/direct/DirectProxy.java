@@ -4,7 +4,6 @@ import com.google.common.util.concurrent.SettableFuture;
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.*;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
 import org.mockserver.filters.RequestLogFilter;
 import org.mockserver.filters.RequestResponseLogFilter;
 import org.mockserver.proxy.Proxy;
@@ -12,6 +11,8 @@ import org.mockserver.proxy.Proxy;
 import java.net.InetSocketAddress;
 import java.util.Arrays;
 
+import static org.mockserver.socket.NettyTransport.serverSocketChannelClass;
+
 /**
  * This class should not be constructed directly instead use HttpProxyBuilder to build and configure this class
  *
@@ -44,15 +45,15 @@ public class DirectProxy extends Proxy<DirectProxy> {
         serverBootstrap = new ServerBootstrap()
                 .group(bossGroup, workerGroup)
                 .option(ChannelOption.SO_BACKLOG, 1024)
-                .channel(NioServerSocketChannel.class)
+                .channel(serverSocketChannelClass(bossGroup))
                 .childOption(ChannelOption.AUTO_READ, true)
                 .childOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
                 .option(ChannelOption.WRITE_BUFFER_WATER_MARK, new WriteBufferWaterMark(8 * 1024, 32 * 1024))
                 .childHandler(new DirectProxyUnificationHandler())
                 .childAttr(HTTP_PROXY, DirectProxy.this)
                 .childAttr(REMOTE_SOCKET, remoteSocket)
-                .childAttr(REQUEST_LOG_FILTER, new RequestLogFilter())
-                .childAttr(REQUEST_RESPONSE_LOG_FILTER, new RequestResponseLogFilter());
+                .childAttr(REQUEST_LOG_FILTER, closeOnStop(new RequestLogFilter("directProxy-" + localPorts[0])))
+                .childAttr(REQUEST_RESPONSE_LOG_FILTER, closeOnStop(new RequestResponseLogFilter("directProxy-" + localPorts[0])));
 
         bindToPorts(Arrays.asList(localPorts));
 
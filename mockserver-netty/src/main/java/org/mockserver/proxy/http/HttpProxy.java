@@ -4,7 +4,6 @@ import io.netty.bootstrap.ServerBootstrap;
 import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.WriteBufferWaterMark;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
 import org.mockserver.configuration.ConfigurationProperties;
 import org.mockserver.filters.RequestLogFilter;
 import org.mockserver.filters.RequestResponseLogFilter;
@@ -20,6 +19,8 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
+import static org.mockserver.socket.NettyTransport.serverSocketChannelClass;
+
 /**
  * This class should not be constructed directly instead use HttpProxyBuilder to build and configure this class
  *
@@ -43,15 +44,15 @@ public class HttpProxy extends Proxy<HttpProxy> {
         serverBootstrap = new ServerBootstrap()
                 .group(bossGroup, workerGroup)
                 .option(ChannelOption.SO_BACKLOG, 1024)
-                .channel(NioServerSocketChannel.class)
+                .channel(serverSocketChannelClass(bossGroup))
                 .childOption(ChannelOption.AUTO_READ, true)
                 .childOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
                 .option(ChannelOption.WRITE_BUFFER_WATER_MARK, new WriteBufferWaterMark(8 * 1024, 32 * 1024))
                 .childHandler(new HttpProxyUnificationHandler())
                 .childAttr(HTTP_PROXY, HttpProxy.this)
                 .childAttr(HTTP_CONNECT_SOCKET, new InetSocketAddress(requestedPortBindings[0]))
-                .childAttr(REQUEST_LOG_FILTER, new RequestLogFilter())
-                .childAttr(REQUEST_RESPONSE_LOG_FILTER, new RequestResponseLogFilter());
+                .childAttr(REQUEST_LOG_FILTER, closeOnStop(new RequestLogFilter("httpProxy-" + requestedPortBindings[0])))
+                .childAttr(REQUEST_RESPONSE_LOG_FILTER, closeOnStop(new RequestResponseLogFilter("httpProxy-" + requestedPortBindings[0])));
 
         bindToPorts(Arrays.asList(requestedPortBindings));
 
@@ -1,12 +1,18 @@
 package org.mockserver.proxy.http;
 
 import com.google.common.net.MediaType;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.handler.codec.http.DefaultHttpResponse;
 import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
 import org.mockserver.client.netty.NettyHttpClient;
+import org.mockserver.client.serialization.HttpRequestSerializer;
 import org.mockserver.client.serialization.PortBindingSerializer;
 import org.mockserver.client.serialization.VerificationSequenceSerializer;
 import org.mockserver.client.serialization.VerificationSerializer;
@@ -24,6 +30,8 @@ import org.mockserver.model.PortBinding;
 import org.mockserver.proxy.Proxy;
 import org.mockserver.proxy.connect.HttpConnectHandler;
 import org.mockserver.proxy.unification.PortUnificationHandler;
+import org.mockserver.server.netty.ApiResponses;
+import org.mockserver.server.netty.PipelinedRequests;
 import org.mockserver.socket.KeyAndCertificateFactory;
 import org.mockserver.verify.Verification;
 import org.mockserver.verify.VerificationSequence;
@@ -51,6 +59,7 @@ import static org.mockserver.model.HttpResponse.notFoundResponse;
 import static org.mockserver.model.HttpResponse.response;
 import static org.mockserver.model.PortBinding.portBinding;
 import static org.mockserver.proxy.Proxy.REMOTE_SOCKET;
+import static org.mockserver.server.netty.ApiResponses.*;
 
 @ChannelHandler.Sharable
 public class HttpProxyHandler extends SimpleChannelInboundHandler<HttpRequest> {
@@ -66,10 +75,18 @@ public class HttpProxyHandler extends SimpleChannelInboundHandler<HttpRequest> {
     // serializers
     private HttpRequestToCurlSerializer httpRequestToCurlSerializer = new HttpRequestToCurlSerializer();
     private PortBindingSerializer portBindingSerializer = new PortBindingSerializer();
+    private HttpRequestSerializer httpRequestSerializer = new HttpRequestSerializer();
     private VerificationSerializer verificationSerializer = new VerificationSerializer();
     private VerificationSequenceSerializer verificationSequenceSerializer = new VerificationSequenceSerializer();
     // CORS
     private CORSHeaders addCORSHeaders = new CORSHeaders();
+    // writes the asynchronous responses to verifications with the headers this handler adds to every response
+    private final ApiResponses.ResponseWriter responseWriter = new ApiResponses.ResponseWriter() {
+        @Override
+        public void writeResponse(ChannelHandlerContext ctx, HttpRequest request, HttpResponse response) {
+            HttpProxyHandler.this.writeResponse(ctx, request, response);
+        }
+    };
 
     public HttpProxyHandler(Proxy server, RequestLogFilter requestLogFilter, RequestResponseLogFilter requestResponseLogFilter) {
         super(false);
@@ -84,6 +101,11 @@ public class HttpProxyHandler extends SimpleChannelInboundHandler<HttpRequest> {
     @Override
     protected void channelRead0(ChannelHandlerContext ctx, HttpRequest request) {
 
+        if (PipelinedRequests.queueIfResponseOutstanding(ctx, this, request)) {
+            // handled once the earlier response has been written so responses are in the same order as requests
+            return;
+        }
+
         try {
 
             logFormatter.traceLog("received request:{}" + NEW_LINE, request);
@@ -137,22 +159,40 @@ public class HttpProxyHandler extends SimpleChannelInboundHandler<HttpRequest> {
 
             } else if (request.matches("PUT", "/retrieve")) {
 
-                writeResponse(ctx, request, OK, httpStateHandler.retrieve(request),
-                        JSON_UTF_8.toString().replace(request.hasQueryStringParameter("format", "java") ? "json" : "", "java")
+                DefaultHttpResponse chunkedResponse = new DefaultHttpResponse(HttpVersion.HTTP_1_1, OK);
+                writeChunkedResponse(ctx, chunkedResponse, httpStateHandler.retrieveChunked(request, chunkedResponse.headers()),
+                        request.hasQueryStringParameter("format", "java") ? JSON_UTF_8.toString().replace("json", "java") : JSON_UTF_8.toString(),
+                        !(request.isKeepAlive() != null && request.isKeepAlive())
                 );
 
+            } else if (request.matches("PUT", "/registerVerification")) {
+
+                requestLogFilter.registerVerification(httpRequestSerializer.deserialize(request.getBodyAsString()));
+                writeResponse(ctx, request, CREATED);
+
             } else if (request.matches("PUT", "/verify")) {
 
                 Verification verification = verificationSerializer.deserialize(request.getBodyAsString());
-                String result = requestLogFilter.verify(verification);
-                verifyResponse(ctx, request, result);
+                boolean includeRequestLog = request.hasQueryStringParameter("requestLog", "true");
+                long timeout = verificationTimeout(request);
+                if (timeout > 0) {
+                    verifyResponseWhenComplete(ctx, request, requestLogFilter.verify(verification, includeRequestLog, timeout, ctx.executor()), responseWriter);
+                } else {
+                    String result = includeRequestLog ? requestLogFilter.verify(verification, true) : requestLogFilter.verify(verification);
+                    writeResponse(ctx, request, verifyResponse(result));
+                }
                 logFormatter.infoLog("verifying requests that match:{}", verification);
 
             } else if (request.matches("PUT", "/verifySequence")) {
 
                 VerificationSequence verificationSequence = verificationSequenceSerializer.deserialize(request.getBodyAsString());
-                String result = requestLogFilter.verify(verificationSequence);
-                verifyResponse(ctx, request, result);
+                long timeout = verificationTimeout(request);
+                if (timeout > 0) {
+                    verifyResponseWhenComplete(ctx, request, requestLogFilter.verify(verificationSequence, timeout, ctx.executor()), responseWriter);
+                } else {
+                    String result = requestLogFilter.verify(verificationSequence);
+                    writeResponse(ctx, request, verifyResponse(result));
+                }
                 logFormatter.infoLog("verifying sequence that match:{}", verificationSequence);
 
             } else if (request.matches("PUT", "/stop")) {
@@ -168,8 +208,7 @@ public class HttpProxyHandler extends SimpleChannelInboundHandler<HttpRequest> {
             } else {
 
                 InetSocketAddress remoteAddress = ctx.channel().attr(REMOTE_SOCKET).get();
-                HttpResponse response = sendRequest(request, remoteAddress);
-                writeResponse(ctx, request, response);
+                sendRequest(ctx, request, remoteAddress);
 
             }
         } catch (IllegalArgumentException iae) {
@@ -182,14 +221,6 @@ public class HttpProxyHandler extends SimpleChannelInboundHandler<HttpRequest> {
         }
     }
 
-    private void verifyResponse(ChannelHandlerContext ctx, HttpRequest request, String result) {
-        if (result.isEmpty()) {
-            writeResponse(ctx, request, ACCEPTED);
-        } else {
-            writeResponse(ctx, request, NOT_ACCEPTABLE, result, MediaType.create("text", "plain").toString());
-        }
-    }
-
     private void writeResponse(ChannelHandlerContext ctx, HttpRequest request, HttpResponseStatus responseStatus) {
         writeResponse(ctx, request, responseStatus, "", "application/json");
     }
@@ -221,23 +252,50 @@ public class HttpProxyHandler extends SimpleChannelInboundHandler<HttpRequest> {
         }
     }
 
-    private HttpResponse sendRequest(HttpRequest httpRequest, InetSocketAddress remoteAddress) {
-        HttpResponse httpResponse = notFoundResponse();
+    /**
+     * Writes the response once the remote server responds instead of blocking the event loop waiting for it
+     */
+    private void sendRequest(final ChannelHandlerContext ctx, final HttpRequest httpRequest, final InetSocketAddress remoteAddress) {
         HttpRequest filteredRequest = filters.applyOnRequestFilters(httpRequest);
         // allow for filter to set response to null
-        if (filteredRequest != null) {
-            httpResponse = filters.applyOnResponseFilters(httpRequest, httpClient.sendRequest(filteredRequest, remoteAddress));
-            if (httpResponse == null) {
-                httpResponse = notFoundResponse();
-            }
-            logFormatter.infoLog(
-                    "returning response:{}" + NEW_LINE + " for request as json:{}" + NEW_LINE + " as curl:{}",
-                    httpResponse,
-                    httpRequest,
-                    httpRequestToCurlSerializer.toCurl(httpRequest, remoteAddress)
-            );
+        if (filteredRequest == null) {
+            writeResponse(ctx, httpRequest, notFoundResponse());
+            return;
         }
-        return httpResponse;
+        ListenableFuture<HttpResponse> responseFuture = httpClient.sendRequestAsync(filteredRequest, remoteAddress);
+        PipelinedRequests.awaitResponse(ctx);
+        Futures.addCallback(responseFuture, new FutureCallback<HttpResponse>() {
+            @Override
+            public void onSuccess(HttpResponse response) {
+                try {
+                    HttpResponse httpResponse = filters.applyOnResponseFilters(httpRequest, response);
+                    if (httpResponse == null) {
+                        httpResponse = notFoundResponse();
+                    }
+                    logFormatter.infoLog(
+                            "returning response:{}" + NEW_LINE + " for request as json:{}" + NEW_LINE + " as curl:{}",
+                            httpResponse,
+                            httpRequest,
+                            httpRequestToCurlSerializer.toCurl(httpRequest, remoteAddress)
+                    );
+                    writeResponse(ctx, httpRequest, httpResponse);
+                    ctx.flush();
+                } finally {
+                    PipelinedRequests.responded(ctx);
+                }
+            }
+
+            @Override
+            public void onFailure(Throwable throwable) {
+                try {
+                    logger.error("Exception processing " + httpRequest, throwable);
+                    writeResponse(ctx, httpRequest, response().withStatusCode(BAD_REQUEST.code()).withBody(throwable.getMessage()));
+                    ctx.flush();
+                } finally {
+                    PipelinedRequests.responded(ctx);
+                }
+            }
+        }, ctx.executor());
     }
 
     @Override
@@ -4,14 +4,15 @@ import com.google.common.annotations.VisibleForTesting;
 import io.netty.bootstrap.Bootstrap;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.*;
-import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.handler.codec.http.HttpClientCodec;
 import io.netty.handler.codec.http.HttpContentDecompressor;
-import io.netty.handler.codec.http.HttpObjectAggregator;
 import io.netty.handler.codec.http.HttpServerCodec;
+import org.mockserver.configuration.ConfigurationProperties;
 import org.mockserver.logging.LoggingHandler;
 import org.mockserver.proxy.http.HttpProxy;
 import org.mockserver.proxy.unification.PortUnificationHandler;
+import org.mockserver.socket.NettyTransport;
+import org.mockserver.server.netty.codec.SpillingHttpObjectAggregator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -36,7 +37,7 @@ public abstract class RelayConnectHandler<T> extends SimpleChannelInboundHandler
     public void channelRead0(final ChannelHandlerContext serverCtx, final T request) throws Exception {
         Bootstrap bootstrap = new Bootstrap()
                 .group(serverCtx.channel().eventLoop())
-                .channel(NioSocketChannel.class)
+                .channel(NettyTransport.socketChannelClass(serverCtx.channel().eventLoop()))
                 .handler(new ChannelInboundHandlerAdapter() {
                     @Override
                     public void channelActive(final ChannelHandlerContext clientCtx) throws Exception {
@@ -62,7 +63,7 @@ public abstract class RelayConnectHandler<T> extends SimpleChannelInboundHandler
 
                                         downstreamPipeline.addLast(new HttpContentDecompressor());
 
-                                        downstreamPipeline.addLast(new HttpObjectAggregator(Integer.MAX_VALUE));
+                                        downstreamPipeline.addLast(new SpillingHttpObjectAggregator(Integer.MAX_VALUE, ConfigurationProperties.requestBodyMemoryThreshold()));
 
                                         downstreamPipeline.addLast(new DownstreamProxyRelayHandler(serverCtx.channel(), logger));
 
@@ -82,7 +83,7 @@ public abstract class RelayConnectHandler<T> extends SimpleChannelInboundHandler
 
                                         upstreamPipeline.addLast(new HttpContentDecompressor());
 
-                                        upstreamPipeline.addLast(new HttpObjectAggregator(Integer.MAX_VALUE));
+                                        upstreamPipeline.addLast(new SpillingHttpObjectAggregator(Integer.MAX_VALUE, ConfigurationProperties.requestBodyMemoryThreshold()));
 
                                         upstreamPipeline.addLast(new UpstreamProxyRelayHandler(serverCtx.channel(), clientCtx.channel(), logger));
                                     }
@@ -4,11 +4,11 @@ import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPipeline;
 import io.netty.handler.codec.http.HttpContentDecompressor;
-import io.netty.handler.codec.http.HttpObjectAggregator;
 import io.netty.handler.codec.http.HttpServerCodec;
 import io.netty.handler.codec.socks.*;
 import io.netty.handler.ssl.SslHandler;
 import org.mockserver.proxy.relay.RelayConnectHandler;
+import org.mockserver.server.netty.codec.SpillingHttpObjectAggregator;
 
 @ChannelHandler.Sharable
 public final class SocksConnectHandler extends RelayConnectHandler<SocksCmdRequest> {
@@ -22,7 +22,7 @@ public final class SocksConnectHandler extends RelayConnectHandler<SocksCmdReque
         removeHandler(pipeline, SslHandler.class);
         removeHandler(pipeline, HttpServerCodec.class);
         removeHandler(pipeline, HttpContentDecompressor.class);
-        removeHandler(pipeline, HttpObjectAggregator.class);
+        removeHandler(pipeline, SpillingHttpObjectAggregator.class);
         removeHandler(pipeline, SocksMessageEncoder.class);
         removeHandler(pipeline, this);
     }
@@ -4,7 +4,6 @@ import com.google.common.annotations.VisibleForTesting;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.*;
 import io.netty.handler.codec.http.HttpContentDecompressor;
-import io.netty.handler.codec.http.HttpObjectAggregator;
 import io.netty.handler.codec.http.HttpServerCodec;
 import io.netty.handler.codec.socks.SocksAuthScheme;
 import io.netty.handler.codec.socks.SocksInitRequestDecoder;
@@ -12,8 +11,10 @@ import io.netty.handler.codec.socks.SocksMessageEncoder;
 import io.netty.handler.codec.socks.SocksProtocolVersion;
 import io.netty.handler.ssl.SslHandler;
 import io.netty.util.AttributeKey;
+import org.mockserver.configuration.ConfigurationProperties;
 import org.mockserver.logging.LoggingHandler;
 import org.mockserver.proxy.socks.SocksProxyHandler;
+import org.mockserver.server.netty.codec.SpillingHttpObjectAggregator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -163,7 +164,7 @@ public abstract class PortUnificationHandler extends SimpleChannelInboundHandler
 
         addLastIfNotPresent(pipeline, new HttpServerCodec(8192, 8192, 8192));
         addLastIfNotPresent(pipeline, new HttpContentDecompressor());
-        addLastIfNotPresent(pipeline, new HttpObjectAggregator(Integer.MAX_VALUE));
+        addLastIfNotPresent(pipeline, new SpillingHttpObjectAggregator(Integer.MAX_VALUE, ConfigurationProperties.requestBodyMemoryThreshold()));
 
         configurePipeline(ctx, pipeline);
         pipeline.remove(this);
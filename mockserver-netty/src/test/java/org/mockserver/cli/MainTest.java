@@ -4,6 +4,7 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
+import org.mockserver.configuration.ConfigurationProperties;
 import org.mockserver.mockserver.MockServerBuilder;
 import org.mockserver.proxy.ProxyBuilder;
 import org.mockserver.socket.PortFactory;
@@ -11,6 +12,8 @@ import org.mockserver.stop.StopEventQueue;
 
 import java.io.PrintStream;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
 import static org.mockito.Matchers.anyInt;
 import static org.mockito.Mockito.*;
 import static org.mockito.MockitoAnnotations.initMocks;
@@ -188,6 +191,33 @@ public class MainTest {
         verify(mockProxyBuilder).build();
     }
 
+    @Test
+    public void shouldParseArgumentsForTransportAndThreadCounts() {
+        try {
+            Main.main("-serverPort", SERVER_PORT.toString(), "-nativeTransport", "true", "-bossThreadCount", "2", "-workerThreadCount", "8");
+
+            verify(mockMockServerBuilder).withHTTPPort(SERVER_PORT);
+            verify(mockMockServerBuilder).build();
+            assertThat(ConfigurationProperties.nativeTransport(), is(true));
+            assertThat(ConfigurationProperties.bossThreadCount(), is(2));
+            assertThat(ConfigurationProperties.workerThreadCount(), is(8));
+        } finally {
+            System.clearProperty("mockserver.nativeTransport");
+            System.clearProperty("mockserver.bossThreadCount");
+            System.clearProperty("mockserver.workerThreadCount");
+        }
+    }
+
+    @Test
+    public void shouldPrintOutUsageForInvalidThreadCount() {
+        Main.main("-serverPort", "1", "-workerThreadCount", "0");
+
+        verify(mockPrintStream, times(1)).print(Main.USAGE);
+        verify(mockPrintStream, times(1)).println("   workerThreadCount value \"0\" is invalid, please specify a number greater than zero i.e. \"4\"");
+        verify(mockRuntime, times(1)).exit(1);
+        verifyZeroInteractions(mockMockServerBuilder);
+    }
+
     @Test
     public void shouldPrintOutUsageForInvalidPort() {
         Main.main("-proxyPort", "1", "-invalidOption", "2");
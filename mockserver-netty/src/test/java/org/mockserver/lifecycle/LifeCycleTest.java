@@ -0,0 +1,60 @@
+package org.mockserver.lifecycle;
+
+import org.junit.Test;
+import org.mockserver.mockserver.MockServer;
+import org.mockserver.socket.PortFactory;
+
+import java.net.ServerSocket;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.fail;
+
+/**
+ * @author jamesdbloom
+ */
+public class LifeCycleTest {
+
+    @Test
+    public void shouldReturnPortsBound() {
+        // given
+        int freePort = PortFactory.findFreePort();
+        MockServer mockServer = new MockServer(freePort);
+
+        try {
+            // when
+            List<Integer> boundPorts = mockServer.bindToPorts(Arrays.asList(0));
+
+            // then - the port the kernel chose is returned
+            assertThat(boundPorts.size(), is(1));
+            assertThat(boundPorts.get(0), greaterThan(0));
+            assertThat(mockServer.getPort(), is(freePort));
+            assertThat(mockServer.getPorts(), contains(freePort, boundPorts.get(0)));
+        } finally {
+            mockServer.stop();
+        }
+    }
+
+    @Test
+    public void shouldThrowExceptionWhenPortAlreadyBound() throws Exception {
+        // given
+        ServerSocket serverSocket = new ServerSocket(0);
+        MockServer mockServer = new MockServer(PortFactory.findFreePort());
+
+        try {
+            // when
+            mockServer.bindToPorts(Arrays.asList(serverSocket.getLocalPort()));
+            fail("expected exception to be thrown");
+        } catch (RuntimeException re) {
+            // then
+            assertThat(re.getMessage(), is("Exception while binding MockServer to port " + serverSocket.getLocalPort()));
+        } finally {
+            mockServer.stop();
+            serverSocket.close();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package org.mockserver.mockserver;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockserver.configuration.ConfigurationProperties;
+import org.mockserver.mock.MockServerMatcher;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author jamesdbloom
+ */
+public class HeaderPhaseMatchingHandlerTest {
+
+    private MockServerMatcher mockMockServerMatcher;
+    private EmbeddedChannel embeddedChannel;
+    private int originalRequestBodyMemoryThreshold;
+
+    @Before
+    public void setupFixture() {
+        originalRequestBodyMemoryThreshold = ConfigurationProperties.requestBodyMemoryThreshold();
+        ConfigurationProperties.requestBodyMemoryThreshold(4);
+        mockMockServerMatcher = mock(MockServerMatcher.class);
+        embeddedChannel = new EmbeddedChannel(new HeaderPhaseMatchingHandler(mockMockServerMatcher, false));
+    }
+
+    @After
+    public void restoreConfiguration() {
+        ConfigurationProperties.requestBodyMemoryThreshold(originalRequestBodyMemoryThreshold);
+    }
+
+    private static HttpRequest requestWithBody(HttpMethod method, String path, int contentLength) {
+        HttpRequest request = new DefaultHttpRequest(HttpVersion.HTTP_1_1, method, path);
+        HttpUtil.setContentLength(request, contentLength);
+        return request;
+    }
+
+    @Test
+    public void shouldPassOnRequestWithoutBodyWhenBodyIsNotNeeded() {
+        // given
+        when(mockMockServerMatcher.canRetrieveActionWithoutBody(any(org.mockserver.model.HttpRequest.class))).thenReturn(true);
+
+        // when
+        embeddedChannel.writeInbound(requestWithBody(HttpMethod.POST, "/somePath", 9));
+        embeddedChannel.writeInbound(new DefaultHttpContent(Unpooled.copiedBuffer("some_", UTF_8)));
+        embeddedChannel.writeInbound(new DefaultLastHttpContent(Unpooled.copiedBuffer("body", UTF_8)));
+
+        // then
+        FullHttpRequest fullHttpRequest = embeddedChannel.readInbound();
+        assertThat(fullHttpRequest.uri(), is("/somePath"));
+        assertThat(fullHttpRequest.content().readableBytes(), is(0));
+        assertThat(embeddedChannel.readInbound(), is(nullValue()));
+    }
+
+    @Test
+    public void shouldPassOnRequestAndBodyWhenBodyIsNeeded() {
+        // given
+        when(mockMockServerMatcher.canRetrieveActionWithoutBody(any(org.mockserver.model.HttpRequest.class))).thenReturn(false);
+
+        // when
+        embeddedChannel.writeInbound(requestWithBody(HttpMethod.POST, "/somePath", 9));
+        embeddedChannel.writeInbound(new DefaultLastHttpContent(Unpooled.copiedBuffer("some_body", UTF_8)));
+
+        // then
+        assertThat(embeddedChannel.readInbound(), not(instanceOf(FullHttpRequest.class)));
+        LastHttpContent lastHttpContent = embeddedChannel.readInbound();
+        assertThat(lastHttpContent.content().toString(UTF_8), is("some_body"));
+        lastHttpContent.release();
+    }
+
+    @Test
+    public void shouldNotMatchRequestWithSmallBody() {
+        // when
+        embeddedChannel.writeInbound(requestWithBody(HttpMethod.POST, "/somePath", 4));
+
+        // then
+        assertThat(embeddedChannel.readInbound(), not(instanceOf(FullHttpRequest.class)));
+        verifyZeroInteractions(mockMockServerMatcher);
+    }
+
+    @Test
+    public void shouldNotMatchApiRequest() {
+        // when
+        embeddedChannel.writeInbound(requestWithBody(HttpMethod.PUT, "/expectation", 9));
+
+        // then
+        assertThat(embeddedChannel.readInbound(), not(instanceOf(FullHttpRequest.class)));
+        verifyZeroInteractions(mockMockServerMatcher);
+    }
+}
@@ -1,8 +1,11 @@
 package org.mockserver.mockserver;
 
+import io.netty.handler.codec.http.FullHttpResponse;
 import org.junit.Test;
+import org.mockserver.configuration.ConfigurationProperties;
 import org.mockserver.model.*;
 
+import static com.google.common.base.Charsets.UTF_8;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.collection.IsEmptyCollection.empty;
 import static org.hamcrest.collection.IsIterableContainingInAnyOrder.containsInAnyOrder;
@@ -26,7 +29,7 @@ public class MockServerHandlerConnectionOptionsTest extends MockServerHandlerTes
         when(mockMockServerMatcher.retrieveAction(request)).thenReturn(response().withBody("some_response"));
 
         // and - a action handler
-        when(mockActionHandler.processAction(response().withBody("some_response"), request.withKeepAlive(true)))
+        when(mockActionHandler.processStaticResponseAction(response().withBody("some_response"), request.withKeepAlive(true)))
                 .thenReturn(
                         response()
                                 .withBody("some_content")
@@ -42,7 +45,7 @@ public class MockServerHandlerConnectionOptionsTest extends MockServerHandlerTes
         embeddedChannel.writeInbound(request);
 
         // then
-        verify(mockActionHandler).processAction(response().withBody("some_response"), request);
+        verify(mockActionHandler).processStaticResponseAction(response().withBody("some_response"), request);
 
         // and - correct response written to ChannelHandlerContext
         HttpResponse httpResponse = (HttpResponse) embeddedChannel.readOutbound();
@@ -61,7 +64,7 @@ public class MockServerHandlerConnectionOptionsTest extends MockServerHandlerTes
         when(mockMockServerMatcher.retrieveAction(request)).thenReturn(response().withBody("some_response"));
 
         // and - a action handler
-        when(mockActionHandler.processAction(response().withBody("some_response"), request.withKeepAlive(true)))
+        when(mockActionHandler.processStaticResponseAction(response().withBody("some_response"), request.withKeepAlive(true)))
                 .thenReturn(
                         response()
                                 .withBody("some_content")
@@ -76,7 +79,7 @@ public class MockServerHandlerConnectionOptionsTest extends MockServerHandlerTes
         embeddedChannel.writeInbound(request);
 
         // then
-        verify(mockActionHandler).processAction(response().withBody("some_response"), request);
+        verify(mockActionHandler).processStaticResponseAction(response().withBody("some_response"), request);
 
         // and - correct response written to ChannelHandlerContext
         HttpResponse httpResponse = (HttpResponse) embeddedChannel.readOutbound();
@@ -95,7 +98,7 @@ public class MockServerHandlerConnectionOptionsTest extends MockServerHandlerTes
         when(mockMockServerMatcher.retrieveAction(request)).thenReturn(response().withBody("some_response"));
 
         // and - a action handler
-        when(mockActionHandler.processAction(response().withBody("some_response"), request.withKeepAlive(false)))
+        when(mockActionHandler.processStaticResponseAction(response().withBody("some_response"), request.withKeepAlive(false)))
                 .thenReturn(
                         response()
                                 .withBody("some_content")
@@ -110,7 +113,7 @@ public class MockServerHandlerConnectionOptionsTest extends MockServerHandlerTes
         embeddedChannel.writeInbound(request);
 
         // then
-        verify(mockActionHandler).processAction(response().withBody("some_response"), request);
+        verify(mockActionHandler).processStaticResponseAction(response().withBody("some_response"), request);
 
         // and - correct response written to ChannelHandlerContext
         HttpResponse httpResponse = (HttpResponse) embeddedChannel.readOutbound();
@@ -129,7 +132,7 @@ public class MockServerHandlerConnectionOptionsTest extends MockServerHandlerTes
         when(mockMockServerMatcher.retrieveAction(request)).thenReturn(response().withBody("some_response"));
 
         // and - a action handler
-        when(mockActionHandler.processAction(response().withBody("some_response"), request.withKeepAlive(true)))
+        when(mockActionHandler.processStaticResponseAction(response().withBody("some_response"), request.withKeepAlive(true)))
                 .thenReturn(
                         response()
                                 .withBody("some_content")
@@ -140,7 +143,7 @@ public class MockServerHandlerConnectionOptionsTest extends MockServerHandlerTes
         embeddedChannel.writeInbound(request);
 
         // then
-        verify(mockActionHandler).processAction(response().withBody("some_response"), request);
+        verify(mockActionHandler).processStaticResponseAction(response().withBody("some_response"), request);
 
         // and - correct response written to ChannelHandlerContext
         assertThat(embeddedChannel.isOpen(), is(true));
@@ -159,7 +162,7 @@ public class MockServerHandlerConnectionOptionsTest extends MockServerHandlerTes
         when(mockMockServerMatcher.retrieveAction(request)).thenReturn(response().withBody("some_response"));
 
         // and - a action handler
-        when(mockActionHandler.processAction(response().withBody("some_response"), request.withKeepAlive(true)))
+        when(mockActionHandler.processStaticResponseAction(response().withBody("some_response"), request.withKeepAlive(true)))
                 .thenReturn(
                         response()
                                 .withBody("some_content")
@@ -174,7 +177,7 @@ public class MockServerHandlerConnectionOptionsTest extends MockServerHandlerTes
         embeddedChannel.writeInbound(request);
 
         // then
-        verify(mockActionHandler).processAction(response().withBody("some_response"), request);
+        verify(mockActionHandler).processStaticResponseAction(response().withBody("some_response"), request);
 
         // and - correct response written to ChannelHandlerContext
         HttpResponse httpResponse = (HttpResponse) embeddedChannel.readOutbound();
@@ -193,7 +196,7 @@ public class MockServerHandlerConnectionOptionsTest extends MockServerHandlerTes
         when(mockMockServerMatcher.retrieveAction(request)).thenReturn(response().withBody("some_response"));
 
         // and - a action handler
-        when(mockActionHandler.processAction(response().withBody("some_response"), request.withKeepAlive(false)))
+        when(mockActionHandler.processStaticResponseAction(response().withBody("some_response"), request.withKeepAlive(false)))
                 .thenReturn(
                         response()
                                 .withBody("some_content")
@@ -204,7 +207,7 @@ public class MockServerHandlerConnectionOptionsTest extends MockServerHandlerTes
         embeddedChannel.writeInbound(request);
 
         // then
-        verify(mockActionHandler).processAction(response().withBody("some_response"), request);
+        verify(mockActionHandler).processStaticResponseAction(response().withBody("some_response"), request);
 
         // and - correct response written to ChannelHandlerContext
         assertThat(embeddedChannel.isOpen(), is(false));
@@ -223,7 +226,7 @@ public class MockServerHandlerConnectionOptionsTest extends MockServerHandlerTes
         when(mockMockServerMatcher.retrieveAction(request)).thenReturn(response().withBody("some_response"));
 
         // and - a action handler
-        when(mockActionHandler.processAction(response().withBody("some_response"), request.withKeepAlive(true)))
+        when(mockActionHandler.processStaticResponseAction(response().withBody("some_response"), request.withKeepAlive(true)))
                 .thenReturn(
                         response()
                                 .withBody("some_content")
@@ -238,7 +241,7 @@ public class MockServerHandlerConnectionOptionsTest extends MockServerHandlerTes
         embeddedChannel.writeInbound(request);
 
         // then
-        verify(mockActionHandler).processAction(response().withBody("some_response"), request);
+        verify(mockActionHandler).processStaticResponseAction(response().withBody("some_response"), request);
 
         // and - correct response written to ChannelHandlerContext
         HttpResponse httpResponse = (HttpResponse) embeddedChannel.readOutbound();
@@ -257,7 +260,7 @@ public class MockServerHandlerConnectionOptionsTest extends MockServerHandlerTes
         when(mockMockServerMatcher.retrieveAction(request)).thenReturn(response().withBody("some_response"));
 
         // and - a action handler
-        when(mockActionHandler.processAction(response().withBody("some_response"), request.withKeepAlive(false)))
+        when(mockActionHandler.processStaticResponseAction(response().withBody("some_response"), request.withKeepAlive(false)))
                 .thenReturn(
                         response()
                                 .withBody("some_content")
@@ -272,7 +275,7 @@ public class MockServerHandlerConnectionOptionsTest extends MockServerHandlerTes
         embeddedChannel.writeInbound(request);
 
         // then
-        verify(mockActionHandler).processAction(response().withBody("some_response"), request);
+        verify(mockActionHandler).processStaticResponseAction(response().withBody("some_response"), request);
 
         // and - correct response written to ChannelHandlerContext
         HttpResponse httpResponse = (HttpResponse) embeddedChannel.readOutbound();
@@ -282,4 +285,100 @@ public class MockServerHandlerConnectionOptionsTest extends MockServerHandlerTes
         assertThat(httpResponse.getBodyAsString(), is("some_content"));
     }
 
+    @Test
+    public void shouldWriteEncodedStaticResponseWithKeepAlive() {
+        // given - a request
+        HttpRequest request = request("/randomPath").withMethod("GET").withKeepAlive(true);
+
+        // and - a matcher
+        HttpResponse action = response().withBody("some_response");
+        when(mockMockServerMatcher.retrieveAction(request)).thenReturn(action);
+
+        // and - a action handler that doesn't replace the response
+        when(mockActionHandler.processStaticResponseAction(action, request)).thenReturn(action);
+
+        // when
+        embeddedChannel.writeInbound(request);
+
+        // then - encoded response written to ChannelHandlerContext
+        FullHttpResponse httpResponse = embeddedChannel.readOutbound();
+        try {
+            assertThat(embeddedChannel.isOpen(), is(true));
+            assertThat(httpResponse.content().toString(UTF_8), is("some_response"));
+            assertThat(httpResponse.headers().getAll("Connection"), containsInAnyOrder("keep-alive"));
+            assertThat(httpResponse.headers().contains("Access-Control-Allow-Origin"), is(false));
+        } finally {
+            httpResponse.release();
+        }
+    }
+
+    @Test
+    public void shouldWriteEncodedStaticResponseAndCloseSocketWithoutKeepAlive() {
+        // given - a request
+        HttpRequest request = request("/randomPath").withMethod("GET").withKeepAlive(false);
+
+        // and - a matcher
+        HttpResponse action = response().withBody("some_response");
+        when(mockMockServerMatcher.retrieveAction(request)).thenReturn(action);
+
+        // and - a action handler that doesn't replace the response
+        when(mockActionHandler.processStaticResponseAction(action, request)).thenReturn(action);
+
+        // when
+        embeddedChannel.writeInbound(request);
+
+        // then - encoded response written to ChannelHandlerContext
+        FullHttpResponse httpResponse = embeddedChannel.readOutbound();
+        try {
+            assertThat(embeddedChannel.isOpen(), is(false));
+            assertThat(httpResponse.content().toString(UTF_8), is("some_response"));
+            assertThat(httpResponse.headers().getAll("Connection"), containsInAnyOrder("close"));
+        } finally {
+            httpResponse.release();
+        }
+    }
+
+    @Test
+    public void shouldAddHeadersForEachRequestToDuplicateOfEncodedStaticResponse() {
+        // given - a keep alive request then a request without keep alive
+        HttpRequest keepAliveRequest = request("/keepAlivePath").withMethod("GET").withKeepAlive(true);
+        HttpRequest closeRequest = request("/closePath").withMethod("GET").withKeepAlive(false);
+
+        // and - a matcher returning the same response for both requests
+        HttpResponse action = response().withBody("some_response");
+        when(mockMockServerMatcher.retrieveAction(keepAliveRequest)).thenReturn(action);
+        when(mockMockServerMatcher.retrieveAction(closeRequest)).thenReturn(action);
+
+        // and - a action handler that doesn't replace the response
+        when(mockActionHandler.processStaticResponseAction(action, keepAliveRequest)).thenReturn(action);
+        when(mockActionHandler.processStaticResponseAction(action, closeRequest)).thenReturn(action);
+
+        // and - CORS enabled
+        boolean originalEnableCORSForAllResponses = ConfigurationProperties.enableCORSForAllResponses();
+        ConfigurationProperties.enableCORSForAllResponses(true);
+
+        try {
+            // when
+            embeddedChannel.writeInbound(keepAliveRequest);
+            embeddedChannel.writeInbound(closeRequest);
+
+            // then - each response only has the headers for its own request
+            FullHttpResponse keepAliveResponse = embeddedChannel.readOutbound();
+            FullHttpResponse closeResponse = embeddedChannel.readOutbound();
+            try {
+                assertThat(keepAliveResponse.headers().getAll("Connection"), containsInAnyOrder("keep-alive"));
+                assertThat(keepAliveResponse.headers().getAll("Access-Control-Allow-Origin"), containsInAnyOrder("*"));
+                assertThat(keepAliveResponse.content().toString(UTF_8), is("some_response"));
+                assertThat(closeResponse.headers().getAll("Connection"), containsInAnyOrder("close"));
+                assertThat(closeResponse.headers().getAll("Access-Control-Allow-Origin"), containsInAnyOrder("*"));
+                assertThat(closeResponse.content().toString(UTF_8), is("some_response"));
+                assertThat(embeddedChannel.isOpen(), is(false));
+            } finally {
+                keepAliveResponse.release();
+                closeResponse.release();
+            }
+        } finally {
+            ConfigurationProperties.enableCORSForAllResponses(originalEnableCORSForAllResponses);
+        }
+    }
 }
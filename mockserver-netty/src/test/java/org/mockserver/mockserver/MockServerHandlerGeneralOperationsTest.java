@@ -1,32 +1,52 @@
 package org.mockserver.mockserver;
 
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import io.netty.handler.codec.http.FullHttpResponse;
 import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpChunkedInput;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.handler.stream.ChunkedStream;
 import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.mockserver.client.serialization.HttpRequestSerializer;
 import org.mockserver.configuration.ConfigurationProperties;
-import org.mockserver.matchers.TimeToLive;
-import org.mockserver.matchers.Times;
 import org.mockserver.model.*;
 import org.mockserver.verify.Verification;
 import org.mockserver.verify.VerificationSequence;
 
+import java.io.ByteArrayInputStream;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.util.Arrays;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 
+import static com.google.common.base.Charsets.UTF_8;
 import static io.netty.handler.codec.http.HttpHeaderNames.HOST;
 import static io.netty.handler.codec.http.HttpResponseStatus.*;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.collection.IsIterableContainingInAnyOrder.containsInAnyOrder;
 import static org.hamcrest.core.Is.is;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.*;
 import static org.mockserver.character.Character.NEW_LINE;
+import static org.mockserver.mock.HttpStateHandler.NEXT_CURSOR_HEADER;
+import static org.mockserver.model.HttpClassCallback.callback;
+import static org.mockserver.model.HttpForward.forward;
 import static org.mockserver.model.HttpRequest.request;
 import static org.mockserver.model.HttpResponse.response;
+import static org.mockserver.model.HttpTemplate.template;
 
 /**
  * @author jamesdbloom
@@ -91,18 +111,29 @@ public class MockServerHandlerGeneralOperationsTest extends MockServerHandlerTes
     public void shouldReturnRecordedRequestsOrExpectations() {
         // given
         HttpRequest request = request("/retrieve").withMethod("PUT").withBody("some_content");
-        when(httpStateHandler.retrieve(request)).thenReturn("requests");
+        when(httpStateHandler.retrieveChunked(eq(request), any(HttpHeaders.class))).thenAnswer(new Answer<HttpChunkedInput>() {
+            @Override
+            public HttpChunkedInput answer(InvocationOnMock invocation) {
+                ((HttpHeaders) invocation.getArguments()[1]).set(NEXT_CURSOR_HEADER, "2");
+                return new HttpChunkedInput(new ChunkedStream(new ByteArrayInputStream("requests".getBytes(UTF_8))));
+            }
+        });
 
         // when
         embeddedChannel.writeInbound(request);
 
         // then - http state handler is called
-        verify(httpStateHandler).retrieve(request);
-
-        // and - correct response written to ChannelHandlerContext
-        HttpResponse httpResponse = embeddedChannel.readOutbound();
-        assertThat(httpResponse.getStatusCode(), is(OK.code()));
-        assertThat(httpResponse.getBodyAsString(), is("requests"));
+        verify(httpStateHandler).retrieveChunked(eq(request), any(HttpHeaders.class));
+
+        // and - chunked response written to ChannelHandlerContext
+        io.netty.handler.codec.http.HttpResponse httpResponse = embeddedChannel.readOutbound();
+        assertThat(httpResponse.status(), is(OK));
+        assertThat(HttpUtil.isTransferEncodingChunked(httpResponse), is(true));
+        assertThat(httpResponse.headers().get(NEXT_CURSOR_HEADER), is("2"));
+        HttpContent httpContent = embeddedChannel.readOutbound();
+        assertThat(httpContent.content().toString(UTF_8), is("requests"));
+        httpContent.release();
+        assertThat(embeddedChannel.readOutbound(), instanceOf(LastHttpContent.class));
     }
 
     @Test
@@ -143,6 +174,43 @@ public class MockServerHandlerGeneralOperationsTest extends MockServerHandlerTes
         assertThat(httpResponse.getBodyAsString(), is(""));
     }
 
+    @Test
+    public void shouldVerifyFailingRequestIncludingRequestLog() {
+        // given
+        when(mockRequestLogFilter.verify(any(Verification.class), eq(true))).thenReturn("failure response");
+
+        // and - a request
+        HttpRequest request = request("/verify").withMethod("PUT").withQueryStringParameter("requestLog", "true").withBody("some_content");
+
+        // when
+        embeddedChannel.writeInbound(request);
+
+        // then - log filter called
+        verify(mockRequestLogFilter).verify(mockVerification, true);
+
+        // and - correct response written to ChannelHandlerContext
+        HttpResponse httpResponse = embeddedChannel.readOutbound();
+        assertThat(httpResponse.getStatusCode(), is(NOT_ACCEPTABLE.code()));
+        assertThat(httpResponse.getBodyAsString(), is("failure response"));
+    }
+
+    @Test
+    public void shouldRegisterVerification() {
+        // given
+        String verificationRequest = "{ \"path\" : \"some_path\" }";
+        HttpRequest request = request("/registerVerification").withMethod("PUT").withBody(verificationRequest);
+
+        // when
+        embeddedChannel.writeInbound(request);
+
+        // then - log filter called
+        verify(mockRequestLogFilter).registerVerification(new HttpRequestSerializer().deserialize(verificationRequest));
+
+        // and - correct response written to ChannelHandlerContext
+        HttpResponse httpResponse = embeddedChannel.readOutbound();
+        assertThat(httpResponse.getStatusCode(), is(CREATED.code()));
+    }
+
     @Test
     public void shouldVerifyFailingRequest() {
         // given
@@ -285,7 +353,7 @@ public class MockServerHandlerGeneralOperationsTest extends MockServerHandlerTes
         when(mockMockServerMatcher.retrieveAction(request)).thenReturn(response().withBody("some_response"));
 
         // and - a action handler
-        when(mockActionHandler.processAction(response().withBody("some_response"), request))
+        when(mockActionHandler.processStaticResponseAction(response().withBody("some_response"), request))
                 .thenReturn(
                         response()
                                 .withStatusCode(PAYMENT_REQUIRED.code())
@@ -297,7 +365,7 @@ public class MockServerHandlerGeneralOperationsTest extends MockServerHandlerTes
         embeddedChannel.writeInbound(request);
 
         // then
-        verify(mockActionHandler).processAction(response().withBody("some_response"), request);
+        verify(mockActionHandler).processStaticResponseAction(response().withBody("some_response"), request);
 
         // and - correct response written to ChannelHandlerContext
         HttpResponse httpResponse = embeddedChannel.readOutbound();
@@ -308,6 +376,182 @@ public class MockServerHandlerGeneralOperationsTest extends MockServerHandlerTes
         assertThat(httpResponse.getBodyAsString(), is("some_content"));
     }
 
+    @Test
+    public void shouldWriteEncodedStaticResponse() {
+        // given - a request
+        HttpRequest request = request("/randomPath").withMethod("GET").withBody("some_content").withKeepAlive(true);
+
+        // and - a matcher
+        HttpResponse staticResponse = response().withStatusCode(PAYMENT_REQUIRED.code()).withBody("some_response");
+        when(mockMockServerMatcher.retrieveAction(request)).thenReturn(staticResponse);
+
+        // and - a action handler that doesn't replace the response
+        when(mockActionHandler.processStaticResponseAction(staticResponse, request)).thenReturn(staticResponse);
+
+        // when
+        embeddedChannel.writeInbound(request);
+
+        // then - encoded response written to ChannelHandlerContext
+        FullHttpResponse fullHttpResponse = embeddedChannel.readOutbound();
+        assertThat(embeddedChannel.isOpen(), is(true));
+        assertThat(fullHttpResponse.status().code(), is(PAYMENT_REQUIRED.code()));
+        assertThat(fullHttpResponse.headers().get("Connection"), is("keep-alive"));
+        assertThat(fullHttpResponse.content().toString(UTF_8), is("some_response"));
+
+        // and - the expectation's response is not modified
+        assertThat(staticResponse.getHeader("Connection").isEmpty(), is(true));
+    }
+
+    @Test
+    public void shouldDelayResponseWithoutBlockingEventLoop() throws InterruptedException {
+        // given - a request
+        HttpRequest request = request("/randomPath").withMethod("GET").withBody("some_content");
+
+        // and - a matcher
+        when(mockMockServerMatcher.retrieveAction(request)).thenReturn(response().withBody("some_response").withDelay(TimeUnit.MILLISECONDS, 100));
+
+        // and - a action handler
+        when(mockActionHandler.processStaticResponseAction(response().withBody("some_response").withDelay(TimeUnit.MILLISECONDS, 100), request))
+                .thenReturn(
+                        response()
+                                .withBody("some_content")
+                );
+
+        // when
+        embeddedChannel.writeInbound(request);
+
+        // then - response not written until delay has passed
+        assertThat(embeddedChannel.readOutbound(), nullValue());
+
+        // when
+        TimeUnit.MILLISECONDS.sleep(150);
+        embeddedChannel.runPendingTasks();
+
+        // then - response written once delay has passed
+        HttpResponse httpResponse = embeddedChannel.readOutbound();
+        assertThat(httpResponse.getBodyAsString(), is("some_content"));
+    }
+
+    @Test
+    public void shouldWriteForwardedResponseWhenUpstreamResponds() {
+        // given - a request
+        HttpRequest request = request("/randomPath").withMethod("GET").withBody("some_content");
+
+        // and - a matcher
+        when(mockMockServerMatcher.retrieveAction(request)).thenReturn(forward().withHost("some_host").withPort(1090));
+
+        // and - a action handler
+        SettableFuture<HttpResponse> upstreamResponse = SettableFuture.create();
+        when(mockActionHandler.processForwardAction(forward().withHost("some_host").withPort(1090), request)).thenReturn(upstreamResponse);
+
+        // when
+        embeddedChannel.writeInbound(request);
+
+        // then - no response written until upstream responds
+        verify(mockActionHandler).processForwardAction(forward().withHost("some_host").withPort(1090), request);
+        assertThat(embeddedChannel.readOutbound(), nullValue());
+
+        // when
+        upstreamResponse.set(response().withBody("some_forwarded_response"));
+        embeddedChannel.runPendingTasks();
+
+        // then - response written once upstream has responded
+        HttpResponse httpResponse = embeddedChannel.readOutbound();
+        assertThat(httpResponse.getBodyAsString(), is("some_forwarded_response"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldRunCallbackActionOffEventLoop() {
+        // given - a request
+        final HttpRequest request = request("/randomPath").withMethod("GET").withBody("some_content");
+
+        // and - a matcher
+        when(mockMockServerMatcher.retrieveAction(request)).thenReturn(callback().withCallbackClass("some_class"));
+
+        // and - a action handler
+        when(mockActionHandler.processAction(callback().withCallbackClass("some_class"), request))
+                .thenReturn(
+                        response()
+                                .withBody("some_callback_response")
+                );
+
+        // and - an action executor
+        when(mockActionExecutor.submit(any(Callable.class))).thenAnswer(new Answer<ListenableFuture<HttpResponse>>() {
+            @Override
+            public ListenableFuture<HttpResponse> answer(InvocationOnMock invocation) throws Throwable {
+                Callable<HttpResponse> action = (Callable<HttpResponse>) invocation.getArguments()[0];
+                return Futures.immediateFuture(action.call());
+            }
+        });
+
+        // when
+        embeddedChannel.writeInbound(request);
+        embeddedChannel.runPendingTasks();
+
+        // then
+        verify(mockActionExecutor).submit(any(Callable.class));
+        verify(mockActionHandler).processAction(callback().withCallbackClass("some_class"), request);
+        HttpResponse httpResponse = embeddedChannel.readOutbound();
+        assertThat(httpResponse.getBodyAsString(), is("some_callback_response"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldNotDelayResponseProducedByTemplate() {
+        // given - a request
+        final HttpRequest request = request("/randomPath").withMethod("GET").withBody("some_content");
+
+        // and - a matcher
+        HttpTemplate template = template(HttpTemplate.TemplateType.JAVASCRIPT, "some_template").withDelay(TimeUnit.SECONDS, 10);
+        when(mockMockServerMatcher.retrieveAction(request)).thenReturn(template);
+
+        // and - a action handler
+        when(mockActionHandler.processAction(template, request))
+                .thenReturn(
+                        response()
+                                .withBody("some_template_response")
+                );
+
+        // and - an action executor
+        when(mockActionExecutor.submit(any(Callable.class))).thenAnswer(new Answer<ListenableFuture<HttpResponse>>() {
+            @Override
+            public ListenableFuture<HttpResponse> answer(InvocationOnMock invocation) throws Throwable {
+                Callable<HttpResponse> action = (Callable<HttpResponse>) invocation.getArguments()[0];
+                return Futures.immediateFuture(action.call());
+            }
+        });
+
+        // when
+        embeddedChannel.writeInbound(request);
+        embeddedChannel.runPendingTasks();
+
+        // then - template's delay only applies when the template produces no response
+        HttpResponse httpResponse = embeddedChannel.readOutbound();
+        assertThat(httpResponse.getBodyAsString(), is("some_template_response"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldReturnServiceUnavailableWhenActionRejected() {
+        // given - a request
+        HttpRequest request = request("/randomPath").withMethod("GET").withBody("some_content");
+
+        // and - a matcher
+        when(mockMockServerMatcher.retrieveAction(request)).thenReturn(template(HttpTemplate.TemplateType.JAVASCRIPT, "some_template"));
+
+        // and - an action executor that is full
+        when(mockActionExecutor.submit(any(Callable.class))).thenThrow(new RejectedExecutionException());
+
+        // when
+        embeddedChannel.writeInbound(request);
+
+        // then
+        verify(mockActionHandler, never()).processAction(any(Action.class), any(HttpRequest.class));
+        HttpResponse httpResponse = embeddedChannel.readOutbound();
+        assertThat(httpResponse.getStatusCode(), is(SERVICE_UNAVAILABLE.code()));
+    }
+
     @Test
     public void shouldSetupExpectation() {
         // given
@@ -320,12 +564,7 @@ public class MockServerHandlerGeneralOperationsTest extends MockServerHandlerTes
         verify(mockExpectationSerializer).deserializeArray("some_content");
 
         // and - expectation correctly setup
-        verify(mockMockServerMatcher).when(any(HttpRequest.class), any(Times.class), any(TimeToLive.class));
-        verify(mockExpectation).thenRespond(any(HttpResponse.class));
-        verify(mockExpectation).thenRespond(any(HttpTemplate.class));
-        verify(mockExpectation).thenForward(any(HttpForward.class));
-        verify(mockExpectation).thenError(any(HttpError.class));
-        verify(mockExpectation).thenCallback(any(HttpClassCallback.class));
+        verify(mockMockServerMatcher).add(Arrays.asList(mockExpectation));
 
         // and - correct response written to ChannelHandlerContext
         HttpResponse httpResponse = embeddedChannel.readOutbound();
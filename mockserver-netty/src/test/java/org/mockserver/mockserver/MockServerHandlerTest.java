@@ -61,6 +61,8 @@ public class MockServerHandlerTest {
     HttpStateHandler httpStateHandler;
     @Mock
     ActionHandler mockActionHandler;
+    @Mock
+    ActionExecutor mockActionExecutor;
     // serializers
     @Mock
     ExpectationSerializer mockExpectationSerializer;
@@ -0,0 +1,192 @@
+package org.mockserver.mockserver.callback;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.WriteBufferWaterMark;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockserver.client.serialization.WebSocketMessageSerializer;
+import org.mockserver.configuration.ConfigurationProperties;
+import org.mockserver.model.HttpResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.core.Is.is;
+import static org.mockserver.model.HttpRequest.request;
+import static org.mockserver.model.HttpResponse.notFoundResponse;
+import static org.mockserver.model.HttpResponse.response;
+
+/**
+ * @author jamesdbloom
+ */
+public class WebSocketClientRegistryTest {
+
+    private final WebSocketMessageSerializer webSocketMessageSerializer = new WebSocketMessageSerializer();
+    private WebSocketClientRegistry webSocketClientRegistry;
+    private EmbeddedChannel embeddedChannel;
+    private ChannelHandlerContext ctx;
+    private long originalMaxSocketTimeout;
+    private int originalMaxWebSocketCallbacksInFlight;
+
+    @Before
+    public void setupFixture() {
+        originalMaxSocketTimeout = ConfigurationProperties.maxSocketTimeout();
+        originalMaxWebSocketCallbacksInFlight = ConfigurationProperties.maxWebSocketCallbacksInFlight();
+        webSocketClientRegistry = new WebSocketClientRegistry();
+        embeddedChannel = new EmbeddedChannel(new ChannelInboundHandlerAdapter());
+        ctx = embeddedChannel.pipeline().firstContext();
+        webSocketClientRegistry.registerClient("some_client", ctx);
+        // the client id registration message
+        ((TextWebSocketFrame) embeddedChannel.readOutbound()).release();
+    }
+
+    @After
+    public void restoreConfiguration() {
+        ConfigurationProperties.maxSocketTimeout(originalMaxSocketTimeout);
+        ConfigurationProperties.maxWebSocketCallbacksInFlight(originalMaxWebSocketCallbacksInFlight);
+        embeddedChannel.finishAndReleaseAll();
+    }
+
+    private String sentCorrelationId() throws Exception {
+        TextWebSocketFrame textWebSocketFrame = embeddedChannel.readOutbound();
+        try {
+            return webSocketMessageSerializer.deserializeMessage(textWebSocketFrame.text()).getCorrelationId();
+        } finally {
+            textWebSocketFrame.release();
+        }
+    }
+
+    private void respond(HttpResponse httpResponse, String correlationId) throws Exception {
+        TextWebSocketFrame textWebSocketFrame = new TextWebSocketFrame(webSocketMessageSerializer.serialize(httpResponse, correlationId));
+        try {
+            webSocketClientRegistry.receivedTextWebSocketFrame(ctx, textWebSocketFrame);
+        } finally {
+            textWebSocketFrame.release();
+        }
+    }
+
+    @Test
+    public void shouldRouteResponsesByCorrelationId() throws Exception {
+        // given
+        RecordingCallbackResponse firstCallbackResponse = new RecordingCallbackResponse();
+        RecordingCallbackResponse secondCallbackResponse = new RecordingCallbackResponse();
+        webSocketClientRegistry.sendClientMessage("some_client", request("first_path"), firstCallbackResponse);
+        String firstCorrelationId = sentCorrelationId();
+        webSocketClientRegistry.sendClientMessage("some_client", request("second_path"), secondCallbackResponse);
+        String secondCorrelationId = sentCorrelationId();
+
+        // when
+        respond(response("second_body"), secondCorrelationId);
+
+        // then
+        assertThat(firstCallbackResponse.httpResponses, is(empty()));
+        assertThat(secondCallbackResponse.httpResponses, contains(response("second_body")));
+
+        // when
+        respond(response("first_body"), firstCorrelationId);
+
+        // then
+        assertThat(firstCallbackResponse.httpResponses, contains(response("first_body")));
+        assertThat(secondCallbackResponse.httpResponses, contains(response("second_body")));
+    }
+
+    @Test
+    public void shouldRouteResponseWithoutCorrelationIdToOldestRequest() throws Exception {
+        // given
+        RecordingCallbackResponse firstCallbackResponse = new RecordingCallbackResponse();
+        RecordingCallbackResponse secondCallbackResponse = new RecordingCallbackResponse();
+        webSocketClientRegistry.sendClientMessage("some_client", request("first_path"), firstCallbackResponse);
+        webSocketClientRegistry.sendClientMessage("some_client", request("second_path"), secondCallbackResponse);
+
+        // when
+        respond(response("first_body"), null);
+
+        // then
+        assertThat(firstCallbackResponse.httpResponses, contains(response("first_body")));
+        assertThat(secondCallbackResponse.httpResponses, is(empty()));
+    }
+
+    @Test
+    public void shouldReturnServiceUnavailableWhenTooManyRequestsInProgress() {
+        // given
+        ConfigurationProperties.maxWebSocketCallbacksInFlight(1);
+        RecordingCallbackResponse firstCallbackResponse = new RecordingCallbackResponse();
+        RecordingCallbackResponse secondCallbackResponse = new RecordingCallbackResponse();
+        webSocketClientRegistry.sendClientMessage("some_client", request("first_path"), firstCallbackResponse);
+
+        // when
+        webSocketClientRegistry.sendClientMessage("some_client", request("second_path"), secondCallbackResponse);
+
+        // then
+        assertThat(firstCallbackResponse.httpResponses, is(empty()));
+        assertThat(secondCallbackResponse.httpResponses, contains(response().withStatusCode(503)));
+    }
+
+    @Test
+    public void shouldReturnServiceUnavailableWhenClientCannotAcceptMoreData() {
+        // given
+        embeddedChannel.config().setWriteBufferWaterMark(new WriteBufferWaterMark(1, 2));
+        embeddedChannel.write(Unpooled.wrappedBuffer(new byte[8]));
+        RecordingCallbackResponse callbackResponse = new RecordingCallbackResponse();
+
+        // when
+        webSocketClientRegistry.sendClientMessage("some_client", request("some_path"), callbackResponse);
+
+        // then
+        assertThat(callbackResponse.httpResponses, contains(response().withStatusCode(503)));
+    }
+
+    @Test
+    public void shouldReturnNotFoundWhenNoResponseBeforeTimeout() throws Exception {
+        // given
+        ConfigurationProperties.maxSocketTimeout(1);
+        RecordingCallbackResponse callbackResponse = new RecordingCallbackResponse();
+        webSocketClientRegistry.sendClientMessage("some_client", request("some_path"), callbackResponse);
+        String correlationId = sentCorrelationId();
+
+        // when
+        TimeUnit.MILLISECONDS.sleep(10);
+        embeddedChannel.runPendingTasks();
+
+        // then
+        assertThat(callbackResponse.httpResponses, contains(notFoundResponse()));
+
+        // when - a late response is ignored
+        respond(response("some_body"), correlationId);
+
+        // then
+        assertThat(callbackResponse.httpResponses, contains(notFoundResponse()));
+    }
+
+    @Test
+    public void shouldReturnNotFoundWhenWebSocketClosedBeforeResponse() {
+        // given
+        RecordingCallbackResponse callbackResponse = new RecordingCallbackResponse();
+        webSocketClientRegistry.sendClientMessage("some_client", request("some_path"), callbackResponse);
+
+        // when
+        embeddedChannel.close();
+        embeddedChannel.runPendingTasks();
+
+        // then
+        assertThat(callbackResponse.httpResponses, contains(notFoundResponse()));
+    }
+
+    private static class RecordingCallbackResponse implements ExpectationCallbackResponse {
+        private final List<HttpResponse> httpResponses = new ArrayList<HttpResponse>();
+
+        @Override
+        public void handle(HttpResponse httpResponse) {
+            httpResponses.add(httpResponse);
+        }
+    }
+}
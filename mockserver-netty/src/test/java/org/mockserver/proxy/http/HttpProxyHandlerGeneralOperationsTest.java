@@ -1,21 +1,33 @@
 package org.mockserver.proxy.http;
 
+import io.netty.handler.codec.http.HttpChunkedInput;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.handler.stream.ChunkedStream;
 import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.mockserver.model.HttpRequest;
 import org.mockserver.model.HttpResponse;
 import org.mockserver.verify.Verification;
 import org.mockserver.verify.VerificationSequence;
 
+import java.io.ByteArrayInputStream;
 import java.util.Arrays;
 import java.util.concurrent.TimeUnit;
 
+import static com.google.common.base.Charsets.UTF_8;
 import static io.netty.handler.codec.http.HttpResponseStatus.*;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.core.Is.is;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.*;
 import static org.mockserver.character.Character.NEW_LINE;
+import static org.mockserver.mock.HttpStateHandler.NEXT_CURSOR_HEADER;
 import static org.mockserver.model.HttpRequest.request;
 
 /**
@@ -81,18 +93,29 @@ public class HttpProxyHandlerGeneralOperationsTest extends HttpProxyHandlerTest
     public void shouldReturnRecordedRequestsOrExpectations() {
         // given
         HttpRequest request = request("/retrieve").withMethod("PUT").withBody("some_content");
-        when(httpStateHandler.retrieve(request)).thenReturn("requests");
+        when(httpStateHandler.retrieveChunked(eq(request), any(HttpHeaders.class))).thenAnswer(new Answer<HttpChunkedInput>() {
+            @Override
+            public HttpChunkedInput answer(InvocationOnMock invocation) {
+                ((HttpHeaders) invocation.getArguments()[1]).set(NEXT_CURSOR_HEADER, "2");
+                return new HttpChunkedInput(new ChunkedStream(new ByteArrayInputStream("requests".getBytes(UTF_8))));
+            }
+        });
 
         // when
         embeddedChannel.writeInbound(request);
 
         // then - http state handler is called
-        verify(httpStateHandler).retrieve(request);
-
-        // and - correct response written to ChannelHandlerContext
-        HttpResponse httpResponse = embeddedChannel.readOutbound();
-        assertThat(httpResponse.getStatusCode(), is(OK.code()));
-        assertThat(httpResponse.getBodyAsString(), is("requests"));
+        verify(httpStateHandler).retrieveChunked(eq(request), any(HttpHeaders.class));
+
+        // and - chunked response written to ChannelHandlerContext
+        io.netty.handler.codec.http.HttpResponse httpResponse = embeddedChannel.readOutbound();
+        assertThat(httpResponse.status(), is(OK));
+        assertThat(HttpUtil.isTransferEncodingChunked(httpResponse), is(true));
+        assertThat(httpResponse.headers().get(NEXT_CURSOR_HEADER), is("2"));
+        HttpContent httpContent = embeddedChannel.readOutbound();
+        assertThat(httpContent.content().toString(UTF_8), is("requests"));
+        httpContent.release();
+        assertThat(embeddedChannel.readOutbound(), instanceOf(LastHttpContent.class));
     }
 
     @Test
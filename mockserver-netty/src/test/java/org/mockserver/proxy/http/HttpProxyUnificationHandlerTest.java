@@ -5,7 +5,6 @@ import io.netty.buffer.ByteBufUtil;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.embedded.EmbeddedChannel;
 import io.netty.handler.codec.http.HttpContentDecompressor;
-import io.netty.handler.codec.http.HttpObjectAggregator;
 import io.netty.handler.codec.http.HttpServerCodec;
 import io.netty.handler.codec.socks.SocksInitRequestDecoder;
 import io.netty.handler.codec.socks.SocksMessageEncoder;
@@ -14,6 +13,7 @@ import org.apache.commons.codec.binary.Hex;
 import org.junit.Test;
 import org.mockserver.proxy.relay.RelayConnectHandler;
 import org.mockserver.proxy.socks.SocksProxyHandler;
+import org.mockserver.server.netty.codec.SpillingHttpObjectAggregator;
 import org.slf4j.Logger;
 
 import java.io.IOException;
@@ -101,7 +101,7 @@ public class HttpProxyUnificationHandlerTest {
         // and - no HTTP handlers
         assertThat(embeddedChannel.pipeline().get(HttpServerCodec.class), is(nullValue()));
         assertThat(embeddedChannel.pipeline().get(HttpContentDecompressor.class), is(nullValue()));
-        assertThat(embeddedChannel.pipeline().get(HttpObjectAggregator.class), is(nullValue()));
+        assertThat(embeddedChannel.pipeline().get(SpillingHttpObjectAggregator.class), is(nullValue()));
 
         // when - basic HTTP request
         embeddedChannel.writeInbound(Unpooled.wrappedBuffer("GET /somePath HTTP/1.1\r\nHost: some.random.host\r\n\r\n".getBytes(UTF_8)));
@@ -110,7 +110,7 @@ public class HttpProxyUnificationHandlerTest {
         assertThat(embeddedChannel.pipeline().names(), contains(
                 "HttpServerCodec#0",
                 "HttpContentDecompressor#0",
-                "HttpObjectAggregator#0",
+                "SpillingHttpObjectAggregator#0",
                 "MockServerServerCodec#0",
                 "HttpProxyHandler#0",
                 "DefaultChannelPipeline$TailContext#0"
@@ -3,6 +3,7 @@ package org.mockserver.proxy;
 import com.google.common.base.Strings;
 import com.google.common.net.MediaType;
 import org.mockserver.client.netty.NettyHttpClient;
+import org.mockserver.client.serialization.HttpRequestSerializer;
 import org.mockserver.client.serialization.PortBindingSerializer;
 import org.mockserver.client.serialization.VerificationSequenceSerializer;
 import org.mockserver.client.serialization.VerificationSerializer;
@@ -27,6 +28,7 @@ import org.slf4j.LoggerFactory;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.net.InetSocketAddress;
 
 import static com.google.common.net.MediaType.JSON_UTF_8;
@@ -49,7 +51,8 @@ public class ProxyServlet extends HttpServlet {
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
     private final LogFormatter logFormatter = new LogFormatter(logger);
     // mockserver
-    private RequestLogFilter requestLogFilter = new RequestLogFilter();
+    private RequestLogFilter requestLogFilter = new RequestLogFilter("proxyServlet");
+    private RequestResponseLogFilter requestResponseLogFilter = new RequestResponseLogFilter("proxyServlet");
     private Filters filters = new Filters();
     private NettyHttpClient httpClient = new NettyHttpClient();
     private HttpStateHandler httpStateHandler;
@@ -59,6 +62,7 @@ public class ProxyServlet extends HttpServlet {
     // serializers
     private HttpRequestToCurlSerializer httpRequestToCurlSerializer = new HttpRequestToCurlSerializer();
     private PortBindingSerializer portBindingSerializer = new PortBindingSerializer();
+    private HttpRequestSerializer httpRequestSerializer = new HttpRequestSerializer();
     private VerificationSerializer verificationSerializer = new VerificationSerializer();
     private VerificationSequenceSerializer verificationSequenceSerializer = new VerificationSequenceSerializer();
     // CORS
@@ -66,12 +70,22 @@ public class ProxyServlet extends HttpServlet {
 
     public ProxyServlet() {
         filters.withFilter(request(), requestLogFilter);
-        RequestResponseLogFilter requestResponseLogFilter = new RequestResponseLogFilter();
         filters.withFilter(request(), requestResponseLogFilter);
         filters.withFilter(request(), new HopByHopHeaderFilter());
         httpStateHandler = new HttpStateHandler(requestLogFilter, requestResponseLogFilter, null);
     }
 
+    @Override
+    public void destroy() {
+        // releases the journals' directory locks so a redeployed servlet journals to the same directory
+        try {
+            requestLogFilter.close();
+            requestResponseLogFilter.close();
+        } catch (IOException ioe) {
+            logger.warn("Exception while closing request logs", ioe);
+        }
+    }
+
     @Override
     public void service(HttpServletRequest httpServletRequest, HttpServletResponse httpServletResponse) {
 
@@ -110,14 +124,20 @@ public class ProxyServlet extends HttpServlet {
 
             } else if (request.matches("PUT", "/retrieve")) {
 
-                writeResponse(httpServletResponse, OK_200, httpStateHandler.retrieve(request),
+                HttpResponse response = response().withStatusCode(OK_200.code());
+                writeResponse(httpServletResponse, response, httpStateHandler.retrieve(request, response),
                         JSON_UTF_8.toString().replace(request.hasQueryStringParameter("format", "java") ? "json" : "", "java")
                 );
 
+            } else if (request.matches("PUT", "/registerVerification")) {
+
+                requestLogFilter.registerVerification(httpRequestSerializer.deserialize(request.getBodyAsString()));
+                writeResponse(httpServletResponse, CREATED_201);
+
             } else if (request.matches("PUT", "/verify")) {
 
                 Verification verification = verificationSerializer.deserialize(request.getBodyAsString());
-                String result = requestLogFilter.verify(verification);
+                String result = request.hasQueryStringParameter("requestLog", "true") ? requestLogFilter.verify(verification, true) : requestLogFilter.verify(verification);
                 verifyResponse(httpServletResponse, result);
                 logFormatter.infoLog("verifying requests that match:{}", verification);
 
@@ -166,9 +186,11 @@ public class ProxyServlet extends HttpServlet {
     }
 
     private void writeResponse(HttpServletResponse httpServletResponse, HttpStatusCode responseStatus, String body, String contentType) {
-        HttpResponse response = response()
-                .withStatusCode(responseStatus.code())
-                .withBody(body);
+        writeResponse(httpServletResponse, response().withStatusCode(responseStatus.code()), body, contentType);
+    }
+
+    private void writeResponse(HttpServletResponse httpServletResponse, HttpResponse response, String body, String contentType) {
+        response.withBody(body);
         if (body != null && !body.isEmpty()) {
             response.updateHeader(header(CONTENT_TYPE.toString(), contentType + "; charset=utf-8"));
         }
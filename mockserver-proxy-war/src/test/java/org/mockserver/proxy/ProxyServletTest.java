@@ -152,7 +152,7 @@ public class ProxyServletTest {
         proxyServlet.service(new MockHttpServletRequest(), new MockHttpServletResponse());
 
         // then - http state handler is called
-        verify(httpStateHandler).retrieve(request);
+        verify(httpStateHandler).retrieve(eq(request), any(HttpResponse.class));
     }
 
     @Test
@@ -3,6 +3,7 @@ package org.mockserver.server;
 import com.google.common.base.Strings;
 import com.google.common.net.MediaType;
 import org.mockserver.client.serialization.ExpectationSerializer;
+import org.mockserver.client.serialization.HttpRequestSerializer;
 import org.mockserver.client.serialization.PortBindingSerializer;
 import org.mockserver.client.serialization.VerificationSequenceSerializer;
 import org.mockserver.client.serialization.VerificationSerializer;
@@ -27,7 +28,10 @@ import org.slf4j.LoggerFactory;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
 
 import static com.google.common.base.Charsets.UTF_8;
 import static com.google.common.net.MediaType.JSON_UTF_8;
@@ -52,7 +56,7 @@ public class MockServerServlet extends HttpServlet {
     private final LogFormatter logFormatter = new LogFormatter(logger);
     // mockserver
     private MockServerMatcher mockServerMatcher = new MockServerMatcher();
-    private RequestLogFilter requestLogFilter = new RequestLogFilter();
+    private RequestLogFilter requestLogFilter = new RequestLogFilter("mockServerServlet");
     private ActionHandler actionHandler = new ActionHandler(requestLogFilter);
     private HttpStateHandler httpStateHandler;
     // mappers
@@ -61,6 +65,7 @@ public class MockServerServlet extends HttpServlet {
     // serializers
     private ExpectationSerializer expectationSerializer = new ExpectationSerializer();
     private PortBindingSerializer portBindingSerializer = new PortBindingSerializer();
+    private HttpRequestSerializer httpRequestSerializer = new HttpRequestSerializer();
     private VerificationSerializer verificationSerializer = new VerificationSerializer();
     private VerificationSequenceSerializer verificationSequenceSerializer = new VerificationSequenceSerializer();
     // CORS
@@ -70,6 +75,16 @@ public class MockServerServlet extends HttpServlet {
         httpStateHandler = new HttpStateHandler(requestLogFilter, null, mockServerMatcher);
     }
 
+    @Override
+    public void destroy() {
+        // releases the journal's directory lock so a redeployed servlet journals to the same directory
+        try {
+            requestLogFilter.close();
+        } catch (IOException ioe) {
+            logger.warn("Exception while closing request log", ioe);
+        }
+    }
+
     @Override
     public void service(HttpServletRequest httpServletRequest, HttpServletResponse httpServletResponse) {
 
@@ -97,19 +112,18 @@ public class MockServerServlet extends HttpServlet {
 
             } else if (request.matches("PUT", "/expectation")) {
 
+                List<Expectation> expectations = new ArrayList<Expectation>();
                 for (Expectation expectation : expectationSerializer.deserializeArray(request.getBodyAsString())) {
                     Action action = expectation.getAction();
                     if (validateSupportedFeatures(action, httpServletResponse)) {
                         KeyAndCertificateFactory.addSubjectAlternativeName(expectation.getHttpRequest().getFirstHeader(HOST.toString()));
-                        mockServerMatcher
-                                .when(expectation.getHttpRequest(), expectation.getTimes(), expectation.getTimeToLive())
-                                .thenRespond(expectation.getHttpResponse())
-                                .thenRespond(expectation.getHttpResponseTemplate())
-                                .thenForward(expectation.getHttpForward())
-                                .thenCallback(expectation.getHttpClassCallback());
-                        logFormatter.infoLog("creating expectation:{}", expectation);
+                        expectations.add(expectation);
                     }
                 }
+                mockServerMatcher.add(expectations);
+                for (Expectation expectation : expectations) {
+                    logFormatter.infoLog("creating expectation:{}", expectation);
+                }
                 writeResponse(httpServletResponse, CREATED_201);
 
             } else if (request.matches("PUT", "/clear")) {
@@ -129,14 +143,20 @@ public class MockServerServlet extends HttpServlet {
 
             } else if (request.matches("PUT", "/retrieve")) {
 
-                writeResponse(httpServletResponse, OK_200, httpStateHandler.retrieve(request),
+                HttpResponse response = response().withStatusCode(OK_200.code());
+                writeResponse(httpServletResponse, response, httpStateHandler.retrieve(request, response),
                         JSON_UTF_8.toString().replace(request.hasQueryStringParameter("format", "java") ? "json" : "", "java")
                 );
 
+            } else if (request.matches("PUT", "/registerVerification")) {
+
+                requestLogFilter.registerVerification(httpRequestSerializer.deserialize(request.getBodyAsString()));
+                writeResponse(httpServletResponse, CREATED_201);
+
             } else if (request.matches("PUT", "/verify")) {
 
                 Verification verification = verificationSerializer.deserialize(request.getBodyAsString());
-                String result = requestLogFilter.verify(verification);
+                String result = request.hasQueryStringParameter("requestLog", "true") ? requestLogFilter.verify(verification, true) : requestLogFilter.verify(verification);
                 verifyResponse(httpServletResponse, result);
                 logFormatter.infoLog("verifying requests that match:{}", verification);
 
@@ -184,9 +204,11 @@ public class MockServerServlet extends HttpServlet {
     }
 
     private void writeResponse(HttpServletResponse httpServletResponse, HttpStatusCode responseStatus, String body, String contentType) {
-        HttpResponse response = response()
-                .withStatusCode(responseStatus.code())
-                .withBody(body);
+        writeResponse(httpServletResponse, response().withStatusCode(responseStatus.code()), body, contentType);
+    }
+
+    private void writeResponse(HttpServletResponse httpServletResponse, HttpResponse response, String body, String contentType) {
+        response.withBody(body);
         if (body != null && !body.isEmpty()) {
             response.updateHeader(header(CONTENT_TYPE.toString(), contentType + "; charset=utf-8"));
         }
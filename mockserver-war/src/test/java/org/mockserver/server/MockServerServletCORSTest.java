@@ -4,6 +4,7 @@ import org.junit.Test;
 import org.mockserver.configuration.ConfigurationProperties;
 import org.mockserver.mock.Expectation;
 import org.mockserver.model.HttpRequest;
+import org.mockserver.model.HttpResponse;
 import org.mockserver.verify.Verification;
 import org.mockserver.verify.VerificationSequence;
 import org.springframework.mock.web.MockHttpServletRequest;
@@ -303,7 +304,7 @@ public class MockServerServletCORSTest extends MockServerServletTest {
         mockServerServlet.service(new MockHttpServletRequest(), httpServletResponse);
 
         // then - http state handler is called
-        verify(httpStateHandler).retrieve(request);
+        verify(httpStateHandler).retrieve(eq(request), any(HttpResponse.class));
 
         // then - correct CORS headers added
         assertThat(httpServletResponse.getHeader("Access-Control-Allow-Origin"), is("*"));
@@ -15,6 +15,7 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.util.Arrays;
 
 import static com.google.common.base.Charsets.UTF_8;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -95,7 +96,7 @@ public class MockServerServletGeneralOperationsTest extends MockServerServletTes
         mockServerServlet.service(new MockHttpServletRequest(), new MockHttpServletResponse());
 
         // then - http state handler is called
-        verify(httpStateHandler).retrieve(request);
+        verify(httpStateHandler).retrieve(eq(request), any(HttpResponse.class));
     }
 
     @Test
@@ -212,13 +213,12 @@ public class MockServerServletGeneralOperationsTest extends MockServerServletTes
                                 .withBody("requestBytes")
                 );
         when(mockExpectationSerializer.deserializeArray("requestBytes")).thenReturn(new Expectation[]{expectation});
-        when(mockMockServerMatcher.when(same(httpRequest), same(times), same(timeToLive))).thenReturn(expectation);
 
         // when
         mockServerServlet.service(new MockHttpServletRequest(), httpServletResponse);
 
         // then
-        verify(mockMockServerMatcher).when(same(httpRequest), same(times), same(timeToLive));
+        verify(mockMockServerMatcher).add(Arrays.asList(expectation));
         assertEquals(CREATED_201.code(), httpServletResponse.getStatus());
     }
 